@@ -74,6 +74,18 @@ public class TrackingConcurrentMergeScheduler extends ConcurrentMergeScheduler {
         return currentMergesSizeInBytes.count();
     }
 
+    /**
+     * Called before a merge is executed, once it is counted in the current merges.
+     */
+    protected void beforeMerge(MergePolicy.OneMerge merge) {
+    }
+
+    /**
+     * Called after a merge is done, once it is no longer counted in the current merges.
+     */
+    protected void afterMerge(MergePolicy.OneMerge merge) {
+    }
+
     @Override
     protected void doMerge(MergePolicy.OneMerge merge) throws IOException {
         int totalNumDocs = merge.totalNumDocs();
@@ -85,6 +97,7 @@ public class TrackingConcurrentMergeScheduler extends ConcurrentMergeScheduler {
         if (logger.isTraceEnabled()) {
             logger.trace("merge [{}] starting...", merge.info.name);
         }
+        beforeMerge(merge);
         try {
             TrackingMergeScheduler.setCurrentMerge(merge);
             super.doMerge(merge);
@@ -99,6 +112,7 @@ public class TrackingConcurrentMergeScheduler extends ConcurrentMergeScheduler {
             totalMergesNumDocs.inc(totalNumDocs);
             totalMergesSizeInBytes.inc(totalSizeInBytes);
             totalMerges.inc(took);
+            afterMerge(merge);
             if (took > 20000) { // if more than 20 seconds, DEBUG log it
                 logger.debug("merge [{}] done, took [{}]", merge.info.name, TimeValue.timeValueMillis(took));
             } else if (logger.isTraceEnabled()) {
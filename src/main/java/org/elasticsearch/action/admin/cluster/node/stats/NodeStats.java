@@ -31,6 +31,7 @@ import org.elasticsearch.monitor.jvm.JvmStats;
 import org.elasticsearch.monitor.network.NetworkStats;
 import org.elasticsearch.monitor.os.OsStats;
 import org.elasticsearch.monitor.process.ProcessStats;
+import org.elasticsearch.script.ScriptStats;
 import org.elasticsearch.threadpool.ThreadPoolStats;
 import org.elasticsearch.transport.TransportStats;
 
@@ -71,12 +72,15 @@ public class NodeStats extends NodeOperationResponse {
     @Nullable
     private HttpStats http;
 
+    @Nullable
+    private ScriptStats script;
+
     NodeStats() {
     }
 
     public NodeStats(DiscoveryNode node, @Nullable String hostname, @Nullable NodeIndicesStats indices,
                      @Nullable OsStats os, @Nullable ProcessStats process, @Nullable JvmStats jvm, @Nullable ThreadPoolStats threadPool, @Nullable NetworkStats network,
-                     @Nullable FsStats fs, @Nullable TransportStats transport, @Nullable HttpStats http) {
+                     @Nullable FsStats fs, @Nullable TransportStats transport, @Nullable HttpStats http, @Nullable ScriptStats script) {
         super(node);
         this.hostname = hostname;
         this.indices = indices;
@@ -88,6 +92,7 @@ public class NodeStats extends NodeOperationResponse {
         this.fs = fs;
         this.transport = transport;
         this.http = http;
+        this.script = script;
     }
 
     @Nullable
@@ -232,6 +237,22 @@ public class NodeStats extends NodeOperationResponse {
         return http();
     }
 
+    /**
+     * Dynamic scripts compilation and cache level stats.
+     */
+    @Nullable
+    public ScriptStats script() {
+        return this.script;
+    }
+
+    /**
+     * Dynamic scripts compilation and cache level stats.
+     */
+    @Nullable
+    public ScriptStats getScript() {
+        return script();
+    }
+
     public static NodeStats readNodeStats(StreamInput in) throws IOException {
         NodeStats nodeInfo = new NodeStats();
         nodeInfo.readFrom(in);
@@ -271,6 +292,9 @@ public class NodeStats extends NodeOperationResponse {
         if (in.readBoolean()) {
             http = HttpStats.readHttpStats(in);
         }
+        if (in.readBoolean()) {
+            script = ScriptStats.readScriptStats(in);
+        }
     }
 
     @Override
@@ -336,5 +360,11 @@ public class NodeStats extends NodeOperationResponse {
             out.writeBoolean(true);
             http.writeTo(out);
         }
+        if (script == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            script.writeTo(out);
+        }
     }
 }
\ No newline at end of file
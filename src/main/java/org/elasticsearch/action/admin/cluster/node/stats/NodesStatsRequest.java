@@ -39,6 +39,7 @@ public class NodesStatsRequest extends NodesOperationRequest {
     private boolean fs;
     private boolean transport;
     private boolean http;
+    private boolean script;
 
     protected NodesStatsRequest() {
     }
@@ -64,6 +65,7 @@ public class NodesStatsRequest extends NodesOperationRequest {
         this.fs = true;
         this.transport = true;
         this.http = true;
+        this.script = true;
         return this;
     }
 
@@ -80,6 +82,7 @@ public class NodesStatsRequest extends NodesOperationRequest {
         this.fs = false;
         this.transport = false;
         this.http = false;
+        this.script = false;
         return this;
     }
 
@@ -218,6 +221,21 @@ public class NodesStatsRequest extends NodesOperationRequest {
         return this;
     }
 
+    /**
+     * Should the node script compilation and cache stats be returned.
+     */
+    public boolean script() {
+        return this.script;
+    }
+
+    /**
+     * Should the node script compilation and cache stats be returned.
+     */
+    public NodesStatsRequest script(boolean script) {
+        this.script = script;
+        return this;
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
@@ -230,6 +248,7 @@ public class NodesStatsRequest extends NodesOperationRequest {
         fs = in.readBoolean();
         transport = in.readBoolean();
         http = in.readBoolean();
+        script = in.readBoolean();
     }
 
     @Override
@@ -244,6 +263,7 @@ public class NodesStatsRequest extends NodesOperationRequest {
         out.writeBoolean(fs);
         out.writeBoolean(transport);
         out.writeBoolean(http);
+        out.writeBoolean(script);
     }
 
 }
\ No newline at end of file
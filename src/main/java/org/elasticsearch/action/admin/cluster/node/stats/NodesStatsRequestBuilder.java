@@ -125,6 +125,14 @@ public class NodesStatsRequestBuilder extends BaseClusterRequestBuilder<NodesSta
         return this;
     }
 
+    /**
+     * Should the node script compilation and cache stats be returned.
+     */
+    public NodesStatsRequestBuilder setScript(boolean script) {
+        request.script(script);
+        return this;
+    }
+
     @Override
     protected void doExecute(ActionListener<NodesStatsResponse> listener) {
         client.nodesStats(request, listener);
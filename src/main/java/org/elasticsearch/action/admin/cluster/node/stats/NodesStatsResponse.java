@@ -110,6 +110,9 @@ public class NodesStatsResponse extends NodesOperationResponse<NodeStats> implem
             if (nodeStats.http() != null) {
                 nodeStats.http().toXContent(builder, params);
             }
+            if (nodeStats.script() != null) {
+                nodeStats.script().toXContent(builder, params);
+            }
 
             builder.endObject();
         }
@@ -19,8 +19,10 @@
 
 package org.elasticsearch.action.mlt;
 
+import org.apache.lucene.document.Field;
 import org.apache.lucene.document.Fieldable;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermFreqVector;
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.get.GetRequest;
@@ -32,23 +34,33 @@ import org.elasticsearch.action.search.TransportSearchAction;
 import org.elasticsearch.action.support.TransportAction;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.lucene.uid.UidField;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.get.GetField;
 import org.elasticsearch.index.mapper.*;
 import org.elasticsearch.index.mapper.internal.SourceFieldMapper;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.MoreLikeThisFieldQueryBuilder;
+import org.elasticsearch.index.service.IndexService;
+import org.elasticsearch.index.shard.IndexShardState;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.shard.service.IndexShard;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.BaseTransportRequestHandler;
 import org.elasticsearch.transport.TransportChannel;
 import org.elasticsearch.transport.TransportService;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 
+import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Sets.newHashSet;
 import static org.elasticsearch.client.Requests.getRequest;
 import static org.elasticsearch.client.Requests.searchRequest;
@@ -110,8 +122,10 @@ public class TransportMoreLikeThisAction extends TransportAction<MoreLikeThisReq
                     return;
                 }
                 final BoolQueryBuilder boolBuilder = boolQuery();
+                LocalTermVectors termVectors = null;
                 try {
                     DocumentMapper docMapper = indicesService.indexServiceSafe(concreteIndex).mapperService().documentMapper(request.type());
+                    termVectors = LocalTermVectors.open(clusterService, indicesService, concreteIndex, docMapper, request, getResponse.version());
                     final Set<String> fields = newHashSet();
                     if (request.fields() != null) {
                         for (String field : request.fields()) {
@@ -130,19 +144,21 @@ public class TransportMoreLikeThisAction extends TransportAction<MoreLikeThisReq
                             String field = it.next();
                             GetField getField = getResponse.field(field);
                             if (getField != null) {
-                                for (Object value : getField.values()) {
-                                    addMoreLikeThis(request, boolBuilder, getField.name(), value.toString());
+                                if (!addMoreLikeThisTermVector(request, boolBuilder, termVectors, docMapper.mappers().smartNameFieldMapper(field), getField.name())) {
+                                    for (Object value : getField.values()) {
+                                        addMoreLikeThis(request, boolBuilder, getField.name(), value.toString());
+                                    }
                                 }
                                 it.remove();
                             }
                         }
                         if (!fields.isEmpty()) {
                             // if we don't get all the fields in the get response, see if we can parse the source
-                            parseSource(getResponse, boolBuilder, docMapper, fields, request);
+                            parseSource(getResponse, boolBuilder, docMapper, fields, request, termVectors);
                         }
                     } else {
                         // we did not ask for any fields, try and get it from the source
-                        parseSource(getResponse, boolBuilder, docMapper, fields, request);
+                        parseSource(getResponse, boolBuilder, docMapper, fields, request, termVectors);
                     }
 
                     if (!boolBuilder.hasClauses()) {
@@ -157,6 +173,10 @@ public class TransportMoreLikeThisAction extends TransportAction<MoreLikeThisReq
                 } catch (Exception e) {
                     listener.onFailure(e);
                     return;
+                } finally {
+                    if (termVectors != null) {
+                        termVectors.release();
+                    }
                 }
 
                 String[] searchIndices = request.searchIndices();
@@ -204,10 +224,13 @@ public class TransportMoreLikeThisAction extends TransportAction<MoreLikeThisReq
         });
     }
 
-    private void parseSource(GetResponse getResponse, final BoolQueryBuilder boolBuilder, DocumentMapper docMapper, final Set<String> fields, final MoreLikeThisRequest request) {
+    private void parseSource(GetResponse getResponse, final BoolQueryBuilder boolBuilder, DocumentMapper docMapper, final Set<String> fields, final MoreLikeThisRequest request,
+                             final LocalTermVectors termVectors) {
         if (getResponse.source() == null) {
             return;
         }
+        // fields (possibly multi valued) already added using their term vector
+        final Set<String> termVectorFields = newHashSet();
         docMapper.parse(SourceToParse.source(getResponse.sourceRef().bytes(), getResponse.sourceRef().offset(), getResponse.sourceRef().length()).type(request.type()).id(request.id()), new DocumentMapper.ParseListenerAdapter() {
             @Override
             public boolean beforeFieldAdded(FieldMapper fieldMapper, Fieldable field, Object parseContext) {
@@ -220,6 +243,13 @@ public class TransportMoreLikeThisAction extends TransportAction<MoreLikeThisReq
                 }
 
                 if (fields.isEmpty() || fields.contains(field.name())) {
+                    if (termVectorFields.contains(field.name())) {
+                        return false;
+                    }
+                    if (addMoreLikeThisTermVector(request, boolBuilder, termVectors, fieldMapper, field.name())) {
+                        termVectorFields.add(field.name());
+                        return false;
+                    }
                     addMoreLikeThis(request, boolBuilder, fieldMapper, field);
                 }
 
@@ -228,14 +258,43 @@ public class TransportMoreLikeThisAction extends TransportAction<MoreLikeThisReq
         });
     }
 
+    /**
+     * Adds a more like this clause built from the term vector of the field, when the field stores term vectors
+     * and the liked doc can be read locally. Returns <tt>false</tt> if the like text should be used instead.
+     */
+    private boolean addMoreLikeThisTermVector(MoreLikeThisRequest request, BoolQueryBuilder boolBuilder, @Nullable LocalTermVectors termVectors,
+                                              @Nullable FieldMapper fieldMapper, String fieldName) {
+        if (termVectors == null || fieldMapper == null || fieldMapper.termVector() == Field.TermVector.NO) {
+            return false;
+        }
+        Map<String, Integer> likeTerms;
+        try {
+            likeTerms = termVectors.termFreqs(fieldName);
+        } catch (IOException e) {
+            logger.debug("failed to read term vector of [{}], using the field value", e, fieldName);
+            return false;
+        }
+        if (likeTerms == null || likeTerms.isEmpty()) {
+            return false;
+        }
+        MoreLikeThisFieldQueryBuilder mlt = moreLikeThisFieldQuery(fieldName).likeTerms(likeTerms);
+        configure(request, mlt);
+        boolBuilder.should(mlt);
+        return true;
+    }
+
     private void addMoreLikeThis(MoreLikeThisRequest request, BoolQueryBuilder boolBuilder, FieldMapper fieldMapper, Fieldable field) {
         addMoreLikeThis(request, boolBuilder, field.name(), fieldMapper.valueAsString(field));
     }
 
     private void addMoreLikeThis(MoreLikeThisRequest request, BoolQueryBuilder boolBuilder, String fieldName, String likeText) {
-        MoreLikeThisFieldQueryBuilder mlt = moreLikeThisFieldQuery(fieldName)
-                .likeText(likeText)
-                .percentTermsToMatch(request.percentTermsToMatch())
+        MoreLikeThisFieldQueryBuilder mlt = moreLikeThisFieldQuery(fieldName).likeText(likeText);
+        configure(request, mlt);
+        boolBuilder.should(mlt);
+    }
+
+    private void configure(MoreLikeThisRequest request, MoreLikeThisFieldQueryBuilder mlt) {
+        mlt.percentTermsToMatch(request.percentTermsToMatch())
                 .boostTerms(request.boostTerms())
                 .minDocFreq(request.minDocFreq())
                 .maxDocFreq(request.maxDocFreq())
@@ -244,7 +303,70 @@ public class TransportMoreLikeThisAction extends TransportAction<MoreLikeThisReq
                 .minTermFreq(request.minTermFreq())
                 .maxQueryTerms(request.maxQueryTerms())
                 .stopWords(request.stopWords());
-        boolBuilder.should(mlt);
+    }
+
+    /**
+     * Reads term vectors of the liked doc directly from its shard, when the shard is allocated on this node and
+     * the doc visible to its searcher is the same version as the one returned by the (realtime) get.
+     */
+    static class LocalTermVectors {
+
+        @Nullable
+        static LocalTermVectors open(ClusterService clusterService, IndicesService indicesService, String index, DocumentMapper docMapper,
+                                     MoreLikeThisRequest request, long version) throws IOException {
+            IndexService indexService = indicesService.indexService(index);
+            if (indexService == null) {
+                return null;
+            }
+            ShardId shardId = clusterService.operationRouting().getShards(clusterService.state(), index, request.type(), request.id(), null, null).shardId();
+            IndexShard indexShard = indexService.shard(shardId.id());
+            if (indexShard == null || indexShard.state() != IndexShardState.STARTED) {
+                return null;
+            }
+            Engine.Searcher searcher = indexShard.searcher();
+            boolean success = false;
+            try {
+                Term uidTerm = docMapper.uidMapper().term(request.type(), request.id());
+                UidField.DocIdAndVersion docIdAndVersion = UidField.loadDocIdAndVersion(searcher.reader(), uidTerm);
+                if (docIdAndVersion == null || docIdAndVersion.version != version) {
+                    // not refreshed yet (or deleted, or changed since), use the get response
+                    return null;
+                }
+                success = true;
+                return new LocalTermVectors(searcher, docIdAndVersion.docId);
+            } finally {
+                if (!success) {
+                    searcher.release();
+                }
+            }
+        }
+
+        private final Engine.Searcher searcher;
+        private final int docId;
+
+        LocalTermVectors(Engine.Searcher searcher, int docId) {
+            this.searcher = searcher;
+            this.docId = docId;
+        }
+
+        @Nullable
+        Map<String, Integer> termFreqs(String field) throws IOException {
+            TermFreqVector termFreqVector = searcher.reader().getTermFreqVector(docId, field);
+            if (termFreqVector == null) {
+                return null;
+            }
+            String[] terms = termFreqVector.getTerms();
+            int[] freqs = termFreqVector.getTermFrequencies();
+            Map<String, Integer> termFreqs = newHashMap();
+            for (int i = 0; i < terms.length; i++) {
+                termFreqs.put(terms[i], freqs[i]);
+            }
+            return termFreqs;
+        }
+
+        void release() {
+            searcher.release();
+        }
     }
 
     private class TransportHandler extends BaseTransportRequestHandler<MoreLikeThisRequest> {
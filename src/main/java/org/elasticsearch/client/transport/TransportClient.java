@@ -49,6 +49,7 @@ import org.elasticsearch.cluster.ClusterNameModule;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.CacheRecycler;
 import org.elasticsearch.common.collect.Tuple;
+import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.inject.Injector;
 import org.elasticsearch.common.inject.ModulesBuilder;
 import org.elasticsearch.common.io.CachedStreams;
@@ -147,6 +148,8 @@ public class TransportClient extends AbstractClient {
                 .build();
         this.environment = tuple.v2();
 
+        CompressorFactory.configure(settings);
+
         ModulesBuilder modules = new ModulesBuilder();
         modules.add(new EnvironmentModule(environment));
         modules.add(new SettingsModule(settings));
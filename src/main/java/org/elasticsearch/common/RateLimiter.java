@@ -52,13 +52,16 @@ public class RateLimiter {
      * is harmless (just means in some rare cases the rate
      * might exceed the target).  It's best to call this
      * with a biggish count, not one byte at a time.
+     *
+     * @return the time paused, in nanoseconds
      */
-    public void pause(long bytes) {
+    public long pause(long bytes) {
 
         // TODO: this is purely instantenous rate; maybe we
         // should also offer decayed recent history one?
         final long targetNS = lastNS = lastNS + ((long) (bytes * nsPerByte));
         long curNS = System.nanoTime();
+        final long startNS = curNS;
         if (lastNS < curNS) {
             lastNS = curNS;
         }
@@ -78,5 +81,6 @@ public class RateLimiter {
             }
             break;
         }
+        return curNS - startNS;
     }
 }
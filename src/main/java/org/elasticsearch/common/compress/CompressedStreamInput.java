@@ -0,0 +1,169 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * A stream reading compressed data a chunk at a time, the chunk format being up to the compressor.
+ */
+public abstract class CompressedStreamInput extends StreamInput {
+
+    protected StreamInput in;
+
+    private final boolean cached;
+
+    private boolean closed;
+
+    /**
+     * The buffer the current chunk is uncompressed into, allocated by the implementation.
+     */
+    protected byte[] uncompressed;
+
+    private int position = 0;
+
+    private int valid = 0;
+
+    protected CompressedStreamInput(StreamInput in, boolean cached) {
+        this.in = in;
+        this.cached = cached;
+    }
+
+    /**
+     * Reads and uncompresses the next chunk from the stream into the buffer.
+     *
+     * @return the number of uncompressed bytes, or <tt>-1</tt> if the end of the stream was reached
+     */
+    protected abstract int uncompress(StreamInput in, byte[] out) throws IOException;
+
+    /**
+     * Releases the buffers used by the implementation.
+     */
+    protected abstract void doClose() throws IOException;
+
+    public void reset(StreamInput in) throws IOException {
+        this.in = in;
+        this.position = 0;
+        this.valid = 0;
+    }
+
+    /**
+     * Expert!, resets to buffer start, without the need to decompress it again.
+     */
+    public void resetToBufferStart() {
+        this.position = 0;
+    }
+
+    /**
+     * Method is overridden to report number of bytes that can now be read
+     * from decoded data buffer, without reading bytes from the underlying
+     * stream.
+     */
+    @Override
+    public int available() throws IOException {
+        if (closed) {
+            return -1;
+        }
+        return valid - position;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!readyBuffer()) {
+            return -1;
+        }
+        return uncompressed[position++] & 255;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length < 1) {
+            return 0;
+        }
+        if (!readyBuffer()) {
+            return -1;
+        }
+        // always do full reads, since we need to throw EOF when doing readBytes
+        int totalRead = 0;
+        do {
+            int chunkLength = Math.min(valid - position, length - totalRead);
+            System.arraycopy(uncompressed, position, buffer, offset + totalRead, chunkLength);
+            position += chunkLength;
+            totalRead += chunkLength;
+        } while (totalRead < length && readyBuffer());
+        return totalRead;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        if (!readyBuffer()) {
+            throw new EOFException();
+        }
+        return uncompressed[position++];
+    }
+
+    @Override
+    public void readBytes(byte[] b, int offset, int len) throws IOException {
+        int result = read(b, offset, len);
+        if (result < len) {
+            throw new EOFException();
+        }
+    }
+
+    @Override
+    public void reset() throws IOException {
+        this.position = 0;
+        this.valid = 0;
+        in.reset();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (cached) {
+            reset();
+            return;
+        }
+        position = valid = 0;
+        doClose();
+        if (!closed) {
+            closed = true;
+            in.close();
+        }
+    }
+
+    private boolean readyBuffer() throws IOException {
+        if (position < valid) {
+            return true;
+        }
+        if (closed) {
+            return false;
+        }
+        valid = uncompress(in, uncompressed);
+        position = 0;
+        if (valid < 0) {
+            valid = 0;
+            return false;
+        }
+        return valid > 0;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress;
+
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+
+/**
+ * A stream buffering written data and compressing it a chunk at a time, the chunk format being up to
+ * the compressor.
+ */
+public abstract class CompressedStreamOutput extends StreamOutput {
+
+    protected StreamOutput out;
+
+    private final boolean cached;
+
+    /**
+     * The buffer holding the current (uncompressed) chunk, allocated by the implementation. Its length
+     * is the maximum chunk size.
+     */
+    protected byte[] uncompressed;
+
+    private int position = 0;
+
+    protected CompressedStreamOutput(StreamOutput out, boolean cached) {
+        this.out = out;
+        this.cached = cached;
+    }
+
+    /**
+     * Compresses a single chunk of at most the length of the buffer into the underlying stream.
+     */
+    protected abstract void compress(byte[] data, int offset, int len, StreamOutput out) throws IOException;
+
+    /**
+     * Releases the buffers used by the implementation.
+     */
+    protected abstract void doClose() throws IOException;
+
+    @Override
+    public void write(int b) throws IOException {
+        writeByte((byte) b);
+    }
+
+    @Override
+    public void writeByte(byte b) throws IOException {
+        if (position >= uncompressed.length) {
+            flushBuffer();
+        }
+        uncompressed[position++] = b;
+    }
+
+    @Override
+    public void writeBytes(byte[] input, int offset, int length) throws IOException {
+        if (length == 0) {
+            return;
+        }
+        final int bufferLength = uncompressed.length;
+
+        // simple case first: buffering only (for trivially short writes)
+        int free = bufferLength - position;
+        if (free >= length) {
+            System.arraycopy(input, offset, uncompressed, position, length);
+            position += length;
+            return;
+        }
+        // otherwise, copy whatever we can, flush
+        System.arraycopy(input, offset, uncompressed, position, free);
+        offset += free;
+        length -= free;
+        position += free;
+        flushBuffer();
+
+        // then write intermediate full block, if any, without copying:
+        while (length >= bufferLength) {
+            compress(input, offset, bufferLength, out);
+            offset += bufferLength;
+            length -= bufferLength;
+        }
+
+        // and finally, copy leftovers in buffer, if any
+        if (length > 0) {
+            System.arraycopy(input, offset, uncompressed, 0, length);
+        }
+        position = length;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushBuffer();
+        if (cached) {
+            // just reset here the stream (not the underlying stream, since we might want to read from it)
+            return;
+        }
+        out.flush();
+        doClose();
+        out.close();
+    }
+
+    @Override
+    public void reset() throws IOException {
+        position = 0;
+        out.reset();
+    }
+
+    public void reset(StreamOutput out) throws IOException {
+        this.out = out;
+        reset();
+    }
+
+    public StreamOutput wrappedOut() {
+        return this.out;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            int length = position;
+            position = 0;
+            compress(uncompressed, 0, length, out);
+        }
+    }
+}
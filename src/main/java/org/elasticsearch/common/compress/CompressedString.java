@@ -21,8 +21,6 @@ package org.elasticsearch.common.compress;
 
 import org.apache.lucene.util.UnicodeUtil;
 import org.elasticsearch.common.Unicode;
-import org.elasticsearch.common.compress.lzf.LZF;
-import org.elasticsearch.common.compress.lzf.LZFDecoder;
 import org.elasticsearch.common.compress.lzf.LZFEncoder;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -58,7 +56,7 @@ public class CompressedString implements Streamable {
      * @throws IOException
      */
     public CompressedString(byte[] data, int offset, int length) throws IOException {
-        if (LZF.isCompressed(data, offset, length)) {
+        if (CompressorFactory.isCompressed(data, offset, length)) {
             this.bytes = Arrays.copyOfRange(data, offset, offset + length);
         } else {
             this.bytes = LZFEncoder.encode(data, offset, length);
@@ -75,11 +73,11 @@ public class CompressedString implements Streamable {
     }
 
     public byte[] uncompressed() throws IOException {
-        return LZFDecoder.decode(bytes);
+        return CompressorFactory.compressor(bytes).uncompress(bytes, 0, bytes.length);
     }
 
     public String string() throws IOException {
-        return Unicode.fromBytes(LZFDecoder.decode(bytes));
+        return Unicode.fromBytes(uncompressed());
     }
 
     public static CompressedString readCompressedString(StreamInput in) throws IOException {
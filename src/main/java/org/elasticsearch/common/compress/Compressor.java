@@ -0,0 +1,60 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+
+/**
+ * A compression codec. Compressed data always starts with a header identifying the compressor, so
+ * data can be uncompressed without knowing upfront how it was compressed, see
+ * {@link CompressorFactory#compressor(byte[], int, int)}.
+ * <p/>
+ * Compressed data is a sequence of independent chunks, each starting with the header, which means the
+ * block ({@link #compress(byte[], int, int)}) and stream ({@link #streamOutput(StreamOutput, boolean)})
+ * variants produce data that can be read by each other.
+ */
+public interface Compressor {
+
+    /**
+     * The name of the compressor, as used in settings and mappings.
+     */
+    String type();
+
+    boolean isCompressed(byte[] data, int offset, int length);
+
+    byte[] compress(byte[] data, int offset, int length) throws IOException;
+
+    byte[] uncompress(byte[] data, int offset, int length) throws IOException;
+
+    /**
+     * A stream uncompressing the data read from <tt>in</tt>. A cached stream is meant to be reused
+     * (by resetting it) and does not close the underlying stream when closed.
+     */
+    CompressedStreamInput streamInput(StreamInput in, boolean cached) throws IOException;
+
+    /**
+     * A stream compressing the data written to it into <tt>out</tt>. A cached stream is meant to be
+     * reused (by resetting it) and does not close the underlying stream when closed.
+     */
+    CompressedStreamOutput streamOutput(StreamOutput out, boolean cached) throws IOException;
+}
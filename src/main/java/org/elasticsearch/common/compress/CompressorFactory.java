@@ -0,0 +1,122 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress;
+
+import com.google.common.collect.ImmutableMap;
+import org.elasticsearch.ElasticSearchIllegalArgumentException;
+import org.elasticsearch.common.BytesHolder;
+import org.elasticsearch.common.collect.MapBuilder;
+import org.elasticsearch.common.compress.deflate.DeflateCompressor;
+import org.elasticsearch.common.compress.lz4.LZ4Compressor;
+import org.elasticsearch.common.compress.lzf.LZFCompressor;
+import org.elasticsearch.common.settings.Settings;
+
+import java.io.IOException;
+
+/**
+ * The registry of the available {@link Compressor}s, detecting how data was compressed by its header.
+ * <p/>
+ * The compressor used by default (for example for transport and cluster state compression) is set
+ * with the <tt>compress.default.type</tt> setting, and defaults to <tt>lzf</tt>.
+ */
+public class CompressorFactory {
+
+    private static final LZFCompressor LZF = new LZFCompressor();
+
+    private static final Compressor[] compressors;
+
+    private static final ImmutableMap<String, Compressor> compressorsByType;
+
+    private static volatile Compressor defaultCompressor;
+
+    static {
+        compressors = new Compressor[]{LZF, new LZ4Compressor(), new DeflateCompressor()};
+        MapBuilder<String, Compressor> builder = MapBuilder.newMapBuilder();
+        for (Compressor compressor : compressors) {
+            builder.put(compressor.type(), compressor);
+        }
+        compressorsByType = builder.immutableMap();
+        defaultCompressor = LZF;
+    }
+
+    public static void configure(Settings settings) {
+        String type = settings.get("compress.default.type");
+        if (type != null) {
+            Compressor compressor = compressor(type);
+            if (compressor == null) {
+                throw new ElasticSearchIllegalArgumentException("No compressor found for [" + type + "], should be one of " + compressorsByType.keySet());
+            }
+            defaultCompressor = compressor;
+        }
+    }
+
+    public static void setDefaultCompressor(Compressor defaultCompressor) {
+        CompressorFactory.defaultCompressor = defaultCompressor;
+    }
+
+    public static Compressor defaultCompressor() {
+        return defaultCompressor;
+    }
+
+    /**
+     * The compressor registered under the given type, <tt>null</tt> if there is none.
+     */
+    public static Compressor compressor(String type) {
+        return compressorsByType.get(type);
+    }
+
+    public static boolean isCompressed(byte[] data) {
+        return compressor(data, 0, data.length) != null;
+    }
+
+    public static boolean isCompressed(byte[] data, int offset, int length) {
+        return compressor(data, offset, length) != null;
+    }
+
+    /**
+     * The compressor the data was compressed with, <tt>null</tt> if it is not compressed.
+     */
+    public static Compressor compressor(byte[] data) {
+        return compressor(data, 0, data.length);
+    }
+
+    /**
+     * The compressor the data was compressed with, <tt>null</tt> if it is not compressed.
+     */
+    public static Compressor compressor(byte[] data, int offset, int length) {
+        for (Compressor compressor : compressors) {
+            if (compressor.isCompressed(data, offset, length)) {
+                return compressor;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Uncompresses the provided data, data can be detected as compressed using {@link #isCompressed(byte[], int, int)}.
+     */
+    public static BytesHolder uncompressIfNeeded(BytesHolder bytes) throws IOException {
+        Compressor compressor = compressor(bytes.bytes(), bytes.offset(), bytes.length());
+        if (compressor != null) {
+            return new BytesHolder(compressor.uncompress(bytes.bytes(), bytes.offset(), bytes.length()));
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress.deflate;
+
+import com.google.common.base.Charsets;
+import org.elasticsearch.common.compress.CompressedStreamInput;
+import org.elasticsearch.common.compress.CompressedStreamOutput;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate compression primed with a dictionary shared by all documents. Small documents (a few hundred
+ * bytes of JSON) barely compress on their own since most of their content (field names, common values,
+ * JSON syntax) only appears once per document, while with a preset dictionary those are back references
+ * from the very first byte.
+ * <p/>
+ * The dictionary is built in, so compressed data can be decompressed anywhere without any index level
+ * state. Data is a sequence of chunks of up to 64k of uncompressed data, each starting with <tt>DFL</tt>
+ * and the dictionary id (to allow for new dictionaries to be added), followed by the uncompressed and
+ * compressed lengths as vints.
+ */
+public class DeflateCompressor implements Compressor {
+
+    public static final String TYPE = "deflate";
+
+    private static final byte[] HEADER = new byte[]{'D', 'F', 'L'};
+
+    private static final byte DICTIONARY_ID = 1;
+
+    private static final int HEADER_LENGTH = HEADER.length + 1;
+
+    static final int MAX_CHUNK_LEN = 0xFFFF;
+
+    // deflate gives the most weight (shortest distances) to the end of the dictionary, so the most common
+    // strings come last
+    static final byte[] DICTIONARY = (
+            "\"user_agent\":\"Mozilla/5.0 (Windows NT 6.1; WOW64) AppleWebKit/535.19 (KHTML, like Gecko) Chrome/18.0 Safari/535.19\"," +
+                    "\"referer\":\"http://www.\",\"request\":\"GET /\",\"verb\":\"POST\",\"httpversion\":\"1.1\",\"response\":200," +
+                    "\"bytes\":\"clientip\":\"192.168.\",\"remote_addr\":\"10.0.0.\",\"status\":404,\"method\":\"PUT\",\"url\":\"https://\"," +
+                    "\"path\":\"/var/log/\",\"file\":\"source_host\":\"localhost\",\"program\":\"pid\":\"thread\":\"logger\":\"org.\"," +
+                    "\"exception\":\"java.lang.\",\"stack_trace\":\"\\n\\tat \",\"severity\":\"WARN\",\"level\":\"DEBUG\",\"INFO\",\"ERROR\"," +
+                    "\"priority\":\"facility\":\"tags\":[\"fields\":{\"type\":\"name\":\"id\":\"user\":\"email\":\"title\":\"description\":" +
+                    "\"content\":\"text\":\"body\":\"created_at\":\"updated_at\":\"date\":\"2012-\",\"time\":\"T00:00:00.000Z\",\"duration\":" +
+                    "\"value\":\"count\":\"category\":\"version\":\"source\":\"host\":\"hostname\":\"service\":\"event\":\"action\":" +
+                    "true,false,null,\"@fields\":{\"@source\":\"@source_host\":\"@source_path\":\"@tags\":[],\"@type\":\"" +
+                    "\"@message\":\"message\":\"@timestamp\":\"timestamp\":\"").getBytes(Charsets.UTF_8);
+
+    private static final ThreadLocal<Deflater> deflater = new ThreadLocal<Deflater>() {
+        @Override
+        protected Deflater initialValue() {
+            return new Deflater(Deflater.DEFAULT_COMPRESSION);
+        }
+    };
+
+    private static final ThreadLocal<Inflater> inflater = new ThreadLocal<Inflater>() {
+        @Override
+        protected Inflater initialValue() {
+            return new Inflater();
+        }
+    };
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public boolean isCompressed(byte[] data, int offset, int length) {
+        return length >= HEADER_LENGTH && data[offset] == HEADER[0] && data[offset + 1] == HEADER[1] && data[offset + 2] == HEADER[2] && data[offset + 3] == DICTIONARY_ID;
+    }
+
+    @Override
+    public byte[] compress(byte[] data, int offset, int length) throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput(length / 2 + 64);
+        int end = offset + length;
+        do {
+            int chunkLen = Math.min(MAX_CHUNK_LEN, end - offset);
+            writeChunk(data, offset, chunkLen, out);
+            offset += chunkLen;
+        } while (offset < end);
+        return out.copiedByteArray();
+    }
+
+    @Override
+    public byte[] uncompress(byte[] data, int offset, int length) throws IOException {
+        BytesStreamInput in = new BytesStreamInput(data, offset, length, false);
+        BytesStreamOutput out = new BytesStreamOutput(length * 3);
+        byte[] chunk = new byte[MAX_CHUNK_LEN];
+        int chunkLen;
+        while ((chunkLen = readChunk(in, chunk)) != -1) {
+            out.writeBytes(chunk, 0, chunkLen);
+        }
+        return out.copiedByteArray();
+    }
+
+    @Override
+    public CompressedStreamInput streamInput(StreamInput in, boolean cached) throws IOException {
+        return new DeflateCompressedStreamInput(in, cached);
+    }
+
+    @Override
+    public CompressedStreamOutput streamOutput(StreamOutput out, boolean cached) throws IOException {
+        return new DeflateCompressedStreamOutput(out, cached);
+    }
+
+    /**
+     * Writes a single chunk of at most {@link #MAX_CHUNK_LEN} bytes.
+     */
+    static void writeChunk(byte[] data, int offset, int length, StreamOutput out) throws IOException {
+        Deflater deflater = DeflateCompressor.deflater.get();
+        deflater.reset();
+        deflater.setDictionary(DICTIONARY);
+        deflater.setInput(data, offset, length);
+        deflater.finish();
+        byte[] buffer = new byte[length / 2 + 64];
+        int size = 0;
+        while (!deflater.finished()) {
+            if (size == buffer.length) {
+                byte[] grown = new byte[buffer.length * 2];
+                System.arraycopy(buffer, 0, grown, 0, size);
+                buffer = grown;
+            }
+            size += deflater.deflate(buffer, size, buffer.length - size);
+        }
+        out.writeBytes(HEADER);
+        out.writeByte(DICTIONARY_ID);
+        out.writeVInt(length);
+        out.writeVInt(size);
+        out.writeBytes(buffer, 0, size);
+    }
+
+    /**
+     * Reads the next chunk into <tt>chunk</tt>, which must have room for {@link #MAX_CHUNK_LEN} bytes.
+     *
+     * @return the uncompressed length of the chunk, or <tt>-1</tt> if the end of the stream was reached
+     */
+    static int readChunk(StreamInput in, byte[] chunk) throws IOException {
+        int first = in.read();
+        if (first == -1) {
+            return -1;
+        }
+        if (first != HEADER[0] || in.readByte() != HEADER[1] || in.readByte() != HEADER[2] || in.readByte() != DICTIONARY_ID) {
+            throw new IOException("Corrupt deflate data, chunk not compressed with a known deflate dictionary");
+        }
+        int uncompressedLength = in.readVInt();
+        int compressedLength = in.readVInt();
+        if (uncompressedLength > chunk.length) {
+            throw new IOException("Corrupt deflate data, chunk of [" + uncompressedLength + "] bytes is larger than the maximum chunk size");
+        }
+        byte[] compressed = new byte[compressedLength];
+        in.readBytes(compressed, 0, compressedLength);
+
+        Inflater inflater = DeflateCompressor.inflater.get();
+        inflater.reset();
+        inflater.setInput(compressed, 0, compressedLength);
+        int size = 0;
+        try {
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(chunk, size, chunk.length - size);
+                if (inflated == 0) {
+                    if (inflater.needsDictionary()) {
+                        inflater.setDictionary(DICTIONARY);
+                    } else if (inflater.needsInput() || size == chunk.length) {
+                        throw new IOException("Corrupt deflate data, chunk does not match its length");
+                    }
+                }
+                size += inflated;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("failed to inflate data: " + e.getMessage());
+        }
+        if (size != uncompressedLength) {
+            throw new IOException("Corrupt deflate data, expected [" + uncompressedLength + "] bytes but got [" + size + "]");
+        }
+        return size;
+    }
+}
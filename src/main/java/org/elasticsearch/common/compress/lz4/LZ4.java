@@ -0,0 +1,272 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress.lz4;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A pure Java implementation of the LZ4 block format. LZ4 trades some compression ratio for speed
+ * compared to LZF: it only looks for matches of at least 4 bytes, compared with a single int read,
+ * and skips ahead faster and faster over data it fails to find matches in, so incompressible data
+ * costs little CPU.
+ * <p/>
+ * Blocks are limited to 64k, so offsets always fit in the 16 bits the format allows.
+ */
+public class LZ4 {
+
+    public static final int MAX_BLOCK_LEN = 0xFFFF;
+
+    static final int MIN_MATCH = 4;
+
+    static final int HASH_LOG = 14;
+    static final int HASH_TABLE_SIZE = 1 << HASH_LOG;
+
+    static final int SKIP_STRENGTH = 6;
+
+    static final int LAST_LITERALS = 5;
+    static final int MF_LIMIT = 12;
+    static final int MIN_LENGTH = MF_LIMIT + 1;
+
+    static final int ML_BITS = 4;
+    static final int ML_MASK = (1 << ML_BITS) - 1;
+    static final int RUN_MASK = (1 << (8 - ML_BITS)) - 1;
+
+    private LZ4() {
+    }
+
+    /**
+     * The maximum number of bytes compressing <tt>length</tt> bytes can result in.
+     */
+    public static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * A hash table that can be reused across calls to {@link #compress(byte[], int, int, byte[], int, int[])}.
+     */
+    public static int[] newHashTable() {
+        return new int[HASH_TABLE_SIZE];
+    }
+
+    private static int hash(int i) {
+        return (i * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    private static int readInt(byte[] buf, int i) {
+        return (buf[i] & 0xFF) | ((buf[i + 1] & 0xFF) << 8) | ((buf[i + 2] & 0xFF) << 16) | (buf[i + 3] << 24);
+    }
+
+    /**
+     * Compresses a block of at most {@link #MAX_BLOCK_LEN} bytes into <tt>dest</tt>, which must have room
+     * for {@link #maxCompressedLength(int)} bytes.
+     *
+     * @return the position in <tt>dest</tt> right after the compressed data
+     */
+    public static int compress(byte[] src, final int srcOff, int srcLen, byte[] dest, int destOff, int[] hashTable) {
+        final int srcEnd = srcOff + srcLen;
+        final int srcLimit = srcEnd - LAST_LITERALS;
+        final int mfLimit = srcEnd - MF_LIMIT;
+
+        int sOff = srcOff;
+        int dOff = destOff;
+        int anchor = sOff;
+
+        if (srcLen >= MIN_LENGTH) {
+            // positions are stored relative to the start of the block, any stale entry is verified before use
+            Arrays.fill(hashTable, 0);
+            hashTable[hash(readInt(src, sOff))] = 0;
+            ++sOff;
+
+            main:
+            while (true) {
+                // find a match, skipping faster the longer we don't find one
+                int forwardOff = sOff;
+                int ref;
+                int step = 1;
+                int searchMatchNb = 1 << SKIP_STRENGTH;
+                while (true) {
+                    sOff = forwardOff;
+                    forwardOff += step;
+                    step = searchMatchNb++ >>> SKIP_STRENGTH;
+                    if (forwardOff > mfLimit) {
+                        break main;
+                    }
+                    int sequence = readInt(src, sOff);
+                    int h = hash(sequence);
+                    ref = srcOff + hashTable[h];
+                    hashTable[h] = sOff - srcOff;
+                    if (readInt(src, ref) == sequence) {
+                        break;
+                    }
+                }
+
+                // catch up
+                while (sOff > anchor && ref > srcOff && src[sOff - 1] == src[ref - 1]) {
+                    --sOff;
+                    --ref;
+                }
+
+                // encode literals
+                int runLen = sOff - anchor;
+                int tokenOff = dOff++;
+                if (runLen >= RUN_MASK) {
+                    dest[tokenOff] = (byte) (RUN_MASK << ML_BITS);
+                    dOff = writeLength(runLen - RUN_MASK, dest, dOff);
+                } else {
+                    dest[tokenOff] = (byte) (runLen << ML_BITS);
+                }
+                System.arraycopy(src, anchor, dest, dOff, runLen);
+                dOff += runLen;
+
+                while (true) {
+                    // encode offset
+                    int back = sOff - ref;
+                    dest[dOff++] = (byte) back;
+                    dest[dOff++] = (byte) (back >>> 8);
+
+                    // count and encode the match length
+                    sOff += MIN_MATCH;
+                    ref += MIN_MATCH;
+                    int matchLen = 0;
+                    while (sOff < srcLimit && src[sOff] == src[ref]) {
+                        ++sOff;
+                        ++ref;
+                        ++matchLen;
+                    }
+                    if (matchLen >= ML_MASK) {
+                        dest[tokenOff] |= ML_MASK;
+                        dOff = writeLength(matchLen - ML_MASK, dest, dOff);
+                    } else {
+                        dest[tokenOff] |= matchLen;
+                    }
+
+                    anchor = sOff;
+                    if (sOff > mfLimit) {
+                        break main;
+                    }
+
+                    hashTable[hash(readInt(src, sOff - 2))] = sOff - 2 - srcOff;
+
+                    // test the next position for an immediate match
+                    int h = hash(readInt(src, sOff));
+                    ref = srcOff + hashTable[h];
+                    hashTable[h] = sOff - srcOff;
+                    if (readInt(src, sOff) != readInt(src, ref)) {
+                        break;
+                    }
+                    tokenOff = dOff++;
+                    dest[tokenOff] = 0;
+                }
+                ++sOff;
+            }
+        }
+
+        // last literals
+        int runLen = srcEnd - anchor;
+        if (runLen >= RUN_MASK) {
+            dest[dOff++] = (byte) (RUN_MASK << ML_BITS);
+            dOff = writeLength(runLen - RUN_MASK, dest, dOff);
+        } else {
+            dest[dOff++] = (byte) (runLen << ML_BITS);
+        }
+        System.arraycopy(src, anchor, dest, dOff, runLen);
+        return dOff + runLen;
+    }
+
+    private static int writeLength(int length, byte[] dest, int dOff) {
+        while (length >= 0xFF) {
+            dest[dOff++] = (byte) 0xFF;
+            length -= 0xFF;
+        }
+        dest[dOff++] = (byte) length;
+        return dOff;
+    }
+
+    /**
+     * Decompresses a block into <tt>dest</tt>, checking that it decompresses to exactly <tt>destLen</tt> bytes.
+     */
+    public static void decompress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int destLen) throws IOException {
+        final int srcEnd = srcOff + srcLen;
+        final int destEnd = destOff + destLen;
+        int sOff = srcOff;
+        int dOff = destOff;
+        try {
+            while (true) {
+                final int token = src[sOff++] & 0xFF;
+
+                // literals
+                int literalLen = token >>> ML_BITS;
+                if (literalLen == RUN_MASK) {
+                    int len;
+                    while ((len = src[sOff++] & 0xFF) == 0xFF) {
+                        literalLen += 0xFF;
+                    }
+                    literalLen += len;
+                }
+                if (dOff + literalLen > destEnd || sOff + literalLen > srcEnd) {
+                    throw new IOException("Corrupt LZ4 data, literals overflow at input offset " + sOff);
+                }
+                System.arraycopy(src, sOff, dest, dOff, literalLen);
+                sOff += literalLen;
+                dOff += literalLen;
+
+                if (sOff == srcEnd) {
+                    // the last sequence only has literals
+                    break;
+                }
+
+                // match
+                final int back = (src[sOff++] & 0xFF) | ((src[sOff++] & 0xFF) << 8);
+                int ref = dOff - back;
+                if (back == 0 || ref < destOff) {
+                    throw new IOException("Corrupt LZ4 data, invalid offset at input offset " + sOff);
+                }
+                int matchLen = token & ML_MASK;
+                if (matchLen == ML_MASK) {
+                    int len;
+                    while ((len = src[sOff++] & 0xFF) == 0xFF) {
+                        matchLen += 0xFF;
+                    }
+                    matchLen += len;
+                }
+                matchLen += MIN_MATCH;
+                final int matchEnd = dOff + matchLen;
+                if (matchEnd > destEnd) {
+                    throw new IOException("Corrupt LZ4 data, match overflow at input offset " + sOff);
+                }
+                if (back >= matchLen) {
+                    System.arraycopy(dest, ref, dest, dOff, matchLen);
+                    dOff = matchEnd;
+                } else {
+                    // overlapping, repeats the last back bytes
+                    while (dOff < matchEnd) {
+                        dest[dOff++] = dest[ref++];
+                    }
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Corrupt LZ4 data, truncated block");
+        }
+        if (dOff != destEnd) {
+            throw new IOException("Corrupt LZ4 data, expected " + destLen + " bytes but got " + (dOff - destOff));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress.lz4;
+
+import org.elasticsearch.common.compress.CompressedStreamInput;
+import org.elasticsearch.common.io.stream.StreamInput;
+
+import java.io.IOException;
+
+/**
+ *
+ */
+public class LZ4CompressedStreamInput extends CompressedStreamInput {
+
+    private final byte[] header = new byte[LZ4Compressor.MAX_HEADER_LEN];
+
+    private final byte[] compressed = new byte[LZ4.MAX_BLOCK_LEN];
+
+    public LZ4CompressedStreamInput(StreamInput in, boolean cached) {
+        super(in, cached);
+        uncompressed = new byte[LZ4.MAX_BLOCK_LEN];
+    }
+
+    @Override
+    protected int uncompress(StreamInput in, byte[] out) throws IOException {
+        int first = in.read();
+        if (first == -1) {
+            // clean end of stream
+            return -1;
+        }
+        header[0] = (byte) first;
+        in.readBytes(header, 1, 5);
+        if (header[0] != LZ4Compressor.SIGNATURE[0] || header[1] != LZ4Compressor.SIGNATURE[1] || header[2] != LZ4Compressor.SIGNATURE[2]) {
+            throw new IOException("Corrupt LZ4 data, chunk did not start with the 'LZ4' signature");
+        }
+        int type = header[3];
+        int len = LZ4Compressor.uint16(header, 4);
+        if (type == LZ4Compressor.TYPE_NON_COMPRESSED) {
+            in.readBytes(out, 0, len);
+            return len;
+        }
+        if (type != LZ4Compressor.TYPE_COMPRESSED) {
+            throw new IOException("Corrupt LZ4 data, unknown chunk type [" + type + "]");
+        }
+        in.readBytes(header, 6, 2);
+        int uncompLen = LZ4Compressor.uint16(header, 6);
+        in.readBytes(compressed, 0, len);
+        LZ4.decompress(compressed, 0, len, out, 0, uncompLen);
+        return uncompLen;
+    }
+
+    @Override
+    protected void doClose() throws IOException {
+        uncompressed = null;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress.lz4;
+
+import org.elasticsearch.common.compress.CompressedStreamOutput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+
+/**
+ *
+ */
+public class LZ4CompressedStreamOutput extends CompressedStreamOutput {
+
+    private final int[] hashTable = LZ4.newHashTable();
+
+    private final byte[] scratch = new byte[LZ4.maxCompressedLength(LZ4.MAX_BLOCK_LEN)];
+
+    private final byte[] chunk = new byte[LZ4Compressor.MAX_HEADER_LEN + LZ4.MAX_BLOCK_LEN];
+
+    public LZ4CompressedStreamOutput(StreamOutput out, boolean cached) {
+        super(out, cached);
+        uncompressed = new byte[LZ4.MAX_BLOCK_LEN];
+    }
+
+    @Override
+    protected void compress(byte[] data, int offset, int len, StreamOutput out) throws IOException {
+        int chunkLen = LZ4Compressor.compressChunk(data, offset, len, chunk, 0, scratch, hashTable);
+        out.writeBytes(chunk, 0, chunkLen);
+    }
+
+    @Override
+    protected void doClose() throws IOException {
+        uncompressed = null;
+    }
+}
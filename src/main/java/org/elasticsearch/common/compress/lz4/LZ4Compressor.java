@@ -0,0 +1,185 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress.lz4;
+
+import org.elasticsearch.common.compress.CompressedStreamInput;
+import org.elasticsearch.common.compress.CompressedStreamOutput;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+
+/**
+ * The {@link LZ4} based {@link Compressor}. Data is a sequence of chunks of up to 64k of uncompressed
+ * data, each starting with the <tt>LZ4</tt> signature followed by a type byte. Compressed chunks then
+ * carry their compressed and uncompressed lengths (2 bytes each), chunks that did not compress are
+ * stored as is after their length.
+ */
+public class LZ4Compressor implements Compressor {
+
+    public static final String TYPE = "lz4";
+
+    static final byte[] SIGNATURE = new byte[]{'L', 'Z', '4'};
+
+    static final int TYPE_NON_COMPRESSED = 0;
+    static final int TYPE_COMPRESSED = 1;
+
+    static final int MAX_HEADER_LEN = SIGNATURE.length + 1 + 4;
+
+    /**
+     * Per thread hash table and scratch buffer used by the block api, so compressing many small
+     * documents does not allocate (and zero) them over and over again.
+     */
+    private static final ThreadLocal<SoftReference<Buffers>> buffers = new ThreadLocal<SoftReference<Buffers>>();
+
+    static class Buffers {
+        final int[] hashTable = LZ4.newHashTable();
+        final byte[] scratch = new byte[LZ4.maxCompressedLength(LZ4.MAX_BLOCK_LEN)];
+    }
+
+    static Buffers buffers() {
+        SoftReference<Buffers> ref = buffers.get();
+        Buffers result = ref == null ? null : ref.get();
+        if (result == null) {
+            result = new Buffers();
+            buffers.set(new SoftReference<Buffers>(result));
+        }
+        return result;
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public boolean isCompressed(byte[] data, int offset, int length) {
+        return length >= SIGNATURE.length + 1 && data[offset] == SIGNATURE[0] && data[offset + 1] == SIGNATURE[1] && data[offset + 2] == SIGNATURE[2];
+    }
+
+    @Override
+    public byte[] compress(byte[] data, int offset, int length) throws IOException {
+        int chunks = Math.max(1, (length + LZ4.MAX_BLOCK_LEN - 1) / LZ4.MAX_BLOCK_LEN);
+        byte[] result = new byte[chunks * MAX_HEADER_LEN + length];
+        Buffers buffers = buffers();
+        int resultPos = 0;
+        int end = offset + length;
+        do {
+            int chunkLen = Math.min(LZ4.MAX_BLOCK_LEN, end - offset);
+            resultPos = compressChunk(data, offset, chunkLen, result, resultPos, buffers.scratch, buffers.hashTable);
+            offset += chunkLen;
+        } while (offset < end);
+        return Arrays.copyOf(result, resultPos);
+    }
+
+    @Override
+    public byte[] uncompress(byte[] data, int offset, int length) throws IOException {
+        final int end = offset + length;
+        // first pass, compute the uncompressed size from the headers
+        int uncompressedLength = 0;
+        int pos = offset;
+        while (pos < end) {
+            if (!isCompressed(data, pos, end - pos) || end - pos < SIGNATURE.length + 3) {
+                throw new IOException("Corrupt LZ4 data, chunk at offset " + pos + " did not start with the 'LZ4' signature");
+            }
+            int type = data[pos + 3];
+            int len = uint16(data, pos + 4);
+            if (type == TYPE_NON_COMPRESSED) {
+                uncompressedLength += len;
+                pos += SIGNATURE.length + 3 + len;
+            } else if (type == TYPE_COMPRESSED) {
+                if (end - pos < MAX_HEADER_LEN) {
+                    throw new IOException("Corrupt LZ4 data, truncated chunk header at offset " + pos);
+                }
+                uncompressedLength += uint16(data, pos + 6);
+                pos += MAX_HEADER_LEN + len;
+            } else {
+                throw new IOException("Corrupt LZ4 data, unknown chunk type [" + type + "] at offset " + pos);
+            }
+        }
+        if (pos != end) {
+            throw new IOException("Corrupt LZ4 data, last chunk extends beyond the end of the data");
+        }
+
+        byte[] result = new byte[uncompressedLength];
+        int resultPos = 0;
+        pos = offset;
+        while (pos < end) {
+            int type = data[pos + 3];
+            int len = uint16(data, pos + 4);
+            if (type == TYPE_NON_COMPRESSED) {
+                System.arraycopy(data, pos + SIGNATURE.length + 3, result, resultPos, len);
+                resultPos += len;
+                pos += SIGNATURE.length + 3 + len;
+            } else {
+                int uncompLen = uint16(data, pos + 6);
+                LZ4.decompress(data, pos + MAX_HEADER_LEN, len, result, resultPos, uncompLen);
+                resultPos += uncompLen;
+                pos += MAX_HEADER_LEN + len;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public CompressedStreamInput streamInput(StreamInput in, boolean cached) throws IOException {
+        return new LZ4CompressedStreamInput(in, cached);
+    }
+
+    @Override
+    public CompressedStreamOutput streamOutput(StreamOutput out, boolean cached) throws IOException {
+        return new LZ4CompressedStreamOutput(out, cached);
+    }
+
+    /**
+     * Writes a single chunk (header included) into <tt>dest</tt>, which must have room for the chunk
+     * stored uncompressed, using <tt>scratch</tt> (of at least {@link LZ4#maxCompressedLength(int)} bytes)
+     * to compress into.
+     *
+     * @return the position right after the chunk in <tt>dest</tt>
+     */
+    static int compressChunk(byte[] data, int offset, int length, byte[] dest, int destOff, byte[] scratch, int[] hashTable) {
+        dest[destOff] = SIGNATURE[0];
+        dest[destOff + 1] = SIGNATURE[1];
+        dest[destOff + 2] = SIGNATURE[2];
+        int compLen = LZ4.compress(data, offset, length, scratch, 0, hashTable);
+        if (compLen < length - 2) {
+            dest[destOff + 3] = TYPE_COMPRESSED;
+            dest[destOff + 4] = (byte) (compLen >> 8);
+            dest[destOff + 5] = (byte) compLen;
+            dest[destOff + 6] = (byte) (length >> 8);
+            dest[destOff + 7] = (byte) length;
+            System.arraycopy(scratch, 0, dest, destOff + MAX_HEADER_LEN, compLen);
+            return destOff + MAX_HEADER_LEN + compLen;
+        }
+        dest[destOff + 3] = TYPE_NON_COMPRESSED;
+        dest[destOff + 4] = (byte) (length >> 8);
+        dest[destOff + 5] = (byte) length;
+        System.arraycopy(data, offset, dest, destOff + SIGNATURE.length + 3, length);
+        return destOff + SIGNATURE.length + 3 + length;
+    }
+
+    static int uint16(byte[] data, int ptr) {
+        return ((data[ptr] & 0xFF) << 8) + (data[ptr + 1] & 0xFF);
+    }
+}
@@ -31,8 +31,8 @@ public class ChunkEncoder {
     // Not much point in bigger tables, with 8k window
     private static final int MAX_HASH_SIZE = 16384;
 
-    private static final int MAX_OFF = 1 << 13; // 8k
-    private static final int MAX_REF = (1 << 8) + (1 << 3); // 264
+    protected static final int MAX_OFF = 1 << 13; // 8k
+    protected static final int MAX_REF = (1 << 8) + (1 << 3); // 264
 
     // // Encoding tables etc
 
@@ -42,7 +42,7 @@ public class ChunkEncoder {
      * Hash table contains lookup based on 3-byte sequence; key is hash
      * of such triplet, value is offset in buffer.
      */
-    private int[] _hashTable;
+    protected int[] _hashTable;
 
     private final int _hashModulo;
 
@@ -114,6 +114,47 @@ public class ChunkEncoder {
         return LZFChunk.createNonCompressed(data, offset, len);
     }
 
+    /**
+     * Method for encoding individual chunk straight into the given array, header included, without
+     * going through the intermediate encode buffer. The array must have room for at least
+     * {@link #maxEncodedLength(int)} bytes starting at <tt>outPos</tt>.
+     *
+     * @return the position in the output array right after the encoded chunk
+     */
+    // ES: added so streams writing to an array (BytesStreamOutput) don't need the extra copy
+    public int appendEncodedChunk(byte[] data, int offset, int len, byte[] out, int outPos) {
+        if (len >= MIN_BLOCK_TO_COMPRESS) {
+            int compLen = tryCompress(data, offset, offset + len, out, outPos + 7);
+            compLen -= outPos + 7;
+            if (compLen < (len - 2)) {
+                out[outPos] = LZFChunk.BYTE_Z;
+                out[outPos + 1] = LZFChunk.BYTE_V;
+                out[outPos + 2] = LZFChunk.BLOCK_TYPE_COMPRESSED;
+                out[outPos + 3] = (byte) (compLen >> 8);
+                out[outPos + 4] = (byte) compLen;
+                out[outPos + 5] = (byte) (len >> 8);
+                out[outPos + 6] = (byte) len;
+                return outPos + 7 + compLen;
+            }
+        }
+        out[outPos] = LZFChunk.BYTE_Z;
+        out[outPos + 1] = LZFChunk.BYTE_V;
+        out[outPos + 2] = LZFChunk.BLOCK_TYPE_NON_COMPRESSED;
+        out[outPos + 3] = (byte) (len >> 8);
+        out[outPos + 4] = (byte) len;
+        System.arraycopy(data, offset, out, outPos + 5, len);
+        return outPos + 5 + len;
+    }
+
+    /**
+     * The worst case number of bytes {@link #appendEncodedChunk(byte[], int, int, byte[], int)} needs
+     * for a chunk of the given length.
+     */
+    public static int maxEncodedLength(int len) {
+        // header, and a length indicator for each 32 literals
+        return LZFChunk.MAX_HEADER_LEN + len + ((len + 31) >> 5);
+    }
+
     /**
      * Method for encoding individual chunk, writing it to given output stream.
      */
@@ -160,7 +201,7 @@ public class ChunkEncoder {
         return hashLen;
     }
 
-    private int first(byte[] in, int inPos) {
+    protected final int first(byte[] in, int inPos) {
         return (in[inPos] << 8) + (in[inPos + 1] & 255);
     }
 
@@ -170,7 +211,7 @@ public class ChunkEncoder {
     }
 */
 
-    private final int hash(int h) {
+    protected final int hash(int h) {
         // or 184117; but this seems to give better hashing?
         return ((h * 57321) >> 9) & _hashModulo;
         // original lzf-c.c used this:
@@ -178,7 +219,11 @@ public class ChunkEncoder {
         // but that didn't seem to provide better matches
     }
 
-    private int tryCompress(byte[] in, int inPos, int inEnd, byte[] out, int outPos) {
+    /**
+     * Compresses <tt>in[inPos, inEnd)</tt> into <tt>out</tt> starting at <tt>outPos</tt>, returning the
+     * position right after the last byte written.
+     */
+    protected int tryCompress(byte[] in, int inPos, int inEnd, byte[] out, int outPos) {
         final int[] hashTable = _hashTable;
         ++outPos;
         int seen = first(in, 0); // past 4 bytes we have seen... (last one is LSB)
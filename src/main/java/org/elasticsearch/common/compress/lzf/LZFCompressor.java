@@ -0,0 +1,68 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress.lzf;
+
+import org.elasticsearch.common.compress.CompressedStreamInput;
+import org.elasticsearch.common.compress.CompressedStreamOutput;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.io.stream.LZFStreamInput;
+import org.elasticsearch.common.io.stream.LZFStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+
+/**
+ * The LZF {@link Compressor}, chunks start with <tt>ZV</tt>.
+ */
+public class LZFCompressor implements Compressor {
+
+    public static final String TYPE = "lzf";
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public boolean isCompressed(byte[] data, int offset, int length) {
+        return LZF.isCompressed(data, offset, length);
+    }
+
+    @Override
+    public byte[] compress(byte[] data, int offset, int length) throws IOException {
+        return LZFEncoder.encode(data, offset, length);
+    }
+
+    @Override
+    public byte[] uncompress(byte[] data, int offset, int length) throws IOException {
+        return LZFDecoder.decode(data, offset, length);
+    }
+
+    @Override
+    public CompressedStreamInput streamInput(StreamInput in, boolean cached) throws IOException {
+        return new LZFStreamInput(in, cached);
+    }
+
+    @Override
+    public CompressedStreamOutput streamOutput(StreamOutput out, boolean cached) throws IOException {
+        return new LZFStreamOutput(out, cached);
+    }
+}
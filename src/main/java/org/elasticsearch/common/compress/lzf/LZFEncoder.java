@@ -11,6 +11,8 @@
 
 package org.elasticsearch.common.compress.lzf;
 
+import org.elasticsearch.common.compress.lzf.util.ChunkEncoderFactory;
+
 import java.io.IOException;
 
 /**
@@ -46,7 +48,7 @@ public class LZFEncoder {
      * @since 0.8.1
      */
     public static byte[] encode(byte[] data, int offset, int length) throws IOException {
-        ChunkEncoder enc = new ChunkEncoder(length, BufferRecycler.instance());
+        ChunkEncoder enc = ChunkEncoderFactory.optimalInstance(length, BufferRecycler.instance());
         byte[] result = encode(enc, data, offset, length);
         // important: may be able to reuse buffers
         enc.close();
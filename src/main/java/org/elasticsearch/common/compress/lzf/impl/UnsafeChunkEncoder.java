@@ -0,0 +1,137 @@
+package org.elasticsearch.common.compress.lzf.impl;
+
+import org.elasticsearch.common.compress.lzf.BufferRecycler;
+import org.elasticsearch.common.compress.lzf.ChunkEncoder;
+import org.elasticsearch.common.compress.lzf.LZFChunk;
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+import java.nio.ByteOrder;
+
+/**
+ * {@link ChunkEncoder} implementation that uses Sun JDK's Unsafe class to verify and extend
+ * back references a word at a time, instead of byte by byte. Literals are not copied one by
+ * one as they are scanned either, but in bulk once the run ends.
+ * <p/>
+ * Produces the same LZF format as the plain encoder, so any {@link org.elasticsearch.common.compress.lzf.ChunkDecoder}
+ * can read it.
+ */
+@SuppressWarnings("restriction")
+public class UnsafeChunkEncoder extends ChunkEncoder {
+    private static final Unsafe unsafe;
+
+    static {
+        try {
+            Field theUnsafe = Unsafe.class.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = (Unsafe) theUnsafe.get(null);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final long BYTE_ARRAY_OFFSET = unsafe.arrayBaseOffset(byte[].class);
+
+    private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * Mask selecting the first three bytes of a native order int read.
+     */
+    private static final int TRIPLET_MASK = LITTLE_ENDIAN ? 0x00FFFFFF : 0xFFFFFF00;
+
+    public UnsafeChunkEncoder(int totalLength, BufferRecycler recycler) {
+        super(totalLength, recycler);
+    }
+
+    @Override
+    protected int tryCompress(byte[] in, int inPos, int inEnd, byte[] out, int outPos) {
+        final int[] hashTable = _hashTable;
+        final int firstPos = inPos; // so that we won't have back references across block boundary
+        final int end = inEnd;
+        int literalStart = inPos;
+        int seen = first(in, inPos);
+        inEnd -= 4;
+
+        while (inPos < inEnd) {
+            seen = (seen << 8) + (in[inPos + 2] & 255);
+            int off = hash(seen);
+            int ref = hashTable[off];
+            hashTable[off] = inPos;
+
+            // First expected common case: no back-ref (for whatever reason)
+            if (ref >= inPos // can't refer forward (i.e. leftovers)
+                    || ref < firstPos // or to previous block
+                    || (off = inPos - ref) > MAX_OFF
+                    || ((unsafe.getInt(in, BYTE_ARRAY_OFFSET + ref) ^ unsafe.getInt(in, BYTE_ARRAY_OFFSET + inPos)) & TRIPLET_MASK) != 0) {
+                ++inPos;
+                continue;
+            }
+            // match, flush pending literals first
+            outPos = writeLiterals(in, literalStart, inPos - literalStart, out, outPos);
+
+            int maxLen = inEnd - inPos + 2;
+            if (maxLen > MAX_REF) {
+                maxLen = MAX_REF;
+            }
+            int len = 3 + matchLength(in, ref + 3, inPos + 3, maxLen - 3);
+            len -= 2;
+            --off; // was off by one earlier
+            if (len < 7) {
+                out[outPos++] = (byte) ((off >> 8) + (len << 5));
+            } else {
+                out[outPos++] = (byte) ((off >> 8) + (7 << 5));
+                out[outPos++] = (byte) (len - 7);
+            }
+            out[outPos++] = (byte) off;
+            inPos += len;
+            seen = first(in, inPos);
+            seen = (seen << 8) + (in[inPos + 2] & 255);
+            hashTable[hash(seen)] = inPos;
+            ++inPos;
+            seen = (seen << 8) + (in[inPos + 2] & 255);
+            hashTable[hash(seen)] = inPos;
+            ++inPos;
+            literalStart = inPos;
+        }
+        return writeLiterals(in, literalStart, end - literalStart, out, outPos);
+    }
+
+    /**
+     * Number of equal bytes (up to <tt>max</tt>) starting at the two positions, compared 8 bytes at a time.
+     */
+    private static int matchLength(byte[] in, int ref, int pos, int max) {
+        int len = 0;
+        while (len + 8 <= max) {
+            long diff = unsafe.getLong(in, BYTE_ARRAY_OFFSET + ref + len) ^ unsafe.getLong(in, BYTE_ARRAY_OFFSET + pos + len);
+            if (diff != 0) {
+                return len + ((LITTLE_ENDIAN ? Long.numberOfTrailingZeros(diff) : Long.numberOfLeadingZeros(diff)) >>> 3);
+            }
+            len += 8;
+        }
+        while (len < max && in[ref + len] == in[pos + len]) {
+            len++;
+        }
+        return len;
+    }
+
+    /**
+     * Writes the literal run in chunks of up to {@link LZFChunk#MAX_LITERAL}, each prefixed by its length indicator.
+     */
+    private static int writeLiterals(byte[] in, int inPos, int literals, byte[] out, int outPos) {
+        while (literals > 0) {
+            int run = literals < LZFChunk.MAX_LITERAL ? literals : LZFChunk.MAX_LITERAL;
+            out[outPos++] = (byte) (run - 1);
+            if (run <= 8) {
+                for (int i = 0; i < run; i++) {
+                    out[outPos + i] = in[inPos + i];
+                }
+            } else {
+                System.arraycopy(in, inPos, out, outPos, run);
+            }
+            inPos += run;
+            outPos += run;
+            literals -= run;
+        }
+        return outPos;
+    }
+}
@@ -0,0 +1,53 @@
+package org.elasticsearch.common.compress.lzf.util;
+
+import org.elasticsearch.common.Booleans;
+import org.elasticsearch.common.compress.lzf.BufferRecycler;
+import org.elasticsearch.common.compress.lzf.ChunkEncoder;
+import org.elasticsearch.common.compress.lzf.impl.UnsafeChunkEncoder;
+
+/**
+ * Simple helper class used for loading {@link ChunkEncoder} implementations, the encoding
+ * counterpart of {@link ChunkDecoderFactory}.
+ * <p/>
+ * The optimized encoder can be disabled using the <tt>compress.lzf.encoder.optimized</tt>
+ * system property.
+ */
+public class ChunkEncoderFactory {
+
+    private final static boolean optimized;
+
+    static {
+        boolean unsafeAvailable = false;
+        try {
+            // make sure the encoder, and with it Unsafe, can be loaded
+            Class.forName(UnsafeChunkEncoder.class.getName());
+            unsafeAvailable = true;
+        } catch (Throwable t) {
+        }
+        optimized = unsafeAvailable && Booleans.parseBoolean(System.getProperty("compress.lzf.encoder.optimized"), true);
+    }
+
+    private ChunkEncoderFactory() {
+    }
+
+    /**
+     * Method to use for getting the encoder instance that uses the most optimal available methods
+     * for underlying data access.
+     *
+     * @param totalLength Total encoded length; used for calculating size of hash table to use
+     */
+    public static ChunkEncoder optimalInstance(int totalLength, BufferRecycler recycler) {
+        if (optimized) {
+            return new UnsafeChunkEncoder(totalLength, recycler);
+        }
+        return new ChunkEncoder(totalLength, recycler);
+    }
+
+    /**
+     * Method that can be used to ensure that a "safe" encoder instance is loaded.
+     * Safe here means that it should work on any and all Java platforms.
+     */
+    public static ChunkEncoder safeInstance(int totalLength, BufferRecycler recycler) {
+        return new ChunkEncoder(totalLength, recycler);
+    }
+}
@@ -70,6 +70,16 @@ public class BytesStreamOutput extends StreamOutput implements BytesStream {
         count = newcount;
     }
 
+    /**
+     * Makes sure there is room for <tt>length</tt> more bytes after the current position.
+     */
+    void ensureCapacity(int length) {
+        int newcount = count + length;
+        if (newcount > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length << 1, newcount));
+        }
+    }
+
     public void seek(int seekTo) {
         count = seekTo;
     }
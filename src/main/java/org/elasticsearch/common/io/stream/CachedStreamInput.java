@@ -19,8 +19,13 @@
 
 package org.elasticsearch.common.io.stream;
 
+import org.elasticsearch.common.compress.CompressedStreamInput;
+import org.elasticsearch.common.compress.Compressor;
+
 import java.io.IOException;
 import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  *
@@ -30,11 +35,10 @@ public class CachedStreamInput {
     static class Entry {
         char[] chars = new char[80];
         final HandlesStreamInput handles;
-        final LZFStreamInput lzf;
+        final Map<String, CompressedStreamInput> compressed = new HashMap<String, CompressedStreamInput>();
 
-        Entry(HandlesStreamInput handles, LZFStreamInput lzf) {
+        Entry(HandlesStreamInput handles) {
             this.handles = handles;
-            this.lzf = lzf;
         }
     }
 
@@ -45,8 +49,7 @@ public class CachedStreamInput {
         Entry entry = ref == null ? null : ref.get();
         if (entry == null) {
             HandlesStreamInput handles = new HandlesStreamInput();
-            LZFStreamInput lzf = new LZFStreamInput(null, true);
-            entry = new Entry(handles, lzf);
+            entry = new Entry(handles);
             cache.set(new SoftReference<Entry>(entry));
         }
         return entry;
@@ -56,22 +59,26 @@ public class CachedStreamInput {
         cache.remove();
     }
 
-    public static LZFStreamInput cachedLzf(StreamInput in) throws IOException {
-        LZFStreamInput lzf = instance().lzf;
-        lzf.reset(in);
-        return lzf;
-    }
-
     public static HandlesStreamInput cachedHandles(StreamInput in) {
         HandlesStreamInput handles = instance().handles;
         handles.reset(in);
         return handles;
     }
 
-    public static HandlesStreamInput cachedHandlesLzf(StreamInput in) throws IOException {
+    public static CompressedStreamInput cachedCompressed(Compressor compressor, StreamInput in) throws IOException {
+        Entry entry = instance();
+        CompressedStreamInput compressed = entry.compressed.get(compressor.type());
+        if (compressed == null) {
+            compressed = compressor.streamInput(in, true);
+            entry.compressed.put(compressor.type(), compressed);
+        }
+        compressed.reset(in);
+        return compressed;
+    }
+
+    public static HandlesStreamInput cachedHandlesCompressed(Compressor compressor, StreamInput in) throws IOException {
         Entry entry = instance();
-        entry.lzf.reset(in);
-        entry.handles.reset(entry.lzf);
+        entry.handles.reset(cachedCompressed(compressor, in));
         return entry.handles;
     }
 
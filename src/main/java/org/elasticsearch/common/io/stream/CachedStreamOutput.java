@@ -20,9 +20,13 @@
 package org.elasticsearch.common.io.stream;
 
 import jsr166y.LinkedTransferQueue;
+import org.elasticsearch.common.compress.CompressedStreamOutput;
+import org.elasticsearch.common.compress.Compressor;
 
 import java.io.IOException;
 import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -34,19 +38,17 @@ public class CachedStreamOutput {
     private static Entry newEntry() {
         BytesStreamOutput bytes = new BytesStreamOutput();
         HandlesStreamOutput handles = new HandlesStreamOutput(bytes);
-        LZFStreamOutput lzf = new LZFStreamOutput(bytes, true);
-        return new Entry(bytes, handles, lzf);
+        return new Entry(bytes, handles);
     }
 
     public static class Entry {
         private final BytesStreamOutput bytes;
         private final HandlesStreamOutput handles;
-        private final LZFStreamOutput lzf;
+        private final Map<String, CompressedStreamOutput> compressed = new HashMap<String, CompressedStreamOutput>();
 
-        Entry(BytesStreamOutput bytes, HandlesStreamOutput handles, LZFStreamOutput lzf) {
+        Entry(BytesStreamOutput bytes, HandlesStreamOutput handles) {
             this.bytes = bytes;
             this.handles = handles;
-            this.lzf = lzf;
         }
 
         /**
@@ -64,13 +66,21 @@ public class CachedStreamOutput {
             return bytes;
         }
 
-        public LZFStreamOutput cachedLZFBytes() throws IOException {
-            lzf.reset();
-            return lzf;
+        /**
+         * Returns a cached stream compressing with the provided compressor into the (reset) bytes.
+         */
+        public CompressedStreamOutput cachedCompressedBytes(Compressor compressor) throws IOException {
+            CompressedStreamOutput out = compressed.get(compressor.type());
+            if (out == null) {
+                out = compressor.streamOutput(bytes, true);
+                compressed.put(compressor.type(), out);
+            }
+            out.reset();
+            return out;
         }
 
-        public HandlesStreamOutput cachedHandlesLzfBytes() throws IOException {
-            handles.reset(lzf);
+        public HandlesStreamOutput cachedHandlesCompressedBytes(Compressor compressor) throws IOException {
+            handles.reset(cachedCompressedBytes(compressor));
             return handles;
         }
 
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.common.io.stream;
 
+import org.elasticsearch.common.compress.CompressedStreamInput;
 import org.elasticsearch.common.compress.lzf.BufferRecycler;
 import org.elasticsearch.common.compress.lzf.ChunkDecoder;
 import org.elasticsearch.common.compress.lzf.LZFChunk;
@@ -30,7 +31,7 @@ import java.io.IOException;
 /**
  *
  */
-public class LZFStreamInput extends StreamInput {
+public class LZFStreamInput extends CompressedStreamInput {
     /**
      * Underlying decoder in use.
      */
@@ -41,196 +42,78 @@ public class LZFStreamInput extends StreamInput {
      */
     private final BufferRecycler _recycler;
 
-    /**
-     * stream to be decompressed
-     */
-    protected StreamInput inputStream;
-
-    /**
-     * Flag that indicates if we have already called 'inputStream.close()'
-     * (to avoid calling it multiple times)
-     */
-    protected boolean inputStreamClosed;
-
-    /**
-     * Flag that indicates whether we force full reads (reading of as many
-     * bytes as requested), or 'optimal' reads (up to as many as available,
-     * but at least one). Default is false, meaning that 'optimal' read
-     * is used.
-     */
-    protected boolean _cfgFullReads = true; // ES: ALWAYS TRUE since we need to throw EOF when doing readBytes
-
     /* the current buffer of compressed bytes (from which to decode) */
     private byte[] _inputBuffer;
 
-    /* the buffer of uncompressed bytes from which content is read */
-    private byte[] _decodedBytes;
-
-    /* The current position (next char to output) in the uncompressed bytes buffer. */
-    private int bufferPosition = 0;
-
-    /* Length of the current uncompressed bytes buffer */
-    private int bufferLength = 0;
-
-    // ES: added to support never closing just resetting
-    private final boolean cached;
-
     public LZFStreamInput(StreamInput in, boolean cached) {
-        super();
-        this.cached = cached;
+        super(in, cached);
         if (cached) {
             _recycler = new BufferRecycler();
         } else {
             _recycler = BufferRecycler.instance();
         }
         _decoder = ChunkDecoderFactory.optimalInstance();
-        inputStream = in;
-        inputStreamClosed = false;
 
         _inputBuffer = _recycler.allocInputBuffer(LZFChunk.MAX_CHUNK_LEN);
-        _decodedBytes = _recycler.allocDecodeBuffer(LZFChunk.MAX_CHUNK_LEN);
-    }
-
-    /**
-     * Method is overridden to report number of bytes that can now be read
-     * from decoded data buffer, without reading bytes from the underlying
-     * stream.
-     * Never throws an exception; returns number of bytes available without
-     * further reads from underlying source; -1 if stream has been closed, or
-     * 0 if an actual read (and possible blocking) is needed to find out.
-     */
-    @Override
-    public int available() {
-        // if closed, return -1;
-        if (inputStreamClosed) {
-            return -1;
-        }
-        int left = (bufferLength - bufferPosition);
-        return (left <= 0) ? 0 : left;
-    }
-
-    @Override
-    public int read() throws IOException {
-        if (!readyBuffer()) {
-            return -1;
-        }
-        return _decodedBytes[bufferPosition++] & 255;
-    }
-
-    @Override
-    public int read(final byte[] buffer, int offset, int length) throws IOException {
-        if (length < 1) {
-            return 0;
-        }
-        if (!readyBuffer()) {
-            return -1;
-        }
-        // First let's read however much data we happen to have...
-        int chunkLength = Math.min(bufferLength - bufferPosition, length);
-        System.arraycopy(_decodedBytes, bufferPosition, buffer, offset, chunkLength);
-        bufferPosition += chunkLength;
-
-        if (chunkLength == length || !_cfgFullReads) {
-            return chunkLength;
-        }
-        // Need more data, then
-        int totalRead = chunkLength;
-        do {
-            offset += chunkLength;
-            if (!readyBuffer()) {
-                break;
-            }
-            chunkLength = Math.min(bufferLength - bufferPosition, (length - totalRead));
-            System.arraycopy(_decodedBytes, bufferPosition, buffer, offset, chunkLength);
-            bufferPosition += chunkLength;
-            totalRead += chunkLength;
-        } while (totalRead < length);
-
-        return totalRead;
+        uncompressed = _recycler.allocDecodeBuffer(LZFChunk.MAX_CHUNK_LEN);
     }
 
     @Override
-    public byte readByte() throws IOException {
-        if (!readyBuffer()) {
-            throw new EOFException();
+    protected int uncompress(StreamInput in, byte[] out) throws IOException {
+        if (in instanceof BytesStreamInput) {
+            return decodeChunk((BytesStreamInput) in, out);
         }
-        return _decodedBytes[bufferPosition++];
-    }
-
-    @Override
-    public void readBytes(byte[] b, int offset, int len) throws IOException {
-        int result = read(b, offset, len);
-        if (result < len) {
-            throw new EOFException();
-        }
-    }
-
-    @Override
-    public void reset() throws IOException {
-        this.bufferPosition = 0;
-        this.bufferLength = 0;
-        inputStream.reset();
-    }
-
-    public void reset(StreamInput in) throws IOException {
-        this.inputStream = in;
-        this.bufferPosition = 0;
-        this.bufferLength = 0;
-    }
-
-    /**
-     * Expert!, resets to buffer start, without the need to decompress it again.
-     */
-    public void resetToBufferStart() {
-        this.bufferPosition = 0;
+        return _decoder.decodeChunk(in, _inputBuffer, out);
     }
 
     @Override
-    public void close() throws IOException {
-        if (cached) {
-            reset();
-            return;
-        }
-        bufferPosition = bufferLength = 0;
+    protected void doClose() throws IOException {
         byte[] buf = _inputBuffer;
         if (buf != null) {
             _inputBuffer = null;
             _recycler.releaseInputBuffer(buf);
         }
-        buf = _decodedBytes;
+        buf = uncompressed;
         if (buf != null) {
-            _decodedBytes = null;
+            uncompressed = null;
             _recycler.releaseDecodeBuffer(buf);
         }
-        if (!inputStreamClosed) {
-            inputStreamClosed = true;
-            inputStream.close();
-        }
     }
 
-    /*
-   ///////////////////////////////////////////////////////////////////////
-   // Internal methods
-   ///////////////////////////////////////////////////////////////////////
-    */
-
     /**
-     * Fill the uncompressed bytes buffer by reading the underlying inputStream.
-     *
-     * @throws IOException
+     * Decodes the next chunk straight from the array backing the bytes input, instead of reading
+     * it into the input buffer first.
      */
-    protected boolean readyBuffer() throws IOException {
-        if (bufferPosition < bufferLength) {
-            return true;
+    private int decodeChunk(BytesStreamInput in, byte[] out) throws IOException {
+        final byte[] buf = in.buf;
+        int pos = in.pos;
+        if (pos >= in.count) {
+            return -1;
         }
-        if (inputStreamClosed) {
-            return false;
+        if ((in.count - pos) < 5 || buf[pos] != LZFChunk.BYTE_Z || buf[pos + 1] != LZFChunk.BYTE_V) {
+            throw new IOException("Corrupt input data, block did not start with 2 byte signature ('ZV') followed by type byte, 2-byte length)");
         }
-        bufferLength = _decoder.decodeChunk(inputStream, _inputBuffer, _decodedBytes);
-        if (bufferLength < 0) {
-            return false;
+        int type = buf[pos + 2];
+        int compLen = uint16(buf, pos + 3);
+        pos += 5;
+        if (type == LZFChunk.BLOCK_TYPE_NON_COMPRESSED) {
+            if (pos + compLen > in.count) {
+                throw new EOFException();
+            }
+            System.arraycopy(buf, pos, out, 0, compLen);
+            in.pos = pos + compLen;
+            return compLen;
         }
-        bufferPosition = 0;
-        return (bufferPosition < bufferLength);
+        if (pos + 2 + compLen > in.count) {
+            throw new EOFException();
+        }
+        int uncompLen = uint16(buf, pos);
+        _decoder.decodeChunk(buf, pos + 2, out, 0, uncompLen);
+        in.pos = pos + 2 + compLen;
+        return uncompLen;
+    }
+
+    private static int uint16(byte[] data, int ptr) {
+        return ((data[ptr] & 0xFF) << 8) + (data[ptr + 1] & 0xFF);
     }
 }
@@ -20,31 +20,34 @@
 package org.elasticsearch.common.lucene.all;
 
 import com.google.common.collect.Lists;
-import org.elasticsearch.ElasticSearchIllegalStateException;
-import org.elasticsearch.common.io.FastCharArrayWriter;
-import org.elasticsearch.common.io.FastStringReader;
 
 import java.io.IOException;
 import java.io.Reader;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
 import static com.google.common.collect.Sets.newHashSet;
 
 /**
- *
+ * The entries (field name, text and boost) that make up the <tt>_all</tt> field of a document. Only a
+ * reference to the text of each entry is kept, the actual analysis is done by {@link AllTokenStream},
+ * which chains the analysis of each entry one after the other.
+ * <p/>
+ * Also acts as a {@link Reader} over the space separated text of all the entries.
+ * <p/>
+ * Entries are reused once {@link #clear()} has been called, so the same instance can be used to parse
+ * several documents.
  */
 public class AllEntries extends Reader {
 
     public static class Entry {
-        private final String name;
-        private final FastStringReader reader;
-        private final float boost;
+        private String name;
+        private String text;
+        private float boost;
 
-        public Entry(String name, FastStringReader reader, float boost) {
+        public Entry(String name, String text, float boost) {
             this.name = name;
-            this.reader = reader;
+            this.text = text;
             this.boost = boost;
         }
 
@@ -52,75 +55,87 @@ public class AllEntries extends Reader {
             return this.name;
         }
 
-        public float boost() {
-            return this.boost;
+        public String text() {
+            return this.text;
         }
 
-        public FastStringReader reader() {
-            return this.reader;
+        public float boost() {
+            return this.boost;
         }
     }
 
     private final List<Entry> entries = Lists.newArrayList();
 
-    private Entry current;
+    /**
+     * The number of entries in use, entries above it are kept around to be reused.
+     */
+    private int size;
+
+    private List<Entry> activeEntries;
 
-    private Iterator<Entry> it;
+    // reader state
+    private int currentIndex;
 
-    private boolean itsSeparatorTime = false;
+    private int currentPos;
 
-    private boolean customBoost = false;
+    private Entry current;
 
     public void addText(String name, String text, float boost) {
-        if (boost != 1.0f) {
-            customBoost = true;
+        if (size < entries.size()) {
+            Entry entry = entries.get(size);
+            entry.name = name;
+            entry.text = text;
+            entry.boost = boost;
+        } else {
+            entries.add(new Entry(name, text, boost));
         }
-        Entry entry = new Entry(name, new FastStringReader(text), boost);
-        entries.add(entry);
+        size++;
+        activeEntries = null;
     }
 
     public void clear() {
-        this.entries.clear();
-        this.current = null;
-        this.it = null;
-        itsSeparatorTime = false;
+        for (int i = 0; i < size; i++) {
+            // don't hold on to the text of the previous document
+            Entry entry = entries.get(i);
+            entry.name = null;
+            entry.text = null;
+        }
+        size = 0;
+        activeEntries = null;
+        current = null;
+        currentIndex = 0;
+        currentPos = 0;
     }
 
     public void reset() {
-        try {
-            for (Entry entry : entries) {
-                entry.reader().reset();
-            }
-        } catch (IOException e) {
-            throw new ElasticSearchIllegalStateException("should not happen");
-        }
-        it = entries.iterator();
-        if (it.hasNext()) {
-            current = it.next();
-            itsSeparatorTime = true;
-        }
+        currentIndex = 0;
+        currentPos = 0;
+        current = size > 0 ? entries.get(0) : null;
     }
 
-
     public String buildText() {
-        reset();
-        FastCharArrayWriter writer = new FastCharArrayWriter();
-        for (Entry entry : entries) {
-            writer.append(entry.reader());
-            writer.append(' ');
+        int length = 0;
+        for (int i = 0; i < size; i++) {
+            length += entries.get(i).text().length() + 1;
+        }
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < size; i++) {
+            sb.append(entries.get(i).text()).append(' ');
         }
-        reset();
-        return writer.toString();
+        return sb.toString();
     }
 
     public List<Entry> entries() {
-        return this.entries;
+        if (activeEntries == null) {
+            activeEntries = entries.subList(0, size);
+        }
+        return activeEntries;
     }
 
     public Set<String> fields() {
         Set<String> fields = newHashSet();
-        for (Entry entry : entries) {
-            fields.add(entry.name());
+        for (int i = 0; i < size; i++) {
+            fields.add(entries.get(i).name());
         }
         return fields;
     }
@@ -134,70 +149,47 @@ public class AllEntries extends Reader {
         if (current == null) {
             return -1;
         }
-        if (customBoost) {
-            int result = current.reader().read(cbuf, off, len);
-            if (result == -1) {
-                if (itsSeparatorTime) {
-                    itsSeparatorTime = false;
-                    cbuf[off] = ' ';
-                    return 1;
-                }
-                itsSeparatorTime = true;
-                // close(); No need to close, we work on in mem readers
-                if (it.hasNext()) {
-                    current = it.next();
-                } else {
-                    current = null;
-                }
-                return read(cbuf, off, len);
+        int read = 0;
+        while (len > 0) {
+            String text = current.text();
+            int left = text.length() - currentPos;
+            if (left > 0) {
+                int n = left < len ? left : len;
+                text.getChars(currentPos, currentPos + n, cbuf, off);
+                currentPos += n;
+                read += n;
+                off += n;
+                len -= n;
+                continue;
             }
-            return result;
-        } else {
-            int read = 0;
-            while (len > 0) {
-                int result = current.reader().read(cbuf, off, len);
-                if (result == -1) {
-                    if (it.hasNext()) {
-                        current = it.next();
-                    } else {
-                        current = null;
-                        if (read == 0) {
-                            return -1;
-                        }
-                        return read;
-                    }
-                    cbuf[off++] = ' ';
-                    read++;
-                    len--;
-                } else {
-                    read += result;
-                    off += result;
-                    len -= result;
-                }
+            if (++currentIndex >= size) {
+                current = null;
+                break;
             }
-            return read;
+            current = entries.get(currentIndex);
+            currentPos = 0;
+            cbuf[off++] = ' ';
+            read++;
+            len--;
         }
+        return read == 0 ? -1 : read;
     }
 
     @Override
     public void close() {
-        if (current != null) {
-            current.reader().close();
-            current = null;
-        }
+        current = null;
     }
 
-
     @Override
     public boolean ready() throws IOException {
-        return (current != null) && current.reader().ready();
+        return current != null;
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        for (Entry entry : entries) {
-            sb.append(entry.name()).append(',');
+        for (int i = 0; i < size; i++) {
+            sb.append(entries.get(i).name()).append(',');
         }
         return sb.toString();
     }
@@ -44,6 +44,10 @@ public class AllField extends AbstractField {
         this.analyzer = analyzer;
     }
 
+    public AllEntries allEntries() {
+        return this.allEntries;
+    }
+
     @Override
     public String stringValue() {
         if (isStored()) {
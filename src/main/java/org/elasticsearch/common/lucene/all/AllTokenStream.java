@@ -20,31 +20,76 @@
 package org.elasticsearch.common.lucene.all;
 
 import org.apache.lucene.analysis.Analyzer;
-import org.apache.lucene.analysis.TokenFilter;
 import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
 import org.apache.lucene.analysis.tokenattributes.PayloadAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
 import org.apache.lucene.index.Payload;
+import org.elasticsearch.common.io.FastStringReader;
 
 import java.io.IOException;
+import java.util.List;
 
 import static org.apache.lucene.analysis.payloads.PayloadHelper.encodeFloat;
 
 /**
- *
+ * A token stream over all the {@link AllEntries} entries, chaining the analysis of each entry's text
+ * one after the other (as if they were separated by a single space), instead of analyzing the
+ * concatenated text of all entries.
+ * <p/>
+ * Since the entry each token comes from is known, the boost payload is exact, and is only set for tokens
+ * of entries with a boost other than <tt>1.0</tt> (the default {@link AllTermQuery} falls back to).
  */
-public final class AllTokenStream extends TokenFilter {
+public final class AllTokenStream extends TokenStream {
 
     public static TokenStream allTokenStream(String allFieldName, AllEntries allEntries, Analyzer analyzer) throws IOException {
-        return new AllTokenStream(analyzer.reusableTokenStream(allFieldName, allEntries), allEntries);
+        return new AllTokenStream(allFieldName, allEntries, analyzer);
     }
 
+    private final String allFieldName;
+
     private final AllEntries allEntries;
 
+    private final Analyzer analyzer;
+
+    private final CharTermAttribute termAttribute;
+
+    private final OffsetAttribute offsetAttribute;
+
+    private final PositionIncrementAttribute positionIncrementAttribute;
+
+    private final TypeAttribute typeAttribute;
+
     private final PayloadAttribute payloadAttribute;
 
-    AllTokenStream(TokenStream input, AllEntries allEntries) {
-        super(input);
+    private int entryIndex;
+
+    private int offsetBase;
+
+    private int finalOffset;
+
+    private Payload payload;
+
+    private TokenStream current;
+
+    private CharTermAttribute currentTermAttribute;
+
+    private OffsetAttribute currentOffsetAttribute;
+
+    private PositionIncrementAttribute currentPositionIncrementAttribute;
+
+    private TypeAttribute currentTypeAttribute;
+
+    AllTokenStream(String allFieldName, AllEntries allEntries, Analyzer analyzer) {
+        this.allFieldName = allFieldName;
         this.allEntries = allEntries;
+        this.analyzer = analyzer;
+        termAttribute = addAttribute(CharTermAttribute.class);
+        offsetAttribute = addAttribute(OffsetAttribute.class);
+        positionIncrementAttribute = addAttribute(PositionIncrementAttribute.class);
+        typeAttribute = addAttribute(TypeAttribute.class);
         payloadAttribute = addAttribute(PayloadAttribute.class);
     }
 
@@ -53,21 +98,77 @@ public final class AllTokenStream extends TokenFilter {
     }
 
     @Override
-    public final boolean incrementToken() throws IOException {
-        if (!input.incrementToken()) {
+    public boolean incrementToken() throws IOException {
+        while (true) {
+            if (current == null && !nextEntry()) {
+                return false;
+            }
+            if (current.incrementToken()) {
+                clearAttributes();
+                termAttribute.copyBuffer(currentTermAttribute.buffer(), 0, currentTermAttribute.length());
+                offsetAttribute.setOffset(offsetBase + currentOffsetAttribute.startOffset(), offsetBase + currentOffsetAttribute.endOffset());
+                positionIncrementAttribute.setPositionIncrement(currentPositionIncrementAttribute.getPositionIncrement());
+                typeAttribute.setType(currentTypeAttribute.type());
+                if (payload != null) {
+                    payloadAttribute.setPayload(payload);
+                }
+                return true;
+            }
+            current.end();
+            current.close();
+            current = null;
+        }
+    }
+
+    private boolean nextEntry() throws IOException {
+        List<AllEntries.Entry> entries = allEntries.entries();
+        if (entryIndex >= entries.size()) {
             return false;
         }
-        if (allEntries.current() != null) {
-            float boost = allEntries.current().boost();
-            if (boost != 1.0f) {
-                payloadAttribute.setPayload(new Payload(encodeFloat(boost)));
-            } else {
-                payloadAttribute.setPayload(null);
-            }
+        AllEntries.Entry entry = entries.get(entryIndex);
+        if (entryIndex > 0) {
+            // the single space separating it from the previous entry
+            offsetBase = finalOffset + 1;
         }
+        finalOffset = offsetBase + entry.text().length();
+        entryIndex++;
+
+        payload = entry.boost() != 1.0f ? new Payload(encodeFloat(entry.boost())) : null;
+
+        current = analyzer.reusableTokenStream(allFieldName, new FastStringReader(entry.text()));
+        current.reset();
+        currentTermAttribute = current.addAttribute(CharTermAttribute.class);
+        currentOffsetAttribute = current.addAttribute(OffsetAttribute.class);
+        currentPositionIncrementAttribute = current.addAttribute(PositionIncrementAttribute.class);
+        currentTypeAttribute = current.addAttribute(TypeAttribute.class);
         return true;
     }
 
+    @Override
+    public void end() throws IOException {
+        offsetAttribute.setOffset(finalOffset, finalOffset);
+    }
+
+    @Override
+    public void reset() throws IOException {
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+        entryIndex = 0;
+        offsetBase = 0;
+        finalOffset = 0;
+        payload = null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+    }
+
     @Override
     public String toString() {
         return allEntries.toString();
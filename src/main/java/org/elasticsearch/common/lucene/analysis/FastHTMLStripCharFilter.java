@@ -0,0 +1,680 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.lucene.analysis;
+
+import org.apache.lucene.analysis.CharStream;
+import org.apache.lucene.util.ArrayUtil;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An HTML stripping char filter producing the same output as {@link HTMLStripCharFilter}, but that reads
+ * its input in blocks and strips each block in a single pass over a buffer, instead of reading it one
+ * character at a time through a pushback reader. Text between markup is copied in blocks, and entities
+ * are resolved through a perfect hash table without creating strings.
+ * <p/>
+ * Nothing is looked at further than three times the read ahead limit past the start of markup, so
+ * the buffers are bounded by the read ahead limit rather than by the size of the input: markup that
+ * starts near the end of a block is carried over to the next one.
+ * <p/>
+ * Markup that is longer than the read ahead limit is kept, as {@link HTMLStripCharFilter} does. The
+ * differences are that a <tt>script</tt> or <tt>style</tt> start tag with no end tag is stripped (instead
+ * of being replaced with '&lt;'), and that offsets are corrected properly for processing instructions
+ * and for numeric entities terminated by whitespace.
+ */
+public class FastHTMLStripCharFilter extends ReusableCharFilter {
+
+    /**
+     * Buffers larger than this (in chars) are not kept around once the input has been stripped.
+     */
+    private static final int MAX_RETAINED_BUFFER = 32 * 1024;
+
+    /**
+     * The number of chars stripped per block, on top of the look ahead.
+     */
+    private static final int BLOCK_SIZE = 4096;
+
+    private static final char[][] entityNames;
+    private static final char[] entityValues;
+    private static final int entityMultiplier;
+    private static final int entityMask;
+
+    static {
+        Map<String, Character> entities = HTMLStripCharFilter.entityTable;
+        char[][] names = null;
+        char[] values = null;
+        int multiplier = 0;
+        int mask = 0;
+        // find the smallest table and multiplier with no collisions between the entity names
+        search:
+        for (int size = Integer.highestOneBit(entities.size()) << 2; ; size <<= 1) {
+            for (multiplier = 1; multiplier < 1 << 16; multiplier += 2) {
+                mask = size - 1;
+                names = new char[size][];
+                values = new char[size];
+                boolean collision = false;
+                for (Map.Entry<String, Character> entry : entities.entrySet()) {
+                    char[] name = entry.getKey().toCharArray();
+                    int slot = hash(name, 0, name.length, multiplier) & mask;
+                    if (names[slot] != null) {
+                        collision = true;
+                        break;
+                    }
+                    names[slot] = name;
+                    values[slot] = entry.getValue();
+                }
+                if (!collision) {
+                    break search;
+                }
+            }
+        }
+        entityNames = names;
+        entityValues = values;
+        entityMultiplier = multiplier;
+        entityMask = mask;
+    }
+
+    private static int hash(char[] chars, int offset, int length, int multiplier) {
+        int hash = length;
+        for (int i = offset; i < offset + length; i++) {
+            hash = hash * multiplier + chars[i];
+        }
+        return hash ^ (hash >>> 15);
+    }
+
+    private final Set<String> escapedTags;
+
+    private final int readAheadLimit;
+
+    // how far past the start of a piece of markup the parsing methods may look
+    private final int lookAhead;
+
+    private char[] in = new char[1024];
+
+    private int inLength;
+
+    private boolean eof;
+
+    private char[] out = new char[1024];
+
+    private int outLength;
+
+    private int outPos;
+
+    // the number of chars output by the blocks before the current one
+    private int outBase;
+
+    // the number of input chars eaten by the markup stripped so far
+    private int eaten;
+
+    // the value of the entity last read by readEntity
+    private char entityChar;
+
+    public FastHTMLStripCharFilter(CharStream source) {
+        this(source, null);
+    }
+
+    public FastHTMLStripCharFilter(CharStream source, Set<String> escapedTags) {
+        this(source, escapedTags, HTMLStripCharFilter.DEFAULT_READ_AHEAD);
+    }
+
+    public FastHTMLStripCharFilter(CharStream source, Set<String> escapedTags, int readAheadLimit) {
+        super(source);
+        this.escapedTags = escapedTags;
+        this.readAheadLimit = readAheadLimit;
+        // the end tag of a script or style element may start up to a read ahead limit past the end of its
+        // start tag, and a numeric entity is at most 15 chars long
+        this.lookAhead = (int) Math.min(3L * Math.max(readAheadLimit, 0) + 16, Integer.MAX_VALUE - BLOCK_SIZE);
+    }
+
+    public int getReadAheadLimit() {
+        return readAheadLimit;
+    }
+
+    @Override
+    public void reset(CharStream source) {
+        super.reset(source);
+        releaseBuffers();
+        inLength = 0;
+        eof = false;
+        outLength = 0;
+        outPos = 0;
+        outBase = 0;
+        eaten = 0;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (outPos >= outLength && !strip()) {
+            return -1;
+        }
+        return out[outPos++];
+    }
+
+    @Override
+    public int read(char cbuf[], int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (outPos >= outLength && !strip()) {
+            return -1;
+        }
+        int available = outLength - outPos;
+        if (len > available) {
+            len = available;
+        }
+        System.arraycopy(out, outPos, cbuf, off, len);
+        outPos += len;
+        return len;
+    }
+
+    @Override
+    public boolean ready() throws IOException {
+        return outPos < outLength || input.ready();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    /**
+     * Strips the next block of input into <tt>out</tt>, returning <tt>false</tt> once all the input has been
+     * stripped and read.
+     */
+    private boolean strip() throws IOException {
+        while (true) {
+            fill();
+            if (inLength == 0) {
+                // release the buffers now rather than on the next reset, which may never come
+                releaseBuffers();
+                return false;
+            }
+            stripBlock();
+            if (outLength > 0) {
+                return true;
+            }
+        }
+    }
+
+    private void stripBlock() {
+        if (out.length < inLength) {
+            out = new char[ArrayUtil.oversize(inLength, 2)];
+        }
+        outBase += outLength;
+        final char[] in = this.in;
+        // markup starting before this point can be read in full, unless the end of the input is reached
+        final int length = eof ? inLength : inLength - lookAhead;
+        int pos = 0;
+        int literalStart = 0;
+        int o = 0;
+        while (pos < length) {
+            char c = in[pos];
+            if (c != '<' && c != '&') {
+                pos++;
+                continue;
+            }
+            int end;
+            char replacement;
+            if (c == '&') {
+                end = readEntity(pos);
+                replacement = entityChar;
+            } else {
+                end = readMarkup(pos);
+                replacement = ' ';
+            }
+            if (end < 0) {
+                pos++;
+                continue;
+            }
+            int literals = pos - literalStart;
+            System.arraycopy(in, literalStart, out, o, literals);
+            o += literals;
+            out[o++] = replacement;
+            eaten += end - pos - 1;
+            addOffCorrectMap(outBase + o, eaten);
+            pos = end;
+            literalStart = end;
+        }
+        // the last piece of markup may have ended past the end of the block
+        int consumed = Math.max(pos, length);
+        int literals = consumed - literalStart;
+        System.arraycopy(in, literalStart, out, o, literals);
+        outLength = o + literals;
+        outPos = 0;
+        // carry what is left over to the next block
+        inLength -= consumed;
+        System.arraycopy(in, consumed, in, 0, inLength);
+    }
+
+    /**
+     * Reads input until the buffer holds a block and its look ahead, or the end of the input is reached.
+     */
+    private void fill() throws IOException {
+        final int target = BLOCK_SIZE + lookAhead;
+        while (!eof && inLength < target) {
+            if (inLength == in.length) {
+                in = ArrayUtil.grow(in, inLength + 1);
+            }
+            int read = input.read(in, inLength, Math.min(in.length, target) - inLength);
+            if (read == -1) {
+                eof = true;
+            } else {
+                inLength += read;
+            }
+        }
+    }
+
+    private void releaseBuffers() {
+        if (in.length > MAX_RETAINED_BUFFER) {
+            in = new char[1024];
+        }
+        if (out.length > MAX_RETAINED_BUFFER) {
+            out = new char[1024];
+        }
+    }
+
+    private int limit(int pos) {
+        int limit = pos + readAheadLimit;
+        return limit < 0 || limit > inLength ? inLength : limit;
+    }
+
+    private int readEntity(int pos) {
+        int i = pos + 1;
+        if (i >= inLength) {
+            return -1;
+        }
+        if (in[i] == '#') {
+            return readNumericEntity(i + 1);
+        }
+        // for an entity reference, require the ';' (so "Alpha&Beta Corp" is left alone)
+        int limit = limit(pos);
+        int nameStart = i++;
+        while (i < limit && Character.isLetter(in[i])) {
+            i++;
+        }
+        if (i >= inLength || in[i] != ';') {
+            return -1;
+        }
+        int nameLength = i - nameStart;
+        int slot = hash(in, nameStart, nameLength, entityMultiplier) & entityMask;
+        char[] name = entityNames[slot];
+        if (name == null || name.length != nameLength) {
+            return -1;
+        }
+        for (int j = 0; j < nameLength; j++) {
+            if (name[j] != in[nameStart + j]) {
+                return -1;
+            }
+        }
+        entityChar = entityValues[slot];
+        return i + 1;
+    }
+
+    private int readNumericEntity(int i) {
+        // "&#" has already been read at this point
+        if (i >= inLength) {
+            return -1;
+        }
+        int radix;
+        int maxDigits;
+        if (isDigit(in[i])) {
+            radix = 10;
+            maxDigits = 11;
+        } else if (in[i] == 'x') {
+            radix = 16;
+            maxDigits = 10;
+            i++;
+        } else {
+            return -1;
+        }
+        int digitsStart = i;
+        long value = 0;
+        while (i < inLength && i - digitsStart < maxDigits && (radix == 10 ? isDigit(in[i]) : isHex(in[i]))) {
+            value = value * radix + Character.digit(in[i], radix);
+            i++;
+        }
+        if (i == digitsStart || value > Integer.MAX_VALUE) {
+            return -1;
+        }
+        // in older HTML, an entity was not always terminated with a semicolon, so also accept
+        // the end of the input or whitespace (which is kept)
+        int end;
+        if (i >= inLength || isSpace(in[i])) {
+            end = i;
+        } else if (in[i] == ';') {
+            end = i + 1;
+        } else {
+            return -1;
+        }
+        entityChar = (char) value;
+        return end;
+    }
+
+    private int readMarkup(int pos) {
+        int i = pos + 1;
+        if (i >= inLength) {
+            return -1;
+        }
+        char c = in[i];
+        if (c == '!') {
+            return readBang(i + 1, false, limit(pos));
+        } else if (c == '/') {
+            return readEndTag(i + 1, true, limit(pos));
+        } else if (isAlpha(c)) {
+            return readTag(i, limit(pos));
+        } else if (c == '?') {
+            return readProcessingInstruction(i + 1, limit(pos));
+        }
+        return -1;
+    }
+
+    /**
+     * Reads a comment, or anything else starting with "&lt;!" up to the next '&gt;'.
+     */
+    private int readBang(int i, boolean inScript, int limit) {
+        // at this point, "<!" has been read
+        if (i + 1 < inLength && in[i] == '-' && in[i + 1] == '-') {
+            // a comment that isn't terminated is kept
+            return readComment(i, inScript, limit);
+        }
+        for (; i < limit; i++) {
+            if (in[i] == '>') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads comments the way browsers do, skipping over server side includes (and, within scripts,
+     * over quoted strings).
+     */
+    private int readComment(int i, boolean inScript, int limit) {
+        // at this point "<!" has been read
+        if (i + 1 >= limit || in[i] != '-' || in[i + 1] != '-') {
+            return -1;
+        }
+        i += 2;
+        while (i < limit) {
+            char c = in[i];
+            if (c == '-') {
+                if (i + 2 < limit && in[i + 1] == '-' && in[i + 2] == '>') {
+                    return i + 3;
+                }
+            } else if ((c == '\'' || c == '"') && inScript) {
+                int end = readScriptString(i, limit);
+                if (end >= 0) {
+                    i = end;
+                    continue;
+                }
+            } else if (c == '<') {
+                int end = eatSSI(i, limit);
+                if (end >= 0) {
+                    i = end;
+                    continue;
+                }
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    /**
+     * Skips past a server side include ("&lt;!--#...--&gt;"), <tt>i</tt> pointing at the '&lt;'.
+     */
+    private int eatSSI(int i, int limit) {
+        if (i + 4 >= limit || in[i + 1] != '!' || in[i + 2] != '-' || in[i + 3] != '-' || in[i + 4] != '#') {
+            return -1;
+        }
+        return readComment(i + 2, false, limit);
+    }
+
+    /**
+     * Reads a string escaped by backslashes, <tt>i</tt> pointing at the opening quote.
+     */
+    private int readScriptString(int i, int limit) {
+        char quote = in[i++];
+        while (i < limit) {
+            char c = in[i];
+            if (c == quote) {
+                return i + 1;
+            } else if (c == '\\') {
+                i += 2;
+                continue;
+            } else if (c == '<') {
+                int end = eatSSI(i, limit);
+                if (end >= 0) {
+                    i = end;
+                    continue;
+                }
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    /**
+     * Reads an end tag, "&lt;/" having been read.
+     */
+    private int readEndTag(int i, boolean checkEscaped, int limit) {
+        if (i >= limit || !isFirstIdChar(in[i])) {
+            return -1;
+        }
+        int nameStart = i++;
+        while (i < limit && isIdChar(in[i])) {
+            i++;
+        }
+        if (checkEscaped && isEscaped(nameStart, i)) {
+            return -1;
+        }
+        i = skipSpaces(i, limit);
+        return i < limit && in[i] == '>' ? i + 1 : -1;
+    }
+
+    /**
+     * Reads a start tag with its attributes, "&lt;" having been read and <tt>i</tt> pointing at the first
+     * letter of its name. The content of <tt>script</tt> and <tt>style</tt> elements is stripped as well.
+     */
+    private int readTag(int i, int limit) {
+        int nameStart = i++;
+        while (i < limit && isIdChar(in[i])) {
+            i++;
+        }
+        int nameEnd = i;
+        if (i >= limit || isEscaped(nameStart, nameEnd)) {
+            return -1;
+        }
+        char c = in[i];
+        if (c == '/') {
+            // a tag can close with "/>" as well as "/ >"
+            i = skipSpaces(i + 1, limit);
+            return i < limit && in[i] == '>' ? i + 1 : -1;
+        }
+        // after the tag name, there needs to be either whitespace or '>'
+        if (c != '>' && !isSpace(c)) {
+            return -1;
+        }
+        while (c != '>') {
+            if (isSpace(c)) {
+                i++;
+            } else if (isFirstIdChar(c)) {
+                i = readAttribute(i, limit);
+                if (i < 0) {
+                    return -1;
+                }
+            } else if (c == '/') {
+                i = skipSpaces(i + 1, limit);
+                return i < limit && in[i] == '>' ? i + 1 : -1;
+            } else {
+                return -1;
+            }
+            if (i >= limit) {
+                return -1;
+            }
+            c = in[i];
+        }
+        int end = i + 1;
+        if (isName(nameStart, nameEnd, "script") || isName(nameStart, nameEnd, "style")) {
+            // the content of script and style elements is discarded up to the end tag
+            int scriptEnd = findEndTag(end, limit(end));
+            if (scriptEnd >= 0) {
+                return scriptEnd;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Reads an attribute, with or without a (quoted or unquoted) value, <tt>i</tt> pointing at the first
+     * character of its name. Embedded server side includes are skipped, so they don't mess up quotes.
+     */
+    private int readAttribute(int i, int limit) {
+        i++;
+        while (i < limit && isIdChar(in[i])) {
+            i++;
+        }
+        i = skipSpaces(i, limit);
+        if (i >= limit) {
+            return -1;
+        }
+        if (in[i] != '=') {
+            // attributes may not have a value at all
+            return i;
+        }
+        i = skipSpaces(i + 1, limit);
+        if (i >= limit) {
+            return -1;
+        }
+        char quote = in[i++];
+        boolean quoted = quote == '"' || quote == '\'';
+        while (i < limit) {
+            char c = in[i];
+            if (quoted && c == quote) {
+                return i + 1;
+            } else if (!quoted && (c == '>' || isSpace(c))) {
+                return i;
+            } else if (c == '<') {
+                int end = eatSSI(i, limit);
+                if (end >= 0) {
+                    i = end;
+                    continue;
+                }
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the end tag of a script or style element, skipping comments and quoted strings.
+     */
+    private int findEndTag(int i, int limit) {
+        while (i < limit) {
+            char c = in[i];
+            if (c == '<') {
+                if (i + 1 >= limit) {
+                    return -1;
+                }
+                char next = in[i + 1];
+                if (next == '!') {
+                    int end = readBang(i + 2, true, limit);
+                    i = end >= 0 ? end : i + 2;
+                    continue;
+                }
+                if (next == '/') {
+                    return readEndTag(i + 2, false, limit(i));
+                }
+            } else if (c == '\'' || c == '"') {
+                i = readScriptString(i, limit);
+                if (i < 0) {
+                    return -1;
+                }
+                continue;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    private int readProcessingInstruction(int i, int limit) {
+        // "<?" has already been read
+        for (; i + 1 < limit; i++) {
+            if (in[i] == '?' && in[i + 1] == '>') {
+                return i + 2;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isEscaped(int start, int end) {
+        return escapedTags != null && escapedTags.contains(new String(in, start, end - start));
+    }
+
+    private boolean isName(int start, int end, String name) {
+        if (end - start != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (Character.toLowerCase(in[start + i]) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int skipSpaces(int i, int limit) {
+        while (i < limit && isSpace(in[i])) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isSpace(char ch) {
+        return ch == ' ' || ch == '\n' || ch == '\r' || ch == '\t';
+    }
+
+    private static boolean isHex(char ch) {
+        return (ch >= '0' && ch <= '9') || (ch >= 'A' && ch <= 'F') || (ch >= 'a' && ch <= 'f');
+    }
+
+    private static boolean isAlpha(char ch) {
+        return ch >= 'a' && ch <= 'z' || ch >= 'A' && ch <= 'Z';
+    }
+
+    private static boolean isDigit(char ch) {
+        return ch >= '0' && ch <= '9';
+    }
+
+    private static boolean isIdChar(char ch) {
+        return isAlpha(ch) || isDigit(ch) || ch == '.' || ch == '-' || ch == '_' || ch == ':' || Character.isLetter(ch);
+    }
+
+    private static boolean isFirstIdChar(char ch) {
+        return Character.isUnicodeIdentifierStart(ch);
+    }
+}
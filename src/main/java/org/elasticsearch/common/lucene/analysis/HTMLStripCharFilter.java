@@ -19,7 +19,6 @@
 
 package org.elasticsearch.common.lucene.analysis;
 
-import org.apache.lucene.analysis.BaseCharFilter;
 import org.apache.lucene.analysis.CharReader;
 import org.apache.lucene.analysis.CharStream;
 
@@ -34,7 +33,7 @@ import java.util.Set;
  *
  */
 // LUCENE MONITOR: Once the next Lucene version is out, use the built in HTML filter
-public class HTMLStripCharFilter extends BaseCharFilter {
+public class HTMLStripCharFilter extends ReusableCharFilter {
     private int readAheadLimit = DEFAULT_READ_AHEAD;
     private int safeReadAheadLimit = readAheadLimit - 3;
     private int numWhitespace = 0;
@@ -63,7 +62,7 @@ public class HTMLStripCharFilter extends BaseCharFilter {
     }
 
     public HTMLStripCharFilter(CharStream source) {
-        super(source.markSupported() ? source : CharReader.get(new BufferedReader(source)));
+        super(markSupported(source));
     }
 
     public HTMLStripCharFilter(CharStream source, Set<String> escapedTags) {
@@ -82,6 +81,22 @@ public class HTMLStripCharFilter extends BaseCharFilter {
         return readAheadLimit;
     }
 
+    @Override
+    public void reset(CharStream source) {
+        super.reset(markSupported(source));
+        numWhitespace = 0;
+        numRead = 0;
+        numEaten = 0;
+        numReturned = 0;
+        lastMark = 0;
+        pushed.setLength(0);
+        sb.setLength(0);
+    }
+
+    private static CharStream markSupported(CharStream source) {
+        return source.markSupported() ? source : CharReader.get(new BufferedReader(source));
+    }
+
     private int next() throws IOException {
         int len = pushed.length();
         if (len > 0) {
@@ -772,7 +787,7 @@ public class HTMLStripCharFilter extends BaseCharFilter {
     }
 
 
-    private static final HashMap<String, Character> entityTable;
+    static final HashMap<String, Character> entityTable;
 
     static {
         entityTable = new HashMap<String, Character>();
@@ -0,0 +1,110 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.lucene.analysis;
+
+import org.apache.lucene.analysis.CharFilter;
+import org.apache.lucene.analysis.CharStream;
+import org.apache.lucene.util.ArrayUtil;
+
+/**
+ * A {@link CharFilter} that can be reset to read from a new input, allowing analyzers to reuse the
+ * same char filter chain (per thread) instead of building a new one for each value analyzed.
+ * <p/>
+ * Keeps the same offset correction map as {@link org.apache.lucene.analysis.BaseCharFilter}, which is
+ * cleared on {@link #reset(CharStream)}.
+ */
+public abstract class ReusableCharFilter extends CharFilter {
+
+    private int offsets[];
+    private int diffs[];
+    private int size = 0;
+
+    protected ReusableCharFilter(CharStream in) {
+        super(in);
+    }
+
+    /**
+     * Resets the char filter to read from the provided input. Sub classes should reset their own
+     * state as well.
+     */
+    public void reset(CharStream input) {
+        this.input = input;
+        this.size = 0;
+    }
+
+    /**
+     * Retrieve the corrected offset.
+     */
+    @Override
+    protected int correct(int currentOff) {
+        if (offsets == null || size == 0 || currentOff < offsets[0]) {
+            return currentOff;
+        }
+
+        int hi = size - 1;
+        if (currentOff >= offsets[hi]) {
+            return currentOff + diffs[hi];
+        }
+
+        int lo = 0;
+        int mid = -1;
+
+        while (hi >= lo) {
+            mid = (lo + hi) >>> 1;
+            if (currentOff < offsets[mid]) {
+                hi = mid - 1;
+            } else if (currentOff > offsets[mid]) {
+                lo = mid + 1;
+            } else {
+                return currentOff + diffs[mid];
+            }
+        }
+
+        if (currentOff < offsets[mid]) {
+            return mid == 0 ? currentOff : currentOff + diffs[mid - 1];
+        } else {
+            return currentOff + diffs[mid];
+        }
+    }
+
+    protected int getLastCumulativeDiff() {
+        return size == 0 ? 0 : diffs[size - 1];
+    }
+
+    /**
+     * Adds an offset correction mapping at the given output stream offset.
+     */
+    protected void addOffCorrectMap(int off, int cumulativeDiff) {
+        if (offsets == null) {
+            offsets = new int[64];
+            diffs = new int[64];
+        } else if (size == offsets.length) {
+            offsets = ArrayUtil.grow(offsets);
+            diffs = ArrayUtil.grow(diffs);
+        }
+
+        if (size == 0 || off != offsets[size - 1]) {
+            offsets[size] = off;
+            diffs[size++] = cumulativeDiff;
+        } else { // Overwrite the diff at the last recorded offset
+            diffs[size - 1] = cumulativeDiff;
+        }
+    }
+}
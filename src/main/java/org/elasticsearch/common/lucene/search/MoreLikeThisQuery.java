@@ -20,12 +20,20 @@
 package org.elasticsearch.common.lucene.search;
 
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.search.*;
 import org.apache.lucene.search.similar.MoreLikeThis;
+import org.apache.lucene.util.PriorityQueue;
 import org.elasticsearch.common.io.FastStringReader;
+import org.elasticsearch.index.cache.docfreq.DocFreqCache;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -38,6 +46,8 @@ public class MoreLikeThisQuery extends Query {
     private Similarity similarity;
 
     private String likeText;
+    private String[] likeTerms;
+    private int[] likeTermsFreqs;
     private String[] moreLikeFields;
     private Analyzer analyzer;
     private float percentTermsToMatch = DEFAULT_PERCENT_TERMS_TO_MATCH;
@@ -51,6 +61,7 @@ public class MoreLikeThisQuery extends Query {
     private boolean boostTerms = MoreLikeThis.DEFAULT_BOOST;
     private float boostTermsFactor = 1;
 
+    private DocFreqCache docFreqCache;
 
     public MoreLikeThisQuery() {
 
@@ -62,31 +73,177 @@ public class MoreLikeThisQuery extends Query {
         this.analyzer = analyzer;
     }
 
+    /**
+     * Selects the top terms the same way {@link MoreLikeThis} does, but can start from already analyzed terms
+     * (for example, taken from term vectors) and looks up the doc freqs of all candidate terms in one sorted
+     * batch, through the {@link DocFreqCache} when one is set.
+     */
     @Override
     public Query rewrite(IndexReader reader) throws IOException {
-        MoreLikeThis mlt = new MoreLikeThis(reader, similarity == null ? new DefaultSimilarity() : similarity);
-
-        mlt.setFieldNames(moreLikeFields);
-        mlt.setAnalyzer(analyzer);
-        mlt.setMinTermFreq(minTermFrequency);
-        mlt.setMinDocFreq(minDocFreq);
-        mlt.setMaxDocFreq(maxDocFreq);
-        mlt.setMaxQueryTerms(maxQueryTerms);
-        mlt.setMinWordLen(minWordLen);
-        mlt.setMaxWordLen(maxWordLen);
-        mlt.setStopWords(stopWords);
-        mlt.setBoost(boostTerms);
-        mlt.setBoostFactor(boostTermsFactor);
-        BooleanQuery bq = (BooleanQuery) mlt.like(new FastStringReader(likeText));
-        BooleanClause[] clauses = bq.getClauses();
-
-        bq.setMinimumNumberShouldMatch((int) (clauses.length * percentTermsToMatch));
+        Map<String, int[]> termFreqs = likeTerms != null ? likeTermsFreqs() : analyzeLikeText();
+
+        // the candidate terms, for each field, sorted so the doc freq lookups are sequential
+        String[] words = new String[termFreqs.size()];
+        int[] freqs = new int[words.length];
+        int numWords = 0;
+        for (Map.Entry<String, int[]> entry : termFreqs.entrySet()) {
+            if (minTermFrequency > 0 && entry.getValue()[0] < minTermFrequency) {
+                continue;
+            }
+            words[numWords++] = entry.getKey();
+        }
+        Arrays.sort(words, 0, numWords);
+        for (int i = 0; i < numWords; i++) {
+            freqs[i] = termFreqs.get(words[i])[0];
+        }
+
+        int[][] docFreqs = new int[moreLikeFields.length][numWords];
+        for (int f = 0; f < moreLikeFields.length; f++) {
+            String field = moreLikeFields[f];
+            Term[] terms = new Term[numWords];
+            for (int i = 0; i < numWords; i++) {
+                terms[i] = new Term(field, words[i]);
+            }
+            if (docFreqCache != null) {
+                docFreqCache.docFreqs(reader, terms, docFreqs[f]);
+            } else {
+                for (int i = 0; i < numWords; i++) {
+                    docFreqs[f][i] = reader.docFreq(terms[i]);
+                }
+            }
+        }
+
+        Similarity similarity = this.similarity == null ? new DefaultSimilarity() : this.similarity;
+        int numDocs = reader.numDocs();
+        // like lucene, a max query terms of 0 (or less) means no limit
+        int queueSize = maxQueryTerms > 0 ? Math.min(maxQueryTerms, numWords) : numWords;
+        ScoreTermQueue queue = new ScoreTermQueue(Math.max(queueSize, 1));
+        for (int i = 0; i < numWords; i++) {
+            // use the field with the highest doc freq for the term
+            int topField = 0;
+            for (int f = 1; f < moreLikeFields.length; f++) {
+                if (docFreqs[f][i] > docFreqs[topField][i]) {
+                    topField = f;
+                }
+            }
+            int docFreq = docFreqs[topField][i];
+            if (minDocFreq > 0 && docFreq < minDocFreq) {
+                continue;
+            }
+            if (docFreq > maxDocFreq) {
+                continue;
+            }
+            if (docFreq == 0) {
+                continue;
+            }
+            float idf = similarity.idf(docFreq, numDocs);
+            queue.insertWithOverflow(new ScoreTerm(new Term(moreLikeFields[topField], words[i]), freqs[i] * idf));
+        }
+
+        ScoreTerm[] scoreTerms = new ScoreTerm[queue.size()];
+        for (int i = scoreTerms.length - 1; i >= 0; i--) {
+            scoreTerms[i] = queue.pop();
+        }
+
+        BooleanQuery bq = new BooleanQuery();
+        float bestScore = scoreTerms.length > 0 ? scoreTerms[0].score : 0;
+        for (ScoreTerm scoreTerm : scoreTerms) {
+            TermQuery tq = new TermQuery(scoreTerm.term);
+            if (boostTerms) {
+                tq.setBoost(boostTermsFactor * scoreTerm.score / bestScore);
+            }
+            try {
+                bq.add(tq, BooleanClause.Occur.SHOULD);
+            } catch (BooleanQuery.TooManyClauses ignore) {
+                break;
+            }
+        }
+
+        bq.setMinimumNumberShouldMatch((int) (bq.clauses().size() * percentTermsToMatch));
         return bq;
     }
 
+    private Map<String, int[]> likeTermsFreqs() {
+        Map<String, int[]> termFreqs = new HashMap<String, int[]>();
+        for (int i = 0; i < likeTerms.length; i++) {
+            if (isNoiseWord(likeTerms[i])) {
+                continue;
+            }
+            int[] freq = termFreqs.get(likeTerms[i]);
+            if (freq == null) {
+                termFreqs.put(likeTerms[i], new int[]{likeTermsFreqs[i]});
+            } else {
+                freq[0] += likeTermsFreqs[i];
+            }
+        }
+        return termFreqs;
+    }
+
+    private Map<String, int[]> analyzeLikeText() throws IOException {
+        Map<String, int[]> termFreqs = new HashMap<String, int[]>();
+        TokenStream ts = analyzer.reusableTokenStream(moreLikeFields[0], new FastStringReader(likeText));
+        try {
+            int tokenCount = 0;
+            CharTermAttribute termAtt = ts.addAttribute(CharTermAttribute.class);
+            ts.reset();
+            while (ts.incrementToken()) {
+                String word = termAtt.toString();
+                if (++tokenCount > MoreLikeThis.DEFAULT_MAX_NUM_TOKENS_PARSED) {
+                    break;
+                }
+                if (isNoiseWord(word)) {
+                    continue;
+                }
+                int[] freq = termFreqs.get(word);
+                if (freq == null) {
+                    termFreqs.put(word, new int[]{1});
+                } else {
+                    freq[0]++;
+                }
+            }
+            ts.end();
+        } finally {
+            ts.close();
+        }
+        return termFreqs;
+    }
+
+    private boolean isNoiseWord(String term) {
+        int len = term.length();
+        if (minWordLen > 0 && len < minWordLen) {
+            return true;
+        }
+        if (maxWordLen > 0 && len > maxWordLen) {
+            return true;
+        }
+        return stopWords != null && stopWords.contains(term);
+    }
+
+    static class ScoreTerm {
+        final Term term;
+        final float score;
+
+        ScoreTerm(Term term, float score) {
+            this.term = term;
+            this.score = score;
+        }
+    }
+
+    static class ScoreTermQueue extends PriorityQueue<ScoreTerm> {
+
+        ScoreTermQueue(int size) {
+            initialize(size);
+        }
+
+        @Override
+        protected boolean lessThan(ScoreTerm a, ScoreTerm b) {
+            return a.score < b.score;
+        }
+    }
+
     @Override
     public String toString(String field) {
-        return "like:" + likeText;
+        return "like:" + (likeText != null ? likeText : Arrays.toString(likeTerms));
     }
 
     public String getLikeText() {
@@ -97,6 +254,26 @@ public class MoreLikeThisQuery extends Query {
         this.likeText = likeText;
     }
 
+    public String[] getLikeTerms() {
+        return likeTerms;
+    }
+
+    /**
+     * Sets already analyzed terms (with their frequencies) to use instead of analyzing the like text.
+     */
+    public void setLikeTerms(String[] likeTerms, int[] likeTermsFreqs) {
+        this.likeTerms = likeTerms;
+        this.likeTermsFreqs = likeTermsFreqs;
+    }
+
+    public DocFreqCache getDocFreqCache() {
+        return docFreqCache;
+    }
+
+    public void setDocFreqCache(DocFreqCache docFreqCache) {
+        this.docFreqCache = docFreqCache;
+    }
+
     public String[] getMoreLikeFields() {
         return moreLikeFields;
     }
@@ -0,0 +1,143 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.math;
+
+/**
+ * Fast, table based approximations of trigonometric functions, used for geo distance calculations
+ * where a tiny loss of precision is acceptable.
+ */
+public class SloppyMath {
+
+    private static final double TWO_PI = 2 * Math.PI;
+
+    private static final int TRIG_TABLE_SIZE = 1 << 12;
+    private static final double TRIG_STEP = TWO_PI / TRIG_TABLE_SIZE;
+    private static final double TRIG_INV_STEP = 1 / TRIG_STEP;
+    private static final double[] SIN_TABLE = new double[TRIG_TABLE_SIZE + 1];
+    private static final double[] COS_TABLE = new double[TRIG_TABLE_SIZE + 1];
+
+    // above this, asin is too steep to be approximated with a table
+    private static final double ASIN_MAX = 0.95;
+    private static final int ASIN_TABLE_SIZE = 1 << 12;
+    private static final double ASIN_STEP = ASIN_MAX / ASIN_TABLE_SIZE;
+    private static final double ASIN_INV_STEP = 1 / ASIN_STEP;
+    private static final double[] ASIN_TABLE = new double[ASIN_TABLE_SIZE + 1];
+    private static final double[] ASIN_DER1_TABLE = new double[ASIN_TABLE_SIZE + 1];
+    private static final double[] ASIN_DER2_TABLE = new double[ASIN_TABLE_SIZE + 1];
+
+    static {
+        for (int i = 0; i <= TRIG_TABLE_SIZE; i++) {
+            double x = i * TRIG_STEP;
+            SIN_TABLE[i] = Math.sin(x);
+            COS_TABLE[i] = Math.cos(x);
+        }
+        for (int i = 0; i <= ASIN_TABLE_SIZE; i++) {
+            double x = i * ASIN_STEP;
+            double oneMinusXSquare = 1 - x * x;
+            ASIN_TABLE[i] = Math.asin(x);
+            ASIN_DER1_TABLE[i] = 1 / Math.sqrt(oneMinusXSquare);
+            ASIN_DER2_TABLE[i] = x / (oneMinusXSquare * Math.sqrt(oneMinusXSquare));
+        }
+    }
+
+    private SloppyMath() {
+    }
+
+    /**
+     * Returns the sine of the given angle (in radians). The relative error stays small for angles close to 0,
+     * which matters when computing short distances.
+     */
+    public static double sin(double a) {
+        boolean negative = a < 0;
+        if (negative) {
+            a = -a;
+        }
+        if (a > TWO_PI) {
+            a %= TWO_PI;
+        }
+        int index = (int) (a * TRIG_INV_STEP + 0.5);
+        double delta = a - index * TRIG_STEP;
+        double sin = SIN_TABLE[index];
+        double cos = COS_TABLE[index];
+        // taylor expansion around the table value
+        double result = sin + delta * (cos - delta * (sin * 0.5 + delta * cos * (1.0 / 6)));
+        return negative ? -result : result;
+    }
+
+    /**
+     * Returns the cosine of the given angle (in radians).
+     */
+    public static double cos(double a) {
+        if (a < 0) {
+            a = -a;
+        }
+        if (a > TWO_PI) {
+            a %= TWO_PI;
+        }
+        int index = (int) (a * TRIG_INV_STEP + 0.5);
+        double delta = a - index * TRIG_STEP;
+        double sin = SIN_TABLE[index];
+        double cos = COS_TABLE[index];
+        // taylor expansion around the table value
+        return cos - delta * (sin + delta * (cos * 0.5 - delta * sin * (1.0 / 6)));
+    }
+
+    /**
+     * Returns the arc sine of the given value, in radians.
+     */
+    public static double asin(double a) {
+        boolean negative = a < 0;
+        if (negative) {
+            a = -a;
+        }
+        double result;
+        if (a > ASIN_MAX) {
+            result = Math.asin(a);
+        } else {
+            int index = (int) (a * ASIN_INV_STEP + 0.5);
+            double delta = a - index * ASIN_STEP;
+            result = ASIN_TABLE[index] + delta * (ASIN_DER1_TABLE[index] + delta * ASIN_DER2_TABLE[index] * 0.5);
+        }
+        return negative ? -result : result;
+    }
+
+    /**
+     * Returns the central angle (in radians) between two points given in degrees, using the haversine formula.
+     */
+    public static double haversin(double lat1, double lon1, double lat2, double lon2) {
+        double radLat1 = Math.toRadians(lat1);
+        double radLat2 = Math.toRadians(lat2);
+        return haversin(radLat1, cos(radLat1), Math.toRadians(lon1), radLat2, Math.toRadians(lon2));
+    }
+
+    /**
+     * Returns the central angle (in radians) between two points, given in radians, allowing to reuse the cosine
+     * of the first latitude when computing distances from a fixed source.
+     */
+    public static double haversin(double radLat1, double cosLat1, double radLon1, double radLat2, double radLon2) {
+        double sinHalfLat = sin((radLat2 - radLat1) * 0.5);
+        double sinHalfLon = sin((radLon2 - radLon1) * 0.5);
+        double h = sinHalfLat * sinHalfLat + cosLat1 * cos(radLat2) * sinHalfLon * sinHalfLon;
+        if (h >= 1) {
+            return Math.PI;
+        }
+        return 2 * asin(Math.sqrt(h));
+    }
+}
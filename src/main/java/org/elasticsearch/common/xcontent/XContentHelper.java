@@ -22,10 +22,11 @@ package org.elasticsearch.common.xcontent;
 import com.google.common.base.Charsets;
 import org.elasticsearch.ElasticSearchParseException;
 import org.elasticsearch.common.collect.Tuple;
-import org.elasticsearch.common.compress.lzf.LZF;
+import org.elasticsearch.common.compress.CompressedStreamInput;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.stream.BytesStreamInput;
 import org.elasticsearch.common.io.stream.CachedStreamInput;
-import org.elasticsearch.common.io.stream.LZFStreamInput;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -39,12 +40,13 @@ import java.util.Map;
 public class XContentHelper {
 
     public static XContentParser createParser(byte[] data, int offset, int length) throws IOException {
-        if (LZF.isCompressed(data, offset, length)) {
+        Compressor compressor = CompressorFactory.compressor(data, offset, length);
+        if (compressor != null) {
             BytesStreamInput siBytes = new BytesStreamInput(data, offset, length, false);
-            LZFStreamInput siLzf = CachedStreamInput.cachedLzf(siBytes);
-            XContentType contentType = XContentFactory.xContentType(siLzf);
-            siLzf.resetToBufferStart();
-            return XContentFactory.xContent(contentType).createParser(siLzf);
+            CompressedStreamInput compressedIn = CachedStreamInput.cachedCompressed(compressor, siBytes);
+            XContentType contentType = XContentFactory.xContentType(compressedIn);
+            compressedIn.resetToBufferStart();
+            return XContentFactory.xContent(contentType).createParser(compressedIn);
         } else {
             return XContentFactory.xContent(data, offset, length).createParser(data, offset, length);
         }
@@ -54,12 +56,13 @@ public class XContentHelper {
         try {
             XContentParser parser;
             XContentType contentType;
-            if (LZF.isCompressed(data, offset, length)) {
+            Compressor compressor = CompressorFactory.compressor(data, offset, length);
+            if (compressor != null) {
                 BytesStreamInput siBytes = new BytesStreamInput(data, offset, length, false);
-                LZFStreamInput siLzf = CachedStreamInput.cachedLzf(siBytes);
-                contentType = XContentFactory.xContentType(siLzf);
-                siLzf.resetToBufferStart();
-                parser = XContentFactory.xContent(contentType).createParser(siLzf);
+                CompressedStreamInput compressedIn = CachedStreamInput.cachedCompressed(compressor, siBytes);
+                contentType = XContentFactory.xContentType(compressedIn);
+                compressedIn.resetToBufferStart();
+                parser = XContentFactory.xContent(contentType).createParser(compressedIn);
             } else {
                 contentType = XContentFactory.xContentType(data, offset, length);
                 parser = XContentFactory.xContent(contentType).createParser(data, offset, length);
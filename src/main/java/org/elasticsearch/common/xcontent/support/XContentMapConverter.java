@@ -77,6 +77,14 @@ public class XContentMapConverter {
         return map;
     }
 
+    /**
+     * Reads the value the parser is currently positioned on (including objects and arrays) into its
+     * map representation.
+     */
+    public static Object readValue(XContentParser parser) throws IOException {
+        return readValue(parser, SIMPLE_MAP_FACTORY, parser.currentToken());
+    }
+
     private static List<Object> readList(XContentParser parser, MapFactory mapFactory, XContentParser.Token t) throws IOException {
         ArrayList<Object> list = new ArrayList<Object>();
         while ((t = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
@@ -19,10 +19,13 @@
 
 package org.elasticsearch.discovery.zen.publish;
 
+import org.elasticsearch.ElasticSearchIllegalStateException;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.BytesHolder;
 import org.elasticsearch.common.component.AbstractComponent;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.stream.*;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.discovery.zen.DiscoveryNodesProvider;
@@ -67,7 +70,7 @@ public class PublishClusterStateAction extends AbstractComponent {
         CachedStreamOutput.Entry cachedEntry = CachedStreamOutput.popEntry();
         byte[] clusterStateInBytes;
         try {
-            HandlesStreamOutput stream = cachedEntry.cachedHandlesLzfBytes();
+            HandlesStreamOutput stream = cachedEntry.cachedHandlesCompressedBytes(CompressorFactory.defaultCompressor());
             ClusterState.Builder.writeTo(clusterState, stream);
             stream.flush();
             clusterStateInBytes = cachedEntry.bytes().copiedByteArray();
@@ -129,7 +132,12 @@ public class PublishClusterStateAction extends AbstractComponent {
 
         @Override
         public void messageReceived(PublishClusterStateRequest request, TransportChannel channel) throws Exception {
-            StreamInput in = CachedStreamInput.cachedHandlesLzf(new BytesStreamInput(request.clusterStateInBytes.bytes(), request.clusterStateInBytes.offset(), request.clusterStateInBytes.length(), false));
+            BytesHolder clusterStateInBytes = request.clusterStateInBytes;
+            Compressor compressor = CompressorFactory.compressor(clusterStateInBytes.bytes(), clusterStateInBytes.offset(), clusterStateInBytes.length());
+            if (compressor == null) {
+                throw new ElasticSearchIllegalStateException("cluster state received in an unknown compression format");
+            }
+            StreamInput in = CachedStreamInput.cachedHandlesCompressed(compressor, new BytesStreamInput(clusterStateInBytes.bytes(), clusterStateInBytes.offset(), clusterStateInBytes.length(), false));
             ClusterState clusterState = ClusterState.Builder.readFrom(in, nodesProvider.nodes().localNode());
             listener.onNewClusterState(clusterState);
             channel.sendResponse(VoidStreamable.INSTANCE);
@@ -25,8 +25,11 @@ import org.elasticsearch.cluster.ClusterName;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.RateLimiter;
 import org.elasticsearch.common.blobstore.*;
-import org.elasticsearch.common.compress.lzf.LZF;
+import org.elasticsearch.common.compress.CompressedStreamInput;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.stream.*;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
@@ -57,6 +60,10 @@ public abstract class BlobStoreGateway extends SharedStorageGateway {
 
     private boolean compress;
 
+    private RateLimiter snapshotRateLimiter;
+
+    private RateLimiter restoreRateLimiter;
+
     private volatile int currentIndex;
 
     protected BlobStoreGateway(Settings settings, ThreadPool threadPool, ClusterService clusterService) {
@@ -70,6 +77,17 @@ public abstract class BlobStoreGateway extends SharedStorageGateway {
         this.metaDataBlobContainer = blobStore.immutableBlobContainer(basePath.add("metadata"));
         this.currentIndex = findLatestIndex();
         this.compress = componentSettings.getAsBoolean("compress", true);
+
+        // node level throttling, shared by all the shards snapshotting to (or recovering from) this gateway
+        ByteSizeValue maxSnapshotSizePerSec = componentSettings.getAsBytesSize("max_snapshot_size_per_sec", new ByteSizeValue(0));
+        if (maxSnapshotSizePerSec.bytes() > 0) {
+            this.snapshotRateLimiter = new RateLimiter(maxSnapshotSizePerSec.mbFrac());
+        }
+        ByteSizeValue maxRestoreSizePerSec = componentSettings.getAsBytesSize("max_restore_size_per_sec", new ByteSizeValue(0));
+        if (maxRestoreSizePerSec.bytes() > 0) {
+            this.restoreRateLimiter = new RateLimiter(maxRestoreSizePerSec.mbFrac());
+        }
+        logger.debug("using max_snapshot_size_per_sec [{}], max_restore_size_per_sec [{}]", maxSnapshotSizePerSec, maxRestoreSizePerSec);
         logger.debug("Latest metadata found at index [" + currentIndex + "]");
     }
 
@@ -90,6 +108,22 @@ public abstract class BlobStoreGateway extends SharedStorageGateway {
         return this.chunkSize;
     }
 
+    /**
+     * The rate limiter applied to data written to the blob store while snapshotting, <tt>null</tt> if not throttled.
+     */
+    @Nullable
+    public RateLimiter snapshotRateLimiter() {
+        return this.snapshotRateLimiter;
+    }
+
+    /**
+     * The rate limiter applied to data read from the blob store while recovering, <tt>null</tt> if not throttled.
+     */
+    @Nullable
+    public RateLimiter restoreRateLimiter() {
+        return this.restoreRateLimiter;
+    }
+
     @Override
     public void reset() throws Exception {
         blobStore.delete(BlobPath.cleanPath());
@@ -147,7 +181,7 @@ public abstract class BlobStoreGateway extends SharedStorageGateway {
         try {
             StreamOutput streamOutput;
             if (compress) {
-                streamOutput = cachedEntry.cachedLZFBytes();
+                streamOutput = cachedEntry.cachedCompressedBytes(CompressorFactory.defaultCompressor());
             } else {
                 streamOutput = cachedEntry.cachedBytes();
             }
@@ -206,10 +240,11 @@ public abstract class BlobStoreGateway extends SharedStorageGateway {
     private MetaData readMetaData(byte[] data) throws IOException {
         XContentParser parser = null;
         try {
-            if (LZF.isCompressed(data)) {
+            Compressor compressor = CompressorFactory.compressor(data);
+            if (compressor != null) {
                 BytesStreamInput siBytes = new BytesStreamInput(data, false);
-                LZFStreamInput siLzf = CachedStreamInput.cachedLzf(siBytes);
-                parser = XContentFactory.xContent(XContentType.JSON).createParser(siLzf);
+                CompressedStreamInput compressedIn = CachedStreamInput.cachedCompressed(compressor, siBytes);
+                parser = XContentFactory.xContent(XContentType.JSON).createParser(compressedIn);
             } else {
                 parser = XContentFactory.xContent(XContentType.JSON).createParser(data);
             }
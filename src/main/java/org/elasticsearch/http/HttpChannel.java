@@ -19,11 +19,11 @@
 
 package org.elasticsearch.http;
 
-import org.elasticsearch.rest.RestChannel;
+import org.elasticsearch.rest.StreamingRestChannel;
 
 /**
  *
  */
-public interface HttpChannel extends RestChannel {
+public interface HttpChannel extends StreamingRestChannel {
 
 }
@@ -19,13 +19,21 @@
 
 package org.elasticsearch.http.netty;
 
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.CachedStreamOutput;
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.http.HttpChannel;
 import org.elasticsearch.http.HttpException;
+import org.elasticsearch.http.netty.pipelining.OrderedDownstreamChannelEvent;
+import org.elasticsearch.http.netty.pipelining.OrderedUpstreamMessageEvent;
+import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestResponse;
 import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.rest.XContentRestResponse;
+import org.elasticsearch.rest.action.support.RestXContentBuilder;
 import org.elasticsearch.rest.support.RestUtils;
 import org.elasticsearch.transport.netty.NettyTransport;
 import org.jboss.netty.buffer.ChannelBuffer;
@@ -36,57 +44,44 @@ import org.jboss.netty.channel.ChannelFutureListener;
 import org.jboss.netty.handler.codec.http.*;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Set;
 
 /**
  *
  */
 public class NettyHttpChannel implements HttpChannel {
+
+    private static final ESLogger logger = Loggers.getLogger(NettyHttpChannel.class);
+
     private final NettyHttpServerTransport transport;
     private final Channel channel;
     private final org.jboss.netty.handler.codec.http.HttpRequest request;
 
+    @Nullable
+    private final OrderedUpstreamMessageEvent orderedUpstreamMessageEvent;
+    private int subsequence;
+
     public NettyHttpChannel(NettyHttpServerTransport transport, Channel channel, org.jboss.netty.handler.codec.http.HttpRequest request) {
+        this(transport, channel, request, null);
+    }
+
+    public NettyHttpChannel(NettyHttpServerTransport transport, Channel channel, org.jboss.netty.handler.codec.http.HttpRequest request,
+                            @Nullable OrderedUpstreamMessageEvent orderedUpstreamMessageEvent) {
         this.transport = transport;
         this.channel = channel;
         this.request = request;
+        this.orderedUpstreamMessageEvent = orderedUpstreamMessageEvent;
     }
 
     @Override
     public void sendResponse(RestResponse response) {
 
         // Decide whether to close the connection or not.
-        boolean http10 = request.getProtocolVersion().equals(HttpVersion.HTTP_1_0);
-        boolean close =
-                HttpHeaders.Values.CLOSE.equalsIgnoreCase(request.getHeader(HttpHeaders.Names.CONNECTION)) ||
-                        (http10 && !HttpHeaders.Values.KEEP_ALIVE.equalsIgnoreCase(request.getHeader(HttpHeaders.Names.CONNECTION)));
+        boolean close = isCloseConnection();
 
         // Build the response object.
-        HttpResponseStatus status = getStatus(response.status());
-        org.jboss.netty.handler.codec.http.HttpResponse resp;
-        if (http10) {
-            resp = new DefaultHttpResponse(HttpVersion.HTTP_1_0, status);
-            if (!close) {
-                resp.addHeader(HttpHeaders.Names.CONNECTION, "Keep-Alive");
-            }
-        } else {
-            resp = new DefaultHttpResponse(HttpVersion.HTTP_1_1, status);
-        }
-        if (RestUtils.isBrowser(request.getHeader(HttpHeaders.Names.USER_AGENT))) {
-            // add support for cross origin
-            resp.addHeader("Access-Control-Allow-Origin", "*");
-            if (request.getMethod() == HttpMethod.OPTIONS) {
-                // also add more access control parameters
-                resp.addHeader("Access-Control-Max-Age", 1728000);
-                resp.addHeader("Access-Control-Allow-Methods", "PUT, DELETE");
-                resp.addHeader("Access-Control-Allow-Headers", "X-Requested-With");
-            }
-        }
-
-        String opaque = request.getHeader("X-Opaque-Id");
-        if (opaque != null) {
-            resp.addHeader("X-Opaque-Id", opaque);
-        }
+        org.jboss.netty.handler.codec.http.HttpResponse resp = newResponse(response.status(), close);
 
         // Convert the response content to a ChannelBuffer.
         ChannelFutureListener releaseContentListener = null;
@@ -130,6 +125,99 @@ public class NettyHttpChannel implements HttpChannel {
 
         resp.setHeader(HttpHeaders.Names.CONTENT_LENGTH, String.valueOf(buf.readableBytes()));
 
+        // Write the response.
+        ChannelFuture future = write(resp, true);
+        if (releaseContentListener != null) {
+            future.addListener(releaseContentListener);
+        }
+
+        // Close the connection after the write operation is done if necessary.
+        if (close) {
+            future.addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    @Override
+    public void sendChunkedResponse(RestRequest restRequest, RestStatus status, ToXContent content) throws IOException {
+        if (request.getProtocolVersion().equals(HttpVersion.HTTP_1_0) || orderedUpstreamMessageEvent != null) {
+            // no chunked transfer encoding with HTTP 1.0, and on a pipelined channel the chunks could be held behind the
+            // responses to earlier requests, with nothing to throttle the writer, build the whole response in memory
+            XContentBuilder builder = RestXContentBuilder.restContentBuilder(restRequest);
+            builder.startObject();
+            content.toXContent(builder, restRequest);
+            builder.endObject();
+            sendResponse(new XContentRestResponse(restRequest, status, builder));
+            return;
+        }
+
+        boolean close = isCloseConnection();
+        org.jboss.netty.handler.codec.http.HttpResponse resp = newResponse(status, close);
+        resp.setChunked(true);
+        resp.setHeader(HttpHeaders.Names.TRANSFER_ENCODING, HttpHeaders.Values.CHUNKED);
+
+        ChunkedOutputStream out = new ChunkedOutputStream(resp, (int) transport.maxChunkSize.bytes());
+        XContentBuilder builder = RestXContentBuilder.restContentBuilder(restRequest, out);
+        resp.setHeader(HttpHeaders.Names.CONTENT_TYPE, builder.contentType().restContentType());
+        try {
+            builder.startObject();
+            content.toXContent(builder, restRequest);
+            builder.endObject();
+            builder.flush();
+            // writes whatever is left in the buffer as the last data chunk
+            out.close();
+        } catch (Exception e) {
+            if (!out.headersSent()) {
+                // nothing made it to the channel yet, let the caller respond with the failure instead
+                if (e instanceof IOException) {
+                    throw (IOException) e;
+                }
+                throw new HttpException("Failed to build chunked response", e);
+            }
+            // the status line has been sent already, the only way to signal the failure is to break the connection
+            logger.debug("failed to stream chunked response, closing channel [{}]", e, channel);
+            channel.close();
+            return;
+        }
+        ChannelFuture future = write(HttpChunk.LAST_CHUNK, true);
+        if (close) {
+            future.addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    private boolean isCloseConnection() {
+        boolean http10 = request.getProtocolVersion().equals(HttpVersion.HTTP_1_0);
+        return HttpHeaders.Values.CLOSE.equalsIgnoreCase(request.getHeader(HttpHeaders.Names.CONNECTION)) ||
+                (http10 && !HttpHeaders.Values.KEEP_ALIVE.equalsIgnoreCase(request.getHeader(HttpHeaders.Names.CONNECTION)));
+    }
+
+    private org.jboss.netty.handler.codec.http.HttpResponse newResponse(RestStatus restStatus, boolean close) {
+        boolean http10 = request.getProtocolVersion().equals(HttpVersion.HTTP_1_0);
+        HttpResponseStatus status = getStatus(restStatus);
+        org.jboss.netty.handler.codec.http.HttpResponse resp;
+        if (http10) {
+            resp = new DefaultHttpResponse(HttpVersion.HTTP_1_0, status);
+            if (!close) {
+                resp.addHeader(HttpHeaders.Names.CONNECTION, "Keep-Alive");
+            }
+        } else {
+            resp = new DefaultHttpResponse(HttpVersion.HTTP_1_1, status);
+        }
+        if (RestUtils.isBrowser(request.getHeader(HttpHeaders.Names.USER_AGENT))) {
+            // add support for cross origin
+            resp.addHeader("Access-Control-Allow-Origin", "*");
+            if (request.getMethod() == HttpMethod.OPTIONS) {
+                // also add more access control parameters
+                resp.addHeader("Access-Control-Max-Age", 1728000);
+                resp.addHeader("Access-Control-Allow-Methods", "PUT, DELETE");
+                resp.addHeader("Access-Control-Allow-Headers", "X-Requested-With");
+            }
+        }
+
+        String opaque = request.getHeader("X-Opaque-Id");
+        if (opaque != null) {
+            resp.addHeader("X-Opaque-Id", opaque);
+        }
+
         if (transport.resetCookies) {
             String cookieString = request.getHeader(HttpHeaders.Names.COOKIE);
             if (cookieString != null) {
@@ -145,16 +233,99 @@ public class NettyHttpChannel implements HttpChannel {
                 }
             }
         }
+        return resp;
+    }
 
-        // Write the response.
-        ChannelFuture future = channel.write(resp);
-        if (releaseContentListener != null) {
-            future.addListener(releaseContentListener);
+    /**
+     * Writes the message to the channel. When pipelining is enabled, the write goes through the pipelining
+     * handler so it is only sent once the responses to all the earlier requests on the channel have been written.
+     * Chunked responses are never written through the pipelining handler.
+     */
+    private ChannelFuture write(Object message, boolean last) {
+        if (orderedUpstreamMessageEvent == null) {
+            return channel.write(message);
         }
+        OrderedDownstreamChannelEvent event = new OrderedDownstreamChannelEvent(orderedUpstreamMessageEvent, subsequence++, last, message);
+        channel.getPipeline().sendDownstream(event);
+        return event.getFuture();
+    }
 
-        // Close the connection after the write operation is done if necessary.
-        if (close) {
-            future.addListener(ChannelFutureListener.CLOSE);
+    /**
+     * Buffers the response content up to the chunk size, and writes it to the channel as http chunks,
+     * sending the response headers before the first chunk.
+     */
+    private class ChunkedOutputStream extends OutputStream {
+
+        private final org.jboss.netty.handler.codec.http.HttpResponse headers;
+        private final byte[] buffer;
+        private int count;
+        private boolean headersSent;
+
+        ChunkedOutputStream(org.jboss.netty.handler.codec.http.HttpResponse headers, int chunkSize) {
+            this.headers = headers;
+            this.buffer = new byte[chunkSize];
+        }
+
+        boolean headersSent() {
+            return headersSent;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) {
+                writeChunk();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (count == buffer.length) {
+                    writeChunk();
+                }
+                int toCopy = Math.min(len, buffer.length - count);
+                System.arraycopy(b, off, buffer, count, toCopy);
+                count += toCopy;
+                off += toCopy;
+                len -= toCopy;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // chunks are only written once full, to avoid tiny chunks on each flush of the generator
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (count > 0 || !headersSent) {
+                writeChunk();
+            }
+        }
+
+        private void writeChunk() throws IOException {
+            if (!channel.isOpen()) {
+                throw new IOException("channel closed while streaming the response");
+            }
+            if (!headersSent) {
+                headersSent = true;
+                NettyHttpChannel.this.write(headers, false);
+            }
+            if (count == 0) {
+                return;
+            }
+            ChannelFuture future = NettyHttpChannel.this.write(new DefaultHttpChunk(ChannelBuffers.copiedBuffer(buffer, 0, count)), false);
+            count = 0;
+            if (!channel.isWritable()) {
+                // the client does not keep up, wait for the chunk to be written instead of buffering the whole response,
+                // the write goes straight to the channel (no pipelining), so it only waits on the client itself
+                try {
+                    future.awaitUninterruptibly();
+                } catch (IllegalStateException e) {
+                    // we are on an I/O thread, which can't wait on its own writes
+                }
+            }
         }
     }
 
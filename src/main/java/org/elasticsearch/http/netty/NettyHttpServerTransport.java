@@ -34,6 +34,7 @@ import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.http.*;
 import org.elasticsearch.http.HttpRequest;
+import org.elasticsearch.http.netty.pipelining.HttpPipeliningHandler;
 import org.elasticsearch.transport.BindTransportException;
 import org.elasticsearch.transport.netty.NettyInternalESLoggerFactory;
 import org.jboss.netty.bootstrap.ServerBootstrap;
@@ -85,6 +86,10 @@ public class NettyHttpServerTransport extends AbstractLifecycleComponent<HttpSer
 
     final boolean resetCookies;
 
+    final boolean pipelining;
+
+    final int pipeliningMaxEvents;
+
     private final String port;
 
     private final String bindHost;
@@ -122,6 +127,9 @@ public class NettyHttpServerTransport extends AbstractLifecycleComponent<HttpSer
         // don't reset cookies by default, since I don't think we really need to, and parsing of cookies with netty is slow
         // and requires a large stack allocation because of the use of regex
         this.resetCookies = componentSettings.getAsBoolean("reset_cookies", settings.getAsBoolean("http.reset_cookies", false));
+        // responses to pipelined requests are held until the responses to the earlier requests on the channel are written
+        this.pipelining = componentSettings.getAsBoolean("pipelining", settings.getAsBoolean("http.pipelining", false));
+        this.pipeliningMaxEvents = componentSettings.getAsInt("pipelining.max_events", settings.getAsInt("http.pipelining.max_events", 10000));
         this.workerCount = componentSettings.getAsInt("worker_count", Runtime.getRuntime().availableProcessors() * 2);
         this.blockingServer = settings.getAsBoolean("http.blocking_server", settings.getAsBoolean(TCP_BLOCKING_SERVER, settings.getAsBoolean(TCP_BLOCKING, false)));
         this.port = componentSettings.get("port", settings.get("http.port", "9200-9300"));
@@ -143,8 +151,8 @@ public class NettyHttpServerTransport extends AbstractLifecycleComponent<HttpSer
         }
         this.maxContentLength = maxContentLength;
 
-        logger.debug("using max_chunk_size[{}], max_header_size[{}], max_initial_line_length[{}], max_content_length[{}]",
-                maxChunkSize, maxHeaderSize, maxInitialLineLength, this.maxContentLength);
+        logger.debug("using max_chunk_size[{}], max_header_size[{}], max_initial_line_length[{}], max_content_length[{}], pipelining[{}], pipelining.max_events[{}]",
+                maxChunkSize, maxHeaderSize, maxInitialLineLength, this.maxContentLength, pipelining, pipeliningMaxEvents);
     }
 
     public void httpServerAdapter(HttpServerAdapter httpServerAdapter) {
@@ -308,6 +316,9 @@ public class NettyHttpServerTransport extends AbstractLifecycleComponent<HttpSer
             if (transport.compression) {
                 pipeline.addLast("encoder_compress", new HttpContentCompressor(transport.compressionLevel));
             }
+            if (transport.pipelining) {
+                pipeline.addLast("pipelining", new HttpPipeliningHandler(transport.pipeliningMaxEvents));
+            }
             pipeline.addLast("handler", requestHandler);
             return pipeline;
         }
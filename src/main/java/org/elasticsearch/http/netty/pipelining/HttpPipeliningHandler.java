@@ -0,0 +1,140 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.http.netty.pipelining;
+
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.logging.Loggers;
+import org.jboss.netty.channel.*;
+import org.jboss.netty.handler.codec.http.HttpRequest;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Implements HTTP pipelining ordering, ensuring that responses are written in the same order as their
+ * requests were received, even though the requests may be executed (and answered) concurrently.
+ * <p/>
+ * Each incoming request is tagged with a sequence number ({@link OrderedUpstreamMessageEvent}), and responses
+ * have to be written back as {@link OrderedDownstreamChannelEvent}s. Responses that arrive ahead of their
+ * turn are held until all the responses to earlier requests have been fully written. If the number of held
+ * events grows beyond <tt>maxEventsHeld</tt>, the channel is closed, protecting the node from a client that
+ * keeps pipelining requests without reading the responses.
+ * <p/>
+ * A handler instance keeps per channel state, and so can't be shared.
+ */
+public class HttpPipeliningHandler extends SimpleChannelHandler {
+
+    private static final ESLogger logger = Loggers.getLogger(HttpPipeliningHandler.class);
+
+    private static final Comparator<OrderedDownstreamChannelEvent> ORDER = new Comparator<OrderedDownstreamChannelEvent>() {
+        @Override
+        public int compare(OrderedDownstreamChannelEvent o1, OrderedDownstreamChannelEvent o2) {
+            int sequence1 = o1.getOrderedUpstreamMessageEvent().getSequence();
+            int sequence2 = o2.getOrderedUpstreamMessageEvent().getSequence();
+            if (sequence1 != sequence2) {
+                return sequence1 < sequence2 ? -1 : 1;
+            }
+            int subsequence1 = o1.getSubsequence();
+            int subsequence2 = o2.getSubsequence();
+            return subsequence1 < subsequence2 ? -1 : (subsequence1 == subsequence2 ? 0 : 1);
+        }
+    };
+
+    public static final int INITIAL_EVENTS_HELD = 3;
+
+    private final int maxEventsHeld;
+
+    private int sequence;
+    private int nextRequiredSequence;
+    private int nextRequiredSubsequence;
+
+    private final PriorityQueue<OrderedDownstreamChannelEvent> holdingQueue;
+
+    /**
+     * @param maxEventsHeld the maximum number of channel events that will be retained prior to aborting the channel
+     *                      connection. This is required as events cannot queue up indefinitely; we would run out of
+     *                      memory if this was the case.
+     */
+    public HttpPipeliningHandler(int maxEventsHeld) {
+        this.maxEventsHeld = maxEventsHeld;
+        this.holdingQueue = new PriorityQueue<OrderedDownstreamChannelEvent>(INITIAL_EVENTS_HELD, ORDER);
+    }
+
+    @Override
+    public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+        Object msg = e.getMessage();
+        if (msg instanceof HttpRequest) {
+            ctx.sendUpstream(new OrderedUpstreamMessageEvent(sequence++, e.getChannel(), msg, e.getRemoteAddress()));
+        } else {
+            ctx.sendUpstream(e);
+        }
+    }
+
+    @Override
+    public void handleDownstream(ChannelHandlerContext ctx, ChannelEvent e) throws Exception {
+        if (!(e instanceof OrderedDownstreamChannelEvent)) {
+            super.handleDownstream(ctx, e);
+            return;
+        }
+        synchronized (holdingQueue) {
+            OrderedDownstreamChannelEvent currentEvent = (OrderedDownstreamChannelEvent) e;
+            holdingQueue.add(currentEvent);
+
+            while (!holdingQueue.isEmpty()) {
+                OrderedDownstreamChannelEvent nextEvent = holdingQueue.peek();
+                if (nextEvent.getOrderedUpstreamMessageEvent().getSequence() != nextRequiredSequence ||
+                        nextEvent.getSubsequence() != nextRequiredSubsequence) {
+                    break;
+                }
+                holdingQueue.remove();
+                ctx.sendDownstream(nextEvent.getChannelEvent());
+                if (nextEvent.isLast()) {
+                    ++nextRequiredSequence;
+                    nextRequiredSubsequence = 0;
+                } else {
+                    ++nextRequiredSubsequence;
+                }
+            }
+
+            if (holdingQueue.size() > maxEventsHeld) {
+                logger.debug("too many pipelined events held [{}] for channel [{}], closing it", holdingQueue.size(), e.getChannel());
+                failHeldEvents();
+                Channels.close(e.getChannel());
+            }
+        }
+    }
+
+    @Override
+    public void channelClosed(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+        synchronized (holdingQueue) {
+            // nothing will ever release the held events, fail them so no one waits on them
+            failHeldEvents();
+        }
+        super.channelClosed(ctx, e);
+    }
+
+    private void failHeldEvents() {
+        OrderedDownstreamChannelEvent event;
+        while ((event = holdingQueue.poll()) != null) {
+            event.getFuture().setFailure(new ClosedChannelException());
+        }
+    }
+}
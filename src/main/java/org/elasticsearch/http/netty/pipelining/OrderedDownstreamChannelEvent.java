@@ -0,0 +1,73 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.http.netty.pipelining;
+
+import org.jboss.netty.channel.*;
+
+/**
+ * A downstream event written in response to an {@link OrderedUpstreamMessageEvent}. A single
+ * response may be written as several events (for example, a chunked response), ordered by
+ * their subsequence, with the last one flagged as such.
+ */
+public class OrderedDownstreamChannelEvent implements ChannelEvent {
+
+    private final ChannelEvent ce;
+    private final OrderedUpstreamMessageEvent oue;
+    private final int subsequence;
+    private final boolean last;
+
+    public OrderedDownstreamChannelEvent(OrderedUpstreamMessageEvent oue, int subsequence, boolean last, ChannelEvent ce) {
+        this.oue = oue;
+        this.ce = ce;
+        this.subsequence = subsequence;
+        this.last = last;
+    }
+
+    public OrderedDownstreamChannelEvent(OrderedUpstreamMessageEvent oue, int subsequence, boolean last, Object message) {
+        this(oue, subsequence, last, new DownstreamMessageEvent(oue.getChannel(), Channels.future(oue.getChannel()),
+                message, oue.getRemoteAddress()));
+    }
+
+    public OrderedUpstreamMessageEvent getOrderedUpstreamMessageEvent() {
+        return oue;
+    }
+
+    public int getSubsequence() {
+        return subsequence;
+    }
+
+    public boolean isLast() {
+        return last;
+    }
+
+    public ChannelEvent getChannelEvent() {
+        return ce;
+    }
+
+    @Override
+    public Channel getChannel() {
+        return ce.getChannel();
+    }
+
+    @Override
+    public ChannelFuture getFuture() {
+        return ce.getFuture();
+    }
+}
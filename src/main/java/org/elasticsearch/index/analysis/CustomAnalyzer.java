@@ -20,6 +20,7 @@
 package org.elasticsearch.index.analysis;
 
 import org.apache.lucene.analysis.*;
+import org.elasticsearch.common.lucene.analysis.ReusableCharFilter;
 
 import java.io.IOException;
 import java.io.Reader;
@@ -67,35 +68,52 @@ public final class CustomAnalyzer extends Analyzer implements PositionIncrementG
 
     @Override
     public final TokenStream tokenStream(String fieldName, Reader reader) {
-        return buildHolder(reader).tokenStream;
+        CharStream[] charStreams = newCharStreams();
+        return buildHolder(charFilterIfNeeded(reader, charStreams), charStreams).tokenStream;
     }
 
     @Override
     public final TokenStream reusableTokenStream(String fieldName, Reader reader) throws IOException {
         Holder holder = (Holder) getPreviousTokenStream();
         if (holder == null) {
-            holder = buildHolder(charFilterIfNeeded(reader));
+            CharStream[] charStreams = newCharStreams();
+            holder = buildHolder(charFilterIfNeeded(reader, charStreams), charStreams);
             setPreviousTokenStream(holder);
         } else {
-            holder.tokenizer.reset(charFilterIfNeeded(reader));
+            holder.tokenizer.reset(charFilterIfNeeded(reader, holder.charStreams));
         }
         return holder.tokenStream;
     }
 
-    private Holder buildHolder(Reader input) {
+    private Holder buildHolder(Reader input, CharStream[] charStreams) {
         Tokenizer tokenizer = tokenizerFactory.create(input);
         TokenStream tokenStream = tokenizer;
         for (TokenFilterFactory tokenFilter : tokenFilters) {
             tokenStream = tokenFilter.create(tokenStream);
         }
-        return new Holder(tokenizer, tokenStream);
+        return new Holder(tokenizer, tokenStream, charStreams);
     }
 
-    private Reader charFilterIfNeeded(Reader reader) {
-        if (charFilters != null && charFilters.length > 0) {
+    private CharStream[] newCharStreams() {
+        return charFilters == null || charFilters.length == 0 ? null : new CharStream[charFilters.length];
+    }
+
+    /**
+     * Wraps the reader with the char filters chain, reusing the char filters from the previous chain
+     * (<tt>charStreams</tt>) that can be reset to a new input.
+     */
+    private Reader charFilterIfNeeded(Reader reader, CharStream[] charStreams) {
+        if (charStreams != null) {
             CharStream charStream = CharReader.get(reader);
-            for (CharFilterFactory charFilter : charFilters) {
-                charStream = charFilter.create(charStream);
+            for (int i = 0; i < charFilters.length; i++) {
+                CharStream charFilter = charStreams[i];
+                if (charFilter instanceof ReusableCharFilter) {
+                    ((ReusableCharFilter) charFilter).reset(charStream);
+                } else {
+                    charFilter = charFilters[i].create(charStream);
+                    charStreams[i] = charFilter;
+                }
+                charStream = charFilter;
             }
             reader = charStream;
         }
@@ -105,10 +123,12 @@ public final class CustomAnalyzer extends Analyzer implements PositionIncrementG
     static class Holder {
         final Tokenizer tokenizer;
         final TokenStream tokenStream;
+        final CharStream[] charStreams;
 
-        private Holder(Tokenizer tokenizer, TokenStream tokenStream) {
+        private Holder(Tokenizer tokenizer, TokenStream tokenStream, CharStream[] charStreams) {
             this.tokenizer = tokenizer;
             this.tokenStream = tokenStream;
+            this.charStreams = charStreams;
         }
     }
 }
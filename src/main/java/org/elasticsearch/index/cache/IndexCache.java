@@ -32,6 +32,7 @@ import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.AbstractIndexComponent;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.cache.bloom.BloomCache;
+import org.elasticsearch.index.cache.docfreq.DocFreqCache;
 import org.elasticsearch.index.cache.field.data.FieldDataCache;
 import org.elasticsearch.index.cache.filter.FilterCache;
 import org.elasticsearch.index.cache.id.IdCache;
@@ -53,6 +54,8 @@ public class IndexCache extends AbstractIndexComponent implements CloseableCompo
 
     private final BloomCache bloomCache;
 
+    private final DocFreqCache docFreqCache;
+
     private final TimeValue refreshInterval;
 
     private ClusterService clusterService;
@@ -62,13 +65,14 @@ public class IndexCache extends AbstractIndexComponent implements CloseableCompo
 
     @Inject
     public IndexCache(Index index, @IndexSettings Settings indexSettings, FilterCache filterCache, FieldDataCache fieldDataCache,
-                      QueryParserCache queryParserCache, IdCache idCache, BloomCache bloomCache) {
+                      QueryParserCache queryParserCache, IdCache idCache, BloomCache bloomCache, DocFreqCache docFreqCache) {
         super(index, indexSettings);
         this.filterCache = filterCache;
         this.fieldDataCache = fieldDataCache;
         this.queryParserCache = queryParserCache;
         this.idCache = idCache;
         this.bloomCache = bloomCache;
+        this.docFreqCache = docFreqCache;
 
         this.refreshInterval = componentSettings.getAsTime("stats.refresh_interval", TimeValue.timeValueSeconds(1));
 
@@ -85,7 +89,7 @@ public class IndexCache extends AbstractIndexComponent implements CloseableCompo
 
     public synchronized void invalidateCache() {
         FilterCache.EntriesStats filterEntriesStats = filterCache.entriesStats();
-        latestCacheStats = new CacheStats(fieldDataCache.evictions(), filterCache.evictions(), fieldDataCache.sizeInBytes(), filterEntriesStats.sizeInBytes, filterEntriesStats.count, bloomCache.sizeInBytes());
+        latestCacheStats = new CacheStats(fieldDataCache.evictions(), filterCache.evictions(), fieldDataCache.sizeInBytes(), filterEntriesStats.sizeInBytes, filterEntriesStats.count, bloomCache.sizeInBytes(), idCache.sizeInBytes());
         latestCacheStatsTimestamp = System.currentTimeMillis();
     }
 
@@ -93,7 +97,7 @@ public class IndexCache extends AbstractIndexComponent implements CloseableCompo
         long timestamp = System.currentTimeMillis();
         if ((timestamp - latestCacheStatsTimestamp) > refreshInterval.millis()) {
             FilterCache.EntriesStats filterEntriesStats = filterCache.entriesStats();
-            latestCacheStats = new CacheStats(fieldDataCache.evictions(), filterCache.evictions(), fieldDataCache.sizeInBytes(), filterEntriesStats.sizeInBytes, filterEntriesStats.count, bloomCache.sizeInBytes());
+            latestCacheStats = new CacheStats(fieldDataCache.evictions(), filterCache.evictions(), fieldDataCache.sizeInBytes(), filterEntriesStats.sizeInBytes, filterEntriesStats.count, bloomCache.sizeInBytes(), idCache.sizeInBytes());
             latestCacheStatsTimestamp = timestamp;
         }
         return latestCacheStats;
@@ -115,6 +119,10 @@ public class IndexCache extends AbstractIndexComponent implements CloseableCompo
         return this.bloomCache;
     }
 
+    public DocFreqCache docFreq() {
+        return this.docFreqCache;
+    }
+
     public QueryParserCache queryParserCache() {
         return this.queryParserCache;
     }
@@ -126,6 +134,7 @@ public class IndexCache extends AbstractIndexComponent implements CloseableCompo
         idCache.close();
         queryParserCache.close();
         bloomCache.close();
+        docFreqCache.close();
         if (clusterService != null) {
             clusterService.remove(this);
         }
@@ -136,6 +145,7 @@ public class IndexCache extends AbstractIndexComponent implements CloseableCompo
         fieldDataCache.clear(reader);
         idCache.clear(reader);
         bloomCache.clear(reader);
+        docFreqCache.clear(reader);
     }
 
     public void clear() {
@@ -144,6 +154,7 @@ public class IndexCache extends AbstractIndexComponent implements CloseableCompo
         idCache.clear();
         queryParserCache.clear();
         bloomCache.clear();
+        docFreqCache.clear();
     }
 
     @Override
@@ -22,6 +22,7 @@ package org.elasticsearch.index.cache;
 import org.elasticsearch.common.inject.AbstractModule;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.cache.bloom.BloomCacheModule;
+import org.elasticsearch.index.cache.docfreq.DocFreqCacheModule;
 import org.elasticsearch.index.cache.field.data.FieldDataCacheModule;
 import org.elasticsearch.index.cache.filter.FilterCacheModule;
 import org.elasticsearch.index.cache.id.IdCacheModule;
@@ -45,6 +46,7 @@ public class IndexCacheModule extends AbstractModule {
         new IdCacheModule(settings).configure(binder());
         new QueryParserCacheModule(settings).configure(binder());
         new BloomCacheModule(settings).configure(binder());
+        new DocFreqCacheModule(settings).configure(binder());
 
         bind(IndexCache.class).asEagerSingleton();
     }
@@ -0,0 +1,44 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.cache.docfreq;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.elasticsearch.common.component.CloseableComponent;
+import org.elasticsearch.index.IndexComponent;
+
+import java.io.IOException;
+
+/**
+ * Caches term doc freqs per segment, used by queries that need the doc freq of many terms
+ * when they are rewritten (for example, more like this).
+ */
+public interface DocFreqCache extends IndexComponent, CloseableComponent {
+
+    /**
+     * Sums into <tt>docFreqs</tt> the doc freq of each of the terms across the segments of the reader.
+     * Looking up the terms in sorted order is considerably faster.
+     */
+    void docFreqs(IndexReader reader, Term[] terms, int[] docFreqs) throws IOException;
+
+    void clear();
+
+    void clear(IndexReader reader);
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.cache.docfreq.none;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.AbstractIndexComponent;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.cache.docfreq.DocFreqCache;
+import org.elasticsearch.index.settings.IndexSettings;
+
+import java.io.IOException;
+
+/**
+ *
+ */
+public class NoneDocFreqCache extends AbstractIndexComponent implements DocFreqCache {
+
+    public NoneDocFreqCache(Index index) {
+        super(index, ImmutableSettings.Builder.EMPTY_SETTINGS);
+    }
+
+    @Inject
+    public NoneDocFreqCache(Index index, @IndexSettings Settings indexSettings) {
+        super(index, indexSettings);
+    }
+
+    @Override
+    public void docFreqs(IndexReader reader, Term[] terms, int[] docFreqs) throws IOException {
+        for (int i = 0; i < terms.length; i++) {
+            docFreqs[i] += reader.docFreq(terms[i]);
+        }
+    }
+
+    @Override
+    public void clear() {
+    }
+
+    @Override
+    public void clear(IndexReader reader) {
+    }
+
+    @Override
+    public void close() throws ElasticSearchException {
+    }
+}
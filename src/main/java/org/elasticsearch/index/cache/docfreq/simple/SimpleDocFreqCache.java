@@ -0,0 +1,116 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.cache.docfreq.simple;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.index.AbstractIndexComponent;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.cache.docfreq.DocFreqCache;
+import org.elasticsearch.index.settings.IndexSettings;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches the doc freqs per segment core (doc freqs do not take deletions into account, so they never change
+ * for a segment), up to <tt>index.cache.docfreq.max_terms_per_segment</tt> terms per segment.
+ */
+public class SimpleDocFreqCache extends AbstractIndexComponent implements DocFreqCache, IndexReader.ReaderFinishedListener {
+
+    private final int maxTermsPerSegment;
+
+    private final ConcurrentMap<Object, ConcurrentMap<Term, Integer>> cache;
+
+    private final Object creationMutex = new Object();
+
+    @Inject
+    public SimpleDocFreqCache(Index index, @IndexSettings Settings indexSettings) {
+        super(index, indexSettings);
+        this.maxTermsPerSegment = indexSettings.getAsInt("index.cache.docfreq.max_terms_per_segment", 10000);
+        this.cache = ConcurrentCollections.newConcurrentMap();
+
+        logger.debug("using [simple] doc freq cache with max_terms_per_segment [{}]", maxTermsPerSegment);
+    }
+
+    @Override
+    public void close() throws ElasticSearchException {
+        clear();
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public void finished(IndexReader reader) {
+        clear(reader);
+    }
+
+    @Override
+    public void clear(IndexReader reader) {
+        ConcurrentMap<Term, Integer> map = cache.remove(reader.getCoreCacheKey());
+        // help soft/weak handling GC
+        if (map != null) {
+            map.clear();
+        }
+    }
+
+    @Override
+    public void docFreqs(IndexReader reader, Term[] terms, int[] docFreqs) throws IOException {
+        IndexReader[] subReaders = reader.getSequentialSubReaders();
+        if (subReaders != null) {
+            for (IndexReader subReader : subReaders) {
+                docFreqs(subReader, terms, docFreqs);
+            }
+            return;
+        }
+        if (reader.maxDoc() == 0) {
+            return;
+        }
+        ConcurrentMap<Term, Integer> segmentCache = cache.get(reader.getCoreCacheKey());
+        if (segmentCache == null) {
+            synchronized (creationMutex) {
+                segmentCache = cache.get(reader.getCoreCacheKey());
+                if (segmentCache == null) {
+                    reader.addReaderFinishedListener(this);
+                    segmentCache = ConcurrentCollections.newConcurrentMap();
+                    cache.put(reader.getCoreCacheKey(), segmentCache);
+                }
+            }
+        }
+        for (int i = 0; i < terms.length; i++) {
+            Integer docFreq = segmentCache.get(terms[i]);
+            if (docFreq == null) {
+                docFreq = reader.docFreq(terms[i]);
+                // the size check is racy, but its fine to go a bit above the limit
+                if (segmentCache.size() < maxTermsPerSegment) {
+                    segmentCache.put(terms[i], docFreq);
+                }
+            }
+            docFreqs[i] += docFreq;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.elasticsearch.common.component.CloseableComponent;
 import org.elasticsearch.index.IndexComponent;
 import org.elasticsearch.index.field.data.FieldData;
 import org.elasticsearch.index.field.data.FieldDataType;
+import org.elasticsearch.index.field.data.strings.StringGlobalOrdinals;
 
 import java.io.IOException;
 
@@ -34,6 +35,12 @@ public interface FieldDataCache extends IndexComponent, CloseableComponent {
 
     FieldData cache(FieldDataType type, IndexReader reader, String fieldName) throws IOException;
 
+    /**
+     * Returns the global ordinals of a string field across the sub readers of the (top level) reader, built
+     * once per reader.
+     */
+    StringGlobalOrdinals globalOrdinals(IndexReader reader, IndexReader[] subReaders, String fieldName) throws IOException;
+
     String type();
 
     void clear(String fieldName);
@@ -28,6 +28,8 @@ import org.elasticsearch.index.Index;
 import org.elasticsearch.index.cache.field.data.FieldDataCache;
 import org.elasticsearch.index.field.data.FieldData;
 import org.elasticsearch.index.field.data.FieldDataType;
+import org.elasticsearch.index.field.data.strings.StringFieldData;
+import org.elasticsearch.index.field.data.strings.StringGlobalOrdinals;
 import org.elasticsearch.index.settings.IndexSettings;
 
 import java.io.IOException;
@@ -48,6 +50,15 @@ public class NoneFieldDataCache extends AbstractIndexComponent implements FieldD
         return FieldData.load(type, reader, fieldName);
     }
 
+    @Override
+    public StringGlobalOrdinals globalOrdinals(IndexReader reader, IndexReader[] subReaders, String fieldName) throws IOException {
+        StringFieldData[] fieldData = new StringFieldData[subReaders.length];
+        for (int i = 0; i < subReaders.length; i++) {
+            fieldData[i] = (StringFieldData) cache(FieldDataType.DefaultTypes.STRING, subReaders[i], fieldName);
+        }
+        return StringGlobalOrdinals.build(subReaders, fieldData);
+    }
+
     @Override
     public String type() {
         return "none";
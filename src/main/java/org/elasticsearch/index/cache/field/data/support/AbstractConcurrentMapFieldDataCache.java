@@ -29,9 +29,12 @@ import org.elasticsearch.index.Index;
 import org.elasticsearch.index.cache.field.data.FieldDataCache;
 import org.elasticsearch.index.field.data.FieldData;
 import org.elasticsearch.index.field.data.FieldDataType;
+import org.elasticsearch.index.field.data.strings.StringFieldData;
+import org.elasticsearch.index.field.data.strings.StringGlobalOrdinals;
 import org.elasticsearch.index.settings.IndexSettings;
 
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
 
@@ -42,11 +45,15 @@ public abstract class AbstractConcurrentMapFieldDataCache extends AbstractIndexC
 
     private final ConcurrentMap<Object, Cache<String, FieldData>> cache;
 
+    // global ordinals, by top level reader, dropped once one of their segments is closed
+    private final ConcurrentMap<Object, ConcurrentMap<String, StringGlobalOrdinals>> globalOrdinalsCache;
+
     private final Object creationMutex = new Object();
 
     protected AbstractConcurrentMapFieldDataCache(Index index, @IndexSettings Settings indexSettings) {
         super(index, indexSettings);
         this.cache = ConcurrentCollections.newConcurrentMap();
+        this.globalOrdinalsCache = ConcurrentCollections.newConcurrentMap();
     }
 
     @Override
@@ -59,11 +66,15 @@ public abstract class AbstractConcurrentMapFieldDataCache extends AbstractIndexC
         for (Map.Entry<Object, Cache<String, FieldData>> entry : cache.entrySet()) {
             entry.getValue().invalidate(fieldName);
         }
+        for (ConcurrentMap<String, StringGlobalOrdinals> map : globalOrdinalsCache.values()) {
+            map.remove(fieldName);
+        }
     }
 
     @Override
     public void clear() {
         cache.clear();
+        globalOrdinalsCache.clear();
     }
 
     @Override
@@ -73,7 +84,17 @@ public abstract class AbstractConcurrentMapFieldDataCache extends AbstractIndexC
 
     @Override
     public void clear(IndexReader reader) {
-        cache.remove(reader.getCoreCacheKey());
+        Object coreCacheKey = reader.getCoreCacheKey();
+        cache.remove(coreCacheKey);
+        globalOrdinalsCache.remove(coreCacheKey);
+        for (Iterator<ConcurrentMap<String, StringGlobalOrdinals>> it = globalOrdinalsCache.values().iterator(); it.hasNext(); ) {
+            for (StringGlobalOrdinals globalOrdinals : it.next().values()) {
+                if (globalOrdinals.containsSegment(coreCacheKey)) {
+                    it.remove();
+                    break;
+                }
+            }
+        }
     }
 
     @Override
@@ -85,6 +106,11 @@ public abstract class AbstractConcurrentMapFieldDataCache extends AbstractIndexC
                 sizeInBytes += fieldData.sizeInBytes();
             }
         }
+        for (ConcurrentMap<String, StringGlobalOrdinals> map : globalOrdinalsCache.values()) {
+            for (StringGlobalOrdinals globalOrdinals : map.values()) {
+                sizeInBytes += globalOrdinals.sizeInBytes();
+            }
+        }
         return sizeInBytes;
     }
 
@@ -97,6 +123,12 @@ public abstract class AbstractConcurrentMapFieldDataCache extends AbstractIndexC
                 sizeInBytes += fieldData.sizeInBytes();
             }
         }
+        for (ConcurrentMap<String, StringGlobalOrdinals> map : globalOrdinalsCache.values()) {
+            StringGlobalOrdinals globalOrdinals = map.get(fieldName);
+            if (globalOrdinals != null) {
+                sizeInBytes += globalOrdinals.sizeInBytes();
+            }
+        }
         return sizeInBytes;
     }
 
@@ -133,5 +165,42 @@ public abstract class AbstractConcurrentMapFieldDataCache extends AbstractIndexC
         return fieldData;
     }
 
+    @Override
+    public StringGlobalOrdinals globalOrdinals(IndexReader reader, IndexReader[] subReaders, String fieldName) throws IOException {
+        ConcurrentMap<String, StringGlobalOrdinals> readerCache = globalOrdinalsCache.get(reader.getCoreCacheKey());
+        if (readerCache == null) {
+            synchronized (creationMutex) {
+                readerCache = globalOrdinalsCache.get(reader.getCoreCacheKey());
+                if (readerCache == null) {
+                    // a new reader generation, drop the ones of top level readers that got closed while their segments live on
+                    for (Iterator<Object> it = globalOrdinalsCache.keySet().iterator(); it.hasNext(); ) {
+                        Object key = it.next();
+                        if (key instanceof IndexReader && ((IndexReader) key).getRefCount() <= 0) {
+                            it.remove();
+                        }
+                    }
+                    readerCache = ConcurrentCollections.newConcurrentMap();
+                    globalOrdinalsCache.put(reader.getCoreCacheKey(), readerCache);
+                }
+            }
+        }
+        StringGlobalOrdinals globalOrdinals = readerCache.get(fieldName);
+        if (globalOrdinals == null) {
+            synchronized (readerCache) {
+                globalOrdinals = readerCache.get(fieldName);
+                if (globalOrdinals == null) {
+                    // loading the segments field data also registers us to get notified when they are closed
+                    StringFieldData[] fieldData = new StringFieldData[subReaders.length];
+                    for (int i = 0; i < subReaders.length; i++) {
+                        fieldData[i] = (StringFieldData) cache(FieldDataType.DefaultTypes.STRING, subReaders[i], fieldName);
+                    }
+                    globalOrdinals = StringGlobalOrdinals.build(subReaders, fieldData);
+                    readerCache.put(fieldName, globalOrdinals);
+                }
+            }
+        }
+        return globalOrdinals;
+    }
+
     protected abstract Cache<String, FieldData> buildFieldDataMap();
 }
@@ -28,5 +28,16 @@ public interface IdReaderTypeCache {
 
     BytesWrap parentIdByDoc(int docId);
 
+    /**
+     * The ordinal of the parent id of the doc within this reader, <tt>0</tt> if the doc has no parent
+     * of this type. Docs with the same parent have the same ordinal.
+     */
+    int parentOrdinalByDoc(int docId);
+
+    /**
+     * The parent id for the ordinal returned by {@link #parentOrdinalByDoc(int)}.
+     */
+    BytesWrap parentIdByOrdinal(int ordinal);
+
     int docById(BytesWrap id);
 }
@@ -0,0 +1,249 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.cache.id.compact;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermDocs;
+import org.apache.lucene.index.TermEnum;
+import org.apache.lucene.util.StringHelper;
+import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.common.Unicode;
+import org.elasticsearch.common.collect.MapBuilder;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.index.AbstractIndexComponent;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.cache.id.IdCache;
+import org.elasticsearch.index.cache.id.IdReaderCache;
+import org.elasticsearch.index.mapper.Uid;
+import org.elasticsearch.index.mapper.internal.ParentFieldMapper;
+import org.elasticsearch.index.mapper.internal.UidFieldMapper;
+import org.elasticsearch.index.settings.IndexSettings;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An id cache that keeps, per segment and type, the ids sorted and prefix compressed in a single
+ * byte block ({@link PrefixCodedIds}) with the docs as a plain array by id ordinal, and the parent
+ * references as packed ordinals into the (also prefix compressed) parent ids. Compared to hash
+ * maps of ids, this takes a fraction of the memory, at the cost of a binary search on lookup.
+ * <p/>
+ * Segments are loaded on refresh only when not already loaded, and each segment is loaded on its
+ * own, without referencing other segments.
+ */
+public class CompactIdCache extends AbstractIndexComponent implements IdCache, IndexReader.ReaderFinishedListener {
+
+    private final ConcurrentMap<Object, CompactIdReaderCache> idReaders;
+
+    @Inject
+    public CompactIdCache(Index index, @IndexSettings Settings indexSettings) {
+        super(index, indexSettings);
+        idReaders = ConcurrentCollections.newConcurrentMap();
+    }
+
+    @Override
+    public void close() throws ElasticSearchException {
+        clear();
+    }
+
+    @Override
+    public void clear() {
+        idReaders.clear();
+    }
+
+    @Override
+    public void finished(IndexReader reader) {
+        clear(reader);
+    }
+
+    @Override
+    public void clear(IndexReader reader) {
+        idReaders.remove(reader.getCoreCacheKey());
+    }
+
+    @Override
+    public IdReaderCache reader(IndexReader reader) {
+        return idReaders.get(reader.getCoreCacheKey());
+    }
+
+    @SuppressWarnings({"unchecked"})
+    @Override
+    public Iterator<IdReaderCache> iterator() {
+        return (Iterator) idReaders.values().iterator();
+    }
+
+    @Override
+    public long sizeInBytes() {
+        long sizeInBytes = 0;
+        for (CompactIdReaderCache idReaderCache : idReaders.values()) {
+            sizeInBytes += idReaderCache.sizeInBytes();
+        }
+        return sizeInBytes;
+    }
+
+    @Override
+    public void refresh(IndexReader[] readers) throws Exception {
+        // do a quick check for the common case, that all are there
+        if (refreshNeeded(readers)) {
+            synchronized (idReaders) {
+                for (IndexReader reader : readers) {
+                    if (idReaders.containsKey(reader.getCoreCacheKey())) {
+                        // no need, continue
+                        continue;
+                    }
+                    reader.addReaderFinishedListener(this);
+                    CompactIdReaderCache readerCache = load(reader);
+                    idReaders.put(readerCache.readerCacheKey(), readerCache);
+                }
+            }
+        }
+    }
+
+    private CompactIdReaderCache load(IndexReader reader) throws Exception {
+        Map<String, TypeBuilder> readerBuilder = new HashMap<String, TypeBuilder>();
+
+        // first, go over and load all the id->doc for all types
+        String field = StringHelper.intern(UidFieldMapper.NAME);
+        TermDocs termDocs = reader.termDocs();
+        TermEnum termEnum = reader.terms(new Term(field));
+        try {
+            do {
+                Term term = termEnum.term();
+                if (term == null || term.field() != field) break;
+                Uid uid = Uid.createUid(term.text());
+
+                int docId = -1;
+                termDocs.seek(termEnum);
+                while (termDocs.next()) {
+                    // when traversing, make sure to ignore deleted docs, so the key->docId will be correct
+                    if (!reader.isDeleted(termDocs.doc())) {
+                        docId = termDocs.doc();
+                    }
+                }
+                if (docId == -1) {
+                    continue;
+                }
+                typeBuilder(readerBuilder, uid.type(), reader).addId(Unicode.fromStringAsBytes(uid.id()), docId);
+            } while (termEnum.next());
+        } finally {
+            termDocs.close();
+            termEnum.close();
+        }
+
+        // now, go and load the docId->parentId
+        field = StringHelper.intern(ParentFieldMapper.NAME);
+        termDocs = reader.termDocs();
+        termEnum = reader.terms(new Term(field));
+        try {
+            do {
+                Term term = termEnum.term();
+                if (term == null || term.field() != field) break;
+                Uid uid = Uid.createUid(term.text());
+
+                TypeBuilder typeBuilder = null;
+                int ordinal = 0;
+                termDocs.seek(termEnum);
+                while (termDocs.next()) {
+                    // ignore deleted docs while we are at it, and only add the parent id when it has live docs
+                    if (!reader.isDeleted(termDocs.doc())) {
+                        if (typeBuilder == null) {
+                            typeBuilder = typeBuilder(readerBuilder, uid.type(), reader);
+                            ordinal = typeBuilder.addParentId(Unicode.fromStringAsBytes(uid.id()));
+                        }
+                        typeBuilder.parentIdsOrdinals[termDocs.doc()] = ordinal;
+                    }
+                }
+            } while (termEnum.next());
+        } finally {
+            termDocs.close();
+            termEnum.close();
+        }
+
+        MapBuilder<String, CompactIdReaderTypeCache> types = MapBuilder.newMapBuilder();
+        for (Map.Entry<String, TypeBuilder> entry : readerBuilder.entrySet()) {
+            types.put(entry.getKey(), entry.getValue().build(entry.getKey()));
+        }
+        return new CompactIdReaderCache(reader.getCoreCacheKey(), types.immutableMap());
+    }
+
+    private TypeBuilder typeBuilder(Map<String, TypeBuilder> readerBuilder, String type, IndexReader reader) {
+        TypeBuilder typeBuilder = readerBuilder.get(type);
+        if (typeBuilder == null) {
+            typeBuilder = new TypeBuilder(reader);
+            readerBuilder.put(StringHelper.intern(type), typeBuilder);
+        }
+        return typeBuilder;
+    }
+
+    private boolean refreshNeeded(IndexReader[] readers) {
+        for (IndexReader reader : readers) {
+            if (!idReaders.containsKey(reader.getCoreCacheKey())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static class TypeBuilder {
+        final IndexReader reader;
+        final PrefixCodedIds.Builder ids = new PrefixCodedIds.Builder();
+        int[] idsDocs = new int[16];
+        final PrefixCodedIds.Builder parentIds = new PrefixCodedIds.Builder();
+        int[] parentIdsOrdinals; // lazily allocated, only types that are parents need it
+
+        TypeBuilder(IndexReader reader) {
+            this.reader = reader;
+        }
+
+        void addId(byte[] id, int docId) {
+            int ordinal = ids.add(id);
+            if (ordinal == idsDocs.length) {
+                idsDocs = Arrays.copyOf(idsDocs, idsDocs.length << 1);
+            }
+            idsDocs[ordinal] = docId;
+        }
+
+        /**
+         * Adds the parent id, and returns the ordinal to use for it (the first one indicates no parent).
+         */
+        int addParentId(byte[] id) {
+            if (parentIdsOrdinals == null) {
+                parentIdsOrdinals = new int[reader.maxDoc()];
+            }
+            return parentIds.add(id) + 1;
+        }
+
+        CompactIdReaderTypeCache build(String type) {
+            PackedOrdinals ordinals;
+            if (parentIdsOrdinals == null) {
+                ordinals = PackedOrdinals.pack(new int[0], 0);
+            } else {
+                ordinals = PackedOrdinals.pack(parentIdsOrdinals, parentIds.size());
+            }
+            return new CompactIdReaderTypeCache(type, ids.build(), Arrays.copyOf(idsDocs, ids.size()), parentIds.build(), ordinals);
+        }
+    }
+}
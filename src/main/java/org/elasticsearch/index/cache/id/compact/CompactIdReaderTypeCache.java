@@ -0,0 +1,92 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.cache.id.compact;
+
+import org.elasticsearch.common.BytesWrap;
+import org.elasticsearch.index.cache.id.IdReaderTypeCache;
+
+/**
+ *
+ */
+public class CompactIdReaderTypeCache implements IdReaderTypeCache {
+
+    private final String type;
+
+    private final PrefixCodedIds ids;
+
+    private final int[] idsDocs;
+
+    private final PrefixCodedIds parentIds;
+
+    private final PackedOrdinals parentIdsOrdinals;
+
+    /**
+     * @param ids               the ids of the (live) docs of this type
+     * @param idsDocs           the doc of each id, by the id ordinal
+     * @param parentIds         the parent ids (of this type) referenced by docs
+     * @param parentIdsOrdinals the parent id ordinal (plus one) per doc, <tt>0</tt> for docs with no parent of this type
+     */
+    public CompactIdReaderTypeCache(String type, PrefixCodedIds ids, int[] idsDocs, PrefixCodedIds parentIds, PackedOrdinals parentIdsOrdinals) {
+        this.type = type;
+        this.ids = ids;
+        this.idsDocs = idsDocs;
+        this.parentIds = parentIds;
+        this.parentIdsOrdinals = parentIdsOrdinals;
+    }
+
+    public String type() {
+        return this.type;
+    }
+
+    @Override
+    public BytesWrap parentIdByDoc(int docId) {
+        int ordinal = parentIdsOrdinals.get(docId);
+        if (ordinal == 0) {
+            return null;
+        }
+        return parentIds.get(ordinal - 1);
+    }
+
+    @Override
+    public int parentOrdinalByDoc(int docId) {
+        return parentIdsOrdinals.get(docId);
+    }
+
+    @Override
+    public BytesWrap parentIdByOrdinal(int ordinal) {
+        if (ordinal == 0) {
+            return null;
+        }
+        return parentIds.get(ordinal - 1);
+    }
+
+    @Override
+    public int docById(BytesWrap id) {
+        int ordinal = ids.ordinal(id.bytes());
+        if (ordinal < 0) {
+            return -1;
+        }
+        return idsDocs[ordinal];
+    }
+
+    public long sizeInBytes() {
+        return ids.sizeInBytes() + idsDocs.length * 4 + parentIds.sizeInBytes() + parentIdsOrdinals.sizeInBytes();
+    }
+}
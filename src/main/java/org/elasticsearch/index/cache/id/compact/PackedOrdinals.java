@@ -0,0 +1,82 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.cache.id.compact;
+
+/**
+ * Per doc ordinals, packed using the minimum number of bits needed for the highest ordinal.
+ */
+public class PackedOrdinals {
+
+    private final long[] blocks;
+
+    private final int bitsPerValue;
+
+    private final long mask;
+
+    private final int size;
+
+    private PackedOrdinals(long[] blocks, int bitsPerValue, int size) {
+        this.blocks = blocks;
+        this.bitsPerValue = bitsPerValue;
+        this.mask = bitsPerValue == 0 ? 0 : (-1L >>> (64 - bitsPerValue));
+        this.size = size;
+    }
+
+    public static PackedOrdinals pack(int[] ordinals, int maxOrdinal) {
+        int bitsPerValue = 32 - Integer.numberOfLeadingZeros(maxOrdinal);
+        long[] blocks = new long[(int) (((long) ordinals.length * bitsPerValue + 63) >>> 6)];
+        for (int i = 0; i < ordinals.length; i++) {
+            long value = ordinals[i];
+            if (value == 0) {
+                continue;
+            }
+            long bitIndex = (long) i * bitsPerValue;
+            int block = (int) (bitIndex >>> 6);
+            int shift = (int) (bitIndex & 63);
+            blocks[block] |= value << shift;
+            if (shift + bitsPerValue > 64) {
+                blocks[block + 1] |= value >>> (64 - shift);
+            }
+        }
+        return new PackedOrdinals(blocks, bitsPerValue, ordinals.length);
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public long sizeInBytes() {
+        return blocks.length * 8;
+    }
+
+    public int get(int index) {
+        if (bitsPerValue == 0) {
+            return 0;
+        }
+        long bitIndex = (long) index * bitsPerValue;
+        int block = (int) (bitIndex >>> 6);
+        int shift = (int) (bitIndex & 63);
+        long value = blocks[block] >>> shift;
+        if (shift + bitsPerValue > 64) {
+            value |= blocks[block + 1] << (64 - shift);
+        }
+        return (int) (value & mask);
+    }
+}
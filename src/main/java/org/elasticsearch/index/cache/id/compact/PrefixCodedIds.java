@@ -0,0 +1,246 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.cache.id.compact;
+
+import org.elasticsearch.common.BytesWrap;
+
+import java.util.Arrays;
+
+/**
+ * A sorted list of ids, stored prefix compressed in a single byte block, with lookup of an
+ * id by its ordinal and of the ordinal of an id.
+ * <p/>
+ * Ids are grouped in blocks of {@link #BLOCK_SIZE}. The first id of each block is stored in full, and
+ * the following ones only store their suffix after the prefix shared with the previous id. Looking up
+ * an id binary searches the block heads and then scans (at most) a single block.
+ * <p/>
+ * Ids must be added in the order of the terms they come from, which is UTF-16 order (see
+ * {@link #compare(byte[], int, int, byte[], int, int)}).
+ */
+public class PrefixCodedIds {
+
+    public static final int BLOCK_SIZE = 16;
+
+    private final byte[] data;
+
+    private final int[] blockOffsets;
+
+    private final int size;
+
+    private final int maxLength;
+
+    PrefixCodedIds(byte[] data, int[] blockOffsets, int size, int maxLength) {
+        this.data = data;
+        this.blockOffsets = blockOffsets;
+        this.size = size;
+        this.maxLength = maxLength;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public long sizeInBytes() {
+        return data.length + blockOffsets.length * 4;
+    }
+
+    /**
+     * Returns the id with the provided ordinal.
+     */
+    public BytesWrap get(int ordinal) {
+        if (ordinal < 0 || ordinal >= size) {
+            return null;
+        }
+        byte[] scratch = new byte[maxLength];
+        int pos = blockOffsets[ordinal / BLOCK_SIZE];
+        int length = 0;
+        int count = ordinal % BLOCK_SIZE;
+        for (int i = 0; i <= count; i++) {
+            int shared = readVInt(pos);
+            pos += vIntSize(shared);
+            int suffix = readVInt(pos);
+            pos += vIntSize(suffix);
+            System.arraycopy(data, pos, scratch, shared, suffix);
+            pos += suffix;
+            length = shared + suffix;
+        }
+        return new BytesWrap(Arrays.copyOf(scratch, length));
+    }
+
+    /**
+     * Returns the ordinal of the id, or <tt>-1</tt> if it does not exist.
+     */
+    public int ordinal(byte[] id) {
+        if (size == 0) {
+            return -1;
+        }
+        // find the last block whose head is lower or equal to the id
+        int low = 0;
+        int high = blockOffsets.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int pos = blockOffsets[mid];
+            pos += vIntSize(0); // block heads don't share a prefix
+            int length = readVInt(pos);
+            pos += vIntSize(length);
+            int cmp = compare(data, pos, length, id, 0, id.length);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid * BLOCK_SIZE;
+            }
+        }
+        int block = high;
+        if (block < 0) {
+            return -1;
+        }
+
+        byte[] scratch = new byte[maxLength];
+        int pos = blockOffsets[block];
+        int ordinal = block * BLOCK_SIZE;
+        int end = Math.min(size, ordinal + BLOCK_SIZE);
+        for (; ordinal < end; ordinal++) {
+            int shared = readVInt(pos);
+            pos += vIntSize(shared);
+            int suffix = readVInt(pos);
+            pos += vIntSize(suffix);
+            System.arraycopy(data, pos, scratch, shared, suffix);
+            pos += suffix;
+            int cmp = compare(scratch, 0, shared + suffix, id, 0, id.length);
+            if (cmp == 0) {
+                return ordinal;
+            } else if (cmp > 0) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private int readVInt(int pos) {
+        byte b = data[pos++];
+        int i = b & 0x7F;
+        for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+            b = data[pos++];
+            i |= (b & 0x7F) << shift;
+        }
+        return i;
+    }
+
+    static int vIntSize(int i) {
+        int size = 1;
+        while ((i & ~0x7F) != 0) {
+            i >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Compares UTF-8 bytes in UTF-16 code unit order, which is the order of terms in the index.
+     */
+    static int compare(byte[] a, int aOffset, int aLength, byte[] b, int bOffset, int bLength) {
+        int aEnd = aOffset + Math.min(aLength, bLength);
+        while (aOffset < aEnd) {
+            int aByte = a[aOffset++] & 0xff;
+            int bByte = b[bOffset++] & 0xff;
+            if (aByte != bByte) {
+                // a surrogate pair (UTF-8 lead byte 0xf0 and above) sorts before the BMP chars
+                // encoded with lead bytes 0xee and 0xef in UTF-16 order, fix up the lead bytes
+                if (aByte >= 0xee && bByte >= 0xee) {
+                    if ((aByte & 0xfe) == 0xee) {
+                        aByte += 0x0e;
+                    }
+                    if ((bByte & 0xfe) == 0xee) {
+                        bByte += 0x0e;
+                    }
+                }
+                return aByte - bByte;
+            }
+        }
+        return aLength - bLength;
+    }
+
+    public static class Builder {
+
+        private byte[] data = new byte[1024];
+        private int length;
+
+        private int[] blockOffsets = new int[8];
+
+        private int size;
+
+        private byte[] previous = new byte[0];
+
+        private int maxLength;
+
+        public int size() {
+            return this.size;
+        }
+
+        /**
+         * Adds the id, returning its ordinal. Ids must be added in order, and only once.
+         */
+        public int add(byte[] id) {
+            int shared = 0;
+            if (size % BLOCK_SIZE == 0) {
+                if (size / BLOCK_SIZE == blockOffsets.length) {
+                    blockOffsets = Arrays.copyOf(blockOffsets, blockOffsets.length << 1);
+                }
+                blockOffsets[size / BLOCK_SIZE] = length;
+            } else {
+                int limit = Math.min(previous.length, id.length);
+                while (shared < limit && previous[shared] == id[shared]) {
+                    shared++;
+                }
+            }
+            int suffix = id.length - shared;
+            ensureCapacity(length + 10 + suffix);
+            writeVInt(shared);
+            writeVInt(suffix);
+            System.arraycopy(id, shared, data, length, suffix);
+            length += suffix;
+
+            previous = id;
+            maxLength = Math.max(maxLength, id.length);
+            return size++;
+        }
+
+        public PrefixCodedIds build() {
+            int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            return new PrefixCodedIds(Arrays.copyOf(data, length), Arrays.copyOf(blockOffsets, blocks), size, maxLength);
+        }
+
+        private void writeVInt(int i) {
+            while ((i & ~0x7F) != 0) {
+                data[length++] = (byte) ((i & 0x7f) | 0x80);
+                i >>>= 7;
+            }
+            data[length++] = (byte) i;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > data.length) {
+                data = Arrays.copyOf(data, Math.max(capacity, data.length + (data.length >> 1)));
+            }
+        }
+    }
+}
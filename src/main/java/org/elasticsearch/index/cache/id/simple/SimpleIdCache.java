@@ -91,6 +91,15 @@ public class SimpleIdCache extends AbstractIndexComponent implements IdCache, In
         return (Iterator<IdReaderCache>) idReaders.values();
     }
 
+    @Override
+    public long sizeInBytes() {
+        long sizeInBytes = 0;
+        for (SimpleIdReaderCache idReaderCache : idReaders.values()) {
+            sizeInBytes += idReaderCache.sizeInBytes();
+        }
+        return sizeInBytes;
+    }
+
     @SuppressWarnings({"StringEquality"})
     @Override
     public void refresh(IndexReader[] readers) throws Exception {
@@ -66,6 +66,14 @@ public class SimpleIdReaderCache implements IdReaderCache {
         return -1;
     }
 
+    public long sizeInBytes() {
+        long sizeInBytes = 0;
+        for (SimpleIdReaderTypeCache typeCache : types.values()) {
+            sizeInBytes += typeCache.sizeInBytes();
+        }
+        return sizeInBytes;
+    }
+
     /**
      * Returns an already stored instance if exists, if not, returns null;
      */
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.index.cache.id.simple;
 
+import gnu.trove.procedure.TObjectProcedure;
 import org.elasticsearch.common.BytesWrap;
 import org.elasticsearch.common.trove.ExtTObjectIntHasMap;
 import org.elasticsearch.index.cache.id.IdReaderTypeCache;
@@ -36,6 +37,8 @@ public class SimpleIdReaderTypeCache implements IdReaderTypeCache {
 
     private final int[] parentIdsOrdinals;
 
+    private volatile long sizeInBytes = -1;
+
     public SimpleIdReaderTypeCache(String type, ExtTObjectIntHasMap<BytesWrap> idToDoc,
                                    BytesWrap[] parentIdsValues, int[] parentIdsOrdinals) {
         this.type = type;
@@ -53,10 +56,39 @@ public class SimpleIdReaderTypeCache implements IdReaderTypeCache {
         return parentIdsValues[parentIdsOrdinals[docId]];
     }
 
+    public int parentOrdinalByDoc(int docId) {
+        return parentIdsOrdinals[docId];
+    }
+
+    public BytesWrap parentIdByOrdinal(int ordinal) {
+        return parentIdsValues[ordinal];
+    }
+
     public int docById(BytesWrap id) {
         return idToDoc.get(id);
     }
 
+    /**
+     * A rough estimation, ids shared with other segments are counted in each of them.
+     */
+    public long sizeInBytes() {
+        if (sizeInBytes == -1) {
+            final long[] idsSize = new long[1];
+            idToDoc.forEachKey(new TObjectProcedure<BytesWrap>() {
+                @Override
+                public boolean execute(BytesWrap id) {
+                    // the key and its bytes array, with object headers
+                    idsSize[0] += id.bytes().length + 40;
+                    return true;
+                }
+            });
+            // each map entry has a key reference and an int value, with some free space
+            long mapSize = idToDoc.capacity() * 12;
+            sizeInBytes = idsSize[0] + mapSize + parentIdsValues.length * 8 + parentIdsOrdinals.length * 4;
+        }
+        return sizeInBytes;
+    }
+
     /**
      * Returns an already stored instance if exists, if not, returns null;
      */
@@ -48,6 +48,7 @@ import org.elasticsearch.index.engine.*;
 import org.elasticsearch.index.mapper.internal.UidFieldMapper;
 import org.elasticsearch.index.merge.policy.EnableMergePolicy;
 import org.elasticsearch.index.merge.policy.MergePolicyProvider;
+import org.elasticsearch.index.merge.scheduler.IndexingThrottle;
 import org.elasticsearch.index.merge.scheduler.MergeSchedulerProvider;
 import org.elasticsearch.index.settings.IndexSettings;
 import org.elasticsearch.index.settings.IndexSettingsService;
@@ -108,6 +109,8 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
 
     private final MergeSchedulerProvider mergeScheduler;
 
+    private final IndexingThrottle indexingThrottle;
+
     private final AnalysisService analysisService;
 
     private final SimilarityService similarityService;
@@ -177,6 +180,7 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
         this.translog = translog;
         this.mergePolicyProvider = mergePolicyProvider;
         this.mergeScheduler = mergeScheduler;
+        this.indexingThrottle = mergeScheduler.indexingThrottle();
         this.analysisService = analysisService;
         this.similarityService = similarityService;
         this.bloomCache = bloomCache;
@@ -352,7 +356,15 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
             if (writer == null) {
                 throw new EngineClosedException(shardId, failedEngine);
             }
-            innerCreate(create, writer);
+            // while merges have fallen behind, only one indexing operation at a time goes through
+            boolean throttled = indexingThrottle.acquire();
+            try {
+                innerCreate(create, writer);
+            } finally {
+                if (throttled) {
+                    indexingThrottle.release();
+                }
+            }
             dirty = true;
             possibleMergeNeeded = true;
             flushNeeded = true;
@@ -474,7 +486,15 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
                 throw new EngineClosedException(shardId, failedEngine);
             }
 
-            innerIndex(index, writer);
+            // while merges have fallen behind, only one indexing operation at a time goes through
+            boolean throttled = indexingThrottle.acquire();
+            try {
+                innerIndex(index, writer);
+            } finally {
+                if (throttled) {
+                    indexingThrottle.release();
+                }
+            }
             dirty = true;
             possibleMergeNeeded = true;
             flushNeeded = true;
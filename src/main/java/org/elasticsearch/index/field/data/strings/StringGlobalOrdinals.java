@@ -0,0 +1,164 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.field.data.strings;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.util.PriorityQueue;
+import org.elasticsearch.common.RamUsage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps the per segment ordinals of a string field to ordinals that are global to a (top level) reader, allowing
+ * to aggregate across segments into a single array, and only resolve the terms at the end. Ordinal <tt>0</tt>
+ * denotes no value, same as with {@link StringFieldData}.
+ */
+public class StringGlobalOrdinals {
+
+    private final Object[] segmentKeys;
+
+    private final String[] values;
+
+    private final int[][] segmentOrdinals;
+
+    private StringGlobalOrdinals(Object[] segmentKeys, String[] values, int[][] segmentOrdinals) {
+        this.segmentKeys = segmentKeys;
+        this.values = values;
+        this.segmentOrdinals = segmentOrdinals;
+    }
+
+    /**
+     * The terms, sorted, by global ordinal.
+     */
+    public String[] values() {
+        return values;
+    }
+
+    /**
+     * The mapping from the ordinals of the segment (at the given index within the sub readers the global ordinals were
+     * built with) to global ordinals.
+     */
+    public int[] segmentOrdinals(int segmentIndex) {
+        return segmentOrdinals[segmentIndex];
+    }
+
+    /**
+     * The index of the segment within the sub readers the global ordinals were built with, or <tt>-1</tt>.
+     */
+    public int segmentIndex(IndexReader reader) {
+        Object coreCacheKey = reader.getCoreCacheKey();
+        for (int i = 0; i < segmentKeys.length; i++) {
+            if (segmentKeys[i] == coreCacheKey) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean containsSegment(Object coreCacheKey) {
+        for (Object segmentKey : segmentKeys) {
+            if (segmentKey == coreCacheKey) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long sizeInBytes() {
+        // the terms themselves are shared with the segments field data
+        long sizeInBytes = RamUsage.NUM_BYTES_ARRAY_HEADER + values.length * RamUsage.NUM_BYTES_OBJECT_REF;
+        for (int[] ordinals : segmentOrdinals) {
+            sizeInBytes += RamUsage.NUM_BYTES_ARRAY_HEADER + ordinals.length * RamUsage.NUM_BYTES_INT;
+        }
+        return sizeInBytes;
+    }
+
+    /**
+     * Builds the global ordinals by merging the (sorted) terms of each of the segments field data.
+     */
+    public static StringGlobalOrdinals build(IndexReader[] subReaders, StringFieldData[] fieldData) {
+        Object[] segmentKeys = new Object[subReaders.length];
+        int[][] segmentOrdinals = new int[subReaders.length][];
+        SegmentQueue queue = new SegmentQueue(subReaders.length);
+        int maxTerms = 1;
+        for (int i = 0; i < subReaders.length; i++) {
+            segmentKeys[i] = subReaders[i].getCoreCacheKey();
+            String[] segmentValues = fieldData[i].values();
+            segmentOrdinals[i] = new int[segmentValues.length];
+            maxTerms += segmentValues.length - 1;
+            SegmentCursor cursor = new SegmentCursor(segmentValues, segmentOrdinals[i]);
+            if (cursor.next()) {
+                queue.add(cursor);
+            }
+        }
+
+        List<String> values = new ArrayList<String>(maxTerms);
+        values.add(null);
+        while (queue.size() > 0) {
+            SegmentCursor cursor = queue.top();
+            String value = cursor.current;
+            int globalOrdinal = values.size();
+            values.add(value);
+            do {
+                cursor.ordinals[cursor.position] = globalOrdinal;
+                if (cursor.next()) {
+                    cursor = queue.updateTop();
+                } else {
+                    queue.pop();
+                    cursor = queue.top();
+                }
+            } while (cursor != null && value.equals(cursor.current));
+        }
+        return new StringGlobalOrdinals(segmentKeys, values.toArray(new String[values.size()]), segmentOrdinals);
+    }
+
+    static class SegmentCursor {
+        final String[] values;
+        final int[] ordinals;
+        int position = 0;
+        String current;
+
+        SegmentCursor(String[] values, int[] ordinals) {
+            this.values = values;
+            this.ordinals = ordinals;
+        }
+
+        boolean next() {
+            if (++position >= values.length) {
+                return false;
+            }
+            current = values[position];
+            return true;
+        }
+    }
+
+    static class SegmentQueue extends PriorityQueue<SegmentCursor> {
+
+        SegmentQueue(int size) {
+            initialize(size);
+        }
+
+        @Override
+        protected boolean lessThan(SegmentCursor a, SegmentCursor b) {
+            return a.current.compareTo(b.current) < 0;
+        }
+    }
+}
@@ -37,12 +37,18 @@ public class CommitPoint {
         private final String physicalName;
         private final long length;
         private final String checksum;
+        private final String digest;
 
         public FileInfo(String name, String physicalName, long length, String checksum) {
+            this(name, physicalName, length, checksum, null);
+        }
+
+        public FileInfo(String name, String physicalName, long length, String checksum, @Nullable String digest) {
             this.name = name;
             this.physicalName = physicalName;
             this.length = length;
             this.checksum = checksum;
+            this.digest = digest;
         }
 
         public String name() {
@@ -62,6 +68,15 @@ public class CommitPoint {
             return checksum;
         }
 
+        /**
+         * The SHA-256 (hex) of the file content, <tt>null</tt> if it was not computed (files snapshotted
+         * by older versions, or without a checksum).
+         */
+        @Nullable
+        public String digest() {
+            return digest;
+        }
+
         public boolean isSame(StoreFileMetaData md) {
             if (checksum == null || md.checksum() == null) {
                 return false;
@@ -126,6 +141,23 @@ public class CommitPoint {
         return null;
     }
 
+    /**
+     * Finds an index file with the same content as the provided store file, regardless of its physical name.
+     * The length and checksum must match, as well as the content digest, since the (adler32) checksum alone is
+     * too weak to identify a file. Returns <tt>null</tt> if no digest is provided.
+     */
+    public CommitPoint.FileInfo findSameContentIndexFile(StoreFileMetaData md, @Nullable String digest) {
+        if (digest == null) {
+            return null;
+        }
+        for (FileInfo file : indexFiles) {
+            if (file.isSame(md) && digest.equals(file.digest())) {
+                return file;
+            }
+        }
+        return null;
+    }
+
     public CommitPoint.FileInfo findNameFile(String name) {
         CommitPoint.FileInfo fileInfo = findNameIndexFile(name);
         if (fileInfo != null) {
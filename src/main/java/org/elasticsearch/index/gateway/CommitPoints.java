@@ -25,6 +25,7 @@ import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.store.StoreFileMetaData;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -72,6 +73,16 @@ public class CommitPoints implements Iterable<CommitPoint> {
         return null;
     }
 
+    public CommitPoint.FileInfo findSameContentIndexFile(StoreFileMetaData md, String digest) {
+        for (CommitPoint commitPoint : commitPoints) {
+            CommitPoint.FileInfo fileInfo = commitPoint.findSameContentIndexFile(md, digest);
+            if (fileInfo != null) {
+                return fileInfo;
+            }
+        }
+        return null;
+    }
+
     public CommitPoint.FileInfo findNameFile(String name) {
         for (CommitPoint commitPoint : commitPoints) {
             CommitPoint.FileInfo fileInfo = commitPoint.findNameFile(name);
@@ -102,6 +113,9 @@ public class CommitPoints implements Iterable<CommitPoint> {
             if (fileInfo.checksum() != null) {
                 builder.field("checksum", fileInfo.checksum());
             }
+            if (fileInfo.digest() != null) {
+                builder.field("digest", fileInfo.digest());
+            }
             builder.endObject();
         }
         builder.endObject();
@@ -153,6 +167,7 @@ public class CommitPoints implements Iterable<CommitPoint> {
                             String physicalName = null;
                             long size = -1;
                             String checksum = null;
+                            String digest = null;
                             while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
                                 if (token == XContentParser.Token.FIELD_NAME) {
                                     currentFieldName = parser.currentName();
@@ -163,6 +178,8 @@ public class CommitPoints implements Iterable<CommitPoint> {
                                         size = parser.longValue();
                                     } else if ("checksum".equals(currentFieldName)) {
                                         checksum = parser.text();
+                                    } else if ("digest".equals(currentFieldName)) {
+                                        digest = parser.text();
                                     }
                                 }
                             }
@@ -172,7 +189,7 @@ public class CommitPoints implements Iterable<CommitPoint> {
                             if (size == -1) {
                                 throw new IOException("Malformed commit, missing length for [" + fileName + "]");
                             }
-                            files.add(new CommitPoint.FileInfo(fileName, physicalName, size, checksum));
+                            files.add(new CommitPoint.FileInfo(fileName, physicalName, size, checksum, digest));
                         }
                     }
                 } else if (token.isValue()) {
@@ -22,14 +22,19 @@ package org.elasticsearch.index.gateway.blobstore;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.IndexOutput;
 import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.common.Digest;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.RateLimiter;
 import org.elasticsearch.common.blobstore.*;
 import org.elasticsearch.common.io.FastByteArrayInputStream;
 import org.elasticsearch.common.io.FastByteArrayOutputStream;
+import org.elasticsearch.common.io.RateLimitedInputStream;
 import org.elasticsearch.common.io.stream.BytesStreamInput;
 import org.elasticsearch.common.lucene.store.InputStreamIndexInput;
 import org.elasticsearch.common.lucene.store.ThreadSafeInputStreamIndexInput;
@@ -49,9 +54,11 @@ import org.elasticsearch.index.translog.TranslogStreams;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -77,6 +84,12 @@ public abstract class BlobStoreIndexShardGateway extends AbstractIndexShardCompo
 
     protected final ImmutableBlobContainer blobContainer;
 
+    @Nullable
+    protected final RateLimiter snapshotRateLimiter;
+
+    @Nullable
+    protected final RateLimiter restoreRateLimiter;
+
     private volatile RecoveryStatus recoveryStatus;
 
     private volatile SnapshotStatus lastSnapshotStatus;
@@ -96,6 +109,8 @@ public abstract class BlobStoreIndexShardGateway extends AbstractIndexShardCompo
         this.chunkSize = blobStoreIndexGateway.chunkSize(); // can be null -> no chunking
         this.blobStore = blobStoreIndexGateway.blobStore();
         this.shardPath = blobStoreIndexGateway.shardPath(shardId.id());
+        this.snapshotRateLimiter = blobStoreIndexGateway.snapshotRateLimiter();
+        this.restoreRateLimiter = blobStoreIndexGateway.restoreRateLimiter();
 
         this.blobContainer = blobStore.immutableBlobContainer(shardPath);
 
@@ -196,6 +211,8 @@ public abstract class BlobStoreIndexShardGateway extends AbstractIndexShardCompo
         final CountDownLatch indexLatch = new CountDownLatch(snapshotIndexCommit.getFiles().length);
         final CopyOnWriteArrayList<Throwable> failures = new CopyOnWriteArrayList<Throwable>();
         final List<CommitPoint.FileInfo> indexCommitPointFiles = Lists.newArrayList();
+        // files already scheduled for upload in this snapshot, keyed by content digest, so the same content is only uploaded once
+        final Map<String, CommitPoint.FileInfo> snapshottedByDigest = Maps.newHashMap();
 
         int indexNumberOfFiles = 0;
         long indexTotalFilesSize = 0;
@@ -212,10 +229,28 @@ public abstract class BlobStoreIndexShardGateway extends AbstractIndexShardCompo
                 snapshotRequired = true; // we want to always snapshot the segment file if the index changed
             }
 
+            String digest = null;
             CommitPoint.FileInfo fileInfo = commitPoints.findPhysicalIndexFile(fileName);
             if (fileInfo == null || !fileInfo.isSame(md) || !commitPointFileExistsInBlobs(fileInfo, blobs)) {
                 // commit point file does not exists in any commit point, or has different length, or does not fully exists in the listed blobs
-                snapshotRequired = true;
+                if (md.checksum() != null) {
+                    // the digest is what identifies the content, it is stored with the file so later snapshots can reuse its blob
+                    try {
+                        digest = contentDigest(snapshotIndexCommit.getDirectory(), fileName);
+                    } catch (IOException e) {
+                        throw new IndexShardGatewaySnapshotFailedException(shardId, "Failed to compute digest of [" + fileName + "]", e);
+                    }
+                }
+                // see if the same content was already uploaded under a different physical name, and reference its blob if so
+                CommitPoint.FileInfo sameContentFileInfo = snapshotRequired ? null : findSameContentFile(md, digest, commitPoints, snapshottedByDigest, blobs);
+                if (sameContentFileInfo != null) {
+                    if (logger.isTraceEnabled()) {
+                        logger.trace("not_snapshotting [{}], same content exists in [{}]", fileName, sameContentFileInfo.name());
+                    }
+                    fileInfo = new CommitPoint.FileInfo(sameContentFileInfo.name(), fileName, md.length(), md.checksum(), digest);
+                } else {
+                    snapshotRequired = true;
+                }
             }
 
             if (snapshotRequired) {
@@ -223,8 +258,11 @@ public abstract class BlobStoreIndexShardGateway extends AbstractIndexShardCompo
                 indexTotalFilesSize += md.length();
                 // create a new FileInfo
                 try {
-                    CommitPoint.FileInfo snapshotFileInfo = new CommitPoint.FileInfo(fileNameFromGeneration(++generation), fileName, md.length(), md.checksum());
+                    CommitPoint.FileInfo snapshotFileInfo = new CommitPoint.FileInfo(fileNameFromGeneration(++generation), fileName, md.length(), md.checksum(), digest);
                     indexCommitPointFiles.add(snapshotFileInfo);
+                    if (digest != null) {
+                        snapshottedByDigest.put(digest, snapshotFileInfo);
+                    }
                     snapshotFile(snapshotIndexCommit.getDirectory(), snapshotFileInfo, indexLatch, failures);
                 } catch (IOException e) {
                     failures.add(e);
@@ -660,6 +698,9 @@ public abstract class BlobStoreIndexShardGateway extends AbstractIndexShardCompo
         blobContainer.readBlob(firstFileToRecover, new BlobContainer.ReadBlobListener() {
             @Override
             public synchronized void onPartial(byte[] data, int offset, int size) throws IOException {
+                if (restoreRateLimiter != null) {
+                    restoreRateLimiter.pause(size);
+                }
                 recoveryStatus.index().addCurrentFilesSize(size);
                 indexOutput.writeBytes(data, offset, size);
             }
@@ -755,6 +796,10 @@ public abstract class BlobStoreIndexShardGateway extends AbstractIndexShardCompo
                 indexInput = dir.openInput(fileInfo.physicalName());
                 indexInput.seek(partNumber * chunkBytes);
                 InputStreamIndexInput is = new ThreadSafeInputStreamIndexInput(indexInput, chunkBytes);
+                InputStream stream = is;
+                if (snapshotRateLimiter != null) {
+                    stream = new RateLimitedInputStream(is, snapshotRateLimiter);
+                }
 
                 String blobName = fileInfo.name();
                 if (fNumberOfChunks > 1) {
@@ -763,7 +808,7 @@ public abstract class BlobStoreIndexShardGateway extends AbstractIndexShardCompo
                 }
 
                 final IndexInput fIndexInput = indexInput;
-                blobContainer.writeBlob(blobName, is, is.actualSizeToRead(), new ImmutableBlobContainer.WriterListener() {
+                blobContainer.writeBlob(blobName, stream, is.actualSizeToRead(), new ImmutableBlobContainer.WriterListener() {
                     @Override
                     public void onCompleted() {
                         try {
@@ -803,6 +848,36 @@ public abstract class BlobStoreIndexShardGateway extends AbstractIndexShardCompo
         }
     }
 
+    /**
+     * Finds a blob holding the same content (length, checksum and digest) as the provided store file, either scheduled
+     * as part of the current snapshot, or fully existing as part of a previous commit point.
+     */
+    @Nullable
+    private CommitPoint.FileInfo findSameContentFile(StoreFileMetaData md, @Nullable String digest, CommitPoints commitPoints,
+                                                     Map<String, CommitPoint.FileInfo> snapshottedByDigest, ImmutableMap<String, BlobMetaData> blobs) {
+        if (digest == null) {
+            return null;
+        }
+        CommitPoint.FileInfo fileInfo = snapshottedByDigest.get(digest);
+        if (fileInfo != null && fileInfo.isSame(md)) {
+            return fileInfo;
+        }
+        fileInfo = commitPoints.findSameContentIndexFile(md, digest);
+        if (fileInfo != null && commitPointFileExistsInBlobs(fileInfo, blobs)) {
+            return fileInfo;
+        }
+        return null;
+    }
+
+    private String contentDigest(Directory dir, String fileName) throws IOException {
+        IndexInput indexInput = dir.openInput(fileName);
+        try {
+            return Digest.sha256Hex(new InputStreamIndexInput(indexInput, indexInput.length()));
+        } finally {
+            indexInput.close();
+        }
+    }
+
     private boolean commitPointExistsInBlobs(CommitPoint commitPoint, ImmutableMap<String, BlobMetaData> blobs) {
         for (CommitPoint.FileInfo fileInfo : Iterables.concat(commitPoint.indexFiles(), commitPoint.translogFiles())) {
             if (!commitPointFileExistsInBlobs(fileInfo, blobs)) {
@@ -430,7 +430,7 @@ public class DocumentMapper implements ToXContent {
             if (parser == null) {
                 parser = XContentHelper.createParser(source.source(), source.sourceOffset(), source.sourceLength());
             }
-            context.reset(parser, new Document(), source, listener);
+            context.reset(parser, source.reuse() ? context.reusableDocument() : new Document(), source, listener);
             // on a newly created instance of document mapper, we always consider it as new mappers that have been added
             if (initMappersAdded) {
                 context.addedMapper();
@@ -497,7 +497,7 @@ public class DocumentMapper implements ToXContent {
             Collections.reverse(context.docs());
         }
         ParsedDocument doc = new ParsedDocument(context.uid(), context.id(), context.type(), source.routing(), source.timestamp(), source.ttl(), context.docs(), context.analyzer(),
-                context.source(), context.sourceOffset(), context.sourceLength(), context.mappersAdded()).parent(source.parent());
+                context.source(), context.sourceOffset(), context.sourceLength(), context.mappersAdded()).parent(source.parent()).reused(context.reuseFields());
         // reset the context to free up memory
         context.reset(null, null, null, null);
         return doc;
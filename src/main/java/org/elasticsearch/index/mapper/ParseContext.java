@@ -79,7 +79,17 @@ public class ParseContext {
 
     private Object externalValue;
 
-    private AllEntries allEntries = new AllEntries();
+    private AllEntries allEntries;
+
+    private final Document reusableDocument = new Document();
+
+    private final List<Document> reusableDocuments = new ArrayList<Document>();
+
+    private final AllEntries reusableAllEntries = new AllEntries();
+
+    private boolean reuseFields;
+
+    private long parseGeneration;
 
     public ParseContext(String index, @Nullable Settings indexSettings, DocumentMapperParser docMapperParser, DocumentMapper docMapper, ContentPath path) {
         this.index = index;
@@ -89,14 +99,34 @@ public class ParseContext {
         this.path = path;
     }
 
+    /**
+     * The root document to parse into, reused across parses allowing it (see {@link SourceToParse#reuse(boolean)}).
+     */
+    public Document reusableDocument() {
+        reusableDocument.getFields().clear();
+        reusableDocument.setBoost(1.0f);
+        return reusableDocument;
+    }
+
     public void reset(XContentParser parser, Document document, SourceToParse source, DocumentMapper.ParseListener listener) {
         this.parser = parser;
         this.document = document;
-        if (document != null) {
+        this.reuseFields = document != null && document == reusableDocument;
+        if (reuseFields) {
+            // the documents of the previous parse that allowed reuse are not used anymore
+            this.documents = reusableDocuments;
+            this.documents.clear();
+            this.documents.add(document);
+            this.allEntries = reusableAllEntries;
+            this.allEntries.clear();
+            this.parseGeneration++;
+        } else if (document != null) {
             this.documents = new ArrayList<Document>();
             this.documents.add(document);
+            this.allEntries = new AllEntries();
         } else {
             this.documents = null;
+            this.allEntries = null;
         }
         this.analyzer = null;
         this.uid = null;
@@ -108,7 +138,6 @@ public class ParseContext {
         this.path.reset();
         this.mappersAdded = false;
         this.listener = listener == null ? DocumentMapper.ParseListener.EMPTY : listener;
-        this.allEntries = new AllEntries();
         this.ignoredValues.clear();
     }
 
@@ -116,6 +145,22 @@ public class ParseContext {
         return sourceToParse.flyweight();
     }
 
+    /**
+     * Whether field mappers can reuse the fields they created in previous parses on this thread,
+     * see {@link #parseGeneration()}.
+     */
+    public boolean reuseFields() {
+        return this.reuseFields;
+    }
+
+    /**
+     * Increases on each parse reusing fields, fields reused within the same generation belong to the
+     * document being parsed and must not be reused again.
+     */
+    public long parseGeneration() {
+        return this.parseGeneration;
+    }
+
     public DocumentMapperParser docMapperParser() {
         return this.docMapperParser;
     }
@@ -21,6 +21,9 @@ package org.elasticsearch.index.mapper;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.Fieldable;
+import org.elasticsearch.common.lucene.all.AllField;
 
 import java.util.Arrays;
 import java.util.List;
@@ -56,6 +59,8 @@ public class ParsedDocument {
 
     private String parent;
 
+    private boolean reused;
+
     public ParsedDocument(String uid, String id, String type, String routing, long timestamp, long ttl, Document document, Analyzer analyzer, byte[] source, boolean mappersAdded) {
         this(uid, id, type, routing, timestamp, ttl, Arrays.asList(document), analyzer, source, 0, source.length, mappersAdded);
     }
@@ -139,6 +144,42 @@ public class ParsedDocument {
         return mappersAdded;
     }
 
+    public ParsedDocument reused(boolean reused) {
+        this.reused = reused;
+        return this;
+    }
+
+    /**
+     * Were the documents parsed into the per thread instances reused by the next parse on the same thread,
+     * see {@link SourceToParse#reuse(boolean)}.
+     */
+    public boolean reused() {
+        return this.reused;
+    }
+
+    /**
+     * Drops the field values of documents parsed for reuse once they have been handed to the engine, so the
+     * reused fields don't hold on to the values of the last document parsed on the thread (which may be
+     * large) until the next parse. The documents must not be used afterwards. Does nothing for documents
+     * that were not parsed for reuse.
+     */
+    public void release() {
+        if (!reused) {
+            return;
+        }
+        for (Document document : documents) {
+            for (Fieldable field : document.getFields()) {
+                if (field instanceof AllField) {
+                    ((AllField) field).allEntries().clear();
+                } else if (field instanceof Field && !field.isBinary() && field.stringValue() != null) {
+                    ((Field) field).setValue("");
+                }
+            }
+            document.getFields().clear();
+        }
+        documents.clear();
+    }
+
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append("Document ").append("uid[").append(uid).append("] doc [").append(documents).append("]");
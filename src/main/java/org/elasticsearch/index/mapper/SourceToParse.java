@@ -46,6 +46,8 @@ public class SourceToParse {
 
     private boolean flyweight = false;
 
+    private boolean reuse = false;
+
     private String type;
 
     private String id;
@@ -113,6 +115,20 @@ public class SourceToParse {
         return this.flyweight;
     }
 
+    /**
+     * Allows the parsed Lucene documents and fields to be reused by the next parse of the same type on
+     * the same thread that allows it as well. Should only be set when the parsed document is indexed
+     * right away and not held on to after that, see {@link ParsedDocument#release()}.
+     */
+    public SourceToParse reuse(boolean reuse) {
+        this.reuse = reuse;
+        return this;
+    }
+
+    public boolean reuse() {
+        return this.reuse;
+    }
+
     public String id() {
         return this.id;
     }
@@ -35,6 +35,8 @@ import org.elasticsearch.index.mapper.*;
 import org.elasticsearch.index.query.QueryParseContext;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  *
@@ -214,6 +216,13 @@ public abstract class AbstractFieldMapper<T> implements FieldMapper<T>, Mapper {
 
     protected final NamedAnalyzer searchAnalyzer;
 
+    private final ThreadLocal<ReusableFields> reusableFields = new ThreadLocal<ReusableFields>() {
+        @Override
+        protected ReusableFields initialValue() {
+            return new ReusableFields();
+        }
+    };
+
     protected AbstractFieldMapper(Names names, Field.Index index, Field.Store store, Field.TermVector termVector,
                                   float boost, boolean omitNorms, boolean omitTermFreqAndPositions, NamedAnalyzer indexAnalyzer, NamedAnalyzer searchAnalyzer) {
         this.names = names;
@@ -323,6 +332,42 @@ public abstract class AbstractFieldMapper<T> implements FieldMapper<T>, Mapper {
 
     protected abstract Fieldable parseCreateField(ParseContext context) throws IOException;
 
+    /**
+     * Returns a field this mapper created in a previous parse on this thread, to be updated with the new
+     * value instead of creating a new one. Returns <tt>null</tt> if there is no such field, or if the
+     * parse does not allow reusing fields, in which case the new field should be registered using
+     * {@link #reusable(ParseContext, Fieldable)}.
+     */
+    protected Fieldable reusableField(ParseContext context) {
+        if (!context.reuseFields()) {
+            return null;
+        }
+        ReusableFields reusable = reusableFields.get();
+        if (reusable.context != context || reusable.generation != context.parseGeneration()) {
+            reusable.context = context;
+            reusable.generation = context.parseGeneration();
+            reusable.used = 0;
+        }
+        if (reusable.used < reusable.fields.size()) {
+            return reusable.fields.get(reusable.used++);
+        }
+        return null;
+    }
+
+    /**
+     * Registers a newly created field so later parses on this thread can reuse it, see {@link #reusableField(ParseContext)}.
+     */
+    protected <F extends Fieldable> F reusable(ParseContext context, F field) {
+        if (context.reuseFields()) {
+            ReusableFields reusable = reusableFields.get();
+            if (reusable.fields.size() < ReusableFields.MAX_FIELDS) {
+                reusable.fields.add(field);
+                reusable.used++;
+            }
+        }
+        return field;
+    }
+
     /**
      * Derived classes can override it to specify that boost value is set by derived classes.
      */
@@ -493,7 +538,20 @@ public abstract class AbstractFieldMapper<T> implements FieldMapper<T>, Mapper {
 
     @Override
     public void close() {
-        // nothing to do here, sub classes to override if needed
+        reusableFields.remove();
+    }
+
+    /**
+     * The fields a mapper created on a thread, and how many of them are used by the document being parsed.
+     */
+    static class ReusableFields {
+        // don't hold on to the fields of large multi valued fields
+        static final int MAX_FIELDS = 64;
+
+        final List<Fieldable> fields = new ArrayList<Fieldable>();
+        ParseContext context;
+        long generation;
+        int used;
     }
 
 }
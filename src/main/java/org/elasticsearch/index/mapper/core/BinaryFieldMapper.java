@@ -24,10 +24,10 @@ import org.apache.lucene.document.Fieldable;
 import org.elasticsearch.ElasticSearchParseException;
 import org.elasticsearch.common.Base64;
 import org.elasticsearch.common.Strings;
-import org.elasticsearch.common.compress.lzf.LZF;
-import org.elasticsearch.common.compress.lzf.LZFDecoder;
+import org.elasticsearch.common.compress.CompressedStreamOutput;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.stream.CachedStreamOutput;
-import org.elasticsearch.common.io.stream.LZFStreamOutput;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentParser;
@@ -125,9 +125,13 @@ public class BinaryFieldMapper extends AbstractFieldMapper<byte[]> {
     @Override
     public byte[] value(Fieldable field) {
         byte[] value = field.getBinaryValue();
-        if (value != null && LZF.isCompressed(value)) {
+        if (value == null) {
+            return value;
+        }
+        Compressor compressor = CompressorFactory.compressor(value);
+        if (compressor != null) {
             try {
-                return LZFDecoder.decode(value);
+                return compressor.uncompress(value, 0, value.length);
             } catch (IOException e) {
                 throw new ElasticSearchParseException("failed to decompress source", e);
             }
@@ -162,10 +166,10 @@ public class BinaryFieldMapper extends AbstractFieldMapper<byte[]> {
             return null;
         } else {
             value = context.parser().binaryValue();
-            if (compress != null && compress && !LZF.isCompressed(value, 0, value.length)) {
+            if (compress != null && compress && !CompressorFactory.isCompressed(value, 0, value.length)) {
                 if (compressThreshold == -1 || value.length > compressThreshold) {
                     CachedStreamOutput.Entry cachedEntry = CachedStreamOutput.popEntry();
-                    LZFStreamOutput streamOutput = cachedEntry.cachedLZFBytes();
+                    CompressedStreamOutput streamOutput = cachedEntry.cachedCompressedBytes(CompressorFactory.defaultCompressor());
                     streamOutput.writeBytes(value, 0, value.length);
                     streamOutput.flush();
                     // we copy over the byte array, since we need to push back the cached entry
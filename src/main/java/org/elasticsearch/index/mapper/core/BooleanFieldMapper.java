@@ -177,7 +177,12 @@ public class BooleanFieldMapper extends AbstractFieldMapper<Boolean> {
         if (value == null) {
             return null;
         }
-        return new Field(names.indexName(), value, store, index, termVector);
+        Field field = (Field) reusableField(context);
+        if (field == null) {
+            return reusable(context, new Field(names.indexName(), value, store, index, termVector));
+        }
+        field.setValue(value);
+        return field;
     }
 
     @Override
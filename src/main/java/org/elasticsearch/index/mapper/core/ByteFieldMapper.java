@@ -269,7 +269,12 @@ public class ByteFieldMapper extends NumberFieldMapper<Byte> {
                 }
             }
         }
-        CustomByteNumericField field = new CustomByteNumericField(this, value);
+        CustomByteNumericField field = (CustomByteNumericField) reusableField(context);
+        if (field == null) {
+            field = reusable(context, new CustomByteNumericField(this, value));
+        } else {
+            field.setNumber(value);
+        }
         field.setBoost(boost);
         return field;
     }
@@ -330,7 +335,7 @@ public class ByteFieldMapper extends NumberFieldMapper<Byte> {
 
     public static class CustomByteNumericField extends CustomNumericField {
 
-        private final byte number;
+        private byte number;
 
         private final NumberFieldMapper mapper;
 
@@ -340,6 +345,16 @@ public class ByteFieldMapper extends NumberFieldMapper<Byte> {
             this.number = number;
         }
 
+        /**
+         * Updates the number of a field that is reused for another document.
+         */
+        public void setNumber(byte number) {
+            this.number = number;
+            if (isStored) {
+                fieldsData = new byte[]{number};
+            }
+        }
+
         @Override
         public TokenStream tokenStreamValue() {
             if (isIndexed) {
@@ -326,7 +326,7 @@ public class DateFieldMapper extends NumberFieldMapper<Long> {
         }
 
         if (value != null) {
-            LongFieldMapper.CustomLongNumericField field = new LongFieldMapper.CustomLongNumericField(this, timeUnit.toMillis(value));
+            LongFieldMapper.CustomLongNumericField field = numericField(context, timeUnit.toMillis(value));
             field.setBoost(boost);
             return field;
         }
@@ -339,11 +339,20 @@ public class DateFieldMapper extends NumberFieldMapper<Long> {
         }
 
         value = parseStringValue(dateAsString);
-        LongFieldMapper.CustomLongNumericField field = new LongFieldMapper.CustomLongNumericField(this, value);
+        LongFieldMapper.CustomLongNumericField field = numericField(context, value);
         field.setBoost(boost);
         return field;
     }
 
+    private LongFieldMapper.CustomLongNumericField numericField(ParseContext context, long value) {
+        LongFieldMapper.CustomLongNumericField field = (LongFieldMapper.CustomLongNumericField) reusableField(context);
+        if (field == null) {
+            return reusable(context, new LongFieldMapper.CustomLongNumericField(this, value));
+        }
+        field.setNumber(value);
+        return field;
+    }
+
     @Override
     public FieldDataType fieldDataType() {
         return FieldDataType.DefaultTypes.LONG;
@@ -271,7 +271,12 @@ public class DoubleFieldMapper extends NumberFieldMapper<Double> {
             }
         }
 
-        CustomDoubleNumericField field = new CustomDoubleNumericField(this, value);
+        CustomDoubleNumericField field = (CustomDoubleNumericField) reusableField(context);
+        if (field == null) {
+            field = reusable(context, new CustomDoubleNumericField(this, value));
+        } else {
+            field.setNumber(value);
+        }
         field.setBoost(boost);
         return field;
     }
@@ -332,7 +337,7 @@ public class DoubleFieldMapper extends NumberFieldMapper<Double> {
 
     public static class CustomDoubleNumericField extends CustomNumericField {
 
-        private final double number;
+        private double number;
 
         private final NumberFieldMapper mapper;
 
@@ -342,6 +347,16 @@ public class DoubleFieldMapper extends NumberFieldMapper<Double> {
             this.number = number;
         }
 
+        /**
+         * Updates the number of a field that is reused for another document.
+         */
+        public void setNumber(double number) {
+            this.number = number;
+            if (isStored) {
+                fieldsData = Numbers.doubleToBytes(number);
+            }
+        }
+
         @Override
         public TokenStream tokenStreamValue() {
             if (isIndexed) {
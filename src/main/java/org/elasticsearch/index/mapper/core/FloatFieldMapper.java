@@ -266,7 +266,12 @@ public class FloatFieldMapper extends NumberFieldMapper<Float> {
             }
         }
 
-        CustomFloatNumericField field = new CustomFloatNumericField(this, value);
+        CustomFloatNumericField field = (CustomFloatNumericField) reusableField(context);
+        if (field == null) {
+            field = reusable(context, new CustomFloatNumericField(this, value));
+        } else {
+            field.setNumber(value);
+        }
         field.setBoost(boost);
         return field;
     }
@@ -328,7 +333,7 @@ public class FloatFieldMapper extends NumberFieldMapper<Float> {
 
     public static class CustomFloatNumericField extends CustomNumericField {
 
-        private final float number;
+        private float number;
 
         private final NumberFieldMapper mapper;
 
@@ -338,6 +343,16 @@ public class FloatFieldMapper extends NumberFieldMapper<Float> {
             this.number = number;
         }
 
+        /**
+         * Updates the number of a field that is reused for another document.
+         */
+        public void setNumber(float number) {
+            this.number = number;
+            if (isStored) {
+                fieldsData = Numbers.floatToBytes(number);
+            }
+        }
+
         @Override
         public TokenStream tokenStreamValue() {
             if (isIndexed) {
@@ -271,7 +271,12 @@ public class IntegerFieldMapper extends NumberFieldMapper<Integer> {
             }
         }
 
-        CustomIntegerNumericField field = new CustomIntegerNumericField(this, value);
+        CustomIntegerNumericField field = (CustomIntegerNumericField) reusableField(context);
+        if (field == null) {
+            field = reusable(context, new CustomIntegerNumericField(this, value));
+        } else {
+            field.setNumber(value);
+        }
         field.setBoost(boost);
         return field;
     }
@@ -332,7 +337,7 @@ public class IntegerFieldMapper extends NumberFieldMapper<Integer> {
 
     public static class CustomIntegerNumericField extends CustomNumericField {
 
-        private final int number;
+        private int number;
 
         private final NumberFieldMapper mapper;
 
@@ -342,6 +347,16 @@ public class IntegerFieldMapper extends NumberFieldMapper<Integer> {
             this.number = number;
         }
 
+        /**
+         * Updates the number of a field that is reused for another document.
+         */
+        public void setNumber(int number) {
+            this.number = number;
+            if (isStored) {
+                fieldsData = Numbers.intToBytes(number);
+            }
+        }
+
         @Override
         public TokenStream tokenStreamValue() {
             if (isIndexed) {
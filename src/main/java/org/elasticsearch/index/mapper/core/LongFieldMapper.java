@@ -270,7 +270,12 @@ public class LongFieldMapper extends NumberFieldMapper<Long> {
                 }
             }
         }
-        CustomLongNumericField field = new CustomLongNumericField(this, value);
+        CustomLongNumericField field = (CustomLongNumericField) reusableField(context);
+        if (field == null) {
+            field = reusable(context, new CustomLongNumericField(this, value));
+        } else {
+            field.setNumber(value);
+        }
         field.setBoost(boost);
         return field;
     }
@@ -331,7 +336,7 @@ public class LongFieldMapper extends NumberFieldMapper<Long> {
 
     public static class CustomLongNumericField extends CustomNumericField {
 
-        private final long number;
+        private long number;
 
         private final NumberFieldMapper mapper;
 
@@ -341,6 +346,16 @@ public class LongFieldMapper extends NumberFieldMapper<Long> {
             this.number = number;
         }
 
+        /**
+         * Updates the number of a field that is reused for another document.
+         */
+        public void setNumber(long number) {
+            this.number = number;
+            if (isStored) {
+                fieldsData = Numbers.longToBytes(number);
+            }
+        }
+
         @Override
         public TokenStream tokenStreamValue() {
             if (isIndexed) {
@@ -225,6 +225,7 @@ public abstract class NumberFieldMapper<T extends Number> extends AbstractFieldM
 
     @Override
     public void close() {
+        super.close();
         tokenStream.remove();
     }
 
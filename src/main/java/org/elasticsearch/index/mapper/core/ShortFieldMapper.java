@@ -270,7 +270,12 @@ public class ShortFieldMapper extends NumberFieldMapper<Short> {
                 }
             }
         }
-        CustomShortNumericField field = new CustomShortNumericField(this, value);
+        CustomShortNumericField field = (CustomShortNumericField) reusableField(context);
+        if (field == null) {
+            field = reusable(context, new CustomShortNumericField(this, value));
+        } else {
+            field.setNumber(value);
+        }
         field.setBoost(boost);
         return field;
     }
@@ -331,7 +336,7 @@ public class ShortFieldMapper extends NumberFieldMapper<Short> {
 
     public static class CustomShortNumericField extends CustomNumericField {
 
-        private final short number;
+        private short number;
 
         private final NumberFieldMapper mapper;
 
@@ -341,6 +346,16 @@ public class ShortFieldMapper extends NumberFieldMapper<Short> {
             this.number = number;
         }
 
+        /**
+         * Updates the number of a field that is reused for another document.
+         */
+        public void setNumber(short number) {
+            this.number = number;
+            if (isStored) {
+                fieldsData = Numbers.shortToBytes(number);
+            }
+        }
+
         @Override
         public TokenStream tokenStreamValue() {
             if (isIndexed) {
@@ -180,7 +180,12 @@ public class StringFieldMapper extends AbstractFieldMapper<String> implements Al
             context.ignoredValue(names.indexName(), value);
             return null;
         }
-        Field field = new Field(names.indexName(), false, value, store, index, termVector);
+        Field field = (Field) reusableField(context);
+        if (field == null) {
+            field = reusable(context, new Field(names.indexName(), false, value, store, index, termVector));
+        } else {
+            field.setValue(value);
+        }
         field.setBoost(boost);
         return field;
     }
@@ -74,6 +74,7 @@ public class GeoPointFieldMapper implements Mapper, ArrayValueMapperParser {
         public static final Field.Store STORE = Field.Store.NO;
         public static final boolean ENABLE_LATLON = false;
         public static final boolean ENABLE_GEOHASH = false;
+        public static final boolean ENABLE_GEOHASH_PREFIX = false;
         public static final int PRECISION = GeoHashUtils.PRECISION;
         public static final boolean NORMALIZE_LAT = true;
         public static final boolean NORMALIZE_LON = true;
@@ -87,6 +88,8 @@ public class GeoPointFieldMapper implements Mapper, ArrayValueMapperParser {
 
         private boolean enableGeoHash = Defaults.ENABLE_GEOHASH;
 
+        private boolean enableGeohashPrefix = Defaults.ENABLE_GEOHASH_PREFIX;
+
         private boolean enableLatLon = Defaults.ENABLE_LATLON;
 
         private Integer precisionStep;
@@ -115,6 +118,15 @@ public class GeoPointFieldMapper implements Mapper, ArrayValueMapperParser {
             return this;
         }
 
+        /**
+         * Indexes all the prefixes of the geohash (implies geohash), allowing geo filters to
+         * select candidate docs by geohash cells.
+         */
+        public Builder enableGeohashPrefix(boolean enableGeohashPrefix) {
+            this.enableGeohashPrefix = enableGeohashPrefix;
+            return this;
+        }
+
         public Builder enableLatLon(boolean enableLatLon) {
             this.enableLatLon = enableLatLon;
             return this;
@@ -159,14 +171,14 @@ public class GeoPointFieldMapper implements Mapper, ArrayValueMapperParser {
                 lonMapper = (DoubleFieldMapper) lonMapperBuilder.includeInAll(false).store(store).build(context);
             }
             StringFieldMapper geohashMapper = null;
-            if (enableGeoHash) {
+            if (enableGeoHash || enableGeohashPrefix) {
                 geohashMapper = stringField(Names.GEOHASH).index(Field.Index.NOT_ANALYZED).includeInAll(false).omitNorms(true).omitTermFreqAndPositions(true).build(context);
             }
             context.path().remove();
 
             context.path().pathType(origPathType);
 
-            return new GeoPointFieldMapper(name, pathType, enableLatLon, enableGeoHash, precisionStep, precision,
+            return new GeoPointFieldMapper(name, pathType, enableLatLon, enableGeoHash || enableGeohashPrefix, enableGeohashPrefix, precisionStep, precision,
                     latMapper, lonMapper, geohashMapper, geoStringMapper,
                     validateLon, validateLat, normalizeLon, normalizeLat);
         }
@@ -188,6 +200,8 @@ public class GeoPointFieldMapper implements Mapper, ArrayValueMapperParser {
                     builder.enableLatLon(XContentMapValues.nodeBooleanValue(fieldNode));
                 } else if (fieldName.equals("geohash")) {
                     builder.enableGeoHash(XContentMapValues.nodeBooleanValue(fieldNode));
+                } else if (fieldName.equals("geohash_prefix")) {
+                    builder.enableGeohashPrefix(XContentMapValues.nodeBooleanValue(fieldNode));
                 } else if (fieldName.equals("precision_step")) {
                     builder.precisionStep(XContentMapValues.nodeIntegerValue(fieldNode));
                 } else if (fieldName.equals("geohash_precision")) {
@@ -220,6 +234,8 @@ public class GeoPointFieldMapper implements Mapper, ArrayValueMapperParser {
 
     private final boolean enableGeoHash;
 
+    private final boolean enableGeohashPrefix;
+
     private final Integer precisionStep;
 
     private final int precision;
@@ -238,7 +254,7 @@ public class GeoPointFieldMapper implements Mapper, ArrayValueMapperParser {
     private final boolean normalizeLon;
     private final boolean normalizeLat;
 
-    public GeoPointFieldMapper(String name, ContentPath.Type pathType, boolean enableLatLon, boolean enableGeoHash, Integer precisionStep, int precision,
+    public GeoPointFieldMapper(String name, ContentPath.Type pathType, boolean enableLatLon, boolean enableGeoHash, boolean enableGeohashPrefix, Integer precisionStep, int precision,
                                DoubleFieldMapper latMapper, DoubleFieldMapper lonMapper, StringFieldMapper geohashMapper, GeoStringFieldMapper geoStringMapper,
                                boolean validateLon, boolean validateLat,
                                boolean normalizeLon, boolean normalizeLat) {
@@ -246,6 +262,7 @@ public class GeoPointFieldMapper implements Mapper, ArrayValueMapperParser {
         this.pathType = pathType;
         this.enableLatLon = enableLatLon;
         this.enableGeoHash = enableGeoHash;
+        this.enableGeohashPrefix = enableGeohashPrefix;
         this.precisionStep = precisionStep;
         this.precision = precision;
 
@@ -280,6 +297,21 @@ public class GeoPointFieldMapper implements Mapper, ArrayValueMapperParser {
         return enableLatLon;
     }
 
+    public StringFieldMapper geohashMapper() {
+        return geohashMapper;
+    }
+
+    public boolean isEnableGeohashPrefix() {
+        return enableGeohashPrefix;
+    }
+
+    /**
+     * The geohash precision (length) the geohash is indexed with.
+     */
+    public int precision() {
+        return precision;
+    }
+
     @Override
     public void parse(ParseContext context) throws IOException {
         ContentPath.Type origPathType = context.path().pathType();
@@ -393,8 +425,7 @@ public class GeoPointFieldMapper implements Mapper, ArrayValueMapperParser {
         context.externalValue(Double.toString(lat) + ',' + Double.toString(lon));
         geoStringMapper.parse(context);
         if (enableGeoHash) {
-            context.externalValue(GeoHashUtils.encode(lat, lon, precision));
-            geohashMapper.parse(context);
+            parseGeohashField(context, GeoHashUtils.encode(lat, lon, precision));
         }
         if (enableLatLon) {
             context.externalValue(lat);
@@ -430,8 +461,11 @@ public class GeoPointFieldMapper implements Mapper, ArrayValueMapperParser {
         context.externalValue(Double.toString(lat) + ',' + Double.toString(lon));
         geoStringMapper.parse(context);
         if (enableGeoHash) {
-            context.externalValue(geohash);
-            geohashMapper.parse(context);
+            if (enableGeohashPrefix) {
+                // re-encode so the prefixes match the (normalized) point used by the filters
+                geohash = GeoHashUtils.encode(lat, lon, precision);
+            }
+            parseGeohashField(context, geohash);
         }
         if (enableLatLon) {
             context.externalValue(lat);
@@ -441,6 +475,17 @@ public class GeoPointFieldMapper implements Mapper, ArrayValueMapperParser {
         }
     }
 
+    private void parseGeohashField(ParseContext context, String geohash) throws IOException {
+        if (enableGeohashPrefix) {
+            for (int i = 1; i < geohash.length(); i++) {
+                context.externalValue(geohash.substring(0, i));
+                geohashMapper.parse(context);
+            }
+        }
+        context.externalValue(geohash);
+        geohashMapper.parse(context);
+    }
+
     @Override
     public void close() {
         if (latMapper != null) {
@@ -459,7 +504,16 @@ public class GeoPointFieldMapper implements Mapper, ArrayValueMapperParser {
 
     @Override
     public void merge(Mapper mergeWith, MergeContext mergeContext) throws MergeMappingException {
-        // TODO
+        if (!(mergeWith instanceof GeoPointFieldMapper)) {
+            mergeContext.addConflict("mapper [" + name + "] of different type, current_type [" + CONTENT_TYPE + "], merged_type [" + mergeWith.getClass().getSimpleName() + "]");
+            return;
+        }
+        GeoPointFieldMapper fieldMergeWith = (GeoPointFieldMapper) mergeWith;
+        // the geo filters rely on the prefixes being indexed for all the docs
+        if (this.enableGeohashPrefix != fieldMergeWith.enableGeohashPrefix) {
+            mergeContext.addConflict("mapper [" + name + "] has different geohash_prefix");
+        }
+        // TODO the other settings
     }
 
     @Override
@@ -491,6 +545,9 @@ public class GeoPointFieldMapper implements Mapper, ArrayValueMapperParser {
         if (enableGeoHash != Defaults.ENABLE_GEOHASH) {
             builder.field("geohash", enableGeoHash);
         }
+        if (enableGeohashPrefix != Defaults.ENABLE_GEOHASH_PREFIX) {
+            builder.field("geohash_prefix", enableGeohashPrefix);
+        }
         if (geoStringMapper.store() != Defaults.STORE) {
             builder.field("store", geoStringMapper.store().name().toLowerCase());
         }
@@ -26,8 +26,11 @@ import org.apache.lucene.document.Fieldable;
 import org.elasticsearch.ElasticSearchParseException;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.collect.Tuple;
-import org.elasticsearch.common.compress.lzf.LZF;
-import org.elasticsearch.common.compress.lzf.LZFDecoder;
+import org.elasticsearch.common.compress.CompressedStreamInput;
+import org.elasticsearch.common.compress.CompressedStreamOutput;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.compress.lzf.LZFCompressor;
 import org.elasticsearch.common.io.stream.*;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.document.ResetFieldSelector;
@@ -61,6 +64,7 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
         public static final String NAME = SourceFieldMapper.NAME;
         public static final boolean ENABLED = true;
         public static final long COMPRESS_THRESHOLD = -1;
+        public static final String COMPRESS_TYPE = LZFCompressor.TYPE; // not the (transport) default compressor, it changes the stored format
         public static final String FORMAT = null; // default format is to use the one provided
         public static final Field.Index INDEX = Field.Index.NO;
         public static final Field.Store STORE = Field.Store.YES;
@@ -78,6 +82,8 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
 
         private Boolean compress = null;
 
+        private String compressType = Defaults.COMPRESS_TYPE;
+
         private String format = Defaults.FORMAT;
 
         private String[] includes = Defaults.INCLUDES;
@@ -102,6 +108,15 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
             return this;
         }
 
+        /**
+         * The type of the {@link org.elasticsearch.common.compress.Compressor} used to compress the source,
+         * <tt>lzf</tt> by default.
+         */
+        public Builder compressType(String compressType) {
+            this.compressType = compressType;
+            return this;
+        }
+
         public Builder format(String format) {
             this.format = format;
             return this;
@@ -119,7 +134,7 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
 
         @Override
         public SourceFieldMapper build(BuilderContext context) {
-            return new SourceFieldMapper(name, enabled, format, compress, compressThreshold, includes, excludes);
+            return new SourceFieldMapper(name, enabled, format, compress, compressType, compressThreshold, includes, excludes);
         }
     }
 
@@ -143,6 +158,13 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
                         builder.compressThreshold(ByteSizeValue.parseBytesSizeValue(fieldNode.toString()).bytes());
                         builder.compress(true);
                     }
+                } else if (fieldName.equals("compress_type") && fieldNode != null) {
+                    String compressType = nodeStringValue(fieldNode, null);
+                    if (CompressorFactory.compressor(compressType) == null) {
+                        throw new MapperParsingException("unknown _source compress_type [" + compressType + "]");
+                    }
+                    builder.compressType(compressType);
+                    builder.compress(true);
                 } else if ("format".equals(fieldName)) {
                     builder.format(nodeStringValue(fieldNode, null));
                 } else if (fieldName.equals("includes")) {
@@ -170,6 +192,8 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
 
     private Boolean compress;
 
+    private String compressType;
+
     private long compressThreshold;
 
     private String[] includes;
@@ -181,14 +205,15 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
     private XContentType formatContentType;
 
     public SourceFieldMapper() {
-        this(Defaults.NAME, Defaults.ENABLED, Defaults.FORMAT, null, -1, Defaults.INCLUDES, Defaults.EXCLUDES);
+        this(Defaults.NAME, Defaults.ENABLED, Defaults.FORMAT, null, Defaults.COMPRESS_TYPE, -1, Defaults.INCLUDES, Defaults.EXCLUDES);
     }
 
-    protected SourceFieldMapper(String name, boolean enabled, String format, Boolean compress, long compressThreshold, String[] includes, String[] excludes) {
+    protected SourceFieldMapper(String name, boolean enabled, String format, Boolean compress, String compressType, long compressThreshold, String[] includes, String[] excludes) {
         super(new Names(name, name, name, name), Defaults.INDEX, Defaults.STORE, Defaults.TERM_VECTOR, Defaults.BOOST,
                 Defaults.OMIT_NORMS, Defaults.OMIT_TERM_FREQ_AND_POSITIONS, Lucene.KEYWORD_ANALYZER, Lucene.KEYWORD_ANALYZER);
         this.enabled = enabled;
         this.compress = compress;
+        this.compressType = compressType;
         this.compressThreshold = compressThreshold;
         this.includes = includes;
         this.excludes = excludes;
@@ -242,6 +267,9 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
         int dataOffset = context.sourceOffset();
         int dataLength = context.sourceLength();
 
+        boolean compressed = compress != null && compress;
+        Compressor compressor = compressor();
+
         boolean filtered = includes.length > 0 || excludes.length > 0;
         if (filtered) {
             // we don't update the context source if we filter, we want to keep it as is...
@@ -250,8 +278,8 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
             Map<String, Object> filteredSource = XContentMapValues.filter(mapTuple.v2(), includes, excludes);
             CachedStreamOutput.Entry cachedEntry = CachedStreamOutput.popEntry();
             StreamOutput streamOutput;
-            if (compress != null && compress && (compressThreshold == -1 || dataLength > compressThreshold)) {
-                streamOutput = cachedEntry.cachedLZFBytes();
+            if (compressed && (compressThreshold == -1 || dataLength > compressThreshold)) {
+                streamOutput = cachedEntry.cachedCompressedBytes(compressor);
             } else {
                 streamOutput = cachedEntry.cachedBytes();
             }
@@ -267,17 +295,17 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
             dataLength = data.length;
 
             CachedStreamOutput.pushEntry(cachedEntry);
-        } else if (compress != null && compress && !LZF.isCompressed(data, dataOffset, dataLength)) {
+        } else if (compressed && !CompressorFactory.isCompressed(data, dataOffset, dataLength)) {
             if (compressThreshold == -1 || dataLength > compressThreshold) {
                 CachedStreamOutput.Entry cachedEntry = CachedStreamOutput.popEntry();
                 try {
                     XContentType contentType = XContentFactory.xContentType(data, dataOffset, dataLength);
                     if (formatContentType != null && formatContentType != contentType) {
-                        XContentBuilder builder = XContentFactory.contentBuilder(formatContentType, cachedEntry.cachedLZFBytes());
+                        XContentBuilder builder = XContentFactory.contentBuilder(formatContentType, cachedEntry.cachedCompressedBytes(compressor));
                         builder.copyCurrentStructure(XContentFactory.xContent(contentType).createParser(data, dataOffset, dataLength));
                         builder.close();
                     } else {
-                        LZFStreamOutput streamOutput = cachedEntry.cachedLZFBytes();
+                        CompressedStreamOutput streamOutput = cachedEntry.cachedCompressedBytes(compressor);
                         streamOutput.writeBytes(data, dataOffset, dataLength);
                         streamOutput.flush();
                     }
@@ -294,18 +322,19 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
             }
         } else if (formatContentType != null) {
             // see if we need to convert the content type
-            if (LZF.isCompressed(data, dataOffset, dataLength)) {
+            Compressor sourceCompressor = CompressorFactory.compressor(data, dataOffset, dataLength);
+            if (sourceCompressor != null) {
                 BytesStreamInput siBytes = new BytesStreamInput(data, dataOffset, dataLength, false);
-                LZFStreamInput siLzf = CachedStreamInput.cachedLzf(siBytes);
-                XContentType contentType = XContentFactory.xContentType(siLzf);
-                siLzf.resetToBufferStart();
+                CompressedStreamInput siCompressed = CachedStreamInput.cachedCompressed(sourceCompressor, siBytes);
+                XContentType contentType = XContentFactory.xContentType(siCompressed);
+                siCompressed.resetToBufferStart();
                 if (contentType != formatContentType) {
                     // we need to reread and store back, compressed....
                     CachedStreamOutput.Entry cachedEntry = CachedStreamOutput.popEntry();
                     try {
-                        LZFStreamOutput streamOutput = cachedEntry.cachedLZFBytes();
+                        CompressedStreamOutput streamOutput = cachedEntry.cachedCompressedBytes(sourceCompressor);
                         XContentBuilder builder = XContentFactory.contentBuilder(formatContentType, streamOutput);
-                        builder.copyCurrentStructure(XContentFactory.xContent(contentType).createParser(siLzf));
+                        builder.copyCurrentStructure(XContentFactory.xContent(contentType).createParser(siCompressed));
                         builder.close();
                         data = cachedEntry.bytes().copiedByteArray();
                         dataOffset = 0;
@@ -355,9 +384,10 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
         if (value == null) {
             return value;
         }
-        if (LZF.isCompressed(value)) {
+        Compressor compressor = CompressorFactory.compressor(value);
+        if (compressor != null) {
             try {
-                return LZFDecoder.decode(value);
+                return compressor.uncompress(value, 0, value.length);
             } catch (IOException e) {
                 throw new ElasticSearchParseException("failed to decompress source", e);
             }
@@ -365,6 +395,10 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
         return value;
     }
 
+    private Compressor compressor() {
+        return CompressorFactory.compressor(compressType);
+    }
+
     @Override
     public byte[] valueFromString(String value) {
         return null;
@@ -388,7 +422,7 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         // all are defaults, no need to write it at all
-        if (enabled == Defaults.ENABLED && compress == null && compressThreshold == -1 && includes.length == 0 && excludes.length == 0) {
+        if (enabled == Defaults.ENABLED && compress == null && compressType.equals(Defaults.COMPRESS_TYPE) && compressThreshold == -1 && includes.length == 0 && excludes.length == 0) {
             return builder;
         }
         builder.startObject(contentType());
@@ -401,6 +435,9 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
         if (compress != null) {
             builder.field("compress", compress);
         }
+        if (!compressType.equals(Defaults.COMPRESS_TYPE)) {
+            builder.field("compress_type", compressType);
+        }
         if (compressThreshold != -1) {
             builder.field("compress_threshold", new ByteSizeValue(compressThreshold).toString());
         }
@@ -424,6 +461,9 @@ public class SourceFieldMapper extends AbstractFieldMapper<byte[]> implements In
             if (sourceMergeWith.compressThreshold != -1) {
                 this.compressThreshold = sourceMergeWith.compressThreshold;
             }
+            if (!sourceMergeWith.compressType.equals(Defaults.COMPRESS_TYPE)) {
+                this.compressType = sourceMergeWith.compressType;
+            }
         }
     }
 }
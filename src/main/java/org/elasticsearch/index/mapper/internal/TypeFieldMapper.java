@@ -178,7 +178,11 @@ public class TypeFieldMapper extends AbstractFieldMapper<String> implements Inte
         if (index == Field.Index.NO && store == Field.Store.NO) {
             return null;
         }
-        return new Field(names.indexName(), false, context.type(), store, index, termVector);
+        Field field = (Field) reusableField(context);
+        if (field == null) {
+            field = reusable(context, new Field(names.indexName(), false, context.type(), store, index, termVector));
+        }
+        return field;
     }
 
     @Override
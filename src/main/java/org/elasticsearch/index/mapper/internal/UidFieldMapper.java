@@ -180,6 +180,7 @@ public class UidFieldMapper extends AbstractFieldMapper<Uid> implements Internal
 
     @Override
     public void close() {
+        super.close();
         fieldCache.remove();
     }
 
@@ -42,12 +42,21 @@ public class MergeStats implements Streamable, ToXContent {
     private long current;
     private long currentNumDocs;
     private long currentSizeInBytes;
+    private long backlog;
+    private long totalThrottledTimeInMillis;
+    private long totalStalledTimeInMillis;
+    private long totalIndexingThrottledTimeInMillis;
 
     public MergeStats() {
 
     }
 
     public void add(long totalMerges, long totalMergeTime, long totalNumDocs, long totalSizeInBytes, long currentMerges, long currentNumDocs, long currentSizeInBytes) {
+        add(totalMerges, totalMergeTime, totalNumDocs, totalSizeInBytes, currentMerges, currentNumDocs, currentSizeInBytes, 0, 0, 0, 0);
+    }
+
+    public void add(long totalMerges, long totalMergeTime, long totalNumDocs, long totalSizeInBytes, long currentMerges, long currentNumDocs, long currentSizeInBytes,
+                    long backlog, long totalThrottledTime, long totalStalledTime, long totalIndexingThrottledTime) {
         this.total += totalMerges;
         this.totalTimeInMillis += totalMergeTime;
         this.totalNumDocs += totalNumDocs;
@@ -55,6 +64,10 @@ public class MergeStats implements Streamable, ToXContent {
         this.current += currentMerges;
         this.currentNumDocs += currentNumDocs;
         this.currentSizeInBytes += currentSizeInBytes;
+        this.backlog += backlog;
+        this.totalThrottledTimeInMillis += totalThrottledTime;
+        this.totalStalledTimeInMillis += totalStalledTime;
+        this.totalIndexingThrottledTimeInMillis += totalIndexingThrottledTime;
     }
 
     public void add(MergeStats mergeStats) {
@@ -68,6 +81,10 @@ public class MergeStats implements Streamable, ToXContent {
         this.current += mergeStats.current;
         this.currentNumDocs += mergeStats.currentNumDocs;
         this.currentSizeInBytes += mergeStats.currentSizeInBytes;
+        this.backlog += mergeStats.backlog;
+        this.totalThrottledTimeInMillis += mergeStats.totalThrottledTimeInMillis;
+        this.totalStalledTimeInMillis += mergeStats.totalStalledTimeInMillis;
+        this.totalIndexingThrottledTimeInMillis += mergeStats.totalIndexingThrottledTimeInMillis;
     }
 
     /**
@@ -122,6 +139,57 @@ public class MergeStats implements Streamable, ToXContent {
         return new ByteSizeValue(currentSizeInBytes);
     }
 
+    /**
+     * The number of merges waiting for a merge thread to execute on.
+     */
+    public long backlog() {
+        return this.backlog;
+    }
+
+    /**
+     * The total time merges have been paused by the merge IO throttling (in milliseconds).
+     */
+    public long totalThrottledTimeInMillis() {
+        return this.totalThrottledTimeInMillis;
+    }
+
+    /**
+     * The total time merges have been paused by the merge IO throttling.
+     */
+    public TimeValue totalThrottledTime() {
+        return new TimeValue(totalThrottledTimeInMillis);
+    }
+
+    /**
+     * The total time spent waiting to schedule more merges because max_merge_count merges were already
+     * running (in milliseconds).
+     */
+    public long totalStalledTimeInMillis() {
+        return this.totalStalledTimeInMillis;
+    }
+
+    /**
+     * The total time spent waiting to schedule more merges because max_merge_count merges were already
+     * running.
+     */
+    public TimeValue totalStalledTime() {
+        return new TimeValue(totalStalledTimeInMillis);
+    }
+
+    /**
+     * The total time indexing operations have been held back because merges have fallen behind (in milliseconds).
+     */
+    public long totalIndexingThrottledTimeInMillis() {
+        return this.totalIndexingThrottledTimeInMillis;
+    }
+
+    /**
+     * The total time indexing operations have been held back because merges have fallen behind.
+     */
+    public TimeValue totalIndexingThrottledTime() {
+        return new TimeValue(totalIndexingThrottledTimeInMillis);
+    }
+
     public static MergeStats readMergeStats(StreamInput in) throws IOException {
         MergeStats stats = new MergeStats();
         stats.readFrom(in);
@@ -135,12 +203,19 @@ public class MergeStats implements Streamable, ToXContent {
         builder.field(Fields.CURRENT_DOCS, currentNumDocs);
         builder.field(Fields.CURRENT_SIZE, currentSize().toString());
         builder.field(Fields.CURRENT_SIZE_IN_BYTES, currentSizeInBytes);
+        builder.field(Fields.BACKLOG, backlog);
         builder.field(Fields.TOTAL, total);
         builder.field(Fields.TOTAL_TIME, totalTime().toString());
         builder.field(Fields.TOTAL_TIME_IN_MILLIS, totalTimeInMillis);
         builder.field(Fields.TOTAL_DOCS, totalNumDocs);
         builder.field(Fields.TOTAL_SIZE, totalSize().toString());
         builder.field(Fields.TOTAL_SIZE_IN_BYTES, totalSizeInBytes);
+        builder.field(Fields.TOTAL_THROTTLED_TIME, totalThrottledTime().toString());
+        builder.field(Fields.TOTAL_THROTTLED_TIME_IN_MILLIS, totalThrottledTimeInMillis);
+        builder.field(Fields.TOTAL_STALLED_TIME, totalStalledTime().toString());
+        builder.field(Fields.TOTAL_STALLED_TIME_IN_MILLIS, totalStalledTimeInMillis);
+        builder.field(Fields.TOTAL_INDEXING_THROTTLED_TIME, totalIndexingThrottledTime().toString());
+        builder.field(Fields.TOTAL_INDEXING_THROTTLED_TIME_IN_MILLIS, totalIndexingThrottledTimeInMillis);
         builder.endObject();
         return builder;
     }
@@ -157,6 +232,13 @@ public class MergeStats implements Streamable, ToXContent {
         static final XContentBuilderString TOTAL_DOCS = new XContentBuilderString("total_docs");
         static final XContentBuilderString TOTAL_SIZE = new XContentBuilderString("total_size");
         static final XContentBuilderString TOTAL_SIZE_IN_BYTES = new XContentBuilderString("total_size_in_bytes");
+        static final XContentBuilderString BACKLOG = new XContentBuilderString("backlog");
+        static final XContentBuilderString TOTAL_THROTTLED_TIME = new XContentBuilderString("total_throttled_time");
+        static final XContentBuilderString TOTAL_THROTTLED_TIME_IN_MILLIS = new XContentBuilderString("total_throttled_time_in_millis");
+        static final XContentBuilderString TOTAL_STALLED_TIME = new XContentBuilderString("total_stalled_time");
+        static final XContentBuilderString TOTAL_STALLED_TIME_IN_MILLIS = new XContentBuilderString("total_stalled_time_in_millis");
+        static final XContentBuilderString TOTAL_INDEXING_THROTTLED_TIME = new XContentBuilderString("total_indexing_throttled_time");
+        static final XContentBuilderString TOTAL_INDEXING_THROTTLED_TIME_IN_MILLIS = new XContentBuilderString("total_indexing_throttled_time_in_millis");
     }
 
     @Override
@@ -168,6 +250,10 @@ public class MergeStats implements Streamable, ToXContent {
         current = in.readVLong();
         currentNumDocs = in.readVLong();
         currentSizeInBytes = in.readVLong();
+        backlog = in.readVLong();
+        totalThrottledTimeInMillis = in.readVLong();
+        totalStalledTimeInMillis = in.readVLong();
+        totalIndexingThrottledTimeInMillis = in.readVLong();
     }
 
     @Override
@@ -179,5 +265,9 @@ public class MergeStats implements Streamable, ToXContent {
         out.writeVLong(current);
         out.writeVLong(currentNumDocs);
         out.writeVLong(currentSizeInBytes);
+        out.writeVLong(backlog);
+        out.writeVLong(totalThrottledTimeInMillis);
+        out.writeVLong(totalStalledTimeInMillis);
+        out.writeVLong(totalIndexingThrottledTimeInMillis);
     }
 }
\ No newline at end of file
@@ -23,16 +23,19 @@ import org.apache.lucene.index.*;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.merge.MergeStats;
 import org.elasticsearch.index.merge.policy.EnableMergePolicy;
 import org.elasticsearch.index.settings.IndexSettings;
 import org.elasticsearch.index.shard.AbstractIndexShardComponent;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.merge.IndicesMergeThrottle;
 
 import java.io.IOException;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
 
 /**
  *
@@ -41,17 +44,24 @@ public class ConcurrentMergeSchedulerProvider extends AbstractIndexShardComponen
 
     private final int maxThreadCount;
     private final int maxMergeCount;
+    private final boolean throttleIndexing;
+
+    private final IndicesMergeThrottle indicesMergeThrottle;
 
     private Set<CustomConcurrentMergeScheduler> schedulers = new CopyOnWriteArraySet<CustomConcurrentMergeScheduler>();
 
+    private final IndexingThrottle indexingThrottle = new IndexingThrottle();
+
     @Inject
-    public ConcurrentMergeSchedulerProvider(ShardId shardId, @IndexSettings Settings indexSettings) {
+    public ConcurrentMergeSchedulerProvider(ShardId shardId, @IndexSettings Settings indexSettings, IndicesMergeThrottle indicesMergeThrottle) {
         super(shardId, indexSettings);
+        this.indicesMergeThrottle = indicesMergeThrottle;
 
         // TODO LUCENE MONITOR this will change in Lucene 4.0
         this.maxThreadCount = componentSettings.getAsInt("max_thread_count", Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() / 2)));
         this.maxMergeCount = componentSettings.getAsInt("max_merge_count", maxThreadCount + 2);
-        logger.debug("using [concurrent] merge scheduler with max_thread_count[{}]", maxThreadCount);
+        this.throttleIndexing = componentSettings.getAsBoolean("throttle_indexing", true);
+        logger.debug("using [concurrent] merge scheduler with max_thread_count[{}], max_merge_count[{}], throttle_indexing[{}]", maxThreadCount, maxMergeCount, throttleIndexing);
     }
 
     @Override
@@ -68,21 +78,41 @@ public class ConcurrentMergeSchedulerProvider extends AbstractIndexShardComponen
         MergeStats mergeStats = new MergeStats();
         for (CustomConcurrentMergeScheduler scheduler : schedulers) {
             mergeStats.add(scheduler.totalMerges(), scheduler.totalMergeTime(), scheduler.totalMergeNumDocs(), scheduler.totalMergeSizeInBytes(),
-                    scheduler.currentMerges(), scheduler.currentMergesNumDocs(), scheduler.currentMergesSizeInBytes());
+                    scheduler.currentMerges(), scheduler.currentMergesNumDocs(), scheduler.currentMergesSizeInBytes(),
+                    scheduler.backlog(), TimeUnit.NANOSECONDS.toMillis(scheduler.mergeThrottle.throttledTimeInNanos()),
+                    TimeUnit.NANOSECONDS.toMillis(scheduler.stalledTimeInNanos.count()), 0);
         }
+        mergeStats.add(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, TimeUnit.NANOSECONDS.toMillis(indexingThrottle.throttledTimeInNanos()));
         return mergeStats;
     }
 
+    @Override
+    public IndexingThrottle indexingThrottle() {
+        return indexingThrottle;
+    }
+
     public static class CustomConcurrentMergeScheduler extends TrackingConcurrentMergeScheduler {
 
         private final ShardId shardId;
 
         private final ConcurrentMergeSchedulerProvider provider;
 
+        private final MergeThrottle mergeThrottle;
+
+        private final CounterMetric stalledTimeInNanos = new CounterMetric();
+
         private CustomConcurrentMergeScheduler(ESLogger logger, ShardId shardId, ConcurrentMergeSchedulerProvider provider) {
             super(logger);
             this.shardId = shardId;
             this.provider = provider;
+            this.mergeThrottle = new MergeThrottle(provider.indicesMergeThrottle);
+        }
+
+        /**
+         * The number of merges paused since more than max_thread_count merges are running.
+         */
+        public long backlog() {
+            return Math.max(0, currentMerges() - getMaxThreadCount());
         }
 
         @Override
@@ -100,11 +130,65 @@ public class ConcurrentMergeSchedulerProvider extends AbstractIndexShardComponen
                 // since we do it outside of a lock in the RobinEngine
                 return;
             }
+            // when max_merge_count merges are already running, merges have fallen behind and the super
+            // implementation stalls the calling thread until one of them is done. Merges are only enabled on
+            // the threads explicitly asking for them (scheduled merges, optimize), indexing is held back by
+            // the indexing throttle instead
+            boolean fallenBehind = mergeThreadCount() >= getMaxMergeCount();
+            long time = fallenBehind ? System.nanoTime() : 0;
             try {
                 super.merge(writer);
             } catch (IOException e) {
                 logger.warn("failed to merge", e);
                 throw e;
+            } finally {
+                if (fallenBehind) {
+                    stalledTimeInNanos.inc(System.nanoTime() - time);
+                }
+            }
+        }
+
+        @Override
+        protected void beforeMerge(MergePolicy.OneMerge merge) {
+            updateIndexingThrottle();
+        }
+
+        @Override
+        protected void afterMerge(MergePolicy.OneMerge merge) {
+            updateIndexingThrottle();
+        }
+
+        /**
+         * Throttles indexing while merges are waiting for a merge thread, as they can't keep up with the
+         * segments being created.
+         */
+        private void updateIndexingThrottle() {
+            if (!provider.throttleIndexing) {
+                return;
+            }
+            if (backlog() > 0) {
+                if (provider.indexingThrottle.activate()) {
+                    logger.info("now throttling indexing: [{}] merges running, max_thread_count [{}]", currentMerges(), getMaxThreadCount());
+                }
+            } else {
+                if (provider.indexingThrottle.deactivate()) {
+                    logger.info("stop throttling indexing: [{}] merges running, max_thread_count [{}]", currentMerges(), getMaxThreadCount());
+                }
+            }
+        }
+
+        @Override
+        protected void doMerge(MergePolicy.OneMerge merge) throws IOException {
+            // small merges are not throttled, so they are not held up by big ones
+            if (!provider.indicesMergeThrottle.shouldThrottle(merge.totalBytesSize())) {
+                super.doMerge(merge);
+                return;
+            }
+            MergeThrottle.setCurrent(mergeThrottle);
+            try {
+                super.doMerge(merge);
+            } finally {
+                MergeThrottle.removeCurrent();
             }
         }
 
@@ -0,0 +1,82 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.merge.scheduler;
+
+import org.elasticsearch.common.metrics.CounterMetric;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Throttles the indexing operations of a shard while its merges have fallen behind, by letting a single
+ * indexing operation through at a time. This slows down the creation of new segments, giving the merges
+ * a chance to catch up.
+ */
+public class IndexingThrottle {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final AtomicBoolean active = new AtomicBoolean();
+
+    private final CounterMetric throttledTimeInNanos = new CounterMetric();
+
+    /**
+     * Starts throttling, returns <tt>true</tt> if it was not already active.
+     */
+    public boolean activate() {
+        return active.compareAndSet(false, true);
+    }
+
+    /**
+     * Stops throttling, returns <tt>true</tt> if it was active.
+     */
+    public boolean deactivate() {
+        return active.compareAndSet(true, false);
+    }
+
+    public boolean isActive() {
+        return active.get();
+    }
+
+    /**
+     * Called before an indexing operation, blocks while another one holds the throttle if active. Returns
+     * <tt>true</tt> if the throttle was acquired, and {@link #release()} must be called once the operation is done.
+     */
+    public boolean acquire() {
+        if (!active.get()) {
+            return false;
+        }
+        long time = System.nanoTime();
+        lock.lock();
+        throttledTimeInNanos.inc(System.nanoTime() - time);
+        return true;
+    }
+
+    public void release() {
+        lock.unlock();
+    }
+
+    /**
+     * The total time (in nanoseconds) indexing operations waited on the throttle.
+     */
+    public long throttledTimeInNanos() {
+        return throttledTimeInNanos.count();
+    }
+}
@@ -31,4 +31,9 @@ public interface MergeSchedulerProvider<T extends MergeScheduler> extends IndexS
     T newMergeScheduler();
 
     MergeStats stats();
+
+    /**
+     * The throttle the engine acquires around each indexing operation, active while merges have fallen behind.
+     */
+    IndexingThrottle indexingThrottle();
 }
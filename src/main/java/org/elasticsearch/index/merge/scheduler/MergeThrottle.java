@@ -0,0 +1,77 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.merge.scheduler;
+
+import org.elasticsearch.common.RateLimiter;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.indices.merge.IndicesMergeThrottle;
+
+/**
+ * Throttles the writes of the merge executing on the current thread against the node level
+ * {@link IndicesMergeThrottle}. The store outputs created while a merge runs pick up the
+ * {@link #current()} throttle and pause on it for every buffer they flush.
+ */
+public class MergeThrottle {
+
+    private static final ThreadLocal<MergeThrottle> current = new ThreadLocal<MergeThrottle>();
+
+    /**
+     * The throttle of the merge executing on the current thread, <tt>null</tt> if none.
+     */
+    public static MergeThrottle current() {
+        return current.get();
+    }
+
+    static void setCurrent(MergeThrottle mergeThrottle) {
+        current.set(mergeThrottle);
+    }
+
+    static void removeCurrent() {
+        current.remove();
+    }
+
+    private final IndicesMergeThrottle indicesMergeThrottle;
+
+    private final CounterMetric throttledTimeInNanos = new CounterMetric();
+
+    MergeThrottle(IndicesMergeThrottle indicesMergeThrottle) {
+        this.indicesMergeThrottle = indicesMergeThrottle;
+    }
+
+    /**
+     * Pauses, if needed, before writing the provided number of bytes.
+     */
+    public void pause(long bytes) {
+        RateLimiter rateLimiter = indicesMergeThrottle.rateLimiter();
+        if (rateLimiter != null) {
+            long pausedNS = rateLimiter.pause(bytes);
+            if (pausedNS > 0) {
+                throttledTimeInNanos.inc(pausedNS);
+            }
+        }
+    }
+
+    /**
+     * The total time (in nanoseconds) merges have been paused.
+     */
+    public long throttledTimeInNanos() {
+        return throttledTimeInNanos.count();
+    }
+}
@@ -44,6 +44,9 @@ public class SerialMergeSchedulerProvider extends AbstractIndexShardComponent im
 
     private Set<CustomSerialMergeScheduler> schedulers = new CopyOnWriteArraySet<CustomSerialMergeScheduler>();
 
+    // merges execute one at a time on the thread asking for them, so they never fall behind
+    private final IndexingThrottle indexingThrottle = new IndexingThrottle();
+
     @Inject
     public SerialMergeSchedulerProvider(ShardId shardId, @IndexSettings Settings indexSettings) {
         super(shardId, indexSettings);
@@ -67,6 +70,11 @@ public class SerialMergeSchedulerProvider extends AbstractIndexShardComponent im
         return mergeStats;
     }
 
+    @Override
+    public IndexingThrottle indexingThrottle() {
+        return indexingThrottle;
+    }
+
     public static class CustomSerialMergeScheduler extends TrackingSerialMergeScheduler {
 
         private final SerialMergeSchedulerProvider provider;
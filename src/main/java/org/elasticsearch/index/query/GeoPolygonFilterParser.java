@@ -178,9 +178,13 @@ public class GeoPolygonFilterParser implements FilterParser {
         if (mapper.fieldDataType() != GeoPointFieldDataType.TYPE) {
             throw new QueryParsingException(parseContext.index(), "field [" + fieldName + "] is not a geo_point field");
         }
+        GeoPointFieldMapper geoMapper = null;
+        if (mapper instanceof GeoPointFieldMapper.GeoStringFieldMapper) {
+            geoMapper = ((GeoPointFieldMapper.GeoStringFieldMapper) mapper).geoMapper();
+        }
         fieldName = mapper.names().indexName();
 
-        Filter filter = new GeoPolygonFilter(points.toArray(new Point[points.size()]), fieldName, parseContext.indexCache().fieldData());
+        Filter filter = new GeoPolygonFilter(points.toArray(new Point[points.size()]), fieldName, geoMapper, parseContext.indexCache().fieldData());
         if (cache) {
             filter = parseContext.cacheFilter(filter, cacheKey);
         }
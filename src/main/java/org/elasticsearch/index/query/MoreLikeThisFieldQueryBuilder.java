@@ -22,6 +22,7 @@ package org.elasticsearch.index.query;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
 import java.io.IOException;
+import java.util.Map;
 
 /**
  * A more like this query that runs against a specific field.
@@ -33,6 +34,7 @@ public class MoreLikeThisFieldQueryBuilder extends BaseQueryBuilder {
     private final String name;
 
     private String likeText;
+    private Map<String, Integer> likeTerms;
     private float percentTermsToMatch = -1;
     private int minTermFreq = -1;
     private int maxQueryTerms = -1;
@@ -62,6 +64,15 @@ public class MoreLikeThisFieldQueryBuilder extends BaseQueryBuilder {
         return this;
     }
 
+    /**
+     * Already analyzed terms (for example, taken from term vectors) and their frequency, to use
+     * instead of analyzing a like text.
+     */
+    public MoreLikeThisFieldQueryBuilder likeTerms(Map<String, Integer> likeTerms) {
+        this.likeTerms = likeTerms;
+        return this;
+    }
+
     /**
      * The percentage of terms to match. Defaults to <tt>0.3</tt>.
      */
@@ -161,10 +172,19 @@ public class MoreLikeThisFieldQueryBuilder extends BaseQueryBuilder {
     protected void doXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject(MoreLikeThisFieldQueryParser.NAME);
         builder.startObject(name);
-        if (likeText == null) {
-            throw new QueryBuilderException("moreLikeThisField requires 'like_text' to be provided");
+        if (likeText == null && likeTerms == null) {
+            throw new QueryBuilderException("moreLikeThisField requires 'like_text' or 'like_terms' to be provided");
+        }
+        if (likeText != null) {
+            builder.field("like_text", likeText);
+        }
+        if (likeTerms != null) {
+            builder.startObject("like_terms");
+            for (Map.Entry<String, Integer> entry : likeTerms.entrySet()) {
+                builder.field(entry.getKey(), entry.getValue());
+            }
+            builder.endObject();
         }
-        builder.field("like_text", likeText);
         if (percentTermsToMatch != -1) {
             builder.field("percent_terms_to_match", percentTermsToMatch);
         }
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.index.query;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.search.Query;
@@ -29,6 +30,7 @@ import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.index.mapper.MapperService;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Set;
 
 import static org.elasticsearch.index.query.support.QueryParsers.wrapSmartNameQuery;
@@ -64,6 +66,7 @@ public class MoreLikeThisFieldQueryParser implements QueryParser {
 
         MoreLikeThisQuery mltQuery = new MoreLikeThisQuery();
         mltQuery.setSimilarity(parseContext.searchSimilarity());
+        mltQuery.setDocFreqCache(parseContext.indexCache().docFreq());
         Analyzer analyzer = null;
 
         String currentFieldName = null;
@@ -105,11 +108,31 @@ public class MoreLikeThisFieldQueryParser implements QueryParser {
                 } else {
                     throw new QueryParsingException(parseContext.index(), "[mlt_field] query does not support [" + currentFieldName + "]");
                 }
+            } else if (token == XContentParser.Token.START_OBJECT) {
+                if ("like_terms".equals(currentFieldName) || "likeTerms".equals(currentFieldName)) {
+                    // already analyzed terms, and their frequency
+                    List<String> terms = Lists.newArrayList();
+                    List<Integer> freqs = Lists.newArrayList();
+                    while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+                        if (token == XContentParser.Token.FIELD_NAME) {
+                            terms.add(parser.currentName());
+                        } else {
+                            freqs.add(parser.intValue());
+                        }
+                    }
+                    int[] termFreqs = new int[freqs.size()];
+                    for (int i = 0; i < termFreqs.length; i++) {
+                        termFreqs[i] = freqs.get(i);
+                    }
+                    mltQuery.setLikeTerms(terms.toArray(new String[terms.size()]), termFreqs);
+                } else {
+                    throw new QueryParsingException(parseContext.index(), "[mlt_field] query does not support [" + currentFieldName + "]");
+                }
             }
         }
 
-        if (mltQuery.getLikeText() == null) {
-            throw new QueryParsingException(parseContext.index(), "more_like_this_field requires 'like_text' to be specified");
+        if (mltQuery.getLikeText() == null && mltQuery.getLikeTerms() == null) {
+            throw new QueryParsingException(parseContext.index(), "more_like_this_field requires 'like_text' or 'like_terms' to be specified");
         }
 
         // move to the next end object, to close the field name
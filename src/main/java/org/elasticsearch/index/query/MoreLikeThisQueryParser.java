@@ -54,6 +54,7 @@ public class MoreLikeThisQueryParser implements QueryParser {
         MoreLikeThisQuery mltQuery = new MoreLikeThisQuery();
         mltQuery.setMoreLikeFields(new String[]{parseContext.defaultField()});
         mltQuery.setSimilarity(parseContext.searchSimilarity());
+        mltQuery.setDocFreqCache(parseContext.indexCache().docFreq());
         Analyzer analyzer = null;
 
         XContentParser.Token token;
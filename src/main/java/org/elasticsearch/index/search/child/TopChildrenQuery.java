@@ -19,7 +19,8 @@
 
 package org.elasticsearch.index.search.child;
 
-import gnu.trove.map.hash.TIntObjectHashMap;
+import gnu.trove.impl.Constants;
+import gnu.trove.map.hash.TIntIntHashMap;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.*;
@@ -28,6 +29,7 @@ import org.elasticsearch.ElasticSearchIllegalArgumentException;
 import org.elasticsearch.ElasticSearchIllegalStateException;
 import org.elasticsearch.common.BytesWrap;
 import org.elasticsearch.common.lucene.search.EmptyScorer;
+import org.elasticsearch.index.cache.id.IdReaderTypeCache;
 import org.elasticsearch.search.internal.ScopePhase;
 import org.elasticsearch.search.internal.SearchContext;
 
@@ -70,7 +72,22 @@ public class TopChildrenQuery extends Query implements ScopePhase.TopDocsPhase {
 
     private int incrementalFactor;
 
-    private Map<Object, ParentDoc[]> parentDocs;
+    private Map<Object, ParentDocs> parentDocs;
+
+    // the join state, kept across the (incremental) processing of the child top docs
+
+    private IdReaderTypeCache[] typeCaches;
+
+    private TIntIntHashMap[] resolvedParents;
+
+    private TIntIntHashMap parentSlots;
+
+    private int[] slotDocs;
+    private float[] slotMaxScores;
+    private float[] slotSumScores;
+    private int[] slotCounts;
+
+    private int processedHits;
 
     private int numHits = 0;
 
@@ -99,6 +116,14 @@ public class TopChildrenQuery extends Query implements ScopePhase.TopDocsPhase {
     public void clear() {
         parentDocs = null;
         numHits = 0;
+        typeCaches = null;
+        resolvedParents = null;
+        parentSlots = null;
+        slotDocs = null;
+        slotMaxScores = null;
+        slotSumScores = null;
+        slotCounts = null;
+        processedHits = 0;
     }
 
     @Override
@@ -116,74 +141,154 @@ public class TopChildrenQuery extends Query implements ScopePhase.TopDocsPhase {
         return this.incrementalFactor;
     }
 
+    /**
+     * Joins the child top docs to their parents. When the query is executed again with more child docs
+     * (because not enough parents were found), the top docs start with the ones already processed, so
+     * only the new child docs are joined.
+     */
     @Override
     public void processResults(TopDocs topDocs, SearchContext context) {
-        Map<Object, TIntObjectHashMap<ParentDoc>> parentDocsPerReader = new HashMap<Object, TIntObjectHashMap<ParentDoc>>();
-        for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
-            int readerIndex = context.searcher().readerIndex(scoreDoc.doc);
-            IndexReader subReader = context.searcher().subReaders()[readerIndex];
-            int subDoc = scoreDoc.doc - context.searcher().docStarts()[readerIndex];
+        IndexReader[] subReaders = context.searcher().subReaders();
+        int[] docStarts = context.searcher().docStarts();
+        if (typeCaches == null) {
+            typeCaches = new IdReaderTypeCache[subReaders.length];
+            for (int i = 0; i < subReaders.length; i++) {
+                typeCaches[i] = context.idCache().reader(subReaders[i]).type(parentType);
+            }
+            resolvedParents = new TIntIntHashMap[subReaders.length];
+            parentSlots = new TIntIntHashMap(Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, -1, -1);
+            int initialSlots = Math.max(16, topDocs.scoreDocs.length);
+            slotDocs = new int[initialSlots];
+            slotMaxScores = new float[initialSlots];
+            slotSumScores = new float[initialSlots];
+            slotCounts = new int[initialSlots];
+        }
 
-            // find the parent id
-            BytesWrap parentId = context.idCache().reader(subReader).parentIdByDoc(parentType, subDoc);
-            if (parentId == null) {
+        ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+        for (int i = processedHits; i < scoreDocs.length; i++) {
+            ScoreDoc scoreDoc = scoreDocs[i];
+            int readerIndex = context.searcher().readerIndex(scoreDoc.doc);
+            IdReaderTypeCache typeCache = typeCaches[readerIndex];
+            if (typeCache == null) {
+                // no parents referenced from this reader
+                continue;
+            }
+            int parentOrdinal = typeCache.parentOrdinalByDoc(scoreDoc.doc - docStarts[readerIndex]);
+            if (parentOrdinal == 0) {
                 // no parent found
                 continue;
             }
-            // now go over and find the parent doc Id and reader tuple
-            for (IndexReader indexReader : context.searcher().subReaders()) {
-                int parentDocId = context.idCache().reader(indexReader).docById(parentType, parentId);
-                if (parentDocId != -1 && !indexReader.isDeleted(parentDocId)) {
-                    // we found a match, add it and break
-
-                    TIntObjectHashMap<ParentDoc> readerParentDocs = parentDocsPerReader.get(indexReader.getCoreCacheKey());
-                    if (readerParentDocs == null) {
-                        readerParentDocs = new TIntObjectHashMap<ParentDoc>();
-                        parentDocsPerReader.put(indexReader.getCoreCacheKey(), readerParentDocs);
-                    }
-
-                    ParentDoc parentDoc = readerParentDocs.get(parentDocId);
-                    if (parentDoc == null) {
-                        numHits++; // we have a hit on a parent
-                        parentDoc = new ParentDoc();
-                        parentDoc.docId = parentDocId;
-                        parentDoc.count = 1;
-                        parentDoc.maxScore = scoreDoc.score;
-                        parentDoc.sumScores = scoreDoc.score;
-                        readerParentDocs.put(parentDocId, parentDoc);
-                    } else {
-                        parentDoc.count++;
-                        parentDoc.sumScores += scoreDoc.score;
-                        if (scoreDoc.score > parentDoc.maxScore) {
-                            parentDoc.maxScore = scoreDoc.score;
-                        }
-                    }
+
+            // resolve the parent doc once per parent ordinal of the reader, children of the same parent reuse it
+            TIntIntHashMap readerResolvedParents = resolvedParents[readerIndex];
+            if (readerResolvedParents == null) {
+                readerResolvedParents = new TIntIntHashMap(Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, -1, -2);
+                resolvedParents[readerIndex] = readerResolvedParents;
+            }
+            int parentDoc = readerResolvedParents.get(parentOrdinal);
+            if (parentDoc == -2) {
+                parentDoc = resolveParentDoc(typeCache.parentIdByOrdinal(parentOrdinal), subReaders, docStarts);
+                readerResolvedParents.put(parentOrdinal, parentDoc);
+            }
+            if (parentDoc == -1) {
+                continue;
+            }
+
+            int slot = parentSlots.get(parentDoc);
+            if (slot == -1) {
+                numHits++; // we have a hit on a parent
+                slot = parentSlots.size();
+                if (slot == slotDocs.length) {
+                    int newSize = slot + (slot >> 1);
+                    slotDocs = Arrays.copyOf(slotDocs, newSize);
+                    slotMaxScores = Arrays.copyOf(slotMaxScores, newSize);
+                    slotSumScores = Arrays.copyOf(slotSumScores, newSize);
+                    slotCounts = Arrays.copyOf(slotCounts, newSize);
+                }
+                parentSlots.put(parentDoc, slot);
+                slotDocs[slot] = parentDoc;
+                slotCounts[slot] = 1;
+                slotMaxScores[slot] = scoreDoc.score;
+                slotSumScores[slot] = scoreDoc.score;
+            } else {
+                slotCounts[slot]++;
+                slotSumScores[slot] += scoreDoc.score;
+                if (scoreDoc.score > slotMaxScores[slot]) {
+                    slotMaxScores[slot] = scoreDoc.score;
                 }
             }
         }
+        processedHits = scoreDocs.length;
 
-        this.parentDocs = new HashMap<Object, ParentDoc[]>();
-        for (Map.Entry<Object, TIntObjectHashMap<ParentDoc>> entry : parentDocsPerReader.entrySet()) {
-            ParentDoc[] values = entry.getValue().values(new ParentDoc[entry.getValue().size()]);
-            Arrays.sort(values, PARENT_DOC_COMP);
-            parentDocs.put(entry.getKey(), values);
-        }
+        buildParentDocs(subReaders, docStarts, context);
     }
 
-    private static final ParentDocComparator PARENT_DOC_COMP = new ParentDocComparator();
+    /**
+     * Returns the top level doc id of the (live) parent doc with the provided id, or <tt>-1</tt> if not found.
+     */
+    private int resolveParentDoc(BytesWrap parentId, IndexReader[] subReaders, int[] docStarts) {
+        if (parentId == null) {
+            return -1;
+        }
+        for (int i = 0; i < subReaders.length; i++) {
+            if (typeCaches[i] == null) {
+                continue;
+            }
+            int parentDocId = typeCaches[i].docById(parentId);
+            if (parentDocId != -1 && !subReaders[i].isDeleted(parentDocId)) {
+                return docStarts[i] + parentDocId;
+            }
+        }
+        return -1;
+    }
 
-    static class ParentDocComparator implements Comparator<ParentDoc> {
-        @Override
-        public int compare(ParentDoc o1, ParentDoc o2) {
-            return o1.docId - o2.docId;
+    /**
+     * Builds the per reader parent docs, sorted by doc id, with their final score.
+     */
+    private void buildParentDocs(IndexReader[] subReaders, int[] docStarts, SearchContext context) {
+        int size = parentSlots.size();
+        long[] docAndSlots = new long[size];
+        for (int slot = 0; slot < size; slot++) {
+            docAndSlots[slot] = (((long) slotDocs[slot]) << 32) | slot;
+        }
+        Arrays.sort(docAndSlots);
+
+        this.parentDocs = new HashMap<Object, ParentDocs>();
+        int start = 0;
+        while (start < size) {
+            int readerIndex = context.searcher().readerIndex((int) (docAndSlots[start] >>> 32));
+            int end = start + 1;
+            while (end < size && context.searcher().readerIndex((int) (docAndSlots[end] >>> 32)) == readerIndex) {
+                end++;
+            }
+            int[] docs = new int[end - start];
+            float[] scores = new float[end - start];
+            for (int i = start; i < end; i++) {
+                int slot = (int) docAndSlots[i];
+                docs[i - start] = slotDocs[slot] - docStarts[readerIndex];
+                if (scoreType == ScoreType.MAX) {
+                    scores[i - start] = slotMaxScores[slot];
+                } else if (scoreType == ScoreType.AVG) {
+                    scores[i - start] = slotSumScores[slot] / slotCounts[slot];
+                } else if (scoreType == ScoreType.SUM) {
+                    scores[i - start] = slotSumScores[slot];
+                } else {
+                    throw new ElasticSearchIllegalStateException("No support for score type [" + scoreType + "]");
+                }
+            }
+            parentDocs.put(subReaders[readerIndex].getCoreCacheKey(), new ParentDocs(docs, scores));
+            start = end;
         }
     }
 
-    public static class ParentDoc {
-        public int docId;
-        public int count;
-        public float maxScore = Float.NaN;
-        public float sumScores = 0;
+    static class ParentDocs {
+        final int[] docs;
+        final float[] scores;
+
+        ParentDocs(int[] docs, float[] scores) {
+            this.docs = docs;
+            this.scores = scores;
+        }
     }
 
     @Override
@@ -248,7 +353,7 @@ public class TopChildrenQuery extends Query implements ScopePhase.TopDocsPhase {
 
         @Override
         public Scorer scorer(IndexReader reader, boolean scoreDocsInOrder, boolean topScorer) throws IOException {
-            ParentDoc[] readerParentDocs = parentDocs.get(reader.getCoreCacheKey());
+            ParentDocs readerParentDocs = parentDocs.get(reader.getCoreCacheKey());
             if (readerParentDocs != null) {
                 return new ParentScorer(getSimilarity(searcher), readerParentDocs);
             }
@@ -263,21 +368,27 @@ public class TopChildrenQuery extends Query implements ScopePhase.TopDocsPhase {
 
     class ParentScorer extends Scorer {
 
-        private final ParentDoc[] docs;
+        private final int[] docs;
+
+        private final float[] scores;
 
         private int index = -1;
 
-        private ParentScorer(Similarity similarity, ParentDoc[] docs) throws IOException {
+        private ParentScorer(Similarity similarity, ParentDocs parentDocs) throws IOException {
             super(similarity);
-            this.docs = docs;
+            this.docs = parentDocs.docs;
+            this.scores = parentDocs.scores;
         }
 
         @Override
         public int docID() {
+            if (index < 0) {
+                return -1;
+            }
             if (index >= docs.length) {
                 return NO_MORE_DOCS;
             }
-            return docs[index].docId;
+            return docs[index];
         }
 
         @Override
@@ -293,19 +404,12 @@ public class TopChildrenQuery extends Query implements ScopePhase.TopDocsPhase {
             if (++index >= docs.length) {
                 return NO_MORE_DOCS;
             }
-            return docs[index].docId;
+            return docs[index];
         }
 
         @Override
         public float score() throws IOException {
-            if (scoreType == ScoreType.MAX) {
-                return docs[index].maxScore;
-            } else if (scoreType == ScoreType.AVG) {
-                return docs[index].sumScores / docs[index].count;
-            } else if (scoreType == ScoreType.SUM) {
-                return docs[index].sumScores;
-            }
-            throw new ElasticSearchIllegalStateException("No support for score type [" + scoreType + "]");
+            return scores[index];
         }
     }
 }
@@ -20,6 +20,7 @@
 package org.elasticsearch.index.search.geo;
 
 import org.elasticsearch.ElasticSearchIllegalArgumentException;
+import org.elasticsearch.common.math.SloppyMath;
 import org.elasticsearch.common.unit.DistanceUnit;
 
 /**
@@ -98,6 +99,26 @@ public enum GeoDistance {
         public FixedSourceDistance fixedSourceDistance(double sourceLatitude, double sourceLongitude, DistanceUnit unit) {
             return new ArcFixedSourceDistance(sourceLatitude, sourceLongitude, unit);
         }
+    },
+    /**
+     * Calculates distance as points in a globe using the haversine formula with table based trigonometric
+     * approximations. Much faster than {@link #ARC}, with a relative error well below 0.1%.
+     */
+    SLOPPY_ARC() {
+        @Override
+        public double calculate(double sourceLatitude, double sourceLongitude, double targetLatitude, double targetLongitude, DistanceUnit unit) {
+            return SloppyMath.haversin(sourceLatitude, sourceLongitude, targetLatitude, targetLongitude) * unit.getEarthRadius();
+        }
+
+        @Override
+        public double normalize(double distance, DistanceUnit unit) {
+            return distance;
+        }
+
+        @Override
+        public FixedSourceDistance fixedSourceDistance(double sourceLatitude, double sourceLongitude, DistanceUnit unit) {
+            return new SloppyArcFixedSourceDistance(sourceLatitude, sourceLongitude, unit);
+        }
     };
 
     public abstract double normalize(double distance, DistanceUnit unit);
@@ -151,6 +172,8 @@ public enum GeoDistance {
             return ARC;
         } else if ("factor".equals(s)) {
             return FACTOR;
+        } else if ("sloppy_arc".equals(s) || "sloppyArc".equals(s)) {
+            return SLOPPY_ARC;
         }
         throw new ElasticSearchIllegalArgumentException("No geo distance for [" + s + "]");
     }
@@ -323,4 +346,24 @@ public enum GeoDistance {
             }
         }
     }
+
+    public static class SloppyArcFixedSourceDistance implements FixedSourceDistance {
+
+        private final double radLat;
+        private final double cosLat;
+        private final double radLon;
+        private final double earthRadius;
+
+        public SloppyArcFixedSourceDistance(double sourceLatitude, double sourceLongitude, DistanceUnit unit) {
+            this.radLat = Math.toRadians(sourceLatitude);
+            this.cosLat = SloppyMath.cos(radLat);
+            this.radLon = Math.toRadians(sourceLongitude);
+            this.earthRadius = unit.getEarthRadius();
+        }
+
+        @Override
+        public double calculate(double targetLatitude, double targetLongitude) {
+            return SloppyMath.haversin(radLat, cosLat, radLon, Math.toRadians(targetLatitude), Math.toRadians(targetLongitude)) * earthRadius;
+        }
+    }
 }
@@ -56,6 +56,9 @@ public class GeoDistanceFilter extends Filter {
     private GeoDistance.DistanceBoundingCheck distanceBoundingCheck;
     private final Filter boundingBoxFilter;
 
+    private final GeoPointFieldMapper cellsMapper;
+    private final GeoDistance.DistanceBoundingCheck cellsBoundingCheck;
+
     public GeoDistanceFilter(double lat, double lon, double distance, GeoDistance geoDistance, String fieldName, GeoPointFieldMapper mapper, FieldDataCache fieldDataCache,
                              String optimizeBbox) {
         this.lat = lat;
@@ -80,6 +83,14 @@ public class GeoDistanceFilter extends Filter {
             distanceBoundingCheck = GeoDistance.ALWAYS_INSTANCE;
             boundingBoxFilter = null;
         }
+
+        if (mapper != null && mapper.isEnableGeohashPrefix()) {
+            this.cellsMapper = mapper;
+            this.cellsBoundingCheck = GeoDistance.distanceBoundingCheck(lat, lon, distance, DistanceUnit.MILES);
+        } else {
+            this.cellsMapper = null;
+            this.cellsBoundingCheck = null;
+        }
     }
 
     public double lat() {
@@ -104,6 +115,13 @@ public class GeoDistanceFilter extends Filter {
 
     @Override
     public DocIdSet getDocIdSet(IndexReader reader) throws IOException {
+        if (cellsMapper != null) {
+            // the covering cells already restrict to the bounding box, exact checks only happen on boundary cells
+            final GeoPointFieldData fieldData = (GeoPointFieldData) fieldDataCache.cache(GeoPointFieldDataType.TYPE, reader, fieldName);
+            GeoDistanceDocSet distDocSet = new GeoDistanceDocSet(reader.maxDoc(), fieldData, fixedSourceDistance, GeoDistance.ALWAYS_INSTANCE, distance);
+            return GeoHashCells.filter(reader, cellsMapper, cellsBoundingCheck.topLeft(), cellsBoundingCheck.bottomRight(),
+                    GeoHashCells.distance(fixedSourceDistance, distance), distDocSet);
+        }
         DocSet boundingBoxDocSet = null;
         if (boundingBoxFilter != null) {
             DocIdSet docIdSet = boundingBoxFilter.getDocIdSet(reader);
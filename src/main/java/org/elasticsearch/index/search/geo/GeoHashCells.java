@@ -0,0 +1,127 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.search.geo;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermDocs;
+import org.apache.lucene.util.OpenBitSet;
+import org.elasticsearch.common.lucene.docset.DocSet;
+import org.elasticsearch.common.lucene.docset.OpenBitDocSet;
+import org.elasticsearch.index.mapper.geo.GeoPointFieldMapper;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Selects candidate docs for a geo filter using the geohash prefixes indexed by a {@link GeoPointFieldMapper}
+ * with <tt>geohash_prefix</tt> enabled. The shape bounding box is covered with geohash cells, docs in cells
+ * that are fully within the shape match without further checks, and only docs in boundary cells are checked
+ * using the exact (field data based) doc set.
+ */
+public class GeoHashCells {
+
+    /**
+     * The maximum number of cells (terms) used to cover a bounding box.
+     */
+    public static final int MAX_CELLS = 64;
+
+    public static interface CellCheck {
+
+        /**
+         * Returns <tt>true</tt> if all the points within the cell are within the shape.
+         */
+        boolean isInside(double minLat, double minLon, double maxLat, double maxLon);
+    }
+
+    /**
+     * A cell check that never considers a cell to be inside, all docs are checked using the exact doc set.
+     */
+    public static final CellCheck BOUNDARY_ONLY = new CellCheck() {
+        @Override
+        public boolean isInside(double minLat, double minLon, double maxLat, double maxLon) {
+            return false;
+        }
+    };
+
+    public static DocSet filter(IndexReader reader, GeoPointFieldMapper mapper, Point topLeft, Point bottomRight,
+                                CellCheck cellCheck, DocSet exact) throws IOException {
+        String field = mapper.geohashMapper().names().indexName();
+        List<String> cells = GeoHashUtils.cover(bottomRight.lat, topLeft.lon, topLeft.lat, bottomRight.lon, mapper.precision(), MAX_CELLS);
+
+        OpenBitSet inside = new OpenBitSet(reader.maxDoc());
+        OpenBitSet boundary = new OpenBitSet(reader.maxDoc());
+        TermDocs termDocs = reader.termDocs();
+        try {
+            for (String cell : cells) {
+                double[] bounds = GeoHashUtils.decodeCell(cell);
+                OpenBitSet target = cellCheck.isInside(bounds[0], bounds[1], bounds[2], bounds[3]) ? inside : boundary;
+                termDocs.seek(new Term(field, cell));
+                while (termDocs.next()) {
+                    target.fastSet(termDocs.doc());
+                }
+            }
+        } finally {
+            termDocs.close();
+        }
+
+        boundary.andNot(inside);
+        for (int doc = boundary.nextSetBit(0); doc != -1; doc = boundary.nextSetBit(doc + 1)) {
+            if (exact.get(doc)) {
+                inside.fastSet(doc);
+            }
+        }
+        return new OpenBitDocSet(inside);
+    }
+
+    /**
+     * A cell check for a bounding box, <tt>minLon > maxLon</tt> denotes a box crossing the 180 meridian.
+     */
+    public static CellCheck boundingBox(final Point topLeft, final Point bottomRight) {
+        return new CellCheck() {
+            @Override
+            public boolean isInside(double minLat, double minLon, double maxLat, double maxLon) {
+                if (minLat < bottomRight.lat || maxLat > topLeft.lat) {
+                    return false;
+                }
+                if (topLeft.lon > bottomRight.lon) {
+                    return (minLon >= topLeft.lon && maxLon <= 180.0) || (minLon >= -180.0 && maxLon <= bottomRight.lon);
+                }
+                return minLon >= topLeft.lon && maxLon <= bottomRight.lon;
+            }
+        };
+    }
+
+    /**
+     * A cell check for a distance from a fixed source. The distance to the points of a (small) cell is the
+     * largest at one of its corners, so a cell is inside when all its corners are within the distance.
+     */
+    public static CellCheck distance(final GeoDistance.FixedSourceDistance fixedSourceDistance, final double distance) {
+        return new CellCheck() {
+            @Override
+            public boolean isInside(double minLat, double minLon, double maxLat, double maxLon) {
+                return fixedSourceDistance.calculate(minLat, minLon) < distance
+                        && fixedSourceDistance.calculate(minLat, maxLon) < distance
+                        && fixedSourceDistance.calculate(maxLat, minLon) < distance
+                        && fixedSourceDistance.calculate(maxLat, maxLon) < distance;
+            }
+        };
+    }
+}
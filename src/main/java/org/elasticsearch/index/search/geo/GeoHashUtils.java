@@ -19,6 +19,9 @@ package org.elasticsearch.index.search.geo;
 
 import gnu.trove.map.hash.TIntIntHashMap;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Utilities for encoding and decoding geohashes. Based on
  * http://en.wikipedia.org/wiki/Geohash.
@@ -166,4 +169,107 @@ public class GeoHashUtils {
 
 //        return ret;
     }
-}
\ No newline at end of file
+
+    /**
+     * Decodes the bounds of the cell denoted by the given geohash.
+     *
+     * @param geohash Geohash of the cell
+     * @return Array of <tt>[minLat, minLon, maxLat, maxLon]</tt>
+     */
+    public static double[] decodeCell(String geohash) {
+        double latInterval0 = -90.0;
+        double latInterval1 = 90.0;
+        double lngInterval0 = -180.0;
+        double lngInterval1 = 180.0;
+
+        boolean isEven = true;
+        for (int i = 0; i < geohash.length(); i++) {
+            final int cd = DECODE_MAP.get(geohash.charAt(i));
+            for (int mask : BITS) {
+                if (isEven) {
+                    if ((cd & mask) != 0) {
+                        lngInterval0 = (lngInterval0 + lngInterval1) / 2D;
+                    } else {
+                        lngInterval1 = (lngInterval0 + lngInterval1) / 2D;
+                    }
+                } else {
+                    if ((cd & mask) != 0) {
+                        latInterval0 = (latInterval0 + latInterval1) / 2D;
+                    } else {
+                        latInterval1 = (latInterval0 + latInterval1) / 2D;
+                    }
+                }
+                isEven = !isEven;
+            }
+        }
+        return new double[]{latInterval0, lngInterval0, latInterval1, lngInterval1};
+    }
+
+    /**
+     * Returns the geohashes of all the cells of the deepest level (up to <tt>maxLevel</tt>) that cover
+     * the given bounding box using at most <tt>maxCells</tt> cells. Bounding boxes where
+     * <tt>minLon > maxLon</tt> are considered to cross the 180 meridian.
+     */
+    public static List<String> cover(double minLat, double minLon, double maxLat, double maxLon, int maxLevel, int maxCells) {
+        int level = 1;
+        while (level < maxLevel && cellCount(minLat, minLon, maxLat, maxLon, level + 1) <= maxCells) {
+            level++;
+        }
+        List<String> cells = new ArrayList<String>();
+        if (minLon > maxLon) {
+            cover(minLat, minLon, maxLat, 180.0, level, cells);
+            cover(minLat, -180.0, maxLat, maxLon, level, cells);
+        } else {
+            cover(minLat, minLon, maxLat, maxLon, level, cells);
+        }
+        return cells;
+    }
+
+    private static long cellCount(double minLat, double minLon, double maxLat, double maxLon, int level) {
+        int latBits = (5 * level) / 2;
+        int lonBits = (5 * level + 1) / 2;
+        long lats = cellIndex(maxLat, -90.0, 180.0, latBits) - cellIndex(minLat, -90.0, 180.0, latBits) + 1;
+        long lons;
+        if (minLon > maxLon) {
+            lons = (cellIndex(180.0, -180.0, 360.0, lonBits) - cellIndex(minLon, -180.0, 360.0, lonBits) + 1)
+                    + (cellIndex(maxLon, -180.0, 360.0, lonBits) + 1);
+        } else {
+            lons = cellIndex(maxLon, -180.0, 360.0, lonBits) - cellIndex(minLon, -180.0, 360.0, lonBits) + 1;
+        }
+        return lats * lons;
+    }
+
+    private static void cover(double minLat, double minLon, double maxLat, double maxLon, int level, List<String> cells) {
+        int latBits = (5 * level) / 2;
+        int lonBits = (5 * level + 1) / 2;
+        double latSize = 180.0 / (1L << latBits);
+        double lonSize = 360.0 / (1L << lonBits);
+        long latFrom = cellIndex(minLat, -90.0, 180.0, latBits);
+        long latTo = cellIndex(maxLat, -90.0, 180.0, latBits);
+        long lonFrom = cellIndex(minLon, -180.0, 360.0, lonBits);
+        long lonTo = cellIndex(maxLon, -180.0, 360.0, lonBits);
+        for (long latIdx = latFrom; latIdx <= latTo; latIdx++) {
+            double lat = -90.0 + (latIdx + 0.5) * latSize;
+            for (long lonIdx = lonFrom; lonIdx <= lonTo; lonIdx++) {
+                double lon = -180.0 + (lonIdx + 0.5) * lonSize;
+                cells.add(encode(lat, lon, level));
+            }
+        }
+    }
+
+    /**
+     * The index of the cell a value falls into, consistent with {@link #encode(double, double, int)} which
+     * assigns values lying exactly on a cell edge to the lower cell.
+     */
+    private static long cellIndex(double value, double min, double range, int bits) {
+        long cells = 1L << bits;
+        long index = (long) Math.ceil((value - min) / range * cells) - 1;
+        if (index < 0) {
+            return 0;
+        }
+        if (index >= cells) {
+            return cells - 1;
+        }
+        return index;
+    }
+}
@@ -26,6 +26,7 @@ import org.elasticsearch.common.lucene.docset.GetDocSet;
 import org.elasticsearch.index.cache.field.data.FieldDataCache;
 import org.elasticsearch.index.mapper.geo.GeoPointFieldData;
 import org.elasticsearch.index.mapper.geo.GeoPointFieldDataType;
+import org.elasticsearch.index.mapper.geo.GeoPointFieldMapper;
 
 import java.io.IOException;
 
@@ -40,9 +41,16 @@ public class GeoPolygonFilter extends Filter {
 
     private final FieldDataCache fieldDataCache;
 
+    private final GeoPointFieldMapper mapper;
+
     public GeoPolygonFilter(Point[] points, String fieldName, FieldDataCache fieldDataCache) {
+        this(points, fieldName, null, fieldDataCache);
+    }
+
+    public GeoPolygonFilter(Point[] points, String fieldName, GeoPointFieldMapper mapper, FieldDataCache fieldDataCache) {
         this.points = points;
         this.fieldName = fieldName;
+        this.mapper = mapper;
         this.fieldDataCache = fieldDataCache;
     }
 
@@ -57,7 +65,20 @@ public class GeoPolygonFilter extends Filter {
     @Override
     public DocIdSet getDocIdSet(IndexReader reader) throws IOException {
         final GeoPointFieldData fieldData = (GeoPointFieldData) fieldDataCache.cache(GeoPointFieldDataType.TYPE, reader, fieldName);
-        return new GeoPolygonDocSet(reader.maxDoc(), fieldData, points);
+        GeoPolygonDocSet docSet = new GeoPolygonDocSet(reader.maxDoc(), fieldData, points);
+        if (mapper != null && mapper.isEnableGeohashPrefix()) {
+            // cover the polygon bounding box, polygons might be concave, so all cells are checked exactly
+            Point topLeft = new Point(points[0].lat, points[0].lon);
+            Point bottomRight = new Point(points[0].lat, points[0].lon);
+            for (Point point : points) {
+                topLeft.lat = Math.max(topLeft.lat, point.lat);
+                topLeft.lon = Math.min(topLeft.lon, point.lon);
+                bottomRight.lat = Math.min(bottomRight.lat, point.lat);
+                bottomRight.lon = Math.max(bottomRight.lon, point.lon);
+            }
+            return GeoHashCells.filter(reader, mapper, topLeft, bottomRight, GeoHashCells.BOUNDARY_ONLY, docSet);
+        }
+        return docSet;
     }
 
     public static class GeoPolygonDocSet extends GetDocSet {
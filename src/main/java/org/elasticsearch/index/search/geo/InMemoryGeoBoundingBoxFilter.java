@@ -22,10 +22,12 @@ package org.elasticsearch.index.search.geo;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.search.DocIdSet;
 import org.apache.lucene.search.Filter;
+import org.elasticsearch.common.lucene.docset.DocSet;
 import org.elasticsearch.common.lucene.docset.GetDocSet;
 import org.elasticsearch.index.cache.field.data.FieldDataCache;
 import org.elasticsearch.index.mapper.geo.GeoPointFieldData;
 import org.elasticsearch.index.mapper.geo.GeoPointFieldDataType;
+import org.elasticsearch.index.mapper.geo.GeoPointFieldMapper;
 
 import java.io.IOException;
 
@@ -42,10 +44,17 @@ public class InMemoryGeoBoundingBoxFilter extends Filter {
 
     private final FieldDataCache fieldDataCache;
 
+    private final GeoPointFieldMapper mapper;
+
     public InMemoryGeoBoundingBoxFilter(Point topLeft, Point bottomRight, String fieldName, FieldDataCache fieldDataCache) {
+        this(topLeft, bottomRight, fieldName, null, fieldDataCache);
+    }
+
+    public InMemoryGeoBoundingBoxFilter(Point topLeft, Point bottomRight, String fieldName, GeoPointFieldMapper mapper, FieldDataCache fieldDataCache) {
         this.topLeft = topLeft;
         this.bottomRight = bottomRight;
         this.fieldName = fieldName;
+        this.mapper = mapper;
         this.fieldDataCache = fieldDataCache;
     }
 
@@ -66,11 +75,16 @@ public class InMemoryGeoBoundingBoxFilter extends Filter {
         final GeoPointFieldData fieldData = (GeoPointFieldData) fieldDataCache.cache(GeoPointFieldDataType.TYPE, reader, fieldName);
 
         //checks to see if bounding box crosses 180 degrees
+        DocSet docSet;
         if (topLeft.lon > bottomRight.lon) {
-            return new Meridian180GeoBoundingBoxDocSet(reader.maxDoc(), fieldData, topLeft, bottomRight);
+            docSet = new Meridian180GeoBoundingBoxDocSet(reader.maxDoc(), fieldData, topLeft, bottomRight);
         } else {
-            return new GeoBoundingBoxDocSet(reader.maxDoc(), fieldData, topLeft, bottomRight);
+            docSet = new GeoBoundingBoxDocSet(reader.maxDoc(), fieldData, topLeft, bottomRight);
+        }
+        if (mapper != null && mapper.isEnableGeohashPrefix()) {
+            return GeoHashCells.filter(reader, mapper, topLeft, bottomRight, GeoHashCells.boundingBox(topLeft, bottomRight), docSet);
         }
+        return docSet;
     }
 
     public static class Meridian180GeoBoundingBoxDocSet extends GetDocSet {
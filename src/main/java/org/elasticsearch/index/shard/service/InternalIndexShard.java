@@ -289,12 +289,16 @@ public class InternalIndexShard extends AbstractIndexShardComponent implements I
     public ParsedDocument create(Engine.Create create) throws ElasticSearchException {
         writeAllowed();
         create = indexingService.preCreate(create);
-        if (logger.isTraceEnabled()) {
-            logger.trace("index {}", create.docs());
+        try {
+            if (logger.isTraceEnabled()) {
+                logger.trace("index {}", create.docs());
+            }
+            engine.create(create);
+            create.endTime(System.nanoTime());
+            indexingService.postCreate(create);
+        } finally {
+            create.parsedDoc().release();
         }
-        engine.create(create);
-        create.endTime(System.nanoTime());
-        indexingService.postCreate(create);
         return create.parsedDoc();
     }
 
@@ -318,9 +322,11 @@ public class InternalIndexShard extends AbstractIndexShardComponent implements I
             index.endTime(System.nanoTime());
         } catch (RuntimeException ex) {
             indexingService.failedIndex(index);
+            index.parsedDoc().release();
             throw ex;
         }
         indexingService.postIndex(index);
+        index.parsedDoc().release();
         return index.parsedDoc();
     }
 
@@ -609,15 +615,25 @@ public class InternalIndexShard extends AbstractIndexShardComponent implements I
             switch (operation.opType()) {
                 case CREATE:
                     Translog.Create create = (Translog.Create) operation;
-                    engine.create(prepareCreate(source(create.source().bytes(), create.source().offset(), create.source().length()).type(create.type()).id(create.id())
-                            .routing(create.routing()).parent(create.parent()).timestamp(create.timestamp()).ttl(create.ttl())).version(create.version())
-                            .origin(Engine.Operation.Origin.RECOVERY));
+                    Engine.Create engineCreate = prepareCreate(source(create.source().bytes(), create.source().offset(), create.source().length()).type(create.type()).id(create.id())
+                            .routing(create.routing()).parent(create.parent()).timestamp(create.timestamp()).ttl(create.ttl()).reuse(true)).version(create.version())
+                            .origin(Engine.Operation.Origin.RECOVERY);
+                    try {
+                        engine.create(engineCreate);
+                    } finally {
+                        engineCreate.parsedDoc().release();
+                    }
                     break;
                 case SAVE:
                     Translog.Index index = (Translog.Index) operation;
-                    engine.index(prepareIndex(source(index.source().bytes(), index.source().offset(), index.source().length()).type(index.type()).id(index.id())
-                            .routing(index.routing()).parent(index.parent()).timestamp(index.timestamp()).ttl(index.ttl())).version(index.version())
-                            .origin(Engine.Operation.Origin.RECOVERY));
+                    Engine.Index engineIndex = prepareIndex(source(index.source().bytes(), index.source().offset(), index.source().length()).type(index.type()).id(index.id())
+                            .routing(index.routing()).parent(index.parent()).timestamp(index.timestamp()).ttl(index.ttl()).reuse(true)).version(index.version())
+                            .origin(Engine.Operation.Origin.RECOVERY);
+                    try {
+                        engine.index(engineIndex);
+                    } finally {
+                        engineIndex.parsedDoc().release();
+                    }
                     break;
                 case DELETE:
                     Translog.Delete delete = (Translog.Delete) operation;
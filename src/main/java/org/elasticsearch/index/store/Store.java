@@ -30,6 +30,7 @@ import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.lucene.Directories;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.merge.scheduler.MergeThrottle;
 import org.elasticsearch.index.settings.IndexSettings;
 import org.elasticsearch.index.shard.AbstractIndexShardComponent;
 import org.elasticsearch.index.shard.ShardId;
@@ -420,7 +421,7 @@ public class Store extends AbstractIndexShardComponent {
                 StoreFileMetaData metaData = new StoreFileMetaData(name, -1, -1, null, directory);
                 filesMetadata = MapBuilder.newMapBuilder(filesMetadata).put(name, metaData).immutableMap();
                 files = filesMetadata.keySet().toArray(new String[filesMetadata.size()]);
-                return new StoreIndexOutput(metaData, out, name, computeChecksum);
+                return new StoreIndexOutput(metaData, out, name, computeChecksum, MergeThrottle.current());
             }
         }
 
@@ -534,13 +535,16 @@ public class Store extends AbstractIndexShardComponent {
 
         private final Checksum digest;
 
-        StoreIndexOutput(StoreFileMetaData metaData, IndexOutput delegate, String name, boolean computeChecksum) {
+        private final MergeThrottle mergeThrottle;
+
+        StoreIndexOutput(StoreFileMetaData metaData, IndexOutput delegate, String name, boolean computeChecksum, MergeThrottle mergeThrottle) {
             // we add 8 to be bigger than the default BufferIndexOutput buffer size so any flush will go directly
             // to the output without being copied over to the delegate buffer
             super(OpenBufferedIndexOutput.DEFAULT_BUFFER_SIZE + 64);
             this.metaData = metaData;
             this.delegate = delegate;
             this.name = name;
+            this.mergeThrottle = mergeThrottle;
             if (computeChecksum) {
                 if ("segments.gen".equals(name)) {
                     // no need to create checksum for segments.gen since its not snapshot to recovery
@@ -577,6 +581,9 @@ public class Store extends AbstractIndexShardComponent {
 
         @Override
         protected void flushBuffer(byte[] b, int offset, int len) throws IOException {
+            if (mergeThrottle != null) {
+                mergeThrottle.pause(len);
+            }
             delegate.writeBytes(b, offset, len);
             if (digest != null) {
                 digest.update(b, offset, len);
@@ -59,6 +59,8 @@ public class TranslogService extends AbstractIndexShardComponent {
 
     private TimeValue flushThresholdPeriod;
 
+    private volatile ByteSizeValue indexingBufferSize = new ByteSizeValue(0);
+
     private boolean disableFlush;
 
     private final TimeValue interval;
@@ -94,6 +96,22 @@ public class TranslogService extends AbstractIndexShardComponent {
         this.future.cancel(true);
     }
 
+    /**
+     * Sets the indexing buffer size allocated to the shard. The translog is not flushed on size before it
+     * reaches it, since flushing would commit the indexing buffer before it got the chance to fill.
+     */
+    public void updateIndexingBufferSize(ByteSizeValue indexingBufferSize) {
+        this.indexingBufferSize = indexingBufferSize;
+    }
+
+    /**
+     * The translog size above which it is flushed, the configured <tt>flush_threshold_size</tt> or the indexing
+     * buffer size of the shard if bigger.
+     */
+    public ByteSizeValue flushThresholdSize() {
+        return new ByteSizeValue(Math.max(flushThresholdSize.bytes(), indexingBufferSize.bytes()));
+    }
+
     static {
         IndexMetaData.addDynamicSettings(
                 "index.translog.flush_threshold_ops",
@@ -161,8 +179,9 @@ public class TranslogService extends AbstractIndexShardComponent {
 
             if (flushThresholdSize.bytes() > 0) {
                 long sizeInBytes = translog.translogSizeInBytes();
-                if (sizeInBytes > flushThresholdSize.bytes()) {
-                    logger.trace("flushing translog, size [{}], breached [{}]", new ByteSizeValue(sizeInBytes), flushThresholdSize);
+                ByteSizeValue threshold = flushThresholdSize();
+                if (sizeInBytes > threshold.bytes()) {
+                    logger.trace("flushing translog, size [{}], breached [{}]", new ByteSizeValue(sizeInBytes), threshold);
                     asyncFlushAndReschedule();
                     return;
                 }
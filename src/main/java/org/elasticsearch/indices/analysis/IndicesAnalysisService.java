@@ -78,6 +78,7 @@ import org.elasticsearch.ElasticSearchIllegalStateException;
 import org.elasticsearch.common.component.AbstractComponent;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.lucene.analysis.FastHTMLStripCharFilter;
 import org.elasticsearch.common.lucene.analysis.HTMLStripCharFilter;
 import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.settings.Settings;
@@ -644,6 +645,30 @@ public class IndicesAnalysisService extends AbstractComponent {
                 return new HTMLStripCharFilter(tokenStream);
             }
         }));
+
+        charFilterFactories.put("fast_html_strip", new PreBuiltCharFilterFactoryFactory(new CharFilterFactory() {
+            @Override
+            public String name() {
+                return "fast_html_strip";
+            }
+
+            @Override
+            public CharStream create(CharStream tokenStream) {
+                return new FastHTMLStripCharFilter(tokenStream);
+            }
+        }));
+
+        charFilterFactories.put("fastHtmlStrip", new PreBuiltCharFilterFactoryFactory(new CharFilterFactory() {
+            @Override
+            public String name() {
+                return "fastHtmlStrip";
+            }
+
+            @Override
+            public CharStream create(CharStream tokenStream) {
+                return new FastHTMLStripCharFilter(tokenStream);
+            }
+        }));
     }
 
     public boolean hasCharFilter(String name) {
@@ -24,6 +24,8 @@ import com.google.common.collect.Maps;
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Injector;
+import org.elasticsearch.common.metrics.EWMA;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
@@ -31,11 +33,13 @@ import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.engine.EngineClosedException;
 import org.elasticsearch.index.engine.FlushNotAllowedEngineException;
+import org.elasticsearch.index.indexing.IndexingStats;
 import org.elasticsearch.index.service.IndexService;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.service.IndexShard;
 import org.elasticsearch.index.shard.service.InternalIndexShard;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.index.translog.TranslogService;
 import org.elasticsearch.indices.IndicesLifecycle;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.monitor.jvm.JvmInfo;
@@ -44,9 +48,13 @@ import org.elasticsearch.threadpool.ThreadPool;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
- *
+ * Splits the node level indexing buffer among the shards that are actively indexing. Each active shard
+ * gets at least <tt>min_shard_index_buffer_size</tt>, the rest of the buffer is split by the recent
+ * indexing rate of the shards (an exponentially weighted average over <tt>rate_window</tt>), re-evaluated
+ * every <tt>interval</tt>.
  */
 public class IndexingMemoryController extends AbstractLifecycleComponent<IndexingMemoryController> {
 
@@ -62,6 +70,7 @@ public class IndexingMemoryController extends AbstractLifecycleComponent<Indexin
 
     private final TimeValue inactiveTime;
     private final TimeValue interval;
+    private final TimeValue rateWindow;
 
     private final Listener listener = new Listener();
 
@@ -101,10 +110,13 @@ public class IndexingMemoryController extends AbstractLifecycleComponent<Indexin
         this.maxShardIndexBufferSize = componentSettings.getAsBytesSize("max_shard_index_buffer_size", new ByteSizeValue(512, ByteSizeUnit.MB));
 
         this.inactiveTime = componentSettings.getAsTime("shard_inactive_time", TimeValue.timeValueMinutes(30));
-        // we need to have this relatively small to move a shard from inactive to active fast (enough)
-        this.interval = componentSettings.getAsTime("interval", TimeValue.timeValueSeconds(30));
+        // we need to have this relatively small to move a shard from inactive to active fast (enough), and to
+        // follow bursts of indexing on a shard
+        this.interval = componentSettings.getAsTime("interval", TimeValue.timeValueSeconds(5));
+        this.rateWindow = componentSettings.getAsTime("rate_window", TimeValue.timeValueSeconds(30));
 
-        logger.debug("using index_buffer_size [{}], with min_shard_index_buffer_size [{}], max_shard_index_buffer_size [{}], shard_inactive_time [{}]", this.indexingBuffer, this.minShardIndexBufferSize, this.maxShardIndexBufferSize, this.inactiveTime);
+        logger.debug("using index_buffer_size [{}], with min_shard_index_buffer_size [{}], max_shard_index_buffer_size [{}], shard_inactive_time [{}], interval [{}], rate_window [{}]",
+                this.indexingBuffer, this.minShardIndexBufferSize, this.maxShardIndexBufferSize, this.inactiveTime, this.interval, this.rateWindow);
 
     }
 
@@ -143,6 +155,14 @@ public class IndexingMemoryController extends AbstractLifecycleComponent<Indexin
                         if (status == null) { // not added yet
                             continue;
                         }
+                        // update the indexing rate of the shard with the operations done since the last check
+                        IndexingStats.Stats indexingStats = indexShard.indexingService().stats().total();
+                        long operations = indexingStats.indexCount() + indexingStats.deleteCount();
+                        if (status.operations != -1 && operations > status.operations) {
+                            status.rate.update(operations - status.operations);
+                        }
+                        status.operations = operations;
+                        status.rate.tick();
                         // check if it is deemed to be inactive (sam translogId and numberOfOperations over a long period of time)
                         if (status.translogId == translog.currentId() && translog.estimatedNumberOfOperations() == 0) {
                             if (status.time == -1) { // first time
@@ -174,17 +194,10 @@ public class IndexingMemoryController extends AbstractLifecycleComponent<Indexin
                 }
                 for (IndexShard indexShard : activeToInactiveIndexingShards) {
                     // update inactive indexing buffer size
-                    try {
-                        ((InternalIndexShard) indexShard).engine().updateIndexingBufferSize(Engine.INACTIVE_SHARD_INDEXING_BUFFER);
-                    } catch (EngineClosedException e) {
-                        // ignore
-                    } catch (FlushNotAllowedEngineException e) {
-                        // ignore
-                    }
-                }
-                if (activeInactiveStatusChanges) {
-                    calcAndSetShardIndexingBuffer("shards became active/inactive (indexing wise)");
+                    shardsIndicesStatus.get(indexShard.shardId()).indexingBufferSize = null;
+                    updateShardIndexingBuffer(indexShard, Engine.INACTIVE_SHARD_INDEXING_BUFFER);
                 }
+                calcAndSetShardIndexingBuffer(activeInactiveStatusChanges ? "shards became active/inactive (indexing wise)" : "indexing rates");
             }
         }
     }
@@ -194,72 +207,114 @@ public class IndexingMemoryController extends AbstractLifecycleComponent<Indexin
         @Override
         public void afterIndexShardCreated(IndexShard indexShard) {
             synchronized (mutex) {
+                shardsIndicesStatus.put(indexShard.shardId(), new ShardIndexingStatus(rateWindow, interval));
                 calcAndSetShardIndexingBuffer("created_shard[" + indexShard.shardId().index().name() + "][" + indexShard.shardId().id() + "]");
-                shardsIndicesStatus.put(indexShard.shardId(), new ShardIndexingStatus());
             }
         }
 
         @Override
         public void afterIndexShardClosed(ShardId shardId, boolean delete) {
             synchronized (mutex) {
-                calcAndSetShardIndexingBuffer("removed_shard[" + shardId.index().name() + "][" + shardId.id() + "]");
                 shardsIndicesStatus.remove(shardId);
+                calcAndSetShardIndexingBuffer("removed_shard[" + shardId.index().name() + "][" + shardId.id() + "]");
             }
         }
     }
 
 
     private void calcAndSetShardIndexingBuffer(String reason) {
-        int shardsCount = countShards();
-        if (shardsCount == 0) {
-            return;
-        }
-        ByteSizeValue shardIndexingBufferSize = calcShardIndexingBuffer(shardsCount);
-        if (shardIndexingBufferSize == null) {
-            return;
-        }
-        if (shardIndexingBufferSize.bytes() < minShardIndexBufferSize.bytes()) {
-            shardIndexingBufferSize = minShardIndexBufferSize;
-        }
-        if (shardIndexingBufferSize.bytes() > maxShardIndexBufferSize.bytes()) {
-            shardIndexingBufferSize = maxShardIndexBufferSize;
-        }
-        logger.debug("recalculating shard indexing buffer (reason={}), total is [{}] with [{}] active shards, each shard set to [{}]", reason, indexingBuffer, shardsCount, shardIndexingBufferSize);
+        List<IndexShard> activeShards = Lists.newArrayList();
         for (IndexService indexService : indicesService) {
             for (IndexShard indexShard : indexService) {
                 ShardIndexingStatus status = shardsIndicesStatus.get(indexShard.shardId());
-                if (status == null || !status.inactiveIndexing) {
-                    try {
-                        ((InternalIndexShard) indexShard).engine().updateIndexingBufferSize(shardIndexingBufferSize);
-                    } catch (EngineClosedException e) {
-                        // ignore
-                        continue;
-                    } catch (FlushNotAllowedEngineException e) {
-                        // ignore
-                        continue;
-                    } catch (Exception e) {
-                        logger.warn("failed to set shard [{}][{}] index buffer to [{}]", indexShard.shardId().index().name(), indexShard.shardId().id(), shardIndexingBufferSize);
-                    }
+                if (status != null && !status.inactiveIndexing) {
+                    activeShards.add(indexShard);
                 }
             }
         }
+        if (activeShards.isEmpty()) {
+            return;
+        }
+        double[] rates = new double[activeShards.size()];
+        for (int i = 0; i < rates.length; i++) {
+            rates[i] = shardsIndicesStatus.get(activeShards.get(i).shardId()).rate.rate(TimeUnit.SECONDS);
+        }
+        long[] shardIndexingBuffers = splitIndexingBuffer(indexingBuffer.bytes(), minShardIndexBufferSize.bytes(), maxShardIndexBufferSize.bytes(), rates);
+        for (int i = 0; i < shardIndexingBuffers.length; i++) {
+            IndexShard indexShard = activeShards.get(i);
+            ShardIndexingStatus status = shardsIndicesStatus.get(indexShard.shardId());
+            long shardIndexingBufferBytes = shardIndexingBuffers[i];
+            // always apply shrinks, so the total stays within the node buffer, but don't bother the engine with
+            // small increases, only with ones bigger than 10%
+            if (status.indexingBufferSize != null && shardIndexingBufferBytes >= status.indexingBufferSize.bytes() &&
+                    shardIndexingBufferBytes - status.indexingBufferSize.bytes() <= status.indexingBufferSize.bytes() / 10) {
+                continue;
+            }
+            ByteSizeValue shardIndexingBufferSize = new ByteSizeValue(shardIndexingBufferBytes);
+            logger.debug("recalculating shard indexing buffer (reason={}), total is [{}] with [{}] active shards, shard [{}][{}] set to [{}]",
+                    reason, indexingBuffer, activeShards.size(), indexShard.shardId().index().name(), indexShard.shardId().id(), shardIndexingBufferSize);
+            if (updateShardIndexingBuffer(indexShard, shardIndexingBufferSize)) {
+                status.indexingBufferSize = shardIndexingBufferSize;
+            }
+        }
     }
 
-    private ByteSizeValue calcShardIndexingBuffer(int shardsCount) {
-        return new ByteSizeValue(indexingBuffer.bytes() / shardsCount);
+    /**
+     * Splits the indexing buffer among the active shards, based on their indexing rates. Each shard gets
+     * <tt>minShardBuffer</tt> (if the buffer can satisfy it), the rest is split by rate (equally if none of the
+     * shards is indexing), each shard ending up between <tt>minShardBuffer</tt> and <tt>maxShardBuffer</tt>.
+     */
+    public static long[] splitIndexingBuffer(long indexingBuffer, long minShardBuffer, long maxShardBuffer, double[] rates) {
+        double totalRate = 0;
+        for (double rate : rates) {
+            totalRate += rate;
+        }
+        long shardBaseBuffer = Math.min(minShardBuffer, indexingBuffer / rates.length);
+        long spareBuffer = indexingBuffer - (shardBaseBuffer * rates.length);
+        long[] shardBuffers = new long[rates.length];
+        for (int i = 0; i < rates.length; i++) {
+            long shardBuffer = shardBaseBuffer;
+            if (totalRate > 0) {
+                shardBuffer += (long) (spareBuffer * (rates[i] / totalRate));
+            } else {
+                shardBuffer += spareBuffer / rates.length;
+            }
+            if (shardBuffer < minShardBuffer) {
+                shardBuffer = minShardBuffer;
+            }
+            if (shardBuffer > maxShardBuffer) {
+                shardBuffer = maxShardBuffer;
+            }
+            shardBuffers[i] = shardBuffer;
+        }
+        return shardBuffers;
     }
 
-    private int countShards() {
-        int shardsCount = 0;
-        for (IndexService indexService : indicesService) {
-            for (IndexShard indexShard : indexService) {
-                ShardIndexingStatus status = shardsIndicesStatus.get(indexShard.shardId());
-                if (status == null || !status.inactiveIndexing) {
-                    shardsCount++;
-                }
+    /**
+     * Sets the indexing buffer of the shard engine, and the translog so it won't flush (on size) before the
+     * shard had the chance to fill it. Returns <tt>false</tt> if it could not be set.
+     */
+    private boolean updateShardIndexingBuffer(IndexShard indexShard, ByteSizeValue shardIndexingBufferSize) {
+        try {
+            ((InternalIndexShard) indexShard).engine().updateIndexingBufferSize(shardIndexingBufferSize);
+        } catch (EngineClosedException e) {
+            // ignore
+            return false;
+        } catch (FlushNotAllowedEngineException e) {
+            // ignore
+            return false;
+        } catch (Exception e) {
+            logger.warn("failed to set shard [{}][{}] index buffer to [{}]", indexShard.shardId().index().name(), indexShard.shardId().id(), shardIndexingBufferSize);
+            return false;
+        }
+        IndexService indexService = indicesService.indexService(indexShard.shardId().index().name());
+        if (indexService != null) {
+            Injector shardInjector = indexService.shardInjector(indexShard.shardId().id());
+            if (shardInjector != null) {
+                shardInjector.getInstance(TranslogService.class).updateIndexingBufferSize(shardIndexingBufferSize);
             }
         }
-        return shardsCount;
+        return true;
     }
 
     static class ShardIndexingStatus {
@@ -267,5 +322,13 @@ public class IndexingMemoryController extends AbstractLifecycleComponent<Indexin
         int translogNumberOfOperations = -1;
         boolean inactiveIndexing = false;
         long time = -1; // contains the first time we saw this shard with no operations done on it
+
+        long operations = -1; // the number of index and delete operations done on the shard when last checked
+        final EWMA rate;
+        ByteSizeValue indexingBufferSize; // the indexing buffer last set on the shard, null if not set yet
+
+        ShardIndexingStatus(TimeValue rateWindow, TimeValue interval) {
+            this.rate = new EWMA(1 - Math.exp(-((double) interval.millis()) / rateWindow.millis()), interval.millis(), TimeUnit.MILLISECONDS);
+        }
     }
 }
@@ -0,0 +1,104 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.merge;
+
+import com.google.common.base.Objects;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.common.RateLimiter;
+import org.elasticsearch.common.component.AbstractComponent;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.node.settings.NodeSettingsService;
+
+/**
+ * Node level IO budget for merges. When <tt>max_bytes_per_sec</tt> is set, all the (concurrent) merges of
+ * all the shards allocated on the node write through a single {@link RateLimiter}, so big merges can't
+ * saturate the disk. Merges smaller than <tt>small_merge_size</tt> are not throttled, so they don't queue
+ * up behind the big ones. Merges are not throttled by default.
+ */
+public class IndicesMergeThrottle extends AbstractComponent {
+
+    static {
+        MetaData.addDynamicSettings("indices.merge.throttle.max_bytes_per_sec");
+        MetaData.addDynamicSettings("indices.merge.throttle.small_merge_size");
+    }
+
+    private volatile ByteSizeValue maxBytesPerSec;
+    private volatile RateLimiter rateLimiter;
+
+    private volatile ByteSizeValue smallMergeSize;
+
+    @Inject
+    public IndicesMergeThrottle(Settings settings, NodeSettingsService nodeSettingsService) {
+        super(settings);
+
+        this.maxBytesPerSec = componentSettings.getAsBytesSize("throttle.max_bytes_per_sec", new ByteSizeValue(0));
+        if (maxBytesPerSec.bytes() <= 0) {
+            rateLimiter = null;
+        } else {
+            rateLimiter = new RateLimiter(maxBytesPerSec.mbFrac());
+        }
+        this.smallMergeSize = componentSettings.getAsBytesSize("throttle.small_merge_size", new ByteSizeValue(5, ByteSizeUnit.MB));
+
+        logger.debug("using max_bytes_per_sec [{}], small_merge_size [{}]", maxBytesPerSec, smallMergeSize);
+
+        nodeSettingsService.addListener(new ApplySettings());
+    }
+
+    /**
+     * The rate limiter merges write through, <tt>null</tt> if merges are not throttled.
+     */
+    public RateLimiter rateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Should a merge of the provided (total) size be throttled.
+     */
+    public boolean shouldThrottle(long mergeSizeInBytes) {
+        return rateLimiter != null && mergeSizeInBytes >= smallMergeSize.bytes();
+    }
+
+    class ApplySettings implements NodeSettingsService.Listener {
+        @Override
+        public void onRefreshSettings(Settings settings) {
+            ByteSizeValue maxBytesPerSec = settings.getAsBytesSize("indices.merge.throttle.max_bytes_per_sec", IndicesMergeThrottle.this.maxBytesPerSec);
+            if (!Objects.equal(maxBytesPerSec, IndicesMergeThrottle.this.maxBytesPerSec)) {
+                logger.info("updating [indices.merge.throttle.max_bytes_per_sec] from [{}] to [{}]", IndicesMergeThrottle.this.maxBytesPerSec, maxBytesPerSec);
+                IndicesMergeThrottle.this.maxBytesPerSec = maxBytesPerSec;
+                if (maxBytesPerSec.bytes() <= 0) {
+                    rateLimiter = null;
+                } else if (rateLimiter != null) {
+                    rateLimiter.setMaxRate(maxBytesPerSec.mbFrac());
+                } else {
+                    rateLimiter = new RateLimiter(maxBytesPerSec.mbFrac());
+                }
+            }
+
+            ByteSizeValue smallMergeSize = settings.getAsBytesSize("indices.merge.throttle.small_merge_size", IndicesMergeThrottle.this.smallMergeSize);
+            if (!smallMergeSize.equals(IndicesMergeThrottle.this.smallMergeSize)) {
+                logger.info("updating [indices.merge.throttle.small_merge_size] from [{}] to [{}]", IndicesMergeThrottle.this.smallMergeSize, smallMergeSize);
+                IndicesMergeThrottle.this.smallMergeSize = smallMergeSize;
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.rest;
+
+import org.elasticsearch.common.xcontent.ToXContent;
+
+import java.io.IOException;
+
+/**
+ * A channel that can stream a response back as it is being serialized, instead of building
+ * the whole response in memory first.
+ */
+public interface StreamingRestChannel extends RestChannel {
+
+    /**
+     * Serializes the content (wrapped in an object) directly to the channel, in chunks. If the
+     * serialization fails before anything was written, the failure is thrown so a proper error
+     * response can be sent, otherwise the connection is closed. HTTP 1.0 requests and requests on
+     * a pipelined channel get a regular (non chunked) response.
+     */
+    void sendChunkedResponse(RestRequest request, RestStatus status, ToXContent content) throws IOException;
+}
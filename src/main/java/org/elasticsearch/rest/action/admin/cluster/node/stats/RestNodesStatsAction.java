@@ -99,6 +99,12 @@ public class RestNodesStatsAction extends BaseRestHandler {
         controller.registerHandler(RestRequest.Method.GET, "/_nodes/{nodeId}/stats/http", httpHandler);
         controller.registerHandler(RestRequest.Method.GET, "/_nodes/http/stats", httpHandler);
         controller.registerHandler(RestRequest.Method.GET, "/_nodes/{nodeId}/http/stats", httpHandler);
+
+        RestScriptHandler scriptHandler = new RestScriptHandler();
+        controller.registerHandler(RestRequest.Method.GET, "/_nodes/stats/script", scriptHandler);
+        controller.registerHandler(RestRequest.Method.GET, "/_nodes/{nodeId}/stats/script", scriptHandler);
+        controller.registerHandler(RestRequest.Method.GET, "/_nodes/script/stats", scriptHandler);
+        controller.registerHandler(RestRequest.Method.GET, "/_nodes/{nodeId}/script/stats", scriptHandler);
     }
 
     @Override
@@ -122,6 +128,7 @@ public class RestNodesStatsAction extends BaseRestHandler {
         nodesStatsRequest.fs(request.paramAsBoolean("fs", nodesStatsRequest.fs()));
         nodesStatsRequest.transport(request.paramAsBoolean("transport", nodesStatsRequest.transport()));
         nodesStatsRequest.http(request.paramAsBoolean("http", nodesStatsRequest.http()));
+        nodesStatsRequest.script(request.paramAsBoolean("script", nodesStatsRequest.script()));
         executeNodeStats(request, channel, nodesStatsRequest);
     }
 
@@ -232,4 +239,13 @@ public class RestNodesStatsAction extends BaseRestHandler {
             executeNodeStats(request, channel, nodesStatsRequest);
         }
     }
-}
\ No newline at end of file
+
+    class RestScriptHandler implements RestHandler {
+        @Override
+        public void handleRequest(final RestRequest request, final RestChannel channel) {
+            NodesStatsRequest nodesStatsRequest = new NodesStatsRequest(RestActions.splitNodes(request.param("nodeId")));
+            nodesStatsRequest.clear().script(true);
+            executeNodeStats(request, channel, nodesStatsRequest);
+        }
+    }
+}
@@ -91,6 +91,11 @@ public class RestSearchAction extends BaseRestHandler {
             @Override
             public void onResponse(SearchResponse response) {
                 try {
+                    if (request.paramAsBoolean("stream", false) && channel instanceof StreamingRestChannel) {
+                        // serialize the hits straight to the channel, without building the whole response in memory
+                        ((StreamingRestChannel) channel).sendChunkedResponse(request, response.status(), response);
+                        return;
+                    }
                     XContentBuilder builder = restContentBuilder(request);
                     builder.startObject();
                     response.toXContent(builder, request);
@@ -88,6 +88,11 @@ public class RestSearchScrollAction extends BaseRestHandler {
             @Override
             public void onResponse(SearchResponse response) {
                 try {
+                    if (request.paramAsBoolean("stream", false) && channel instanceof StreamingRestChannel) {
+                        // serialize the hits straight to the channel, without building the whole response in memory
+                        ((StreamingRestChannel) channel).sendChunkedResponse(request, response.status(), response);
+                        return;
+                    }
                     XContentBuilder builder = restContentBuilder(request);
                     builder.startObject();
                     response.toXContent(builder, request);
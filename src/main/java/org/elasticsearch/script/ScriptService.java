@@ -21,18 +21,24 @@ package org.elasticsearch.script;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.elasticsearch.ElasticSearchIllegalArgumentException;
 import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.cache.CacheBuilderHelper;
 import org.elasticsearch.common.component.AbstractComponent;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.io.Streams;
+import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.env.Environment;
 import org.elasticsearch.index.cache.field.data.FieldDataCache;
 import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.script.expression.ExpressionScriptEngineService;
 import org.elasticsearch.script.mvel.MvelScriptEngineService;
 import org.elasticsearch.search.lookup.SearchLookup;
 
@@ -43,6 +49,8 @@ import java.io.InputStreamReader;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  *
@@ -55,12 +63,28 @@ public class ScriptService extends AbstractComponent {
 
     private final ConcurrentMap<String, CompiledScript> staticCache = ConcurrentCollections.newConcurrentMap();
 
-    // TODO expose some cache aspects like expiration and max size
-    private final Cache<CacheKey, CompiledScript> cache = CacheBuilder.newBuilder().build();
+    private final int cacheMaxSize;
+
+    private final TimeValue cacheExpire;
+
+    private final Cache<CacheKey, CompiledScript> cache;
+
+    private final CounterMetric compilations = new CounterMetric();
+
+    private final CounterMetric cacheHits = new CounterMetric();
+
+    private final CounterMetric cacheEvictions = new CounterMetric();
+
+    private final int compilationsPerMinuteWarnThreshold;
+
+    private final AtomicLong compilationsWindowStart = new AtomicLong();
+
+    private final AtomicLong compilationsInWindow = new AtomicLong();
 
     public ScriptService(Settings settings) {
         this(settings, new Environment(), ImmutableSet.<ScriptEngineService>builder()
                 .add(new MvelScriptEngineService(settings))
+                .add(new ExpressionScriptEngineService(settings))
                 .build()
         );
     }
@@ -71,6 +95,22 @@ public class ScriptService extends AbstractComponent {
 
         this.defaultLang = componentSettings.get("default_lang", "mvel");
 
+        this.cacheMaxSize = componentSettings.getAsInt("cache.max_size", 500);
+        this.cacheExpire = componentSettings.getAsTime("cache.expire", null);
+        this.compilationsPerMinuteWarnThreshold = componentSettings.getAsInt("cache.compilations_per_minute_warn_threshold", 100);
+        logger.debug("using script cache with max_size [{}], expire [{}]", cacheMaxSize, cacheExpire);
+
+        CacheBuilder cacheBuilder = CacheBuilder.newBuilder();
+        if (cacheMaxSize >= 0) {
+            cacheBuilder.maximumSize(cacheMaxSize);
+        }
+        if (cacheExpire != null) {
+            cacheBuilder.expireAfterAccess(cacheExpire.nanos(), TimeUnit.NANOSECONDS);
+        }
+        cacheBuilder.removalListener(new ScriptCacheRemovalListener());
+        CacheBuilderHelper.disableStats(cacheBuilder);
+        this.cache = cacheBuilder.build();
+
         ImmutableMap.Builder<String, ScriptEngineService> builder = ImmutableMap.builder();
         for (ScriptEngineService scriptEngine : scriptEngines) {
             for (String type : scriptEngine.types()) {
@@ -145,6 +185,7 @@ public class ScriptService extends AbstractComponent {
         CacheKey cacheKey = new CacheKey(lang, script);
         compiled = cache.getIfPresent(cacheKey);
         if (compiled != null) {
+            cacheHits.inc();
             return compiled;
         }
         // not the end of the world if we compile it twice...
@@ -153,10 +194,33 @@ public class ScriptService extends AbstractComponent {
             throw new ElasticSearchIllegalArgumentException("script_lang not supported [" + lang + "]");
         }
         compiled = new CompiledScript(lang, service.compile(script));
+        onCompilation();
         cache.put(cacheKey, compiled);
         return compiled;
     }
 
+    private void onCompilation() {
+        compilations.inc();
+        if (compilationsPerMinuteWarnThreshold <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long windowStart = compilationsWindowStart.get();
+        if (now - windowStart > TimeValue.timeValueMinutes(1).millis()) {
+            if (compilationsWindowStart.compareAndSet(windowStart, now)) {
+                compilationsInWindow.set(0);
+            }
+        }
+        // only warn once per window, when crossing the threshold
+        if (compilationsInWindow.incrementAndGet() == compilationsPerMinuteWarnThreshold + 1) {
+            logger.warn("more than [{}] dynamic scripts compiled in the last minute, consider passing changing values as script params instead of in the script source", compilationsPerMinuteWarnThreshold);
+        }
+    }
+
+    public ScriptStats stats() {
+        return new ScriptStats(compilations.count(), cacheHits.count(), cacheEvictions.count(), cache.size());
+    }
+
     public ExecutableScript executable(String lang, String script, Map vars) {
         return executable(compile(lang, script), vars);
     }
@@ -185,6 +249,15 @@ public class ScriptService extends AbstractComponent {
         cache.invalidateAll();
     }
 
+    private class ScriptCacheRemovalListener implements RemovalListener<CacheKey, CompiledScript> {
+        @Override
+        public void onRemoval(RemovalNotification<CacheKey, CompiledScript> notification) {
+            if (notification.wasEvicted()) {
+                cacheEvictions.inc();
+            }
+        }
+    }
+
     public static class CacheKey {
         public final String lang;
         public final String script;
@@ -0,0 +1,136 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.script;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentBuilderString;
+
+import java.io.IOException;
+
+/**
+ * Node level statistics of the dynamic scripts compiled cache.
+ */
+public class ScriptStats implements Streamable, ToXContent {
+
+    private long compilations;
+    private long cacheHits;
+    private long cacheEvictions;
+    private long cacheSize;
+
+    ScriptStats() {
+
+    }
+
+    public ScriptStats(long compilations, long cacheHits, long cacheEvictions, long cacheSize) {
+        this.compilations = compilations;
+        this.cacheHits = cacheHits;
+        this.cacheEvictions = cacheEvictions;
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * The number of dynamic scripts compiled.
+     */
+    public long compilations() {
+        return this.compilations;
+    }
+
+    public long getCompilations() {
+        return compilations();
+    }
+
+    /**
+     * The number of times a compiled script was served from the cache.
+     */
+    public long cacheHits() {
+        return this.cacheHits;
+    }
+
+    public long getCacheHits() {
+        return cacheHits();
+    }
+
+    /**
+     * The number of compiled scripts evicted from the cache, either because of size or expiration.
+     */
+    public long cacheEvictions() {
+        return this.cacheEvictions;
+    }
+
+    public long getCacheEvictions() {
+        return cacheEvictions();
+    }
+
+    /**
+     * The number of compiled scripts currently cached.
+     */
+    public long cacheSize() {
+        return this.cacheSize;
+    }
+
+    public long getCacheSize() {
+        return cacheSize();
+    }
+
+    public static ScriptStats readScriptStats(StreamInput in) throws IOException {
+        ScriptStats stats = new ScriptStats();
+        stats.readFrom(in);
+        return stats;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        compilations = in.readVLong();
+        cacheHits = in.readVLong();
+        cacheEvictions = in.readVLong();
+        cacheSize = in.readVLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(compilations);
+        out.writeVLong(cacheHits);
+        out.writeVLong(cacheEvictions);
+        out.writeVLong(cacheSize);
+    }
+
+    static final class Fields {
+        static final XContentBuilderString SCRIPT = new XContentBuilderString("script");
+        static final XContentBuilderString COMPILATIONS = new XContentBuilderString("compilations");
+        static final XContentBuilderString CACHE_HITS = new XContentBuilderString("cache_hits");
+        static final XContentBuilderString CACHE_EVICTIONS = new XContentBuilderString("cache_evictions");
+        static final XContentBuilderString CACHE_SIZE = new XContentBuilderString("cache_size");
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(Fields.SCRIPT);
+        builder.field(Fields.COMPILATIONS, compilations);
+        builder.field(Fields.CACHE_HITS, cacheHits);
+        builder.field(Fields.CACHE_EVICTIONS, cacheEvictions);
+        builder.field(Fields.CACHE_SIZE, cacheSize);
+        builder.endObject();
+        return builder;
+    }
+}
@@ -0,0 +1,484 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.script.expression;
+
+import org.elasticsearch.index.field.data.NumericFieldData;
+
+/**
+ * A compiled numeric expression. The expression tree is immutable and can be shared between threads, all the
+ * per execution state (field data of the current reader, params values, current doc and score) is provided
+ * through {@link Bindings}.
+ */
+public class Expression {
+
+    private final String source;
+
+    private final Node root;
+
+    private final String[] fields;
+
+    private final String[] params;
+
+    Expression(String source, Node root, String[] fields, String[] params) {
+        this.source = source;
+        this.root = root;
+        this.fields = fields;
+        this.params = params;
+    }
+
+    public String source() {
+        return this.source;
+    }
+
+    /**
+     * The names of the fields accessed by the expression, indexed by their slot.
+     */
+    public String[] fields() {
+        return this.fields;
+    }
+
+    /**
+     * The names of the params used by the expression, indexed by their slot.
+     */
+    public String[] params() {
+        return this.params;
+    }
+
+    public double evaluate(Bindings bindings) {
+        return root.evaluate(bindings);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    /**
+     * The per execution state an expression is evaluated against.
+     */
+    public static interface Bindings {
+
+        NumericFieldData field(int slot);
+
+        double param(int slot);
+
+        int doc();
+
+        double score();
+    }
+
+    static abstract class Node {
+
+        abstract double evaluate(Bindings bindings);
+    }
+
+    static class ConstantNode extends Node {
+
+        private final double value;
+
+        ConstantNode(double value) {
+            this.value = value;
+        }
+
+        @Override
+        double evaluate(Bindings bindings) {
+            return value;
+        }
+    }
+
+    static class ParamNode extends Node {
+
+        private final int slot;
+
+        ParamNode(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        double evaluate(Bindings bindings) {
+            return bindings.param(slot);
+        }
+    }
+
+    static class ScoreNode extends Node {
+
+        @Override
+        double evaluate(Bindings bindings) {
+            return bindings.score();
+        }
+    }
+
+    static class DoubleFieldNode extends Node {
+
+        private final int slot;
+
+        DoubleFieldNode(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        double evaluate(Bindings bindings) {
+            return bindings.field(slot).doubleValue(bindings.doc());
+        }
+    }
+
+    static class LongFieldNode extends Node {
+
+        private final int slot;
+
+        LongFieldNode(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        double evaluate(Bindings bindings) {
+            return bindings.field(slot).longValue(bindings.doc());
+        }
+    }
+
+    static class EmptyFieldNode extends Node {
+
+        private final int slot;
+
+        EmptyFieldNode(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        double evaluate(Bindings bindings) {
+            return bindings.field(slot).hasValue(bindings.doc()) ? 0 : 1;
+        }
+    }
+
+    static class NegateNode extends Node {
+
+        private final Node node;
+
+        NegateNode(Node node) {
+            this.node = node;
+        }
+
+        @Override
+        double evaluate(Bindings bindings) {
+            return -node.evaluate(bindings);
+        }
+    }
+
+    static class AddNode extends Node {
+
+        private final Node left;
+        private final Node right;
+
+        AddNode(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double evaluate(Bindings bindings) {
+            return left.evaluate(bindings) + right.evaluate(bindings);
+        }
+    }
+
+    static class SubtractNode extends Node {
+
+        private final Node left;
+        private final Node right;
+
+        SubtractNode(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double evaluate(Bindings bindings) {
+            return left.evaluate(bindings) - right.evaluate(bindings);
+        }
+    }
+
+    static class MultiplyNode extends Node {
+
+        private final Node left;
+        private final Node right;
+
+        MultiplyNode(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double evaluate(Bindings bindings) {
+            return left.evaluate(bindings) * right.evaluate(bindings);
+        }
+    }
+
+    static class DivideNode extends Node {
+
+        private final Node left;
+        private final Node right;
+
+        DivideNode(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double evaluate(Bindings bindings) {
+            return left.evaluate(bindings) / right.evaluate(bindings);
+        }
+    }
+
+    static class ModuloNode extends Node {
+
+        private final Node left;
+        private final Node right;
+
+        ModuloNode(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double evaluate(Bindings bindings) {
+            return left.evaluate(bindings) % right.evaluate(bindings);
+        }
+    }
+
+    static class UnaryFunctionNode extends Node {
+
+        private final Function function;
+
+        private final Node arg;
+
+        UnaryFunctionNode(Function function, Node arg) {
+            this.function = function;
+            this.arg = arg;
+        }
+
+        @Override
+        double evaluate(Bindings bindings) {
+            return function.apply(arg.evaluate(bindings), 0);
+        }
+    }
+
+    static class BinaryFunctionNode extends Node {
+
+        private final Function function;
+
+        private final Node arg1;
+
+        private final Node arg2;
+
+        BinaryFunctionNode(Function function, Node arg1, Node arg2) {
+            this.function = function;
+            this.arg1 = arg1;
+            this.arg2 = arg2;
+        }
+
+        @Override
+        double evaluate(Bindings bindings) {
+            return function.apply(arg1.evaluate(bindings), arg2.evaluate(bindings));
+        }
+    }
+
+    /**
+     * The math functions supported by expressions, with or without the <tt>Math.</tt> prefix.
+     */
+    static enum Function {
+        ABS("abs", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.abs(a);
+            }
+        },
+        SQRT("sqrt", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.sqrt(a);
+            }
+        },
+        CBRT("cbrt", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.cbrt(a);
+            }
+        },
+        LOG("log", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.log(a);
+            }
+        },
+        LOG10("log10", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.log10(a);
+            }
+        },
+        LOG1P("log1p", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.log1p(a);
+            }
+        },
+        EXP("exp", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.exp(a);
+            }
+        },
+        SIN("sin", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.sin(a);
+            }
+        },
+        COS("cos", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.cos(a);
+            }
+        },
+        TAN("tan", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.tan(a);
+            }
+        },
+        ASIN("asin", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.asin(a);
+            }
+        },
+        ACOS("acos", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.acos(a);
+            }
+        },
+        ATAN("atan", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.atan(a);
+            }
+        },
+        TO_RADIANS("toRadians", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.toRadians(a);
+            }
+        },
+        TO_DEGREES("toDegrees", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.toDegrees(a);
+            }
+        },
+        FLOOR("floor", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.floor(a);
+            }
+        },
+        CEIL("ceil", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.ceil(a);
+            }
+        },
+        RINT("rint", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.rint(a);
+            }
+        },
+        ROUND("round", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.round(a);
+            }
+        },
+        SIGNUM("signum", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.signum(a);
+            }
+        },
+        POW("pow", 2) {
+            @Override
+            double apply(double a, double b) {
+                return Math.pow(a, b);
+            }
+        },
+        ATAN2("atan2", 2) {
+            @Override
+            double apply(double a, double b) {
+                return Math.atan2(a, b);
+            }
+        },
+        HYPOT("hypot", 2) {
+            @Override
+            double apply(double a, double b) {
+                return Math.hypot(a, b);
+            }
+        },
+        MIN("min", 2) {
+            @Override
+            double apply(double a, double b) {
+                return Math.min(a, b);
+            }
+        },
+        MAX("max", 2) {
+            @Override
+            double apply(double a, double b) {
+                return Math.max(a, b);
+            }
+        };
+
+        private final String functionName;
+
+        private final int arity;
+
+        Function(String functionName, int arity) {
+            this.functionName = functionName;
+            this.arity = arity;
+        }
+
+        public String functionName() {
+            return this.functionName;
+        }
+
+        public int arity() {
+            return this.arity;
+        }
+
+        abstract double apply(double a, double b);
+
+        public static Function fromName(String name) {
+            for (Function function : values()) {
+                if (function.functionName.equals(name)) {
+                    return function;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.script.expression;
+
+import com.google.common.collect.Lists;
+import org.elasticsearch.script.ScriptException;
+
+import java.util.List;
+
+/**
+ * A recursive descent parser for the arithmetic subset supported by {@link Expression}:
+ * <ul>
+ * <li>numeric literals, <tt>+</tt>, <tt>-</tt>, <tt>*</tt>, <tt>/</tt>, <tt>%</tt> and parentheses.</li>
+ * <li><tt>doc['field'].value</tt> (or <tt>doc.field.value</tt>), as well as <tt>doubleValue</tt>, <tt>longValue</tt>,
+ * <tt>intValue</tt>, <tt>floatValue</tt> and <tt>empty</tt>, reading from numeric field data.</li>
+ * <li><tt>_score</tt> for the current document score.</li>
+ * <li>math functions, such as <tt>log(x)</tt> or <tt>Math.pow(x, y)</tt>.</li>
+ * <li>any other identifier is a script param, which must be numeric.</li>
+ * </ul>
+ */
+public class ExpressionParser {
+
+    private final String source;
+
+    private int pos;
+
+    private final List<String> fields = Lists.newArrayList();
+
+    private final List<String> params = Lists.newArrayList();
+
+    private ExpressionParser(String source) {
+        this.source = source;
+    }
+
+    public static Expression parse(String source) throws ScriptException {
+        ExpressionParser parser = new ExpressionParser(source);
+        Expression.Node root = parser.parseExpression();
+        parser.skipWhitespace();
+        if (parser.pos < source.length()) {
+            throw parser.error("unexpected character [" + source.charAt(parser.pos) + "]");
+        }
+        return new Expression(source, root, parser.fields.toArray(new String[parser.fields.size()]), parser.params.toArray(new String[parser.params.size()]));
+    }
+
+    private Expression.Node parseExpression() {
+        Expression.Node node = parseTerm();
+        while (true) {
+            if (consume('+')) {
+                node = new Expression.AddNode(node, parseTerm());
+            } else if (consume('-')) {
+                node = new Expression.SubtractNode(node, parseTerm());
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private Expression.Node parseTerm() {
+        Expression.Node node = parseUnary();
+        while (true) {
+            if (consume('*')) {
+                node = new Expression.MultiplyNode(node, parseUnary());
+            } else if (consume('/')) {
+                node = new Expression.DivideNode(node, parseUnary());
+            } else if (consume('%')) {
+                node = new Expression.ModuloNode(node, parseUnary());
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private Expression.Node parseUnary() {
+        if (consume('-')) {
+            return new Expression.NegateNode(parseUnary());
+        }
+        if (consume('+')) {
+            return parseUnary();
+        }
+        return parsePrimary();
+    }
+
+    private Expression.Node parsePrimary() {
+        skipWhitespace();
+        if (pos >= source.length()) {
+            throw error("unexpected end of expression");
+        }
+        if (consume('(')) {
+            Expression.Node node = parseExpression();
+            expect(')');
+            return node;
+        }
+        char c = source.charAt(pos);
+        if (Character.isDigit(c) || c == '.') {
+            return parseNumber();
+        }
+        if (!Character.isJavaIdentifierStart(c)) {
+            throw error("unexpected character [" + c + "]");
+        }
+        String identifier = parseIdentifier();
+        if (identifier.equals("_score")) {
+            return new Expression.ScoreNode();
+        }
+        if (identifier.equals("doc") || identifier.equals("_doc")) {
+            return parseFieldAccess();
+        }
+        if (identifier.equals("Math")) {
+            expect('.');
+            identifier = parseIdentifier();
+            return parseFunction(identifier);
+        }
+        if (peek('(')) {
+            return parseFunction(identifier);
+        }
+        return new Expression.ParamNode(slot(params, identifier));
+    }
+
+    private Expression.Node parseFieldAccess() {
+        String fieldName;
+        if (consume('[')) {
+            fieldName = parseString();
+            expect(']');
+        } else {
+            expect('.');
+            fieldName = parseIdentifier();
+        }
+        expect('.');
+        String accessor = parseIdentifier();
+        if (consume('(')) {
+            // allow the getter form, for example doc['field'].getValue()
+            expect(')');
+            if (accessor.startsWith("get") && accessor.length() > 3) {
+                accessor = Character.toLowerCase(accessor.charAt(3)) + accessor.substring(4);
+            }
+        }
+        int slot = slot(fields, fieldName);
+        if (accessor.equals("value") || accessor.equals("doubleValue") || accessor.equals("floatValue")) {
+            return new Expression.DoubleFieldNode(slot);
+        } else if (accessor.equals("longValue") || accessor.equals("intValue")) {
+            return new Expression.LongFieldNode(slot);
+        } else if (accessor.equals("empty")) {
+            return new Expression.EmptyFieldNode(slot);
+        }
+        throw error("unsupported field accessor [" + accessor + "] on field [" + fieldName + "]");
+    }
+
+    private Expression.Node parseFunction(String name) {
+        Expression.Function function = Expression.Function.fromName(name);
+        if (function == null) {
+            throw error("unknown function [" + name + "]");
+        }
+        expect('(');
+        List<Expression.Node> args = Lists.newArrayList();
+        if (!consume(')')) {
+            do {
+                args.add(parseExpression());
+            } while (consume(','));
+            expect(')');
+        }
+        if (args.size() != function.arity()) {
+            throw error("function [" + name + "] expects [" + function.arity() + "] arguments, got [" + args.size() + "]");
+        }
+        if (function.arity() == 1) {
+            return new Expression.UnaryFunctionNode(function, args.get(0));
+        }
+        return new Expression.BinaryFunctionNode(function, args.get(0), args.get(1));
+    }
+
+    private Expression.Node parseNumber() {
+        int start = pos;
+        while (pos < source.length() && (Character.isDigit(source.charAt(pos)) || source.charAt(pos) == '.')) {
+            pos++;
+        }
+        if (pos < source.length() && (source.charAt(pos) == 'e' || source.charAt(pos) == 'E')) {
+            pos++;
+            if (pos < source.length() && (source.charAt(pos) == '+' || source.charAt(pos) == '-')) {
+                pos++;
+            }
+            while (pos < source.length() && Character.isDigit(source.charAt(pos))) {
+                pos++;
+            }
+        }
+        String number = source.substring(start, pos);
+        // allow java style type suffixes, for example 2.0f or 10l
+        if (pos < source.length() && "dDfFlL".indexOf(source.charAt(pos)) != -1) {
+            pos++;
+        }
+        try {
+            return new Expression.ConstantNode(Double.parseDouble(number));
+        } catch (NumberFormatException e) {
+            throw error("failed to parse number [" + number + "]");
+        }
+    }
+
+    private String parseIdentifier() {
+        skipWhitespace();
+        int start = pos;
+        if (pos >= source.length() || !Character.isJavaIdentifierStart(source.charAt(pos))) {
+            throw error("expected an identifier");
+        }
+        pos++;
+        while (pos < source.length() && Character.isJavaIdentifierPart(source.charAt(pos))) {
+            pos++;
+        }
+        return source.substring(start, pos);
+    }
+
+    private String parseString() {
+        skipWhitespace();
+        if (pos >= source.length() || (source.charAt(pos) != '\'' && source.charAt(pos) != '"')) {
+            throw error("expected a quoted field name");
+        }
+        char quote = source.charAt(pos++);
+        int start = pos;
+        while (pos < source.length() && source.charAt(pos) != quote) {
+            pos++;
+        }
+        if (pos >= source.length()) {
+            throw error("unterminated string");
+        }
+        return source.substring(start, pos++);
+    }
+
+    private boolean peek(char c) {
+        skipWhitespace();
+        return pos < source.length() && source.charAt(pos) == c;
+    }
+
+    private boolean consume(char c) {
+        if (peek(c)) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!consume(c)) {
+            throw error("expected [" + c + "]");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private ScriptException error(String message) {
+        return new ScriptException("failed to parse expression [" + source + "] at position [" + pos + "]: " + message);
+    }
+
+    private static int slot(List<String> names, String name) {
+        int slot = names.indexOf(name);
+        if (slot == -1) {
+            names.add(name);
+            slot = names.size() - 1;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.script.expression;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.Scorer;
+import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.ElasticSearchIllegalArgumentException;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.component.AbstractComponent;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.field.data.FieldData;
+import org.elasticsearch.index.field.data.NumericFieldData;
+import org.elasticsearch.index.mapper.FieldMapper;
+import org.elasticsearch.script.ExecutableScript;
+import org.elasticsearch.script.ScriptEngineService;
+import org.elasticsearch.script.ScriptException;
+import org.elasticsearch.script.SearchScript;
+import org.elasticsearch.search.lookup.DocLookup;
+import org.elasticsearch.search.lookup.SearchLookup;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A script engine for simple numeric expressions (<tt>lang</tt> set to <tt>expression</tt>), evaluated directly
+ * against primitive numeric field data without boxing, for example <tt>doc['price'].value * 2 + _score</tt>
+ * or <tt>log(doc['popularity'].value + 1) * factor</tt>. See {@link ExpressionParser} for the supported syntax.
+ */
+public class ExpressionScriptEngineService extends AbstractComponent implements ScriptEngineService {
+
+    @Inject
+    public ExpressionScriptEngineService(Settings settings) {
+        super(settings);
+    }
+
+    @Override
+    public String[] types() {
+        return new String[]{"expression"};
+    }
+
+    @Override
+    public String[] extensions() {
+        return new String[]{"expression"};
+    }
+
+    @Override
+    public Object compile(String script) {
+        return ExpressionParser.parse(script);
+    }
+
+    @Override
+    public ExecutableScript executable(Object compiledScript, @Nullable Map<String, Object> vars) {
+        return new ExpressionExecutableScript((Expression) compiledScript, vars);
+    }
+
+    @Override
+    public SearchScript search(Object compiledScript, SearchLookup lookup, @Nullable Map<String, Object> vars) {
+        return new ExpressionSearchScript((Expression) compiledScript, lookup, vars);
+    }
+
+    @Override
+    public Object execute(Object compiledScript, Map<String, Object> vars) {
+        return executable(compiledScript, vars).run();
+    }
+
+    @Override
+    public Object unwrap(Object value) {
+        return value;
+    }
+
+    @Override
+    public void close() {
+        // nothing to do here...
+    }
+
+    static double[] resolveParams(Expression expression, @Nullable Map<String, Object> vars) {
+        double[] params = new double[expression.params().length];
+        for (int i = 0; i < params.length; i++) {
+            setParam(expression, params, i, vars == null ? null : vars.get(expression.params()[i]));
+        }
+        return params;
+    }
+
+    static void setParam(Expression expression, double[] params, int slot, Object value) {
+        if (value == null) {
+            throw new ScriptException("missing param [" + expression.params()[slot] + "] for expression [" + expression + "]");
+        }
+        if (!(value instanceof Number)) {
+            throw new ScriptException("param [" + expression.params()[slot] + "] for expression [" + expression + "] must be numeric, got [" + value + "]");
+        }
+        params[slot] = ((Number) value).doubleValue();
+    }
+
+    static int paramSlot(Expression expression, String name) {
+        String[] names = expression.params();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static class ExpressionExecutableScript implements ExecutableScript, Expression.Bindings {
+
+        private final Expression expression;
+
+        private final double[] params;
+
+        public ExpressionExecutableScript(Expression expression, @Nullable Map<String, Object> vars) {
+            if (expression.fields().length > 0) {
+                throw new ElasticSearchIllegalArgumentException("expression [" + expression + "] accesses document fields and can only be used in a search context");
+            }
+            this.expression = expression;
+            this.params = resolveParams(expression, vars);
+        }
+
+        @Override
+        public void setNextVar(String name, Object value) {
+            int slot = paramSlot(expression, name);
+            if (slot != -1) {
+                setParam(expression, params, slot, value);
+            }
+        }
+
+        @Override
+        public Object run() {
+            return expression.evaluate(this);
+        }
+
+        @Override
+        public Object unwrap(Object value) {
+            return value;
+        }
+
+        @Override
+        public NumericFieldData field(int slot) {
+            throw new ElasticSearchIllegalArgumentException("no document fields available");
+        }
+
+        @Override
+        public double param(int slot) {
+            return params[slot];
+        }
+
+        @Override
+        public int doc() {
+            return -1;
+        }
+
+        @Override
+        public double score() {
+            throw new ElasticSearchIllegalArgumentException("no score available");
+        }
+    }
+
+    public static class ExpressionSearchScript implements SearchScript, Expression.Bindings {
+
+        private final Expression expression;
+
+        private final DocLookup docLookup;
+
+        private final FieldMapper[] mappers;
+
+        private final NumericFieldData[] fieldData;
+
+        private final double[] params;
+
+        private IndexReader reader;
+
+        private Scorer scorer;
+
+        private int doc = -1;
+
+        private float score = Float.NaN;
+
+        public ExpressionSearchScript(Expression expression, SearchLookup lookup, @Nullable Map<String, Object> vars) {
+            this.expression = expression;
+            this.docLookup = lookup.doc();
+            this.params = resolveParams(expression, vars);
+            this.mappers = new FieldMapper[expression.fields().length];
+            for (int i = 0; i < mappers.length; i++) {
+                String fieldName = expression.fields()[i];
+                mappers[i] = docLookup.mapperService().smartNameFieldMapper(fieldName);
+                if (mappers[i] == null) {
+                    throw new ElasticSearchIllegalArgumentException("No field found for [" + fieldName + "] in expression [" + expression + "]");
+                }
+            }
+            this.fieldData = new NumericFieldData[mappers.length];
+        }
+
+        @Override
+        public void setScorer(Scorer scorer) {
+            this.scorer = scorer;
+        }
+
+        @Override
+        public void setNextReader(IndexReader reader) {
+            if (this.reader == reader) {
+                return;
+            }
+            this.reader = reader;
+            for (int i = 0; i < mappers.length; i++) {
+                FieldData data;
+                try {
+                    data = docLookup.fieldDataCache().cache(mappers[i].fieldDataType(), reader, mappers[i].names().indexName());
+                } catch (IOException e) {
+                    throw new ElasticSearchException("Failed to load field data for [" + expression.fields()[i] + "]", e);
+                }
+                if (!(data instanceof NumericFieldData)) {
+                    throw new ElasticSearchIllegalArgumentException("field [" + expression.fields()[i] + "] used in expression [" + expression + "] is not numeric");
+                }
+                fieldData[i] = (NumericFieldData) data;
+            }
+        }
+
+        @Override
+        public void setNextDocId(int doc) {
+            this.doc = doc;
+            // the score is only set for some docs (custom_score sets it, its factor does not), so don't keep the last one around
+            this.score = Float.NaN;
+        }
+
+        @Override
+        public void setNextSource(Map<String, Object> source) {
+            // expressions only work on field data
+        }
+
+        @Override
+        public void setNextScore(float score) {
+            this.score = score;
+        }
+
+        @Override
+        public void setNextVar(String name, Object value) {
+            int slot = paramSlot(expression, name);
+            if (slot != -1) {
+                setParam(expression, params, slot, value);
+            }
+        }
+
+        @Override
+        public Object run() {
+            return expression.evaluate(this);
+        }
+
+        @Override
+        public float runAsFloat() {
+            return (float) expression.evaluate(this);
+        }
+
+        @Override
+        public long runAsLong() {
+            return (long) expression.evaluate(this);
+        }
+
+        @Override
+        public double runAsDouble() {
+            return expression.evaluate(this);
+        }
+
+        @Override
+        public Object unwrap(Object value) {
+            return value;
+        }
+
+        @Override
+        public NumericFieldData field(int slot) {
+            return fieldData[slot];
+        }
+
+        @Override
+        public double param(int slot) {
+            return params[slot];
+        }
+
+        @Override
+        public int doc() {
+            return doc;
+        }
+
+        @Override
+        public double score() {
+            if (!Float.isNaN(score)) {
+                return score;
+            }
+            if (scorer == null) {
+                throw new ElasticSearchIllegalArgumentException("no score available for expression [" + expression + "]");
+            }
+            try {
+                return scorer.score();
+            } catch (IOException e) {
+                throw new ElasticSearchException("Failed to compute score for expression [" + expression + "]", e);
+            }
+        }
+    }
+}
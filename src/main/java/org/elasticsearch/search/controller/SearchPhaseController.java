@@ -28,6 +28,8 @@ import gnu.trove.map.hash.TObjectIntHashMap;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.*;
 import org.apache.lucene.util.PriorityQueue;
+import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.ElasticSearchInterruptedException;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.component.AbstractComponent;
 import org.elasticsearch.common.inject.Inject;
@@ -38,7 +40,9 @@ import org.elasticsearch.search.dfs.AggregatedDfs;
 import org.elasticsearch.search.dfs.DfsSearchResult;
 import org.elasticsearch.search.facet.Facet;
 import org.elasticsearch.search.facet.FacetProcessors;
+import org.elasticsearch.search.facet.FacetProcessor;
 import org.elasticsearch.search.facet.InternalFacets;
+import org.elasticsearch.search.facet.PartialReduceFacetProcessor;
 import org.elasticsearch.search.fetch.FetchSearchResult;
 import org.elasticsearch.search.fetch.FetchSearchResultProvider;
 import org.elasticsearch.search.internal.InternalSearchHit;
@@ -46,11 +50,18 @@ import org.elasticsearch.search.internal.InternalSearchHits;
 import org.elasticsearch.search.internal.InternalSearchResponse;
 import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.search.query.QuerySearchResultProvider;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  *
@@ -72,13 +83,22 @@ public class SearchPhaseController extends AbstractComponent {
 
     private final FacetProcessors facetProcessors;
 
+    private final ThreadPool threadPool;
+
     private final boolean optimizeSingleShard;
 
+    private final int reduceConcurrency;
+
+    private final int reduceBatchSize;
+
     @Inject
-    public SearchPhaseController(Settings settings, FacetProcessors facetProcessors) {
+    public SearchPhaseController(Settings settings, FacetProcessors facetProcessors, ThreadPool threadPool) {
         super(settings);
         this.facetProcessors = facetProcessors;
+        this.threadPool = threadPool;
         this.optimizeSingleShard = componentSettings.getAsBoolean("optimize_single_shard", true);
+        this.reduceConcurrency = componentSettings.getAsInt("reduce.concurrency", Runtime.getRuntime().availableProcessors());
+        this.reduceBatchSize = Math.max(2, componentSettings.getAsInt("reduce.batch_size", 32));
     }
 
     public boolean optimizeSingleShard() {
@@ -241,6 +261,162 @@ public class SearchPhaseController extends AbstractComponent {
         return shardDocs;
     }
 
+    /**
+     * Reduces the facets of all the shard results, one facet name at a time. Facets are reduced in parallel
+     * (on the search thread pool, the calling thread taking part) and facets that support partial reduces
+     * are reduced in batches of shard results first when the search spans many shards.
+     */
+    private List<Facet> reduceFacets(QuerySearchResult firstResult, Collection<? extends QuerySearchResultProvider> queryResults) {
+        // aggregate each facet name into a single list, ordered by the first occurrence in the first result
+        Map<String, List<Facet>> namedFacets = Maps.newLinkedHashMap();
+        for (Facet facet : firstResult.facets()) {
+            if (!namedFacets.containsKey(facet.name())) {
+                namedFacets.put(facet.name(), new ArrayList<Facet>(queryResults.size()));
+            }
+        }
+        for (QuerySearchResultProvider queryResultProvider : queryResults) {
+            if (queryResultProvider.queryResult().facets() == null) {
+                continue;
+            }
+            for (Facet facet : queryResultProvider.queryResult().facets()) {
+                List<Facet> named = namedFacets.get(facet.name());
+                if (named != null) {
+                    named.add(facet);
+                }
+            }
+        }
+
+        final List<NamedReduce> reduces = new ArrayList<NamedReduce>(namedFacets.size());
+        List<Runnable> tasks = Lists.newArrayList();
+        int totalFacets = 0;
+        for (Map.Entry<String, List<Facet>> entry : namedFacets.entrySet()) {
+            List<Facet> named = entry.getValue();
+            totalFacets += named.size();
+            NamedReduce reduce = new NamedReduce(entry.getKey(), facetProcessors.processor(named.get(0).type()), named);
+            reduces.add(reduce);
+            if (reduce.processor instanceof PartialReduceFacetProcessor && named.size() > reduceBatchSize) {
+                reduce.partials = new Facet[(named.size() + reduceBatchSize - 1) / reduceBatchSize];
+                for (int i = 0; i < reduce.partials.length; i++) {
+                    tasks.add(reduce.partialTask(i, named.subList(i * reduceBatchSize, Math.min(named.size(), (i + 1) * reduceBatchSize))));
+                }
+            } else {
+                tasks.add(reduce.task());
+            }
+        }
+        boolean parallel = totalFacets >= reduceBatchSize;
+        execute(tasks, parallel);
+
+        // the final reduce of the batched facets
+        tasks.clear();
+        for (NamedReduce reduce : reduces) {
+            if (reduce.partials != null) {
+                reduce.facets = Arrays.asList(reduce.partials);
+                tasks.add(reduce.task());
+            }
+        }
+        if (!tasks.isEmpty()) {
+            execute(tasks, parallel);
+        }
+
+        List<Facet> aggregatedFacets = new ArrayList<Facet>(reduces.size());
+        for (NamedReduce reduce : reduces) {
+            aggregatedFacets.add(reduce.result);
+        }
+        return aggregatedFacets;
+    }
+
+    /**
+     * Runs all the tasks, using up to <tt>reduce.concurrency</tt> threads (including the calling one) when
+     * parallel. Tasks are claimed in order, so helpers that start late (or are rejected) simply find no work.
+     */
+    private void execute(final List<Runnable> tasks, boolean parallel) {
+        int helpers = parallel ? Math.min(reduceConcurrency, tasks.size()) - 1 : 0;
+        if (helpers <= 0) {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+            return;
+        }
+        final AtomicInteger next = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(tasks.size());
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                int index;
+                while ((index = next.getAndIncrement()) < tasks.size()) {
+                    try {
+                        tasks.get(index).run();
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            }
+        };
+        Executor executor = threadPool.executor(ThreadPool.Names.SEARCH);
+        for (int i = 0; i < helpers; i++) {
+            try {
+                executor.execute(worker);
+            } catch (RejectedExecutionException e) {
+                // the calling thread will do the work
+                break;
+            }
+        }
+        worker.run();
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ElasticSearchInterruptedException("interrupted while reducing facets", e);
+        }
+        Throwable t = failure.get();
+        if (t != null) {
+            if (t instanceof RuntimeException) {
+                throw (RuntimeException) t;
+            }
+            throw new ElasticSearchException("failed to reduce facets", t);
+        }
+    }
+
+    static class NamedReduce {
+
+        final String name;
+
+        final FacetProcessor processor;
+
+        List<Facet> facets;
+
+        Facet[] partials;
+
+        Facet result;
+
+        NamedReduce(String name, FacetProcessor processor, List<Facet> facets) {
+            this.name = name;
+            this.processor = processor;
+            this.facets = facets;
+        }
+
+        Runnable task() {
+            return new Runnable() {
+                @Override
+                public void run() {
+                    result = processor.reduce(name, facets);
+                }
+            };
+        }
+
+        Runnable partialTask(final int index, final List<Facet> batch) {
+            return new Runnable() {
+                @Override
+                public void run() {
+                    partials[index] = processor.reduce(name, batch);
+                }
+            };
+        }
+    }
+
     public Map<SearchShardTarget, ExtTIntArrayList> docIdsToLoad(ShardDoc[] shardDocs) {
         Map<SearchShardTarget, ExtTIntArrayList> result = Maps.newHashMap();
         for (ShardDoc shardDoc : shardDocs) {
@@ -279,24 +455,8 @@ public class SearchPhaseController extends AbstractComponent {
         // merge facets
         InternalFacets facets = null;
         if (!queryResults.isEmpty()) {
-            // we rely on the fact that the order of facets is the same on all query results
             if (querySearchResult.facets() != null && querySearchResult.facets().facets() != null && !querySearchResult.facets().facets().isEmpty()) {
-                List<Facet> aggregatedFacets = Lists.newArrayList();
-                List<Facet> namedFacets = Lists.newArrayList();
-                for (Facet facet : querySearchResult.facets()) {
-                    // aggregate each facet name into a single list, and aggregate it
-                    namedFacets.clear();
-                    for (QuerySearchResultProvider queryResultProvider : queryResults.values()) {
-                        for (Facet facet1 : queryResultProvider.queryResult().facets()) {
-                            if (facet.name().equals(facet1.name())) {
-                                namedFacets.add(facet1);
-                            }
-                        }
-                    }
-                    Facet aggregatedFacet = facetProcessors.processor(facet.type()).reduce(facet.name(), namedFacets);
-                    aggregatedFacets.add(aggregatedFacet);
-                }
-                facets = new InternalFacets(aggregatedFacets);
+                facets = new InternalFacets(reduceFacets(querySearchResult, queryResults.values()));
             }
         }
 
@@ -21,11 +21,13 @@ package org.elasticsearch.search.facet;
 
 import org.elasticsearch.index.query.FilterBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.facet.cardinality.CardinalityFacetBuilder;
 import org.elasticsearch.search.facet.datehistogram.DateHistogramFacetBuilder;
 import org.elasticsearch.search.facet.filter.FilterFacetBuilder;
 import org.elasticsearch.search.facet.geodistance.GeoDistanceFacetBuilder;
 import org.elasticsearch.search.facet.histogram.HistogramFacetBuilder;
 import org.elasticsearch.search.facet.histogram.HistogramScriptFacetBuilder;
+import org.elasticsearch.search.facet.percentiles.PercentilesFacetBuilder;
 import org.elasticsearch.search.facet.query.QueryFacetBuilder;
 import org.elasticsearch.search.facet.range.RangeFacetBuilder;
 import org.elasticsearch.search.facet.range.RangeScriptFacetBuilder;
@@ -94,4 +96,12 @@ public class FacetBuilders {
     public static GeoDistanceFacetBuilder geoDistanceFacet(String facetName) {
         return new GeoDistanceFacetBuilder(facetName);
     }
+
+    public static CardinalityFacetBuilder cardinalityFacet(String facetName) {
+        return new CardinalityFacetBuilder(facetName);
+    }
+
+    public static PercentilesFacetBuilder percentilesFacet(String facetName) {
+        return new PercentilesFacetBuilder(facetName);
+    }
 }
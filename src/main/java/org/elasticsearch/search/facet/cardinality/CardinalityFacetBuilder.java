@@ -0,0 +1,107 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.facet.cardinality;
+
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.index.query.FilterBuilder;
+import org.elasticsearch.search.builder.SearchSourceBuilderException;
+import org.elasticsearch.search.facet.AbstractFacetBuilder;
+
+import java.io.IOException;
+
+/**
+ *
+ */
+public class CardinalityFacetBuilder extends AbstractFacetBuilder {
+    private String fieldName;
+    private int precision = -1;
+
+    public CardinalityFacetBuilder(String name) {
+        super(name);
+    }
+
+    /**
+     * The field the distinct values will be counted on.
+     */
+    public CardinalityFacetBuilder field(String field) {
+        this.fieldName = field;
+        return this;
+    }
+
+    /**
+     * The precision of the sketch, using <tt>2^precision</tt> registers per shard. Higher values are
+     * more accurate but use more memory. Defaults to <tt>14</tt> (about 0.8% standard error).
+     */
+    public CardinalityFacetBuilder precision(int precision) {
+        this.precision = precision;
+        return this;
+    }
+
+    /**
+     * Marks the facet to run in a global scope, not bounded by any query.
+     */
+    public CardinalityFacetBuilder global(boolean global) {
+        super.global(global);
+        return this;
+    }
+
+    /**
+     * Marks the facet to run in a specific scope.
+     */
+    @Override
+    public CardinalityFacetBuilder scope(String scope) {
+        super.scope(scope);
+        return this;
+    }
+
+    public CardinalityFacetBuilder facetFilter(FilterBuilder filter) {
+        this.facetFilter = filter;
+        return this;
+    }
+
+    /**
+     * Sets the nested path the facet will execute on. A match (root object) will then cause all the
+     * nested objects matching the path to be computed into the facet.
+     */
+    public CardinalityFacetBuilder nested(String nested) {
+        this.nested = nested;
+        return this;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        if (fieldName == null) {
+            throw new SearchSourceBuilderException("field must be set on cardinality facet for facet [" + name + "]");
+        }
+        builder.startObject(name);
+
+        builder.startObject(CardinalityFacet.TYPE);
+        builder.field("field", fieldName);
+        if (precision != -1) {
+            builder.field("precision", precision);
+        }
+        builder.endObject();
+
+        addFilterFacetAndGlobal(builder, params);
+
+        builder.endObject();
+        return builder;
+    }
+}
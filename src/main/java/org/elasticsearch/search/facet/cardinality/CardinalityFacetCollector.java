@@ -0,0 +1,192 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.facet.cardinality;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.util.UnicodeUtil;
+import org.elasticsearch.common.Unicode;
+import org.elasticsearch.index.cache.field.data.FieldDataCache;
+import org.elasticsearch.index.field.data.FieldData;
+import org.elasticsearch.index.field.data.FieldDataType;
+import org.elasticsearch.index.field.data.NumericFieldData;
+import org.elasticsearch.index.field.data.strings.StringFieldData;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.search.facet.AbstractFacetCollector;
+import org.elasticsearch.search.facet.Facet;
+import org.elasticsearch.search.facet.FacetPhaseExecutionException;
+import org.elasticsearch.search.internal.SearchContext;
+
+import java.io.IOException;
+
+/**
+ * Offers all the values of a field to a {@link HyperLogLog} sketch. String values are hashed once per
+ * segment ordinal, numeric values are hashed on their long bits (double bits for floating point fields).
+ */
+public class CardinalityFacetCollector extends AbstractFacetCollector {
+
+    private final String indexFieldName;
+
+    private final FieldDataCache fieldDataCache;
+
+    private final FieldDataType fieldDataType;
+
+    private final HyperLogLog sketch;
+
+    private final StringProc stringProc;
+
+    private final LongProc longProc;
+
+    private final DoubleProc doubleProc;
+
+    private FieldData fieldData;
+
+    public CardinalityFacetCollector(String facetName, String fieldName, int precision, SearchContext context) {
+        super(facetName);
+        this.fieldDataCache = context.fieldDataCache();
+
+        MapperService.SmartNameFieldMappers smartMappers = context.smartFieldMappers(fieldName);
+        if (smartMappers == null || !smartMappers.hasMapper()) {
+            throw new FacetPhaseExecutionException(facetName, "No mapping found for field [" + fieldName + "]");
+        }
+
+        // add type filter if there is exact doc mapper associated with it
+        if (smartMappers.explicitTypeInNameWithDocMapper()) {
+            setFilter(context.filterCache().cache(smartMappers.docMapper().typeFilter()));
+        }
+
+        indexFieldName = smartMappers.mapper().names().indexName();
+        fieldDataType = smartMappers.mapper().fieldDataType();
+
+        sketch = new HyperLogLog(precision);
+        if (fieldDataType == FieldDataType.DefaultTypes.STRING) {
+            stringProc = new StringProc(sketch);
+            longProc = null;
+            doubleProc = null;
+        } else if (fieldDataType == FieldDataType.DefaultTypes.FLOAT || fieldDataType == FieldDataType.DefaultTypes.DOUBLE) {
+            stringProc = null;
+            longProc = null;
+            doubleProc = new DoubleProc(sketch);
+        } else if (fieldDataType == FieldDataType.DefaultTypes.LONG || fieldDataType == FieldDataType.DefaultTypes.INT
+                || fieldDataType == FieldDataType.DefaultTypes.SHORT || fieldDataType == FieldDataType.DefaultTypes.BYTE) {
+            stringProc = null;
+            longProc = new LongProc(sketch);
+            doubleProc = null;
+        } else {
+            throw new FacetPhaseExecutionException(facetName, "cardinality facet is not supported on field [" + fieldName + "]");
+        }
+    }
+
+    @Override
+    protected void doCollect(int doc) throws IOException {
+        if (stringProc != null) {
+            fieldData.forEachOrdinalInDoc(doc, stringProc);
+        } else if (doubleProc != null) {
+            ((NumericFieldData) fieldData).forEachValueInDoc(doc, doubleProc);
+        } else {
+            ((NumericFieldData) fieldData).forEachValueInDoc(doc, longProc);
+        }
+    }
+
+    @Override
+    protected void doSetNextReader(IndexReader reader, int docBase) throws IOException {
+        fieldData = fieldDataCache.cache(fieldDataType, reader, indexFieldName);
+        if (stringProc != null) {
+            stringProc.reset((StringFieldData) fieldData);
+        }
+    }
+
+    @Override
+    public Facet facet() {
+        return new InternalCardinalityFacet(facetName, sketch);
+    }
+
+    static class StringProc implements FieldData.OrdinalInDocProc {
+
+        private final HyperLogLog sketch;
+
+        private String[] values;
+
+        // the hash of each ordinal of the current segment, computed the first time the ordinal is seen
+        private long[] hashes;
+
+        private boolean[] hashed;
+
+        StringProc(HyperLogLog sketch) {
+            this.sketch = sketch;
+        }
+
+        void reset(StringFieldData fieldData) {
+            values = fieldData.values();
+            if (hashes == null || hashes.length < values.length) {
+                hashes = new long[values.length];
+                hashed = new boolean[values.length];
+            } else {
+                for (int i = 0; i < values.length; i++) {
+                    hashed[i] = false;
+                }
+            }
+        }
+
+        @Override
+        public void onOrdinal(int docId, int ordinal) {
+            if (ordinal == 0) {
+                return;
+            }
+            if (!hashed[ordinal]) {
+                UnicodeUtil.UTF8Result utf8 = Unicode.unsafeFromStringAsUtf8(values[ordinal]);
+                hashes[ordinal] = HyperLogLog.hash(utf8.result, 0, utf8.length);
+                hashed[ordinal] = true;
+            }
+            sketch.offerHash(hashes[ordinal]);
+        }
+    }
+
+    static class LongProc implements NumericFieldData.LongValueInDocProc {
+
+        private final HyperLogLog sketch;
+
+        private final byte[] scratch = new byte[8];
+
+        LongProc(HyperLogLog sketch) {
+            this.sketch = sketch;
+        }
+
+        @Override
+        public void onValue(int docId, long value) {
+            sketch.offer(value, scratch);
+        }
+    }
+
+    static class DoubleProc implements NumericFieldData.DoubleValueInDocProc {
+
+        private final HyperLogLog sketch;
+
+        private final byte[] scratch = new byte[8];
+
+        DoubleProc(HyperLogLog sketch) {
+            this.sketch = sketch;
+        }
+
+        @Override
+        public void onValue(int docId, double value) {
+            sketch.offer(Double.doubleToLongBits(value), scratch);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.facet.cardinality;
+
+import org.elasticsearch.ElasticSearchIllegalArgumentException;
+import org.elasticsearch.common.bloom.MurmurHash;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+
+/**
+ * A HyperLogLog sketch, estimating the number of distinct 64 bit hashes offered to it using
+ * <tt>2^precision</tt> one byte registers. The relative standard error is <tt>1.04 / sqrt(2^precision)</tt>,
+ * which is about 0.8% with the default precision of 14 (16k registers).
+ * <p/>
+ * Sketches with the same precision can be merged, the result being the sketch of the union of the values.
+ */
+public class HyperLogLog {
+
+    public static final int MIN_PRECISION = 4;
+
+    public static final int MAX_PRECISION = 18;
+
+    public static final int DEFAULT_PRECISION = 14;
+
+    private static final long SEED = 0x9747b28cL;
+
+    private final int precision;
+
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new ElasticSearchIllegalArgumentException("precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION + ", got [" + precision + "]");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public int precision() {
+        return this.precision;
+    }
+
+    /**
+     * Offers the <tt>length</tt> bytes starting at <tt>offset</tt>, hashed with {@link MurmurHash}.
+     */
+    public void offer(byte[] bytes, int offset, int length) {
+        offerHash(hash(bytes, offset, length));
+    }
+
+    /**
+     * Offers a numeric value, hashing its 8 (big endian) bytes with {@link MurmurHash}.
+     */
+    public void offer(long value, byte[] scratch) {
+        offerHash(hash(value, scratch));
+    }
+
+    /**
+     * Offers an already hashed value, see {@link #hash(byte[], int, int)}.
+     */
+    public void offerHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // the remaining bits, with a sentinel bit so the rank is bounded by 64 - precision + 1
+        long w = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(w) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Merges the other sketch into this one.
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new ElasticSearchIllegalArgumentException("can't merge sketches with different precisions [" + precision + "] and [" + other.precision + "]");
+        }
+        byte[] otherRegisters = other.registers;
+        for (int i = 0; i < registers.length; i++) {
+            if (otherRegisters[i] > registers[i]) {
+                registers[i] = otherRegisters[i];
+            }
+        }
+    }
+
+    /**
+     * The estimated number of distinct values offered.
+     */
+    public long cardinality() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < m; i++) {
+            sum += 1.0 / (1L << registers[i]);
+            if (registers[i] == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // small range correction, linear counting on the empty registers
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    public static long hash(byte[] bytes, int offset, int length) {
+        return MurmurHash.hash64(bytes, offset, length, SEED);
+    }
+
+    public static long hash(long value, byte[] scratch) {
+        scratch[0] = (byte) (value >>> 56);
+        scratch[1] = (byte) (value >>> 48);
+        scratch[2] = (byte) (value >>> 40);
+        scratch[3] = (byte) (value >>> 32);
+        scratch[4] = (byte) (value >>> 24);
+        scratch[5] = (byte) (value >>> 16);
+        scratch[6] = (byte) (value >>> 8);
+        scratch[7] = (byte) value;
+        return MurmurHash.hash64(scratch, 0, 8, SEED);
+    }
+
+    public static HyperLogLog readFrom(StreamInput in) throws IOException {
+        HyperLogLog sketch = new HyperLogLog(in.readByte());
+        byte[] registers = sketch.registers;
+        if (in.readBoolean()) {
+            // sparse, delta encoded register indices followed by the register value
+            int size = in.readVInt();
+            int index = 0;
+            for (int i = 0; i < size; i++) {
+                index += in.readVInt();
+                registers[index] = in.readByte();
+            }
+        } else {
+            // dense, 4 registers of 6 bits packed into 3 bytes
+            for (int i = 0; i < registers.length; i += 4) {
+                int packed = ((in.readByte() & 0xFF) << 16) | ((in.readByte() & 0xFF) << 8) | (in.readByte() & 0xFF);
+                registers[i] = (byte) ((packed >>> 18) & 0x3F);
+                registers[i + 1] = (byte) ((packed >>> 12) & 0x3F);
+                registers[i + 2] = (byte) ((packed >>> 6) & 0x3F);
+                registers[i + 3] = (byte) (packed & 0x3F);
+            }
+        }
+        return sketch;
+    }
+
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeByte((byte) precision);
+        int nonZero = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                nonZero++;
+            }
+        }
+        // a sparse entry takes at least 2 bytes, a dense register 3/4 of a byte
+        if (nonZero * 8 < registers.length * 3) {
+            out.writeBoolean(true);
+            out.writeVInt(nonZero);
+            int lastIndex = 0;
+            for (int i = 0; i < registers.length; i++) {
+                if (registers[i] != 0) {
+                    out.writeVInt(i - lastIndex);
+                    out.writeByte(registers[i]);
+                    lastIndex = i;
+                }
+            }
+        } else {
+            out.writeBoolean(false);
+            for (int i = 0; i < registers.length; i += 4) {
+                int packed = (registers[i] << 18) | (registers[i + 1] << 12) | (registers[i + 2] << 6) | registers[i + 3];
+                out.writeByte((byte) (packed >>> 16));
+                out.writeByte((byte) (packed >>> 8));
+                out.writeByte((byte) packed);
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.facet.cardinality;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentBuilderString;
+import org.elasticsearch.search.facet.Facet;
+import org.elasticsearch.search.facet.InternalFacet;
+
+import java.io.IOException;
+
+/**
+ *
+ */
+public class InternalCardinalityFacet implements CardinalityFacet, InternalFacet {
+
+    private static final String STREAM_TYPE = "cardinality";
+
+    public static void registerStreams() {
+        Streams.registerStream(STREAM, STREAM_TYPE);
+    }
+
+    static Stream STREAM = new Stream() {
+        @Override
+        public Facet readFacet(String type, StreamInput in) throws IOException {
+            return readCardinalityFacet(in);
+        }
+    };
+
+    @Override
+    public String streamType() {
+        return STREAM_TYPE;
+    }
+
+    private String name;
+
+    private HyperLogLog sketch;
+
+    private InternalCardinalityFacet() {
+    }
+
+    public InternalCardinalityFacet(String name, HyperLogLog sketch) {
+        this.name = name;
+        this.sketch = sketch;
+    }
+
+    @Override
+    public String name() {
+        return this.name;
+    }
+
+    @Override
+    public String getName() {
+        return name();
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public long count() {
+        return sketch.cardinality();
+    }
+
+    @Override
+    public long getCount() {
+        return count();
+    }
+
+    public HyperLogLog sketch() {
+        return this.sketch;
+    }
+
+    static final class Fields {
+        static final XContentBuilderString _TYPE = new XContentBuilderString("_type");
+        static final XContentBuilderString COUNT = new XContentBuilderString("count");
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(name);
+        builder.field(Fields._TYPE, CardinalityFacet.TYPE);
+        builder.field(Fields.COUNT, count());
+        builder.endObject();
+        return builder;
+    }
+
+    public static CardinalityFacet readCardinalityFacet(StreamInput in) throws IOException {
+        InternalCardinalityFacet facet = new InternalCardinalityFacet();
+        facet.readFrom(in);
+        return facet;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        name = in.readUTF();
+        sketch = HyperLogLog.readFrom(in);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeUTF(name);
+        sketch.writeTo(out);
+    }
+}
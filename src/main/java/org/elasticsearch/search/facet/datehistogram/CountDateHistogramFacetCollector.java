@@ -24,6 +24,7 @@ import org.apache.lucene.index.IndexReader;
 import org.elasticsearch.common.CacheRecycler;
 import org.elasticsearch.common.joda.TimeZoneRounding;
 import org.elasticsearch.index.cache.field.data.FieldDataCache;
+import org.elasticsearch.index.field.data.FieldData;
 import org.elasticsearch.index.field.data.FieldDataType;
 import org.elasticsearch.index.field.data.longs.LongFieldData;
 import org.elasticsearch.index.mapper.FieldMapper;
@@ -77,12 +78,13 @@ public class CountDateHistogramFacetCollector extends AbstractFacetCollector {
 
     @Override
     protected void doCollect(int doc) throws IOException {
-        fieldData.forEachValueInDoc(doc, histoProc);
+        histoProc.collect(fieldData, doc);
     }
 
     @Override
     protected void doSetNextReader(IndexReader reader, int docBase) throws IOException {
         fieldData = (LongFieldData) fieldDataCache.cache(fieldDataType, reader, indexFieldName);
+        histoProc.setNextFieldData(fieldData);
     }
 
     @Override
@@ -90,22 +92,89 @@ public class CountDateHistogramFacetCollector extends AbstractFacetCollector {
         return new InternalCountDateHistogramFacet(facetName, comparatorType, histoProc.counts(), true);
     }
 
-    public static class DateHistogramProc implements LongFieldData.LongValueInDocProc {
+    /**
+     * Rounds and counts each value. Once a segment had more hits than 1/16th of its distinct values, it
+     * switches to counting per field data ordinal instead, and only rounds each counted distinct value
+     * once when the segment is done. Since the field data values are sorted, consecutive ordinals mostly
+     * fall in the same bucket and are summed before being added to the counts.
+     */
+    public static class DateHistogramProc implements LongFieldData.LongValueInDocProc, FieldData.OrdinalInDocProc {
+
+        private static final int DENSE_SHIFT = 4;
 
         private final TLongLongHashMap counts = CacheRecycler.popLongLongMap();
 
         private final TimeZoneRounding tzRounding;
 
+        private long[] values;
+
+        private int denseThreshold;
+
+        private int segmentDocs;
+
+        private int[] ordinalCounts;
+
         public DateHistogramProc(TimeZoneRounding tzRounding) {
             this.tzRounding = tzRounding;
         }
 
+        public void setNextFieldData(LongFieldData fieldData) {
+            flushOrdinalCounts();
+            values = fieldData.values();
+            denseThreshold = values.length >>> DENSE_SHIFT;
+            segmentDocs = 0;
+        }
+
+        public void collect(LongFieldData fieldData, int doc) {
+            if (ordinalCounts != null) {
+                fieldData.forEachOrdinalInDoc(doc, this);
+                return;
+            }
+            fieldData.forEachValueInDoc(doc, this);
+            if (++segmentDocs > denseThreshold) {
+                ordinalCounts = CacheRecycler.popIntArray(values.length);
+            }
+        }
+
         @Override
         public void onValue(int docId, long value) {
             counts.adjustOrPutValue(tzRounding.calc(value), 1, 1);
         }
 
+        @Override
+        public void onOrdinal(int docId, int ordinal) {
+            ordinalCounts[ordinal]++;
+        }
+
+        private void flushOrdinalCounts() {
+            if (ordinalCounts == null) {
+                return;
+            }
+            long currentKey = 0;
+            long currentCount = 0;
+            // ordinal 0 is for docs with no value
+            for (int i = 1; i < values.length; i++) {
+                int count = ordinalCounts[i];
+                if (count == 0) {
+                    continue;
+                }
+                long key = tzRounding.calc(values[i]);
+                if (currentCount > 0 && key != currentKey) {
+                    counts.adjustOrPutValue(currentKey, currentCount, currentCount);
+                    currentCount = 0;
+                }
+                currentKey = key;
+                currentCount += count;
+            }
+            if (currentCount > 0) {
+                counts.adjustOrPutValue(currentKey, currentCount, currentCount);
+            }
+            CacheRecycler.pushIntArray(ordinalCounts);
+            ordinalCounts = null;
+        }
+
         public TLongLongHashMap counts() {
+            flushOrdinalCounts();
             return counts;
         }
     }
@@ -24,6 +24,7 @@ import org.elasticsearch.common.CacheRecycler;
 import org.elasticsearch.common.joda.TimeZoneRounding;
 import org.elasticsearch.common.trove.ExtTLongObjectHashMap;
 import org.elasticsearch.index.cache.field.data.FieldDataCache;
+import org.elasticsearch.index.field.data.FieldData;
 import org.elasticsearch.index.field.data.FieldDataType;
 import org.elasticsearch.index.field.data.NumericFieldData;
 import org.elasticsearch.index.field.data.longs.LongFieldData;
@@ -85,43 +86,110 @@ public class ValueDateHistogramFacetCollector extends AbstractFacetCollector {
 
     @Override
     protected void doCollect(int doc) throws IOException {
-        keyFieldData.forEachValueInDoc(doc, histoProc);
+        histoProc.collect(keyFieldData, doc);
     }
 
     @Override
     protected void doSetNextReader(IndexReader reader, int docBase) throws IOException {
         keyFieldData = (LongFieldData) fieldDataCache.cache(keyFieldDataType, reader, keyIndexFieldName);
-        histoProc.valueFieldData = (NumericFieldData) fieldDataCache.cache(valueFieldDataType, reader, valueIndexFieldName);
+        histoProc.setNextFieldData(keyFieldData);
+        histoProc.setNextValueFieldData((NumericFieldData) fieldDataCache.cache(valueFieldDataType, reader, valueIndexFieldName));
     }
 
     @Override
     public Facet facet() {
-        return new InternalFullDateHistogramFacet(facetName, comparatorType, histoProc.entries, true);
+        return new InternalFullDateHistogramFacet(facetName, comparatorType, histoProc.entries(), true);
     }
 
-    public static class DateHistogramProc implements LongFieldData.LongValueInDocProc {
+    /**
+     * Rounds each key value and looks up its entry. Once a segment had more hits than 1/16th of its
+     * distinct key values, entries are cached per key field data ordinal, so each distinct value of the
+     * segment is only rounded (and looked up) once.
+     */
+    public static class DateHistogramProc implements LongFieldData.LongValueInDocProc, FieldData.OrdinalInDocProc {
+
+        private static final int DENSE_SHIFT = 4;
 
         final ExtTLongObjectHashMap<InternalFullDateHistogramFacet.FullEntry> entries = CacheRecycler.popLongObjectMap();
 
         private final TimeZoneRounding tzRounding;
 
-        NumericFieldData valueFieldData;
+        private NumericFieldData valueFieldData;
 
         final ValueAggregator valueAggregator = new ValueAggregator();
 
+        private long[] values;
+
+        private int denseThreshold;
+
+        private int segmentDocs;
+
+        private Object[] ordinalEntries;
+
         public DateHistogramProc(TimeZoneRounding tzRounding) {
             this.tzRounding = tzRounding;
         }
 
+        public void setNextFieldData(LongFieldData keyFieldData) {
+            if (ordinalEntries != null) {
+                CacheRecycler.pushObjectArray(ordinalEntries);
+                ordinalEntries = null;
+            }
+            if (keyFieldData != null) {
+                values = keyFieldData.values();
+                denseThreshold = values.length >>> DENSE_SHIFT;
+                segmentDocs = 0;
+            }
+        }
+
+        public void setNextValueFieldData(NumericFieldData valueFieldData) {
+            this.valueFieldData = valueFieldData;
+        }
+
+        public void collect(LongFieldData keyFieldData, int doc) {
+            if (ordinalEntries != null) {
+                keyFieldData.forEachOrdinalInDoc(doc, this);
+                return;
+            }
+            keyFieldData.forEachValueInDoc(doc, this);
+            if (++segmentDocs > denseThreshold) {
+                ordinalEntries = CacheRecycler.popObjectArray(values.length);
+            }
+        }
+
         @Override
         public void onValue(int docId, long value) {
-            long time = tzRounding.calc(value);
+            aggregate(docId, entry(tzRounding.calc(value)));
+        }
 
+        @Override
+        public void onOrdinal(int docId, int ordinal) {
+            if (ordinal == 0) {
+                return;
+            }
+            InternalFullDateHistogramFacet.FullEntry entry = (InternalFullDateHistogramFacet.FullEntry) ordinalEntries[ordinal];
+            if (entry == null) {
+                entry = entry(tzRounding.calc(values[ordinal]));
+                ordinalEntries[ordinal] = entry;
+            }
+            aggregate(docId, entry);
+        }
+
+        public ExtTLongObjectHashMap<InternalFullDateHistogramFacet.FullEntry> entries() {
+            setNextFieldData(null);
+            return entries;
+        }
+
+        private InternalFullDateHistogramFacet.FullEntry entry(long time) {
             InternalFullDateHistogramFacet.FullEntry entry = entries.get(time);
             if (entry == null) {
                 entry = new InternalFullDateHistogramFacet.FullEntry(time, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 0, 0);
                 entries.put(time, entry);
             }
+            return entry;
+        }
+
+        private void aggregate(int docId, InternalFullDateHistogramFacet.FullEntry entry) {
             entry.count++;
             valueAggregator.entry = entry;
             valueFieldData.forEachValueInDoc(docId, valueAggregator);
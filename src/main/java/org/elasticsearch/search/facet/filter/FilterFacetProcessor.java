@@ -26,7 +26,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.search.facet.Facet;
 import org.elasticsearch.search.facet.FacetCollector;
-import org.elasticsearch.search.facet.FacetProcessor;
+import org.elasticsearch.search.facet.PartialReduceFacetProcessor;
 import org.elasticsearch.search.internal.SearchContext;
 
 import java.io.IOException;
@@ -35,7 +35,7 @@ import java.util.List;
 /**
  *
  */
-public class FilterFacetProcessor extends AbstractComponent implements FacetProcessor {
+public class FilterFacetProcessor extends AbstractComponent implements PartialReduceFacetProcessor {
 
     @Inject
     public FilterFacetProcessor(Settings settings) {
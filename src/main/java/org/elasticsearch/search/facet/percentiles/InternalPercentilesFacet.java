@@ -0,0 +1,192 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.facet.percentiles;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentBuilderString;
+import org.elasticsearch.search.facet.Facet;
+import org.elasticsearch.search.facet.InternalFacet;
+
+import java.io.IOException;
+
+/**
+ *
+ */
+public class InternalPercentilesFacet implements PercentilesFacet, InternalFacet {
+
+    private static final String STREAM_TYPE = "percentiles";
+
+    public static void registerStreams() {
+        Streams.registerStream(STREAM, STREAM_TYPE);
+    }
+
+    static Stream STREAM = new Stream() {
+        @Override
+        public Facet readFacet(String type, StreamInput in) throws IOException {
+            return readPercentilesFacet(in);
+        }
+    };
+
+    @Override
+    public String streamType() {
+        return STREAM_TYPE;
+    }
+
+    private String name;
+
+    private double[] percents;
+
+    private TDigest digest;
+
+    private InternalPercentilesFacet() {
+    }
+
+    public InternalPercentilesFacet(String name, double[] percents, TDigest digest) {
+        this.name = name;
+        this.percents = percents;
+        this.digest = digest;
+    }
+
+    @Override
+    public String name() {
+        return this.name;
+    }
+
+    @Override
+    public String getName() {
+        return name();
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public long count() {
+        return digest.count();
+    }
+
+    @Override
+    public long getCount() {
+        return count();
+    }
+
+    @Override
+    public double min() {
+        return digest.min();
+    }
+
+    @Override
+    public double getMin() {
+        return min();
+    }
+
+    @Override
+    public double max() {
+        return digest.max();
+    }
+
+    @Override
+    public double getMax() {
+        return max();
+    }
+
+    @Override
+    public double[] percents() {
+        return this.percents;
+    }
+
+    @Override
+    public double[] getPercents() {
+        return percents();
+    }
+
+    @Override
+    public double percentile(double percent) {
+        return digest.quantile(percent / 100);
+    }
+
+    @Override
+    public double getPercentile(double percent) {
+        return percentile(percent);
+    }
+
+    public TDigest digest() {
+        return this.digest;
+    }
+
+    static final class Fields {
+        static final XContentBuilderString _TYPE = new XContentBuilderString("_type");
+        static final XContentBuilderString COUNT = new XContentBuilderString("count");
+        static final XContentBuilderString MIN = new XContentBuilderString("min");
+        static final XContentBuilderString MAX = new XContentBuilderString("max");
+        static final XContentBuilderString PERCENTILES = new XContentBuilderString("percentiles");
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(name);
+        builder.field(Fields._TYPE, PercentilesFacet.TYPE);
+        builder.field(Fields.COUNT, count());
+        builder.field(Fields.MIN, min());
+        builder.field(Fields.MAX, max());
+        builder.startObject(Fields.PERCENTILES);
+        for (double percent : percents) {
+            builder.field(Double.toString(percent), percentile(percent));
+        }
+        builder.endObject();
+        builder.endObject();
+        return builder;
+    }
+
+    public static PercentilesFacet readPercentilesFacet(StreamInput in) throws IOException {
+        InternalPercentilesFacet facet = new InternalPercentilesFacet();
+        facet.readFrom(in);
+        return facet;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        name = in.readUTF();
+        percents = new double[in.readVInt()];
+        for (int i = 0; i < percents.length; i++) {
+            percents[i] = in.readDouble();
+        }
+        digest = TDigest.readFrom(in);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeUTF(name);
+        out.writeVInt(percents.length);
+        for (double percent : percents) {
+            out.writeDouble(percent);
+        }
+        digest.writeTo(out);
+    }
+}
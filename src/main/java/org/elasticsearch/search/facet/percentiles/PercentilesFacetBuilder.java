@@ -0,0 +1,163 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.facet.percentiles;
+
+import com.google.common.collect.Maps;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.index.query.FilterBuilder;
+import org.elasticsearch.search.builder.SearchSourceBuilderException;
+import org.elasticsearch.search.facet.AbstractFacetBuilder;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ *
+ */
+public class PercentilesFacetBuilder extends AbstractFacetBuilder {
+    private String fieldName;
+    private String script;
+    private String lang;
+    private Map<String, Object> params;
+    private double[] percents;
+    private double compression = -1;
+
+    public PercentilesFacetBuilder(String name) {
+        super(name);
+    }
+
+    /**
+     * The numeric field the percentiles will be computed on.
+     */
+    public PercentilesFacetBuilder field(String field) {
+        this.fieldName = field;
+        return this;
+    }
+
+    /**
+     * A script providing the values the percentiles will be computed on, instead of a field.
+     */
+    public PercentilesFacetBuilder script(String script) {
+        this.script = script;
+        return this;
+    }
+
+    /**
+     * The language of the script.
+     */
+    public PercentilesFacetBuilder lang(String lang) {
+        this.lang = lang;
+        return this;
+    }
+
+    public PercentilesFacetBuilder param(String name, Object value) {
+        if (params == null) {
+            params = Maps.newHashMap();
+        }
+        params.put(name, value);
+        return this;
+    }
+
+    /**
+     * The percents (between <tt>0</tt> and <tt>100</tt>) to return. Defaults to
+     * <tt>1, 5, 25, 50, 75, 95, 99</tt>.
+     */
+    public PercentilesFacetBuilder percents(double... percents) {
+        this.percents = percents;
+        return this;
+    }
+
+    /**
+     * The compression of the per shard sketch, higher values are more accurate but use more memory.
+     * Defaults to <tt>100</tt>.
+     */
+    public PercentilesFacetBuilder compression(double compression) {
+        this.compression = compression;
+        return this;
+    }
+
+    /**
+     * Marks the facet to run in a global scope, not bounded by any query.
+     */
+    public PercentilesFacetBuilder global(boolean global) {
+        super.global(global);
+        return this;
+    }
+
+    /**
+     * Marks the facet to run in a specific scope.
+     */
+    @Override
+    public PercentilesFacetBuilder scope(String scope) {
+        super.scope(scope);
+        return this;
+    }
+
+    public PercentilesFacetBuilder facetFilter(FilterBuilder filter) {
+        this.facetFilter = filter;
+        return this;
+    }
+
+    /**
+     * Sets the nested path the facet will execute on. A match (root object) will then cause all the
+     * nested objects matching the path to be computed into the facet.
+     */
+    public PercentilesFacetBuilder nested(String nested) {
+        this.nested = nested;
+        return this;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        if (fieldName == null && script == null) {
+            throw new SearchSourceBuilderException("field or script must be set on percentiles facet for facet [" + name + "]");
+        }
+        builder.startObject(name);
+
+        builder.startObject(PercentilesFacet.TYPE);
+        if (fieldName != null) {
+            builder.field("field", fieldName);
+        } else {
+            builder.field("script", script);
+            if (lang != null) {
+                builder.field("lang", lang);
+            }
+            if (this.params != null) {
+                builder.field("params", this.params);
+            }
+        }
+        if (percents != null) {
+            builder.startArray("percents");
+            for (double percent : percents) {
+                builder.value(percent);
+            }
+            builder.endArray();
+        }
+        if (compression != -1) {
+            builder.field("compression", compression);
+        }
+        builder.endObject();
+
+        addFilterFacetAndGlobal(builder, params);
+
+        builder.endObject();
+        return builder;
+    }
+}
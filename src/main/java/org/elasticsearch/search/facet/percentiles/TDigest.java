@@ -0,0 +1,303 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.facet.percentiles;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+
+/**
+ * A mergeable quantile sketch (t-digest). Values are summarized into weighted centroids, where the
+ * maximum weight of a centroid at quantile <tt>q</tt> is <tt>4 * n * q * (1 - q) / compression</tt>,
+ * so centroids near the tails are small (keeping extreme percentiles accurate) and the number of
+ * centroids is proportional to <tt>compression</tt> regardless of the number of values.
+ * <p/>
+ * Incoming values are buffered and merged into the centroids in sorted batches.
+ */
+public class TDigest {
+
+    public static final double DEFAULT_COMPRESSION = 100;
+
+    private final double compression;
+
+    private long totalWeight;
+
+    private double min = Double.POSITIVE_INFINITY;
+
+    private double max = Double.NEGATIVE_INFINITY;
+
+    // the centroids, sorted by mean
+    private int centroidCount;
+
+    private double[] means;
+
+    private long[] weights;
+
+    // unmerged values (or centroids of merged digests)
+    private int bufferCount;
+
+    private double[] bufferMeans;
+
+    private long[] bufferWeights;
+
+    public TDigest(double compression) {
+        this.compression = compression;
+        int capacity = (int) Math.ceil(2 * compression) + 10;
+        this.means = new double[capacity];
+        this.weights = new long[capacity];
+        int bufferSize = (int) Math.ceil(5 * compression) + 10;
+        this.bufferMeans = new double[bufferSize];
+        this.bufferWeights = new long[bufferSize];
+    }
+
+    public double compression() {
+        return this.compression;
+    }
+
+    /**
+     * The number of values added.
+     */
+    public long count() {
+        return totalWeight + bufferedWeight();
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    public void add(double value, long weight) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+        if (bufferCount == bufferMeans.length) {
+            compress();
+        }
+        bufferMeans[bufferCount] = value;
+        bufferWeights[bufferCount] = weight;
+        bufferCount++;
+    }
+
+    /**
+     * Merges the other digest into this one.
+     */
+    public void merge(TDigest other) {
+        other.compress();
+        for (int i = 0; i < other.centroidCount; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        if (other.min < min) {
+            min = other.min;
+        }
+        if (other.max > max) {
+            max = other.max;
+        }
+    }
+
+    /**
+     * The estimated value at the given quantile (between <tt>0</tt> and <tt>1</tt>), or <tt>NaN</tt>
+     * if no values were added.
+     */
+    public double quantile(double q) {
+        compress();
+        if (centroidCount == 0) {
+            return Double.NaN;
+        }
+        if (q <= 0) {
+            return min;
+        }
+        if (q >= 1) {
+            return max;
+        }
+        if (centroidCount == 1) {
+            return means[0];
+        }
+        double index = q * totalWeight;
+        // each centroid is taken to be centered on its mean, interpolate between the neighbouring centers
+        double left = weights[0] / 2.0;
+        if (index < left) {
+            return min + (means[0] - min) * (index / left);
+        }
+        for (int i = 0; i < centroidCount - 1; i++) {
+            double right = left + (weights[i] + weights[i + 1]) / 2.0;
+            if (index < right) {
+                return means[i] + (means[i + 1] - means[i]) * ((index - left) / (right - left));
+            }
+            left = right;
+        }
+        double last = weights[centroidCount - 1] / 2.0;
+        return means[centroidCount - 1] + (max - means[centroidCount - 1]) * Math.min(1, (index - left) / last);
+    }
+
+    private long bufferedWeight() {
+        long weight = 0;
+        for (int i = 0; i < bufferCount; i++) {
+            weight += bufferWeights[i];
+        }
+        return weight;
+    }
+
+    private void compress() {
+        if (bufferCount == 0) {
+            return;
+        }
+        sort(bufferMeans, bufferWeights, 0, bufferCount - 1);
+
+        long newTotalWeight = totalWeight + bufferedWeight();
+        int mergedCount = centroidCount + bufferCount;
+        double[] mergedMeans = new double[Math.max(mergedCount, means.length)];
+        long[] mergedWeights = new long[mergedMeans.length];
+
+        // merge the two sorted runs (centroids and buffer), combining centroids while the size bound allows it
+        int outCount = 0;
+        long weightSoFar = 0;
+        int i = 0;
+        int j = 0;
+        while (i < centroidCount || j < bufferCount) {
+            double mean;
+            long weight;
+            if (j >= bufferCount || (i < centroidCount && means[i] <= bufferMeans[j])) {
+                mean = means[i];
+                weight = weights[i];
+                i++;
+            } else {
+                mean = bufferMeans[j];
+                weight = bufferWeights[j];
+                j++;
+            }
+            if (outCount > 0) {
+                long proposed = mergedWeights[outCount - 1] + weight;
+                double q0 = (double) weightSoFar / newTotalWeight;
+                double q2 = (double) (weightSoFar + proposed) / newTotalWeight;
+                double limit = newTotalWeight * Math.min(maxSize(q0), maxSize(q2));
+                if (proposed <= limit) {
+                    mergedMeans[outCount - 1] += (mean - mergedMeans[outCount - 1]) * weight / proposed;
+                    mergedWeights[outCount - 1] = proposed;
+                    continue;
+                }
+                weightSoFar += mergedWeights[outCount - 1];
+            }
+            mergedMeans[outCount] = mean;
+            mergedWeights[outCount] = weight;
+            outCount++;
+        }
+
+        means = mergedMeans;
+        weights = mergedWeights;
+        centroidCount = outCount;
+        totalWeight = newTotalWeight;
+        bufferCount = 0;
+    }
+
+    private double maxSize(double q) {
+        return 4 * q * (1 - q) / compression;
+    }
+
+    private static void sort(double[] means, long[] weights, int lo, int hi) {
+        while (hi - lo > 16) {
+            double pivot = means[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (means[i] < pivot) {
+                    i++;
+                }
+                while (means[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(means, weights, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            // recurse into the smaller half, loop on the larger one
+            if (j - lo < hi - i) {
+                sort(means, weights, lo, j);
+                lo = i;
+            } else {
+                sort(means, weights, i, hi);
+                hi = j;
+            }
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && means[j - 1] > means[j]; j--) {
+                swap(means, weights, j, j - 1);
+            }
+        }
+    }
+
+    private static void swap(double[] means, long[] weights, int i, int j) {
+        double mean = means[i];
+        means[i] = means[j];
+        means[j] = mean;
+        long weight = weights[i];
+        weights[i] = weights[j];
+        weights[j] = weight;
+    }
+
+    public static TDigest readFrom(StreamInput in) throws IOException {
+        TDigest digest = new TDigest(in.readDouble());
+        int size = in.readVInt();
+        if (size > 0) {
+            digest.min = in.readDouble();
+            digest.max = in.readDouble();
+        }
+        if (size > digest.means.length) {
+            digest.means = new double[size];
+            digest.weights = new long[size];
+        }
+        for (int i = 0; i < size; i++) {
+            digest.means[i] = in.readDouble();
+            digest.weights[i] = in.readVLong();
+            digest.totalWeight += digest.weights[i];
+        }
+        digest.centroidCount = size;
+        return digest;
+    }
+
+    public void writeTo(StreamOutput out) throws IOException {
+        compress();
+        out.writeDouble(compression);
+        out.writeVInt(centroidCount);
+        if (centroidCount > 0) {
+            out.writeDouble(min);
+            out.writeDouble(max);
+        }
+        for (int i = 0; i < centroidCount; i++) {
+            out.writeDouble(means[i]);
+            out.writeVLong(weights[i]);
+        }
+    }
+}
@@ -27,7 +27,7 @@ import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.search.facet.Facet;
 import org.elasticsearch.search.facet.FacetCollector;
 import org.elasticsearch.search.facet.FacetPhaseExecutionException;
-import org.elasticsearch.search.facet.FacetProcessor;
+import org.elasticsearch.search.facet.PartialReduceFacetProcessor;
 import org.elasticsearch.search.internal.SearchContext;
 
 import java.io.IOException;
@@ -37,7 +37,7 @@ import java.util.Map;
 /**
  *
  */
-public class StatisticalFacetProcessor extends AbstractComponent implements FacetProcessor {
+public class StatisticalFacetProcessor extends AbstractComponent implements PartialReduceFacetProcessor {
 
     @Inject
     public StatisticalFacetProcessor(Settings settings) {
@@ -29,9 +29,11 @@ import org.elasticsearch.index.cache.field.data.FieldDataCache;
 import org.elasticsearch.index.field.data.FieldData;
 import org.elasticsearch.index.field.data.FieldDataType;
 import org.elasticsearch.index.field.data.strings.StringFieldData;
+import org.elasticsearch.index.field.data.strings.StringGlobalOrdinals;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.search.facet.AbstractFacetCollector;
 import org.elasticsearch.search.facet.Facet;
+import org.elasticsearch.search.facet.FacetPhaseExecutionException;
 import org.elasticsearch.search.facet.terms.TermsFacet;
 import org.elasticsearch.search.facet.terms.support.EntryPriorityQueue;
 import org.elasticsearch.search.internal.SearchContext;
@@ -68,6 +70,11 @@ public class TermsStringOrdinalsFacetCollector extends AbstractFacetCollector {
 
     private ReaderAggregator current;
 
+    // when there are several segments, count into global ordinals instead of merging the segments terms
+    private final StringGlobalOrdinals globalOrdinals;
+
+    private final GlobalAggregator globalAggregator;
+
     long missing;
     long total;
 
@@ -114,10 +121,32 @@ public class TermsStringOrdinalsFacetCollector extends AbstractFacetCollector {
         }
 
         this.aggregators = new ArrayList<ReaderAggregator>(context.searcher().subReaders().length);
+
+        if (context.searcher().subReaders().length > 1) {
+            try {
+                this.globalOrdinals = fieldDataCache.globalOrdinals(context.searcher().getIndexReader(), context.searcher().subReaders(), indexFieldName);
+            } catch (IOException e) {
+                throw new FacetPhaseExecutionException(facetName, "failed to load global ordinals for [" + indexFieldName + "]", e);
+            }
+            this.globalAggregator = new GlobalAggregator(globalOrdinals);
+        } else {
+            this.globalOrdinals = null;
+            this.globalAggregator = null;
+        }
     }
 
     @Override
     protected void doSetNextReader(IndexReader reader, int docBase) throws IOException {
+        if (globalAggregator != null) {
+            int segmentIndex = globalOrdinals.segmentIndex(reader);
+            if (segmentIndex != -1) {
+                fieldData = (StringFieldData) fieldDataCache.cache(fieldDataType, reader, indexFieldName);
+                globalAggregator.segmentOrdinals = globalOrdinals.segmentOrdinals(segmentIndex);
+                return;
+            }
+            // not a segment of the reader the global ordinals are built for, should not happen
+            throw new FacetPhaseExecutionException(facetName, "segment not found in the global ordinals of [" + indexFieldName + "]");
+        }
         if (current != null) {
             missing += current.counts[0];
             total += current.total - current.counts[0];
@@ -131,11 +160,18 @@ public class TermsStringOrdinalsFacetCollector extends AbstractFacetCollector {
 
     @Override
     protected void doCollect(int doc) throws IOException {
-        fieldData.forEachOrdinalInDoc(doc, current);
+        if (globalAggregator != null) {
+            fieldData.forEachOrdinalInDoc(doc, globalAggregator);
+        } else {
+            fieldData.forEachOrdinalInDoc(doc, current);
+        }
     }
 
     @Override
     public Facet facet() {
+        if (globalAggregator != null) {
+            return globalFacet();
+        }
         if (current != null) {
             missing += current.counts[0];
             total += current.total - current.counts[0];
@@ -233,6 +269,71 @@ public class TermsStringOrdinalsFacetCollector extends AbstractFacetCollector {
         return new InternalStringTermsFacet(facetName, comparatorType, size, ordered, missing, total);
     }
 
+    private Facet globalFacet() {
+        String[] values = globalOrdinals.values();
+        int[] counts = globalAggregator.counts;
+        missing = counts[0];
+        total = globalAggregator.total - counts[0];
+
+        // only the terms making it into the queue are resolved into entries
+        if (size < EntryPriorityQueue.LIMIT) {
+            EntryPriorityQueue ordered = new EntryPriorityQueue(size, comparatorType.comparator());
+            for (int ord = 1; ord < values.length; ord++) {
+                int count = counts[ord];
+                if (count > minCount) {
+                    String value = values[ord];
+                    if (excluded != null && excluded.contains(value)) {
+                        continue;
+                    }
+                    if (matcher != null && !matcher.reset(value).matches()) {
+                        continue;
+                    }
+                    ordered.insertWithOverflow(new InternalStringTermsFacet.StringEntry(value, count));
+                }
+            }
+            InternalStringTermsFacet.StringEntry[] list = new InternalStringTermsFacet.StringEntry[ordered.size()];
+            for (int i = ordered.size() - 1; i >= 0; i--) {
+                list[i] = (InternalStringTermsFacet.StringEntry) ordered.pop();
+            }
+            CacheRecycler.pushIntArray(counts);
+            return new InternalStringTermsFacet(facetName, comparatorType, size, Arrays.asList(list), missing, total);
+        }
+
+        BoundedTreeSet<InternalStringTermsFacet.StringEntry> ordered = new BoundedTreeSet<InternalStringTermsFacet.StringEntry>(comparatorType.comparator(), size);
+        for (int ord = 1; ord < values.length; ord++) {
+            int count = counts[ord];
+            if (count > minCount) {
+                String value = values[ord];
+                if (excluded != null && excluded.contains(value)) {
+                    continue;
+                }
+                if (matcher != null && !matcher.reset(value).matches()) {
+                    continue;
+                }
+                ordered.add(new InternalStringTermsFacet.StringEntry(value, count));
+            }
+        }
+        CacheRecycler.pushIntArray(counts);
+        return new InternalStringTermsFacet(facetName, comparatorType, size, ordered, missing, total);
+    }
+
+    public static class GlobalAggregator implements FieldData.OrdinalInDocProc {
+
+        final int[] counts;
+        int[] segmentOrdinals;
+        int total;
+
+        public GlobalAggregator(StringGlobalOrdinals globalOrdinals) {
+            this.counts = CacheRecycler.popIntArray(globalOrdinals.values().length);
+        }
+
+        @Override
+        public void onOrdinal(int docId, int ordinal) {
+            counts[segmentOrdinals[ordinal]]++;
+            total++;
+        }
+    }
+
     public static class ReaderAggregator implements FieldData.OrdinalInDocProc {
 
         final String[] values;
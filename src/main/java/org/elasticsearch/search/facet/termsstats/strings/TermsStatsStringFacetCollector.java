@@ -30,10 +30,12 @@ import org.elasticsearch.index.cache.field.data.FieldDataCache;
 import org.elasticsearch.index.field.data.FieldData;
 import org.elasticsearch.index.field.data.FieldDataType;
 import org.elasticsearch.index.field.data.NumericFieldData;
+import org.elasticsearch.index.field.data.strings.StringGlobalOrdinals;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.script.SearchScript;
 import org.elasticsearch.search.facet.AbstractFacetCollector;
 import org.elasticsearch.search.facet.Facet;
+import org.elasticsearch.search.facet.FacetPhaseExecutionException;
 import org.elasticsearch.search.facet.termsstats.TermsStatsFacet;
 import org.elasticsearch.search.internal.SearchContext;
 
@@ -67,6 +69,11 @@ public class TermsStatsStringFacetCollector extends AbstractFacetCollector {
 
     private final Aggregator aggregator;
 
+    // when the key is a string field and there are several segments, aggregate by global ordinals instead of by term
+    private final StringGlobalOrdinals globalOrdinals;
+
+    private final GlobalOrdinalsAggregator globalAggregator;
+
     public TermsStatsStringFacetCollector(String facetName, String keyFieldName, String valueFieldName, int size, TermsStatsFacet.ComparatorType comparatorType,
                                           SearchContext context, String scriptLang, String script, Map<String, Object> params) {
         super(facetName);
@@ -104,6 +111,18 @@ public class TermsStatsStringFacetCollector extends AbstractFacetCollector {
             this.script = context.scriptService().search(context.lookup(), scriptLang, script, params);
             this.aggregator = new ScriptAggregator(this.script);
         }
+
+        if (this.script == null && keyFieldDataType == FieldDataType.DefaultTypes.STRING && context.searcher().subReaders().length > 1) {
+            try {
+                this.globalOrdinals = fieldDataCache.globalOrdinals(context.searcher().getIndexReader(), context.searcher().subReaders(), this.keyFieldName);
+            } catch (IOException e) {
+                throw new FacetPhaseExecutionException(facetName, "failed to load global ordinals for [" + this.keyFieldName + "]", e);
+            }
+            this.globalAggregator = new GlobalOrdinalsAggregator(globalOrdinals);
+        } else {
+            this.globalOrdinals = null;
+            this.globalAggregator = null;
+        }
     }
 
     @Override
@@ -116,6 +135,15 @@ public class TermsStatsStringFacetCollector extends AbstractFacetCollector {
     @Override
     protected void doSetNextReader(IndexReader reader, int docBase) throws IOException {
         keyFieldData = fieldDataCache.cache(keyFieldDataType, reader, keyFieldName);
+        if (globalAggregator != null) {
+            int segmentIndex = globalOrdinals.segmentIndex(reader);
+            if (segmentIndex == -1) {
+                throw new FacetPhaseExecutionException(facetName, "segment not found in the global ordinals of [" + keyFieldName + "]");
+            }
+            globalAggregator.segmentOrdinals = globalOrdinals.segmentOrdinals(segmentIndex);
+            globalAggregator.valueFieldData = (NumericFieldData) fieldDataCache.cache(valueFieldDataType, reader, valueFieldName);
+            return;
+        }
         if (script != null) {
             script.setNextReader(reader);
         } else {
@@ -125,11 +153,24 @@ public class TermsStatsStringFacetCollector extends AbstractFacetCollector {
 
     @Override
     protected void doCollect(int doc) throws IOException {
-        keyFieldData.forEachValueInDoc(doc, aggregator);
+        if (globalAggregator != null) {
+            keyFieldData.forEachOrdinalInDoc(doc, globalAggregator);
+        } else {
+            keyFieldData.forEachValueInDoc(doc, aggregator);
+        }
     }
 
     @Override
     public Facet facet() {
+        if (globalAggregator != null) {
+            // move the aggregated entries over, so they are sorted and reduced the same way
+            for (InternalTermsStatsStringFacet.StringEntry entry : globalAggregator.entries) {
+                if (entry != null) {
+                    aggregator.entries.put(entry.term(), entry);
+                }
+            }
+            aggregator.missing = globalAggregator.missing;
+        }
         if (aggregator.entries.isEmpty()) {
             return new InternalTermsStatsStringFacet(facetName, comparatorType, size, ImmutableList.<InternalTermsStatsStringFacet.StringEntry>of(), aggregator.missing);
         }
@@ -199,6 +240,43 @@ public class TermsStatsStringFacetCollector extends AbstractFacetCollector {
         }
     }
 
+    public static class GlobalOrdinalsAggregator implements FieldData.OrdinalInDocProc {
+
+        final String[] values;
+
+        final InternalTermsStatsStringFacet.StringEntry[] entries;
+
+        int[] segmentOrdinals;
+
+        int missing = 0;
+
+        NumericFieldData valueFieldData;
+
+        Aggregator.ValueAggregator valueAggregator = new Aggregator.ValueAggregator();
+
+        public GlobalOrdinalsAggregator(StringGlobalOrdinals globalOrdinals) {
+            this.values = globalOrdinals.values();
+            this.entries = new InternalTermsStatsStringFacet.StringEntry[values.length];
+        }
+
+        @Override
+        public void onOrdinal(int docId, int ordinal) {
+            if (ordinal == 0) {
+                missing++;
+                return;
+            }
+            int globalOrdinal = segmentOrdinals[ordinal];
+            InternalTermsStatsStringFacet.StringEntry stringEntry = entries[globalOrdinal];
+            if (stringEntry == null) {
+                stringEntry = new InternalTermsStatsStringFacet.StringEntry(values[globalOrdinal], 0, 0, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY);
+                entries[globalOrdinal] = stringEntry;
+            }
+            stringEntry.count++;
+            valueAggregator.stringEntry = stringEntry;
+            valueFieldData.forEachValueInDoc(docId, valueAggregator);
+        }
+    }
+
     public static class ScriptAggregator extends Aggregator {
         private final SearchScript script;
 
@@ -47,6 +47,8 @@ public class HighlightBuilder implements ToXContent {
 
     private String encoder;
 
+    private String highlighterType;
+
     /**
      * Adds a field to be highlighted with default fragment size of 100 characters, and
      * default number of fragments of 5 using the default encoder
@@ -163,6 +165,15 @@ public class HighlightBuilder implements ToXContent {
         return this;
     }
 
+    /**
+     * The highlighter to use, <tt>offsets</tt> to highlight fields indexed with term vector offsets
+     * straight from the term vectors. By default, picked based on the field mapping.
+     */
+    public HighlightBuilder highlighterType(String highlighterType) {
+        this.highlighterType = highlighterType;
+        return this;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject("highlight");
@@ -181,6 +192,9 @@ public class HighlightBuilder implements ToXContent {
         if (encoder != null) {
             builder.field("encoder", encoder);
         }
+        if (highlighterType != null) {
+            builder.field("type", highlighterType);
+        }
         if (fields != null) {
             builder.startObject("fields");
             for (Field field : fields) {
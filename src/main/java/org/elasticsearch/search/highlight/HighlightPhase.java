@@ -26,6 +26,9 @@ import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.Fieldable;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermFreqVector;
+import org.apache.lucene.index.TermPositionVector;
 import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.highlight.*;
@@ -117,9 +120,66 @@ public class HighlightPhase implements FetchSubPhase {
                 }
             }
 
-            // if we can do highlighting using Term Vectors, use FastVectorHighlighter, otherwise, use the
-            // slower plain highlighter
-            if (mapper.termVector() != Field.TermVector.WITH_POSITIONS_OFFSETS) {
+            boolean useOffsets = false;
+            if (OffsetsHighlighter.TYPE.equals(field.highlighterType())) {
+                if (mapper.termVector() != Field.TermVector.WITH_OFFSETS && mapper.termVector() != Field.TermVector.WITH_POSITIONS_OFFSETS) {
+                    throw new FetchPhaseExecutionException(context, "the field [" + field.field() + "] should be indexed with term vector with offsets to be used with the offsets highlighter");
+                }
+                if (cache.offsetsSupported == null) {
+                    cache.offsetsSupported = OffsetsHighlighter.supportsQuery(context.parsedQuery().query());
+                }
+                // phrase and multi term queries are left to the other highlighters
+                useOffsets = cache.offsetsSupported;
+            }
+
+            // if asked for and the query allows it, use the offsets highlighter, if we can do highlighting using Term Vectors,
+            // use FastVectorHighlighter, otherwise, use the slower plain highlighter (which analyzes the text)
+            if (useOffsets) {
+                try {
+                    MapperHighlightEntry entry = cache.mappers.get(mapper);
+                    if (entry == null) {
+                        entry = new MapperHighlightEntry();
+                        cache.mappers.put(mapper, entry);
+                    }
+                    if (entry.offsetsHighlighter == null) {
+                        entry.offsetsHighlighter = new OffsetsHighlighter(field.preTags(), field.postTags(), encoder, boundaryScanner(field));
+                    }
+                    if (cache.queryTerms == null) {
+                        // we use top level reader to rewrite the query against all readers, with use caching it across hits (and across readers...)
+                        cache.queryTerms = OffsetsHighlighter.extractTerms(context.parsedQuery().query(), hitContext.topLevelReader());
+                    }
+                    String indexName = mapper.names().indexName();
+                    List<String> terms = new ArrayList<String>();
+                    for (Term term : cache.queryTerms) {
+                        if ((!field.requireFieldMatch() || term.field().equals(indexName)) && !terms.contains(term.text())) {
+                            terms.add(term.text());
+                        }
+                    }
+
+                    String[] fragments = null;
+                    TermFreqVector termVector = terms.isEmpty() ? null : hitContext.reader().getTermFreqVector(hitContext.docId(), indexName);
+                    if (termVector instanceof TermPositionVector) {
+                        List<Object> textsToHighlight = loadFieldValues(context, hitContext, mapper, field);
+                        // values are indexed with an offset gap of 1 between them
+                        StringBuilder text = new StringBuilder();
+                        for (Object textToHighlight : textsToHighlight) {
+                            if (text.length() > 0) {
+                                text.append(' ');
+                            }
+                            text.append(textToHighlight.toString());
+                        }
+                        fragments = entry.offsetsHighlighter.getBestFragments((TermPositionVector) termVector, terms, text.toString(),
+                                field.fragmentCharSize(), field.numberOfFragments(), field.scoreOrdered());
+                    }
+
+                    if (fragments != null && fragments.length > 0) {
+                        HighlightField highlightField = new HighlightField(field.field(), fragments);
+                        highlightFields.put(highlightField.name(), highlightField);
+                    }
+                } catch (Exception e) {
+                    throw new FetchPhaseExecutionException(context, "Failed to highlight field [" + field.field() + "]", e);
+                }
+            } else if (mapper.termVector() != Field.TermVector.WITH_POSITIONS_OFFSETS) {
                 MapperHighlightEntry entry = cache.mappers.get(mapper);
                 if (entry == null) {
                     // Don't use the context.query() since it might be rewritten, and we need to pass the non rewritten queries to
@@ -166,25 +226,7 @@ public class HighlightPhase implements FetchSubPhase {
                     cache.mappers.put(mapper, entry);
                 }
 
-                List<Object> textsToHighlight;
-                if (mapper.stored()) {
-                    try {
-                        Document doc = hitContext.reader().document(hitContext.docId(), new SingleFieldSelector(mapper.names().indexName()));
-                        textsToHighlight = new ArrayList<Object>(doc.getFields().size());
-                        for (Fieldable docField : doc.getFields()) {
-                            if (docField.stringValue() != null) {
-                                textsToHighlight.add(docField.stringValue());
-                            }
-                        }
-                    } catch (Exception e) {
-                        throw new FetchPhaseExecutionException(context, "Failed to highlight field [" + field.field() + "]", e);
-                    }
-                } else {
-                    SearchLookup lookup = context.lookup();
-                    lookup.setNextReader(hitContext.reader());
-                    lookup.setNextDocId(hitContext.docId());
-                    textsToHighlight = lookup.source().extractRawValues(mapper.names().sourcePath());
-                }
+                List<Object> textsToHighlight = loadFieldValues(context, hitContext, mapper, field);
 
                 // a HACK to make highlighter do highlighting, even though its using the single frag list builder
                 int numberOfFragments = field.numberOfFragments() == 0 ? 1 : field.numberOfFragments();
@@ -239,10 +281,7 @@ public class HighlightPhase implements FetchSubPhase {
                         FragListBuilder fragListBuilder;
                         FragmentsBuilder fragmentsBuilder;
 
-                        BoundaryScanner boundaryScanner = SimpleBoundaryScanner2.DEFAULT;
-                        if (field.boundaryMaxScan() != SimpleBoundaryScanner2.DEFAULT_MAX_SCAN || field.boundaryChars() != SimpleBoundaryScanner2.DEFAULT_BOUNDARY_CHARS) {
-                            boundaryScanner = new SimpleBoundaryScanner2(field.boundaryMaxScan(), field.boundaryChars());
-                        }
+                        BoundaryScanner boundaryScanner = boundaryScanner(field);
 
                         if (field.numberOfFragments() == 0) {
                             fragListBuilder = new SingleFragListBuilder();
@@ -319,17 +358,49 @@ public class HighlightPhase implements FetchSubPhase {
         hitContext.hit().highlightFields(highlightFields);
     }
 
+    private List<Object> loadFieldValues(SearchContext context, HitContext hitContext, FieldMapper mapper, SearchContextHighlight.Field field) {
+        if (mapper.stored()) {
+            try {
+                Document doc = hitContext.reader().document(hitContext.docId(), new SingleFieldSelector(mapper.names().indexName()));
+                List<Object> textsToHighlight = new ArrayList<Object>(doc.getFields().size());
+                for (Fieldable docField : doc.getFields()) {
+                    if (docField.stringValue() != null) {
+                        textsToHighlight.add(docField.stringValue());
+                    }
+                }
+                return textsToHighlight;
+            } catch (Exception e) {
+                throw new FetchPhaseExecutionException(context, "Failed to highlight field [" + field.field() + "]", e);
+            }
+        }
+        SearchLookup lookup = context.lookup();
+        lookup.setNextReader(hitContext.reader());
+        lookup.setNextDocId(hitContext.docId());
+        return lookup.source().extractRawValues(mapper.names().sourcePath());
+    }
+
+    private BoundaryScanner boundaryScanner(SearchContextHighlight.Field field) {
+        if (field.boundaryMaxScan() != SimpleBoundaryScanner2.DEFAULT_MAX_SCAN || field.boundaryChars() != SimpleBoundaryScanner2.DEFAULT_BOUNDARY_CHARS) {
+            return new SimpleBoundaryScanner2(field.boundaryMaxScan(), field.boundaryChars());
+        }
+        return SimpleBoundaryScanner2.DEFAULT;
+    }
+
     static class MapperHighlightEntry {
         public FragListBuilder fragListBuilder;
         public FragmentsBuilder fragmentsBuilder;
 
         public Highlighter highlighter;
+
+        public OffsetsHighlighter offsetsHighlighter;
     }
 
     static class HighlighterEntry {
         public FastVectorHighlighter fvh;
         public FieldQuery noFieldMatchFieldQuery;
         public FieldQuery fieldMatchFieldQuery;
+        public Set<Term> queryTerms;
+        public Boolean offsetsSupported;
         public Map<FieldMapper, MapperHighlightEntry> mappers = Maps.newHashMap();
     }
 }
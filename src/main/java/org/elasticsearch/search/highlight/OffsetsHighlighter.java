@@ -0,0 +1,278 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.highlight;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermPositionVector;
+import org.apache.lucene.index.TermVectorOffsetInfo;
+import org.apache.lucene.search.*;
+import org.apache.lucene.search.highlight.Encoder;
+import org.apache.lucene.search.vectorhighlight.BoundaryScanner;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * A highlighter building fragments from the term offsets stored in the term vector of a field, without
+ * analyzing its text again. Only the offsets of the query terms are read, so its cost depends on the
+ * number of matches, not on the size of the text.
+ * <p/>
+ * Query terms are highlighted on their own, phrases are not taken into account. It is only used when
+ * explicitly asked for (a highlight <tt>type</tt> of <tt>offsets</tt>) and the query is made of term
+ * queries only, see {@link #supportsQuery(org.apache.lucene.search.Query)}.
+ */
+public class OffsetsHighlighter {
+
+    public static final String TYPE = "offsets";
+
+    /**
+     * The number of chars kept before the first match of a fragment.
+     */
+    private static final int MARGIN = 6;
+
+    /**
+     * Returns <tt>true</tt> if the query is only made of term queries (possibly within boolean, dis max, filtered
+     * and constant score queries). Phrases would be highlighted term by term, and multi term queries (prefix,
+     * wildcard, fuzzy...) might be rewritten to a filter with no terms to extract, so those are left to the
+     * other highlighters.
+     */
+    public static boolean supportsQuery(Query query) {
+        if (query instanceof TermQuery) {
+            return true;
+        }
+        if (query instanceof BooleanQuery) {
+            for (BooleanClause clause : ((BooleanQuery) query).clauses()) {
+                if (!supportsQuery(clause.getQuery())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (query instanceof DisjunctionMaxQuery) {
+            for (Query disjunct : (DisjunctionMaxQuery) query) {
+                if (!supportsQuery(disjunct)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (query instanceof FilteredQuery) {
+            return supportsQuery(((FilteredQuery) query).getQuery());
+        }
+        if (query instanceof ConstantScoreQuery) {
+            Query wrapped = ((ConstantScoreQuery) query).getQuery();
+            return wrapped != null && supportsQuery(wrapped);
+        }
+        return false;
+    }
+
+    /**
+     * Rewrites the query (expanding multi term queries) and extracts its terms.
+     */
+    public static Set<Term> extractTerms(Query query, IndexReader reader) throws IOException {
+        Query rewritten = query;
+        for (Query q = rewritten.rewrite(reader); q != rewritten; q = rewritten.rewrite(reader)) {
+            rewritten = q;
+        }
+        Set<Term> terms = new LinkedHashSet<Term>();
+        try {
+            rewritten.extractTerms(terms);
+        } catch (UnsupportedOperationException e) {
+            // the query does not support extracting terms, nothing to highlight
+        }
+        return terms;
+    }
+
+    private final String[] preTags;
+
+    private final String[] postTags;
+
+    private final Encoder encoder;
+
+    private final BoundaryScanner boundaryScanner;
+
+    public OffsetsHighlighter(String[] preTags, String[] postTags, Encoder encoder, BoundaryScanner boundaryScanner) {
+        this.preTags = preTags;
+        this.postTags = postTags;
+        this.encoder = encoder;
+        this.boundaryScanner = boundaryScanner;
+    }
+
+    /**
+     * Returns the best fragments of the text, or <tt>null</tt> if none of the terms is found.
+     *
+     * @param termVector        The term vector of the field, with offsets
+     * @param terms             The terms to highlight (the tag used for each is based on its index)
+     * @param text              The text of the field, multiple values joined with a single space
+     * @param fragmentSize      The size of a fragment (in chars)
+     * @param numberOfFragments The number of fragments, <tt>0</tt> to highlight the whole text as a single fragment
+     * @param scoreOrdered      Whether fragments are ordered by score, or by their position in the text
+     */
+    public String[] getBestFragments(TermPositionVector termVector, List<String> terms, String text,
+                                     int fragmentSize, int numberOfFragments, boolean scoreOrdered) {
+        List<Match> matches = new ArrayList<Match>();
+        for (int i = 0; i < terms.size(); i++) {
+            int index = termVector.indexOf(terms.get(i));
+            if (index == -1) {
+                continue;
+            }
+            TermVectorOffsetInfo[] offsets = termVector.getOffsets(index);
+            if (offsets == null) {
+                continue;
+            }
+            for (TermVectorOffsetInfo offset : offsets) {
+                if (offset.getEndOffset() <= text.length()) {
+                    matches.add(new Match(offset.getStartOffset(), offset.getEndOffset(), i));
+                }
+            }
+        }
+        if (matches.isEmpty()) {
+            return null;
+        }
+        Collections.sort(matches);
+
+        if (numberOfFragments == 0) {
+            return new String[]{highlight(text, 0, text.length(), matches, 0)};
+        }
+
+        List<Fragment> fragments = new ArrayList<Fragment>();
+        int i = 0;
+        int previousEnd = 0;
+        while (i < matches.size()) {
+            Match first = matches.get(i);
+            int start = Math.max(previousEnd, first.start - MARGIN);
+            int end = Math.min(text.length(), Math.max(start + fragmentSize, first.end));
+            Fragment fragment = new Fragment(start, end);
+            Set<Integer> distinctTerms = new HashSet<Integer>();
+            for (; i < matches.size() && matches.get(i).end <= end; i++) {
+                distinctTerms.add(matches.get(i).term);
+                fragment.matches++;
+            }
+            fragment.terms = distinctTerms.size();
+            fragments.add(fragment);
+            previousEnd = end;
+        }
+
+        // pick the best ones, keeping the earliest on ties
+        List<Fragment> best = new ArrayList<Fragment>(fragments);
+        Collections.sort(best, new Comparator<Fragment>() {
+            @Override
+            public int compare(Fragment o1, Fragment o2) {
+                if (o1.terms != o2.terms) {
+                    return o2.terms - o1.terms;
+                }
+                if (o1.matches != o2.matches) {
+                    return o2.matches - o1.matches;
+                }
+                return o1.start - o2.start;
+            }
+        });
+        if (best.size() > numberOfFragments) {
+            best = best.subList(0, numberOfFragments);
+        }
+        if (!scoreOrdered) {
+            Collections.sort(best, new Comparator<Fragment>() {
+                @Override
+                public int compare(Fragment o1, Fragment o2) {
+                    return o1.start - o2.start;
+                }
+            });
+        }
+
+        StringBuilder buffer = new StringBuilder(text);
+        String[] result = new String[best.size()];
+        for (int j = 0; j < result.length; j++) {
+            Fragment fragment = best.get(j);
+            int start = boundaryScanner.findStartOffset(buffer, fragment.start);
+            int end = boundaryScanner.findEndOffset(buffer, fragment.end);
+            result[j] = highlight(text, start, end, matches, firstMatch(matches, start));
+        }
+        return result;
+    }
+
+    /**
+     * The index of the first match starting at or after the offset.
+     */
+    private static int firstMatch(List<Match> matches, int offset) {
+        int lo = 0;
+        int hi = matches.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (matches.get(mid).start < offset) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private String highlight(String text, int start, int end, List<Match> matches, int fromMatch) {
+        StringBuilder sb = new StringBuilder(end - start + 32);
+        int pos = start;
+        for (int i = fromMatch; i < matches.size(); i++) {
+            Match match = matches.get(i);
+            if (match.end > end) {
+                break;
+            }
+            if (match.start < pos) {
+                // overlaps the previous match (for example, a synonym)
+                continue;
+            }
+            sb.append(encoder.encodeText(text.substring(pos, match.start)));
+            sb.append(preTags[match.term % preTags.length]);
+            sb.append(encoder.encodeText(text.substring(match.start, match.end)));
+            sb.append(postTags[match.term % postTags.length]);
+            pos = match.end;
+        }
+        sb.append(encoder.encodeText(text.substring(pos, end)));
+        return sb.toString();
+    }
+
+    static class Match implements Comparable<Match> {
+        final int start;
+        final int end;
+        final int term;
+
+        Match(int start, int end, int term) {
+            this.start = start;
+            this.end = end;
+            this.term = term;
+        }
+
+        @Override
+        public int compareTo(Match o) {
+            return start != o.start ? start - o.start : o.end - end;
+        }
+    }
+
+    static class Fragment {
+        final int start;
+        final int end;
+        int terms;
+        int matches;
+
+        Fragment(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
@@ -61,6 +61,8 @@ public class SearchContextHighlight {
         private int boundaryMaxScan = -1;
         private char[] boundaryChars = null;
 
+        private String highlighterType;
+
         public Field(String field) {
             this.field = field;
         }
@@ -156,5 +158,16 @@ public class SearchContextHighlight {
         public void boundaryChars(char[] boundaryChars) {
             this.boundaryChars = boundaryChars;
         }
+
+        /**
+         * The highlighter to use, <tt>null</tt> to pick one based on the field mapping.
+         */
+        public String highlighterType() {
+            return highlighterType;
+        }
+
+        public void highlighterType(String highlighterType) {
+            this.highlighterType = highlighterType;
+        }
     }
 }
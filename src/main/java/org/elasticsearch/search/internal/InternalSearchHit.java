@@ -26,8 +26,7 @@ import org.elasticsearch.common.BytesHolder;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.Unicode;
-import org.elasticsearch.common.compress.lzf.LZF;
-import org.elasticsearch.common.compress.lzf.LZFDecoder;
+import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.xcontent.XContentBuilder;
@@ -167,12 +166,10 @@ public class InternalSearchHit implements SearchHit {
         if (source == null) {
             return null;
         }
-        if (LZF.isCompressed(source.bytes(), source.offset(), source.length())) {
-            try {
-                this.source = new BytesHolder(LZFDecoder.decode(source.bytes(), source.offset(), source.length()));
-            } catch (IOException e) {
-                throw new ElasticSearchParseException("failed to decompress source", e);
-            }
+        try {
+            this.source = CompressorFactory.uncompressIfNeeded(this.source);
+        } catch (IOException e) {
+            throw new ElasticSearchParseException("failed to decompress source", e);
         }
         return this.source.copyBytes();
     }
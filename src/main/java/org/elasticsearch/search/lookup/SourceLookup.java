@@ -25,6 +25,7 @@ import org.apache.lucene.document.Fieldable;
 import org.apache.lucene.index.IndexReader;
 import org.elasticsearch.ElasticSearchParseException;
 import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.support.XContentMapValues;
 import org.elasticsearch.index.mapper.internal.SourceFieldMapper;
 import org.elasticsearch.index.mapper.internal.SourceFieldSelector;
@@ -117,7 +118,41 @@ public class SourceLookup implements Map {
     }
 
     public Object filter(String[] includes, String[] excludes) {
-        return XContentMapValues.filter(loadSourceIfNeeded(), includes, excludes);
+        if (source != null) {
+            return XContentMapValues.filter(source, includes, excludes);
+        }
+        // the source has not been parsed yet, only pull the included parts out of it instead of parsing all of it
+        if (sourceAsBytes == null && !loadSourceBytes()) {
+            return XContentMapValues.filter(loadSourceIfNeeded(), includes, excludes);
+        }
+        XContentParser parser = null;
+        try {
+            parser = XContentHelper.createParser(sourceAsBytes, sourceAsBytesOffset, sourceAsBytesLength);
+            return XContentMapValues.filter(parser, includes, excludes);
+        } catch (Exception e) {
+            throw new ElasticSearchParseException("failed to parse / filter source", e);
+        } finally {
+            if (parser != null) {
+                parser.close();
+            }
+        }
+    }
+
+    /**
+     * Loads the source bytes of the current doc, returning <tt>false</tt> if the doc has no source.
+     */
+    private boolean loadSourceBytes() {
+        try {
+            Document doc = reader.document(docId, SourceFieldSelector.INSTANCE);
+            Fieldable sourceField = doc.getFieldable(SourceFieldMapper.NAME);
+            if (sourceField == null) {
+                return false;
+            }
+            setNextSource(sourceField.getBinaryValue(), sourceField.getBinaryOffset(), sourceField.getBinaryLength());
+            return true;
+        } catch (Exception e) {
+            throw new ElasticSearchParseException("failed to load source", e);
+        }
     }
 
     public Object extractValue(String path) {
@@ -137,8 +137,16 @@ public class QueryPhase implements SearchPhase {
                             if (topDocs.totalHits <= numDocs) {
                                 break;
                             }
-                            // if not, update numDocs, and search again
-                            numDocs *= topDocsPhase.incrementalFactor();
+                            // if not, update numDocs, and search again, with at least as many docs as the
+                            // ratio of docs to hits found so far suggests are needed
+                            int neededDocs = numDocs * topDocsPhase.incrementalFactor();
+                            if (topDocsPhase.numHits() > 0) {
+                                long estimatedDocs = (long) numDocs * (searchContext.from() + searchContext.size()) / topDocsPhase.numHits();
+                                if (estimatedDocs > neededDocs) {
+                                    neededDocs = (int) Math.min(estimatedDocs, topDocs.totalHits);
+                                }
+                            }
+                            numDocs = neededDocs;
                             if (numDocs > topDocs.totalHits) {
                                 numDocs = topDocs.totalHits;
                             }
@@ -19,7 +19,10 @@
 
 package org.elasticsearch.transport.netty;
 
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.ThrowableObjectInputStream;
+import org.elasticsearch.common.io.stream.BytesStreamInput;
 import org.elasticsearch.common.io.stream.CachedStreamInput;
 import org.elasticsearch.common.io.stream.HandlesStreamInput;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -41,6 +44,11 @@ import java.io.StreamCorruptedException;
  */
 public class MessageChannelHandler extends SimpleChannelUpstreamHandler {
 
+    /**
+     * Number of leading bytes of a compressed message needed to detect its compressor.
+     */
+    private static final int COMPRESSOR_HEADER_PEEK = 4;
+
     private final ESLogger logger;
 
     private final ThreadPool threadPool;
@@ -192,6 +200,19 @@ public class MessageChannelHandler extends SimpleChannelUpstreamHandler {
         }
     }
 
+    /**
+     * Detects the compressor used for the compressed message (the next <tt>length</tt> bytes of the buffer).
+     */
+    private Compressor compressor(ChannelBuffer buffer, int length) throws StreamCorruptedException {
+        byte[] header = new byte[Math.min(COMPRESSOR_HEADER_PEEK, length)];
+        buffer.getBytes(buffer.readerIndex(), header);
+        Compressor compressor = CompressorFactory.compressor(header, 0, header.length);
+        if (compressor == null) {
+            throw new StreamCorruptedException("compressed message in an unknown compression format");
+        }
+        return compressor;
+    }
+
     private void process(ChannelHandlerContext ctx, Channel channel, ChannelBuffer buffer, int size) throws Exception {
         transportServiceAdapter.received(size + 4);
 
@@ -207,14 +228,25 @@ public class MessageChannelHandler extends SimpleChannelUpstreamHandler {
         boolean isRequest = TransportStreams.statusIsRequest(status);
 
         HandlesStreamInput wrappedStream;
+        BytesStreamInput compressedIn = null;
         if (TransportStreams.statusIsCompress(status)) {
-            wrappedStream = CachedStreamInput.cachedHandlesLzf(streamIn);
+            Compressor compressor = compressor(buffer, expectedIndexReader - buffer.readerIndex());
+            if (buffer.hasArray()) {
+                // decompress straight from the array backing the buffer, chunk by chunk
+                compressedIn = new BytesStreamInput(buffer.array(), buffer.arrayOffset() + buffer.readerIndex(), expectedIndexReader - buffer.readerIndex(), false);
+                wrappedStream = CachedStreamInput.cachedHandlesCompressed(compressor, compressedIn);
+            } else {
+                wrappedStream = CachedStreamInput.cachedHandlesCompressed(compressor, streamIn);
+            }
         } else {
             wrappedStream = CachedStreamInput.cachedHandles(streamIn);
         }
 
         if (isRequest) {
             String action = handleRequest(channel, wrappedStream, requestId);
+            if (compressedIn != null) {
+                buffer.readerIndex(compressedIn.position() - buffer.arrayOffset());
+            }
             if (buffer.readerIndex() != expectedIndexReader) {
                 if (buffer.readerIndex() < expectedIndexReader) {
                     logger.warn("Message not fully read (request) for [{}] and action [{}], resetting", requestId, action);
@@ -232,6 +264,9 @@ public class MessageChannelHandler extends SimpleChannelUpstreamHandler {
                 } else {
                     handleResponse(wrappedStream, handler);
                 }
+                if (compressedIn != null) {
+                    buffer.readerIndex(compressedIn.position() - buffer.arrayOffset());
+                }
             } else {
                 // if its null, skip those bytes
                 buffer.readerIndex(markedReaderIndex + size);
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.transport.support;
 
+import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.stream.CachedStreamOutput;
 import org.elasticsearch.common.io.stream.HandlesStreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
@@ -105,7 +106,7 @@ public class TransportStreams {
 
         if (options.compress()) {
             status = TransportStreams.statusSetCompress(status);
-            HandlesStreamOutput stream = cachedEntry.cachedHandlesLzfBytes();
+            HandlesStreamOutput stream = cachedEntry.cachedHandlesCompressedBytes(CompressorFactory.defaultCompressor());
             cachedEntry.bytes().write(HEADER_PLACEHOLDER);
             stream.writeUTF(action);
             message.writeTo(stream);
@@ -126,7 +127,7 @@ public class TransportStreams {
 
         if (options.compress()) {
             status = TransportStreams.statusSetCompress(status);
-            HandlesStreamOutput stream = cachedEntry.cachedHandlesLzfBytes();
+            HandlesStreamOutput stream = cachedEntry.cachedHandlesCompressedBytes(CompressorFactory.defaultCompressor());
             cachedEntry.bytes().write(HEADER_PLACEHOLDER);
             message.writeTo(stream);
             stream.flush();
@@ -0,0 +1,104 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.benchmark.common.compress;
+
+import org.elasticsearch.common.StopWatch;
+import org.elasticsearch.common.compress.CompressedStreamOutput;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+
+import java.util.Random;
+
+/**
+ * Compares the available compressors, on JSON documents compressed one by one (as done with <tt>_source</tt>)
+ * and on incompressible data.
+ */
+public class CompressorBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int numberOfDocs = 20000;
+        int iterations = 20;
+
+        Random random = new Random(0);
+        byte[][] docs = new byte[numberOfDocs][];
+        long docsSize = 0;
+        for (int i = 0; i < numberOfDocs; i++) {
+            XContentBuilder builder = XContentFactory.jsonBuilder().startObject()
+                    .field("@timestamp", "2012-05-" + (10 + random.nextInt(20)) + "T10:" + random.nextInt(60) + ":11.123Z")
+                    .field("user", "user" + random.nextInt(1000))
+                    .field("message", "trying out elastic search, request " + random.nextInt(100000) + " took " + random.nextInt(500) + "ms")
+                    .startArray("tags").value("tag" + random.nextInt(10)).value("tag" + random.nextInt(10)).endArray()
+                    .endObject();
+            docs[i] = builder.copiedBytes();
+            docsSize += docs[i].length;
+        }
+        byte[] incompressible = new byte[1024 * 1024];
+        random.nextBytes(incompressible);
+        System.out.println("Docs size: " + new ByteSizeValue(docsSize));
+
+        for (String type : new String[]{"lzf", "lz4", "deflate"}) {
+            Compressor compressor = CompressorFactory.compressor(type);
+            byte[][] compressed = new byte[numberOfDocs][];
+            long compressedSize = 0;
+            // warm up
+            for (int i = 0; i < iterations; i++) {
+                for (int j = 0; j < numberOfDocs; j++) {
+                    compressed[j] = compressor.compress(docs[j], 0, docs[j].length);
+                    compressor.uncompress(compressed[j], 0, compressed[j].length);
+                }
+            }
+            for (byte[] doc : compressed) {
+                compressedSize += doc.length;
+            }
+
+            StopWatch stopWatch = new StopWatch().start();
+            for (int i = 0; i < iterations; i++) {
+                for (int j = 0; j < numberOfDocs; j++) {
+                    compressor.compress(docs[j], 0, docs[j].length);
+                }
+            }
+            System.out.println("[" + type + "] compress docs: " + stopWatch.stop().lastTaskTime() + ", " + throughput(docsSize, iterations, stopWatch) + ", size " + new ByteSizeValue(compressedSize));
+
+            stopWatch = new StopWatch().start();
+            for (int i = 0; i < iterations; i++) {
+                for (int j = 0; j < numberOfDocs; j++) {
+                    compressor.uncompress(compressed[j], 0, compressed[j].length);
+                }
+            }
+            System.out.println("[" + type + "] uncompress docs: " + stopWatch.stop().lastTaskTime() + ", " + throughput(docsSize, iterations, stopWatch));
+
+            stopWatch = new StopWatch().start();
+            for (int i = 0; i < iterations; i++) {
+                CompressedStreamOutput out = compressor.streamOutput(new BytesStreamOutput(), false);
+                out.writeBytes(incompressible, 0, incompressible.length);
+                out.close();
+            }
+            System.out.println("[" + type + "] stream incompressible: " + stopWatch.stop().lastTaskTime() + ", " + throughput(incompressible.length, iterations, stopWatch));
+        }
+    }
+
+    private static String throughput(long size, int iterations, StopWatch stopWatch) {
+        return new ByteSizeValue((long) (((double) size) * iterations / stopWatch.totalTime().secondsFrac())) + "/s";
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.benchmark.common.compress;
+
+import org.elasticsearch.common.StopWatch;
+import org.elasticsearch.common.compress.lzf.BufferRecycler;
+import org.elasticsearch.common.compress.lzf.ChunkDecoder;
+import org.elasticsearch.common.compress.lzf.ChunkEncoder;
+import org.elasticsearch.common.compress.lzf.LZFEncoder;
+import org.elasticsearch.common.compress.lzf.util.ChunkDecoderFactory;
+import org.elasticsearch.common.compress.lzf.util.ChunkEncoderFactory;
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.LZFStreamInput;
+import org.elasticsearch.common.io.stream.LZFStreamOutput;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+
+import java.util.Random;
+
+/**
+ * Compares the plain and the optimized LZF encoders, and the stream based compression over bytes,
+ * on JSON documents.
+ */
+public class LZFCompressionBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int numberOfDocs = 2000;
+        int iterations = 200;
+
+        Random random = new Random(0);
+        BytesStreamOutput docs = new BytesStreamOutput();
+        for (int i = 0; i < numberOfDocs; i++) {
+            XContentBuilder builder = XContentFactory.jsonBuilder().startObject()
+                    .field("@timestamp", "2012-05-" + (10 + random.nextInt(20)) + "T10:" + random.nextInt(60) + ":11.123Z")
+                    .field("user", "user" + random.nextInt(1000))
+                    .field("message", "trying out elastic search, request " + random.nextInt(100000) + " took " + random.nextInt(500) + "ms")
+                    .startArray("tags").value("tag" + random.nextInt(10)).value("tag" + random.nextInt(10)).endArray()
+                    .startObject("geo").field("lat", random.nextDouble() * 90).field("lon", random.nextDouble() * 180).endObject()
+                    .endObject();
+            byte[] doc = builder.copiedBytes();
+            docs.writeBytes(doc, 0, doc.length);
+        }
+        byte[] data = docs.copiedByteArray();
+        System.out.println("Data size: " + new ByteSizeValue(data.length));
+
+        ChunkEncoder plainEncoder = ChunkEncoderFactory.safeInstance(data.length, BufferRecycler.instance());
+        ChunkEncoder optimizedEncoder = ChunkEncoderFactory.optimalInstance(data.length, BufferRecycler.instance());
+        ChunkDecoder plainDecoder = ChunkDecoderFactory.safeInstance();
+        ChunkDecoder optimizedDecoder = ChunkDecoderFactory.optimalInstance();
+
+        // warm up
+        for (int i = 0; i < iterations; i++) {
+            plainDecoder.decode(LZFEncoder.encode(plainEncoder, data, 0, data.length));
+            optimizedDecoder.decode(LZFEncoder.encode(optimizedEncoder, data, 0, data.length));
+            streams(data);
+        }
+
+        byte[] compressed = LZFEncoder.encode(plainEncoder, data, 0, data.length);
+        System.out.println("Plain encoded size: " + new ByteSizeValue(compressed.length));
+        System.out.println("Optimized encoded size: " + new ByteSizeValue(LZFEncoder.encode(optimizedEncoder, data, 0, data.length).length));
+
+        StopWatch stopWatch = new StopWatch().start();
+        for (int i = 0; i < iterations; i++) {
+            LZFEncoder.encode(plainEncoder, data, 0, data.length);
+        }
+        System.out.println("Plain encoder: " + stopWatch.stop().lastTaskTime() + ", " + throughput(data.length, iterations, stopWatch));
+
+        stopWatch = new StopWatch().start();
+        for (int i = 0; i < iterations; i++) {
+            LZFEncoder.encode(optimizedEncoder, data, 0, data.length);
+        }
+        System.out.println("Optimized encoder: " + stopWatch.stop().lastTaskTime() + ", " + throughput(data.length, iterations, stopWatch));
+
+        stopWatch = new StopWatch().start();
+        for (int i = 0; i < iterations; i++) {
+            plainDecoder.decode(compressed);
+        }
+        System.out.println("Plain decoder: " + stopWatch.stop().lastTaskTime() + ", " + throughput(data.length, iterations, stopWatch));
+
+        stopWatch = new StopWatch().start();
+        for (int i = 0; i < iterations; i++) {
+            optimizedDecoder.decode(compressed);
+        }
+        System.out.println("Optimized decoder: " + stopWatch.stop().lastTaskTime() + ", " + throughput(data.length, iterations, stopWatch));
+
+        stopWatch = new StopWatch().start();
+        for (int i = 0; i < iterations; i++) {
+            streams(data);
+        }
+        System.out.println("Streams (compress and decompress): " + stopWatch.stop().lastTaskTime() + ", " + throughput(data.length, iterations, stopWatch));
+
+        plainEncoder.close();
+        optimizedEncoder.close();
+    }
+
+    private static void streams(byte[] data) throws Exception {
+        BytesStreamOutput bytes = new BytesStreamOutput();
+        LZFStreamOutput out = new LZFStreamOutput(bytes, true);
+        out.writeBytes(data, 0, data.length);
+        out.close();
+
+        LZFStreamInput in = new LZFStreamInput(new BytesStreamInput(bytes.underlyingBytes(), 0, bytes.size(), false), true);
+        byte[] result = new byte[data.length];
+        in.readBytes(result, 0, result.length);
+    }
+
+    private static String throughput(long size, int iterations, StopWatch stopWatch) {
+        return new ByteSizeValue((long) (((double) size) * iterations / stopWatch.totalTime().secondsFrac())) + "/s";
+    }
+}
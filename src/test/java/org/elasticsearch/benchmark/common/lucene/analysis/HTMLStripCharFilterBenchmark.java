@@ -0,0 +1,77 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.benchmark.common.lucene.analysis;
+
+import org.apache.lucene.analysis.CharReader;
+import org.apache.lucene.analysis.CharStream;
+import org.elasticsearch.common.StopWatch;
+import org.elasticsearch.common.io.FastStringReader;
+import org.elasticsearch.common.lucene.analysis.FastHTMLStripCharFilter;
+import org.elasticsearch.common.lucene.analysis.HTMLStripCharFilter;
+import org.elasticsearch.common.unit.ByteSizeValue;
+
+import java.util.Random;
+
+/**
+ * Strips generated HTML with {@link HTMLStripCharFilter} and {@link FastHTMLStripCharFilter}, reporting
+ * the rate at which the input is processed.
+ */
+public class HTMLStripCharFilterBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int documentSize = 20000;
+        int numberOfRuns = 2000;
+
+        String[] fragments = new String[]{
+                "<p class=\"text\">", "</p>", "<a href=\"http://example.com/page?id=1\">", "</a>", "<div id=main>", "</div>", "<br/>",
+                "Lorem ipsum dolor sit amet, ", "consectetur adipiscing elit ", "&amp; ", "&nbsp;", "&#8217;",
+                "<!-- comment -->", "<script type=\"text/javascript\">var x = '<b>';</script>"};
+        Random random = new Random(0);
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < documentSize) {
+            sb.append(fragments[random.nextInt(fragments.length)]);
+        }
+        String document = sb.toString();
+        char[] buffer = new char[1024];
+
+        FastHTMLStripCharFilter fast = new FastHTMLStripCharFilter(CharReader.get(new FastStringReader("")));
+        for (int round = 0; round < 3; round++) {
+            StopWatch stopWatch = new StopWatch().start();
+            for (int i = 0; i < numberOfRuns; i++) {
+                consume(new HTMLStripCharFilter(CharReader.get(new FastStringReader(document))), buffer);
+            }
+            stopWatch.stop();
+            System.out.println("html_strip: " + stopWatch.totalTime() + ", " + new ByteSizeValue((long) (((long) document.length()) * numberOfRuns / stopWatch.totalTime().secondsFrac())) + " chars/s");
+
+            stopWatch = new StopWatch().start();
+            for (int i = 0; i < numberOfRuns; i++) {
+                fast.reset(CharReader.get(new FastStringReader(document)));
+                consume(fast, buffer);
+            }
+            stopWatch.stop();
+            System.out.println("fast_html_strip: " + stopWatch.totalTime() + ", " + new ByteSizeValue((long) (((long) document.length()) * numberOfRuns / stopWatch.totalTime().secondsFrac())) + " chars/s");
+        }
+    }
+
+    private static void consume(CharStream charStream, char[] buffer) throws Exception {
+        while (charStream.read(buffer, 0, buffer.length) != -1) {
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.benchmark.index.analysis;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.elasticsearch.common.StopWatch;
+import org.elasticsearch.common.inject.Injector;
+import org.elasticsearch.common.inject.ModulesBuilder;
+import org.elasticsearch.common.io.FastStringReader;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.settings.SettingsModule;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.env.Environment;
+import org.elasticsearch.env.EnvironmentModule;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.IndexNameModule;
+import org.elasticsearch.index.analysis.AnalysisModule;
+import org.elasticsearch.index.analysis.AnalysisService;
+import org.elasticsearch.index.settings.IndexSettingsModule;
+import org.elasticsearch.indices.analysis.IndicesAnalysisModule;
+import org.elasticsearch.indices.analysis.IndicesAnalysisService;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.elasticsearch.common.settings.ImmutableSettings.settingsBuilder;
+
+/**
+ * Analyzes short values with the built in analyzers (and a couple of custom ones, with char filters) using
+ * their reusable token streams, reporting the analysis rate and the bytes allocated per value.
+ */
+public class AnalysisBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int numberOfValues = 10000;
+        int iterations = 20;
+
+        Settings settings = settingsBuilder()
+                .put("index.analysis.analyzer.custom_plain.tokenizer", "standard")
+                .putArray("index.analysis.analyzer.custom_plain.filter", "lowercase", "stop")
+                .put("index.analysis.analyzer.custom_html.tokenizer", "standard")
+                .putArray("index.analysis.analyzer.custom_html.char_filter", "html_strip")
+                .putArray("index.analysis.analyzer.custom_html.filter", "lowercase", "stop")
+                .build();
+
+        Index index = new Index("test");
+        Injector parentInjector = new ModulesBuilder().add(new SettingsModule(settings), new EnvironmentModule(new Environment(settings)), new IndicesAnalysisModule()).createInjector();
+        Injector injector = new ModulesBuilder().add(
+                new IndexSettingsModule(index, settings),
+                new IndexNameModule(index),
+                new AnalysisModule(settings, parentInjector.getInstance(IndicesAnalysisService.class)))
+                .createChildInjector(parentInjector);
+        AnalysisService analysisService = injector.getInstance(AnalysisService.class);
+
+        Random random = new Random(0);
+        String[] words = new String[]{"the", "quick", "brown", "fox", "jumps", "over", "lazy", "dog", "elastic", "search", "<b>bold</b>", "&amp;"};
+        String[] values = new String[numberOfValues];
+        for (int i = 0; i < numberOfValues; i++) {
+            StringBuilder sb = new StringBuilder();
+            int numberOfWords = 1 + random.nextInt(10);
+            for (int j = 0; j < numberOfWords; j++) {
+                sb.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            values[i] = sb.toString();
+        }
+
+        String[] analyzers = new String[]{"standard", "simple", "whitespace", "stop", "keyword", "pattern", "snowball", "english", "standard_html_strip", "custom_plain", "custom_html"};
+        for (String name : analyzers) {
+            Analyzer analyzer = analysisService.analyzer(name).analyzer();
+            // warm up
+            for (int i = 0; i < iterations; i++) {
+                analyze(analyzer, values);
+            }
+
+            long allocated = allocatedBytes();
+            long tokens = 0;
+            StopWatch stopWatch = new StopWatch().start();
+            for (int i = 0; i < iterations; i++) {
+                tokens += analyze(analyzer, values);
+            }
+            stopWatch.stop();
+            allocated = allocatedBytes() - allocated;
+            long analyzed = ((long) numberOfValues) * iterations;
+            System.out.println("Analyzer [" + name + "]: " + stopWatch.totalTime() + ", " + (long) (analyzed / stopWatch.totalTime().secondsFrac()) + " values/s, "
+                    + (long) (tokens / stopWatch.totalTime().secondsFrac()) + " tokens/s, " + new ByteSizeValue(allocated / analyzed) + " allocated per value");
+        }
+    }
+
+    private static long analyze(Analyzer analyzer, String[] values) throws Exception {
+        long tokens = 0;
+        for (String value : values) {
+            TokenStream tokenStream = analyzer.reusableTokenStream("field", new FastStringReader(value));
+            tokenStream.reset();
+            while (tokenStream.incrementToken()) {
+                tokens++;
+            }
+            tokenStream.end();
+            tokenStream.close();
+        }
+        return tokens;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
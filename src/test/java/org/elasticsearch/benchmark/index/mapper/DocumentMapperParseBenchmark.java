@@ -0,0 +1,93 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.benchmark.index.mapper;
+
+import org.elasticsearch.common.StopWatch;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.SourceToParse;
+import org.elasticsearch.test.unit.index.mapper.MapperTests;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Parses documents with and without reusing the Lucene documents and fields, reporting the parse rate
+ * and the bytes allocated per document.
+ */
+public class DocumentMapperParseBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int numberOfDocs = 10000;
+        int iterations = 20;
+
+        String mapping = XContentFactory.jsonBuilder().startObject().startObject("type1")
+                .startObject("properties")
+                .startObject("@timestamp").field("type", "date").endObject()
+                .startObject("took").field("type", "long").endObject()
+                .startObject("score").field("type", "double").endObject()
+                .endObject()
+                .endObject().endObject().string();
+        DocumentMapper docMapper = MapperTests.newParser().parse(mapping);
+
+        Random random = new Random(0);
+        byte[][] docs = new byte[numberOfDocs][];
+        for (int i = 0; i < numberOfDocs; i++) {
+            docs[i] = XContentFactory.jsonBuilder().startObject()
+                    .field("@timestamp", "2012-05-" + (10 + random.nextInt(20)) + "T10:" + (10 + random.nextInt(50)) + ":11.123Z")
+                    .field("user", "user" + random.nextInt(1000))
+                    .field("message", "trying out elastic search, request " + random.nextInt(100000))
+                    .field("took", random.nextInt(500))
+                    .field("score", random.nextDouble())
+                    .array("tags", "tag" + random.nextInt(10), "tag" + random.nextInt(10))
+                    .endObject().copiedBytes();
+        }
+
+        // warm up
+        for (int i = 0; i < iterations; i++) {
+            parse(docMapper, docs, false);
+            parse(docMapper, docs, true);
+        }
+
+        for (boolean reuse : new boolean[]{false, true}) {
+            long allocated = allocatedBytes();
+            StopWatch stopWatch = new StopWatch().start();
+            for (int i = 0; i < iterations; i++) {
+                parse(docMapper, docs, reuse);
+            }
+            stopWatch.stop();
+            allocated = allocatedBytes() - allocated;
+            long parsed = ((long) numberOfDocs) * iterations;
+            System.out.println("Reuse [" + reuse + "]: " + stopWatch.totalTime() + ", " + (long) (parsed / stopWatch.totalTime().secondsFrac()) + " docs/s, "
+                    + new ByteSizeValue(allocated / parsed) + " allocated per doc");
+        }
+    }
+
+    private static void parse(DocumentMapper docMapper, byte[][] docs, boolean reuse) {
+        for (int i = 0; i < docs.length; i++) {
+            docMapper.parse(SourceToParse.source(docs[i]).type("type1").id(Integer.toString(i)).reuse(reuse));
+        }
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
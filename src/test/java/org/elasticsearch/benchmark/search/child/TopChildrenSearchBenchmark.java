@@ -0,0 +1,140 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.benchmark.search.child;
+
+import org.elasticsearch.action.admin.cluster.health.ClusterHealthResponse;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.client.Requests;
+import org.elasticsearch.common.StopWatch;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.SizeValue;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.node.Node;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.elasticsearch.client.Requests.createIndexRequest;
+import static org.elasticsearch.cluster.metadata.IndexMetaData.SETTING_NUMBER_OF_REPLICAS;
+import static org.elasticsearch.cluster.metadata.IndexMetaData.SETTING_NUMBER_OF_SHARDS;
+import static org.elasticsearch.common.settings.ImmutableSettings.settingsBuilder;
+import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
+import static org.elasticsearch.index.query.QueryBuilders.*;
+import static org.elasticsearch.node.NodeBuilder.nodeBuilder;
+
+/**
+ * Benchmarks the top_children query when parents have a skewed number of children, so the top
+ * child docs map to few parents and the child query has to be executed again with more docs.
+ */
+public class TopChildrenSearchBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = settingsBuilder()
+                .put("index.engine.robin.refreshInterval", "-1")
+                .put("gateway.type", "local")
+                .put(SETTING_NUMBER_OF_SHARDS, 1)
+                .put(SETTING_NUMBER_OF_REPLICAS, 0)
+                .build();
+
+        Node node1 = nodeBuilder().settings(settingsBuilder().put(settings).put("name", "node1")).node();
+        Client client = node1.client();
+
+        long PARENT_COUNT = SizeValue.parseSizeValue("200k").singles();
+        int MAX_CHILD_COUNT = 50;
+        int BATCH = 100;
+        int QUERY_WARMUP = 20;
+        int QUERY_COUNT = 50;
+        Random random = new Random(0);
+
+        Thread.sleep(5000);
+        try {
+            client.admin().indices().create(createIndexRequest("test")).actionGet();
+            client.admin().indices().preparePutMapping("test").setType("child").setSource(XContentFactory.jsonBuilder().startObject().startObject("type")
+                    .startObject("_parent").field("type", "parent").endObject()
+                    .endObject().endObject()).execute().actionGet();
+            Thread.sleep(5000);
+
+            StopWatch stopWatch = new StopWatch().start();
+
+            System.out.println("--> Indexing [" + PARENT_COUNT + "] parents with up to [" + MAX_CHILD_COUNT + "] children each ...");
+            long ITERS = PARENT_COUNT / BATCH;
+            int counter = 0;
+            long children = 0;
+            for (long i = 1; i <= ITERS; i++) {
+                BulkRequestBuilder request = client.prepareBulk();
+                for (int j = 0; j < BATCH; j++) {
+                    counter++;
+                    request.add(Requests.indexRequest("test").type("parent").id(Integer.toString(counter))
+                            .source(jsonBuilder().startObject().field("id", counter).endObject()));
+                    // skewed: most parents have a few children, some have many
+                    int childCount = (int) (MAX_CHILD_COUNT * Math.pow(random.nextDouble(), 4)) + 1;
+                    for (int k = 0; k < childCount; k++) {
+                        children++;
+                        request.add(Requests.indexRequest("test").type("child").id(counter + "_" + k)
+                                .parent(Integer.toString(counter))
+                                .source(jsonBuilder().startObject().field("tag", "tag" + (k % 3)).field("num", random.nextInt(1000)).endObject()));
+                    }
+                }
+                BulkResponse response = request.execute().actionGet();
+                if (response.hasFailures()) {
+                    System.err.println("--> failures...");
+                }
+            }
+            System.out.println("--> Indexing [" + children + "] children took " + stopWatch.stop().totalTime());
+        } catch (Exception e) {
+            System.out.println("--> Index already exists, ignoring indexing phase, waiting for green");
+            ClusterHealthResponse clusterHealthResponse = client.admin().cluster().prepareHealth().setWaitForGreenStatus().setTimeout("10m").execute().actionGet();
+            if (clusterHealthResponse.timedOut()) {
+                System.err.println("--> Timed out waiting for cluster health");
+            }
+        }
+        client.admin().indices().prepareRefresh().execute().actionGet();
+        System.out.println("--> Number of docs in index: " + client.prepareCount().setQuery(matchAllQuery()).execute().actionGet().count());
+
+        for (String scoreType : new String[]{"max", "sum", "avg"}) {
+            for (int size : new int[]{10, 100, 1000}) {
+                for (int j = 0; j < QUERY_WARMUP; j++) {
+                    SearchResponse searchResponse = client.prepareSearch().setSize(size)
+                            .setQuery(topChildrenQuery("child", customScoreQuery(termQuery("tag", "tag0")).script("doc['num'].value")).score(scoreType))
+                            .execute().actionGet();
+                    if (searchResponse.failedShards() > 0) {
+                        System.err.println("Search Failures " + Arrays.toString(searchResponse.shardFailures()));
+                    }
+                }
+
+                long totalQueryTime = 0;
+                long hits = 0;
+                for (int j = 0; j < QUERY_COUNT; j++) {
+                    SearchResponse searchResponse = client.prepareSearch().setSize(size)
+                            .setQuery(topChildrenQuery("child", customScoreQuery(termQuery("tag", "tag0")).script("doc['num'].value")).score(scoreType))
+                            .execute().actionGet();
+                    totalQueryTime += searchResponse.tookInMillis();
+                    hits = searchResponse.hits().totalHits();
+                }
+                System.out.println("--> top_children score [" + scoreType + "], size [" + size + "], hits [" + hits + "], Avg: " + (totalQueryTime / QUERY_COUNT) + "ms");
+            }
+        }
+
+        node1.close();
+    }
+}
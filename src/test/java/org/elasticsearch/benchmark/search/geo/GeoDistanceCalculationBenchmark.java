@@ -0,0 +1,80 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.benchmark.search.geo;
+
+import org.elasticsearch.common.StopWatch;
+import org.elasticsearch.common.unit.DistanceUnit;
+import org.elasticsearch.index.search.geo.GeoDistance;
+
+import java.util.Random;
+
+/**
+ * Micro benchmark of the fixed source distance calculations of the different {@link GeoDistance} types,
+ * over field data like lat/lon arrays.
+ */
+public class GeoDistanceCalculationBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        final int NUM_POINTS = 1000000;
+        final int NUM_WARM = 10;
+        final int NUM_RUNS = 20;
+
+        // points around New York, what a small radius geo_distance filter typically sees
+        Random random = new Random(0);
+        double[] lats = new double[NUM_POINTS];
+        double[] lons = new double[NUM_POINTS];
+        for (int i = 0; i < NUM_POINTS; i++) {
+            lats[i] = 40.7143528 + (random.nextDouble() * 2 - 1);
+            lons[i] = -74.0059731 + (random.nextDouble() * 2 - 1);
+        }
+
+        for (GeoDistance geoDistance : GeoDistance.values()) {
+            GeoDistance.FixedSourceDistance distance = geoDistance.fixedSourceDistance(40.7143528, -74.0059731, DistanceUnit.KILOMETERS);
+            double sum = 0;
+            for (int i = 0; i < NUM_WARM; i++) {
+                sum += run(distance, lats, lons);
+            }
+            StopWatch stopWatch = new StopWatch().start();
+            for (int i = 0; i < NUM_RUNS; i++) {
+                sum += run(distance, lats, lons);
+            }
+            stopWatch.stop();
+            System.out.println("--> " + geoDistance + ": " + (stopWatch.totalTime().millis() / NUM_RUNS) + "ms per " + NUM_POINTS + " points [" + sum + "]");
+        }
+
+        double maxError = 0;
+        for (int i = 0; i < NUM_POINTS; i++) {
+            double arc = GeoDistance.ARC.calculate(40.7143528, -74.0059731, lats[i], lons[i], DistanceUnit.KILOMETERS);
+            double sloppy = GeoDistance.SLOPPY_ARC.calculate(40.7143528, -74.0059731, lats[i], lons[i], DistanceUnit.KILOMETERS);
+            if (arc > 1) {
+                maxError = Math.max(maxError, Math.abs(sloppy - arc) / arc);
+            }
+        }
+        System.out.println("--> SLOPPY_ARC max relative error compared to ARC: " + maxError);
+    }
+
+    private static double run(GeoDistance.FixedSourceDistance distance, double[] lats, double[] lons) {
+        double sum = 0;
+        for (int i = 0; i < lats.length; i++) {
+            sum += distance.calculate(lats[i], lons[i]);
+        }
+        return sum;
+    }
+}
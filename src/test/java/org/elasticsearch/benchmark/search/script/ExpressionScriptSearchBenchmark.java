@@ -0,0 +1,168 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.benchmark.search.script;
+
+import org.elasticsearch.action.admin.cluster.health.ClusterHealthResponse;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.client.Requests;
+import org.elasticsearch.common.StopWatch;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.SizeValue;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.node.Node;
+import org.elasticsearch.search.facet.statistical.StatisticalFacet;
+
+import java.util.Random;
+
+import static org.elasticsearch.client.Requests.createIndexRequest;
+import static org.elasticsearch.cluster.metadata.IndexMetaData.SETTING_NUMBER_OF_REPLICAS;
+import static org.elasticsearch.cluster.metadata.IndexMetaData.SETTING_NUMBER_OF_SHARDS;
+import static org.elasticsearch.common.settings.ImmutableSettings.settingsBuilder;
+import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
+import static org.elasticsearch.index.query.QueryBuilders.customScoreQuery;
+import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
+import static org.elasticsearch.node.NodeBuilder.nodeBuilder;
+import static org.elasticsearch.search.facet.FacetBuilders.statisticalScriptFacet;
+
+/**
+ * Compares the <tt>mvel</tt> and <tt>expression</tt> script langs on the same scripts, both as a
+ * script statistical facet and as a custom score query.
+ */
+public class ExpressionScriptSearchBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = settingsBuilder()
+                .put("index.engine.robin.refreshInterval", "-1")
+                .put("gateway.type", "local")
+                .put(SETTING_NUMBER_OF_SHARDS, 1)
+                .put(SETTING_NUMBER_OF_REPLICAS, 0)
+                .build();
+
+        Node node1 = nodeBuilder().settings(settingsBuilder().put(settings).put("name", "node1")).node();
+
+        Client client = node1.client();
+
+        long COUNT = SizeValue.parseSizeValue("1m").singles();
+        int BATCH = 500;
+        int QUERY_WARMUP = 20;
+        int QUERY_COUNT = 100;
+
+        Random random = new Random(0);
+
+        Thread.sleep(10000);
+        try {
+            client.admin().indices().create(createIndexRequest("test")).actionGet();
+
+            StopWatch stopWatch = new StopWatch().start();
+
+            System.out.println("--> Indexing [" + COUNT + "] ...");
+            long ITERS = COUNT / BATCH;
+            long i = 1;
+            int counter = 0;
+            for (; i <= ITERS; i++) {
+                BulkRequestBuilder request = client.prepareBulk();
+                for (int j = 0; j < BATCH; j++) {
+                    counter++;
+                    XContentBuilder source = jsonBuilder().startObject()
+                            .field("id", Integer.valueOf(counter))
+                            .field("l_value", random.nextInt(1000))
+                            .field("d_value", random.nextDouble() * 1000)
+                            .endObject();
+                    request.add(Requests.indexRequest("test").type("type1").id(Integer.toString(counter))
+                            .source(source));
+                }
+                BulkResponse response = request.execute().actionGet();
+                if (response.hasFailures()) {
+                    System.err.println("--> failures...");
+                }
+                if (((i * BATCH) % 10000) == 0) {
+                    System.out.println("--> Indexed " + (i * BATCH) + " took " + stopWatch.stop().lastTaskTime());
+                    stopWatch.start();
+                }
+            }
+            System.out.println("--> Indexing took " + stopWatch.totalTime() + ", TPS " + (((double) (COUNT)) / stopWatch.totalTime().secondsFrac()));
+        } catch (Exception e) {
+            System.out.println("--> Index already exists, ignoring indexing phase, waiting for green");
+            ClusterHealthResponse clusterHealthResponse = client.admin().cluster().prepareHealth().setWaitForGreenStatus().setTimeout("10m").execute().actionGet();
+            if (clusterHealthResponse.timedOut()) {
+                System.err.println("--> Timed out waiting for cluster health");
+            }
+        }
+        client.admin().indices().prepareRefresh().execute().actionGet();
+        COUNT = client.prepareCount().setQuery(matchAllQuery()).execute().actionGet().count();
+        System.out.println("--> Number of docs in index: " + COUNT);
+
+        String[] scripts = new String[]{
+                "doc['l_value'].value * 2 + doc['d_value'].value",
+                "Math.log(doc['d_value'].value + 1) * factor",
+        };
+
+        for (String script : scripts) {
+            for (String lang : new String[]{"mvel", "expression"}) {
+                System.out.println("--> Warmup [" + lang + "] [" + script + "]...");
+                for (int j = 0; j < QUERY_WARMUP; j++) {
+                    runFacet(client, lang, script);
+                    runCustomScore(client, lang, script);
+                }
+
+                long totalQueryTime = 0;
+                double total = 0;
+                for (int j = 0; j < QUERY_COUNT; j++) {
+                    SearchResponse searchResponse = runFacet(client, lang, script);
+                    if (searchResponse.hits().totalHits() != COUNT) {
+                        System.err.println("--> mismatch on hits");
+                    }
+                    total = searchResponse.facets().<StatisticalFacet>facet("stats").total();
+                    totalQueryTime += searchResponse.tookInMillis();
+                }
+                System.out.println("--> Statistical Script Facet [" + lang + "] " + (totalQueryTime / QUERY_COUNT) + "ms, total [" + total + "]");
+
+                totalQueryTime = 0;
+                for (int j = 0; j < QUERY_COUNT; j++) {
+                    SearchResponse searchResponse = runCustomScore(client, lang, script);
+                    if (searchResponse.hits().totalHits() != COUNT) {
+                        System.err.println("--> mismatch on hits");
+                    }
+                    totalQueryTime += searchResponse.tookInMillis();
+                }
+                System.out.println("--> Custom Score Query [" + lang + "] " + (totalQueryTime / QUERY_COUNT) + "ms");
+            }
+        }
+
+        client.close();
+        node1.close();
+    }
+
+    private static SearchResponse runFacet(Client client, String lang, String script) {
+        return client.prepareSearch()
+                .setQuery(matchAllQuery())
+                .addFacet(statisticalScriptFacet("stats").script(script).lang(lang).param("factor", 2))
+                .execute().actionGet();
+    }
+
+    private static SearchResponse runCustomScore(Client client, String lang, String script) {
+        return client.prepareSearch()
+                .setQuery(customScoreQuery(matchAllQuery()).script(script).lang(lang).param("factor", 2))
+                .execute().actionGet();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.integration.gateway.fs;
+
+import org.elasticsearch.action.admin.cluster.health.ClusterHealthResponse;
+import org.elasticsearch.action.admin.indices.status.GatewaySnapshotStatus;
+import org.elasticsearch.action.admin.indices.status.IndicesStatusResponse;
+import org.elasticsearch.action.admin.indices.status.ShardStatus;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static org.elasticsearch.client.Requests.clusterHealthRequest;
+import static org.elasticsearch.common.settings.ImmutableSettings.settingsBuilder;
+import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ *
+ */
+public class ThrottledFsIndexGatewayTests extends AbstractSimpleIndexGatewayTests {
+
+    @Test
+    public void testThrottledIncrementalSnapshot() throws Exception {
+        startNode("server1", settingsBuilder()
+                .put("gateway.fs.max_snapshot_size_per_sec", "512kb")
+                .put("index.gateway.snapshot_interval", "-1"));
+
+        client("server1").admin().indices().prepareCreate("test").execute().actionGet();
+        ClusterHealthResponse clusterHealth = client("server1").admin().cluster().health(clusterHealthRequest().waitForYellowStatus()).actionGet();
+        assertThat(clusterHealth.timedOut(), equalTo(false));
+
+        Random random = new Random(0);
+        for (int i = 0; i < 200; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int j = 0; j < 500; j++) {
+                text.append(Integer.toString(random.nextInt(100000), Character.MAX_RADIX)).append(' ');
+            }
+            client("server1").prepareIndex("test", "type1", Integer.toString(i)).setSource(jsonBuilder().startObject()
+                    .field("text", text.toString())
+                    .endObject()).execute().actionGet();
+        }
+        client("server1").admin().indices().prepareFlush("test").execute().actionGet();
+
+        logger.info("Gateway Snapshot (all the files)");
+        long start = System.currentTimeMillis();
+        client("server1").admin().indices().prepareGatewaySnapshot("test").execute().actionGet();
+        long took = System.currentTimeMillis() - start;
+        GatewaySnapshotStatus firstSnapshot = snapshotStatus();
+        long firstSnapshotSize = firstSnapshot.indexSize().bytes();
+        logger.info("first snapshot uploaded [{}] in [{}ms]", firstSnapshot.indexSize(), took);
+        assertThat(firstSnapshotSize, greaterThan(1024l * 1024));
+        // the rate limiter does not pause on the first chunk, so only expect (a conservative) half of the time
+        assertThat(took, greaterThanOrEqualTo(firstSnapshotSize * 1000 / (512 * 1024) / 2));
+
+        logger.info("Indexing one more doc, and flushing into a new segment");
+        client("server1").prepareIndex("test", "type1", "200").setSource(jsonBuilder().startObject()
+                .field("text", "new doc")
+                .endObject()).execute().actionGet();
+        client("server1").admin().indices().prepareFlush("test").execute().actionGet();
+
+        logger.info("Gateway Snapshot (only the new segment)");
+        client("server1").admin().indices().prepareGatewaySnapshot("test").execute().actionGet();
+        GatewaySnapshotStatus secondSnapshot = snapshotStatus();
+        logger.info("second snapshot uploaded [{}]", secondSnapshot.indexSize());
+        // the files of the first segment are unchanged, and must not be uploaded again
+        assertThat(secondSnapshot.indexSize().bytes(), greaterThan(0l));
+        assertThat(secondSnapshot.indexSize().bytes(), lessThan(firstSnapshotSize / 10));
+    }
+
+    private GatewaySnapshotStatus snapshotStatus() {
+        IndicesStatusResponse statusResponse = client("server1").admin().indices().prepareStatus("test").setSnapshot(true).execute().actionGet();
+        for (ShardStatus shardStatus : statusResponse.shards()) {
+            if (shardStatus.shardRouting().primary()) {
+                assertThat(shardStatus.gatewaySnapshotStatus(), notNullValue());
+                assertThat(shardStatus.gatewaySnapshotStatus().stage(), equalTo(GatewaySnapshotStatus.Stage.DONE));
+                return shardStatus.gatewaySnapshotStatus();
+            }
+        }
+        throw new AssertionError("no primary shard status for [test]");
+    }
+}
@@ -88,6 +88,36 @@ public class MoreLikeThisActionTests extends AbstractNodesTests {
         assertThat(mltResponse.hits().totalHits(), equalTo(1l));
     }
 
+    @Test
+    public void testMoreLikeThisWithTermVectorsUsesLatestVersion() throws Exception {
+        logger.info("Creating index test");
+        client1.admin().indices().create(createIndexRequest("test").mapping("type1", jsonBuilder().startObject().startObject("type1").startObject("properties")
+                .startObject("text").field("type", "string").field("term_vector", "yes").endObject()
+                .endObject().endObject().endObject())).actionGet();
+
+        logger.info("Running Cluster Health");
+        ClusterHealthResponse clusterHealth = client1.admin().cluster().health(clusterHealthRequest().waitForGreenStatus()).actionGet();
+        logger.info("Done Cluster Health, status " + clusterHealth.status());
+        assertThat(clusterHealth.timedOut(), equalTo(false));
+        assertThat(clusterHealth.status(), equalTo(ClusterHealthStatus.GREEN));
+
+        logger.info("Indexing...");
+        client1.index(indexRequest("test").type("type1").id("1").source(jsonBuilder().startObject().field("text", "lucene").endObject())).actionGet();
+        client1.index(indexRequest("test").type("type1").id("2").source(jsonBuilder().startObject().field("text", "elasticsearch release").endObject())).actionGet();
+        client1.admin().indices().refresh(refreshRequest()).actionGet();
+
+        logger.info("Updating doc 1 without refreshing");
+        client1.index(indexRequest("test").type("type1").id("1").source(jsonBuilder().startObject().field("text", "elasticsearch").endObject())).actionGet();
+
+        logger.info("Running moreLikeThis, the realtime get content should be used, not the stale term vectors");
+        for (Client client : new Client[]{client1, client2}) {
+            SearchResponse mltResponse = client.moreLikeThis(moreLikeThisRequest("test").type("type1").id("1").minTermFreq(1).minDocFreq(1)).actionGet();
+            assertThat(mltResponse.failedShards(), equalTo(0));
+            assertThat(mltResponse.hits().totalHits(), equalTo(1l));
+            assertThat(mltResponse.hits().getAt(0).id(), equalTo("2"));
+        }
+    }
+
 
     @Test
     public void testMoreLikeThisWithAliases() throws Exception {
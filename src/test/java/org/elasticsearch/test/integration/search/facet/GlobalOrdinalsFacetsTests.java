@@ -0,0 +1,176 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.test.integration.search.facet;
+
+import org.elasticsearch.action.admin.indices.segments.IndicesSegmentResponse;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.facet.AbstractFacetBuilder;
+import org.elasticsearch.search.facet.terms.TermsFacet;
+import org.elasticsearch.search.facet.terms.TermsFacetBuilder;
+import org.elasticsearch.search.facet.termsstats.TermsStatsFacet;
+import org.elasticsearch.search.facet.termsstats.TermsStatsFacetBuilder;
+import org.elasticsearch.test.integration.AbstractNodesTests;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
+import static org.elasticsearch.index.query.FilterBuilders.rangeFilter;
+import static org.elasticsearch.index.query.QueryBuilders.filteredQuery;
+import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
+import static org.elasticsearch.search.facet.FacetBuilders.termsFacet;
+import static org.elasticsearch.search.facet.FacetBuilders.termsStatsFacet;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Runs the string terms and terms_stats facets on an index with several segments (counting on global ordinals)
+ * and on the same docs optimized into a single segment (counting on the segment ordinals), and compares them.
+ */
+public class GlobalOrdinalsFacetsTests extends AbstractNodesTests {
+
+    private Client client;
+
+    @BeforeClass
+    public void createNodes() throws Exception {
+        startNode("node0", ImmutableSettings.settingsBuilder().put("index.number_of_shards", 1).put("index.number_of_replicas", 0));
+        client = client("node0");
+    }
+
+    @AfterClass
+    public void closeNodes() {
+        client.close();
+        closeAllNodes();
+    }
+
+    @Test
+    public void testGlobalOrdinalsMatchSegmentOrdinals() throws Exception {
+        for (String index : new String[]{"multi", "single"}) {
+            try {
+                client.admin().indices().prepareDelete(index).execute().actionGet();
+            } catch (Exception e) {
+                // ignore
+            }
+            // don't let the segments of the multi index be merged
+            client.admin().indices().prepareCreate(index)
+                    .setSettings(ImmutableSettings.settingsBuilder()
+                            .put("index.merge.policy.segments_per_tier", 100)
+                            .put("index.merge.policy.max_merge_at_once", 100))
+                    .execute().actionGet();
+        }
+        client.admin().cluster().prepareHealth().setWaitForGreenStatus().execute().actionGet();
+
+        Random random = new Random(42);
+        int numberOfDocs = 500;
+        for (int i = 0; i < numberOfDocs; i++) {
+            XContentBuilder source = jsonBuilder().startObject();
+            int numberOfTags = random.nextInt(4);
+            if (numberOfTags > 0) {
+                // more terms than fit in a segment, so each segment has its own subset
+                source.startArray("tag");
+                for (int j = 0; j < numberOfTags; j++) {
+                    source.value("tag" + random.nextInt(60));
+                }
+                source.endArray();
+            }
+            source.field("num", random.nextInt(1000));
+            byte[] bytes = source.endObject().copiedBytes();
+            for (String index : new String[]{"multi", "single"}) {
+                client.prepareIndex(index, "type1", Integer.toString(i)).setSource(bytes).execute().actionGet();
+            }
+            if (i % 20 == 19) {
+                client.admin().indices().prepareRefresh("multi").execute().actionGet();
+            }
+        }
+        // deleted docs stay in the segments of the multi index
+        for (int i = 0; i < numberOfDocs; i += 7) {
+            for (String index : new String[]{"multi", "single"}) {
+                client.prepareDelete(index, "type1", Integer.toString(i)).execute().actionGet();
+            }
+        }
+        client.admin().indices().prepareRefresh().execute().actionGet();
+        client.admin().indices().prepareOptimize("single").setMaxNumSegments(1).setFlush(true).execute().actionGet();
+        client.admin().indices().prepareRefresh().execute().actionGet();
+
+        IndicesSegmentResponse segments = client.admin().indices().prepareSegments("multi", "single").execute().actionGet();
+        assertThat(segments.indices().get("multi").shards().get(0).getAt(0).numberOfSearch(), greaterThan(1));
+        assertThat(segments.indices().get("single").shards().get(0).getAt(0).numberOfSearch(), equalTo(1));
+
+        QueryBuilder[] queries = new QueryBuilder[]{
+                matchAllQuery(),
+                filteredQuery(matchAllQuery(), rangeFilter("num").from(100).to(400))
+        };
+        for (QueryBuilder query : queries) {
+            for (TermsFacet.ComparatorType order : new TermsFacet.ComparatorType[]{TermsFacet.ComparatorType.COUNT, TermsFacet.ComparatorType.TERM}) {
+                for (int size : new int[]{5, 100}) {
+                    assertSameTerms(query, termsFacet("facet").field("tag").order(order).size(size));
+                    assertSameTerms(query, termsFacet("facet").field("tag").order(order).size(size).exclude("tag1", "tag2", "tag33"));
+                    assertSameTerms(query, termsFacet("facet").field("tag").order(order).size(size).regex("tag[1-3].*"));
+                }
+            }
+            for (TermsStatsFacet.ComparatorType order : new TermsStatsFacet.ComparatorType[]{TermsStatsFacet.ComparatorType.COUNT, TermsStatsFacet.ComparatorType.TERM, TermsStatsFacet.ComparatorType.TOTAL}) {
+                for (int size : new int[]{5, 100}) {
+                    assertSameTermsStats(query, termsStatsFacet("facet").keyField("tag").valueField("num").order(order).size(size));
+                }
+            }
+        }
+    }
+
+    private void assertSameTerms(QueryBuilder query, TermsFacetBuilder facet) {
+        TermsFacet multi = search("multi", query, facet).facets().facet("facet");
+        TermsFacet single = search("single", query, facet).facets().facet("facet");
+        assertThat(multi.missingCount(), equalTo(single.missingCount()));
+        assertThat(multi.totalCount(), equalTo(single.totalCount()));
+        assertThat(multi.otherCount(), equalTo(single.otherCount()));
+        assertThat(multi.entries().size(), equalTo(single.entries().size()));
+        for (int i = 0; i < multi.entries().size(); i++) {
+            assertThat(multi.entries().get(i).term(), equalTo(single.entries().get(i).term()));
+            assertThat(multi.entries().get(i).count(), equalTo(single.entries().get(i).count()));
+        }
+    }
+
+    private void assertSameTermsStats(QueryBuilder query, TermsStatsFacetBuilder facet) {
+        TermsStatsFacet multi = search("multi", query, facet).facets().facet("facet");
+        TermsStatsFacet single = search("single", query, facet).facets().facet("facet");
+        assertThat(multi.missingCount(), equalTo(single.missingCount()));
+        assertThat(multi.entries().size(), equalTo(single.entries().size()));
+        for (int i = 0; i < multi.entries().size(); i++) {
+            TermsStatsFacet.Entry multiEntry = multi.entries().get(i);
+            TermsStatsFacet.Entry singleEntry = single.entries().get(i);
+            assertThat(multiEntry.term(), equalTo(singleEntry.term()));
+            assertThat(multiEntry.count(), equalTo(singleEntry.count()));
+            assertThat(multiEntry.totalCount(), equalTo(singleEntry.totalCount()));
+            assertThat(multiEntry.min(), equalTo(singleEntry.min()));
+            assertThat(multiEntry.max(), equalTo(singleEntry.max()));
+            assertThat(multiEntry.total(), closeTo(singleEntry.total(), 0.000001));
+        }
+    }
+
+    private SearchResponse search(String index, QueryBuilder query, AbstractFacetBuilder facet) {
+        SearchResponse searchResponse = client.prepareSearch(index).setQuery(query).addFacet(facet).execute().actionGet();
+        assertThat(searchResponse.failedShards(), equalTo(0));
+        return searchResponse;
+    }
+}
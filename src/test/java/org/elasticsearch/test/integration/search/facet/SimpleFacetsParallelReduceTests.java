@@ -0,0 +1,45 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.integration.search.facet;
+
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the facet tests with small reduce batches and several reduce threads, so facets are reduced
+ * in parallel and partially reducible facets are reduced in batches of shard results.
+ */
+@Test
+public class SimpleFacetsParallelReduceTests extends SimpleFacetsTests {
+
+    @Override
+    protected int numberOfShards() {
+        return 5;
+    }
+
+    @Override
+    protected Settings nodeSettings() {
+        return ImmutableSettings.settingsBuilder()
+                .put("search.controller.reduce.batch_size", 2)
+                .put("search.controller.reduce.concurrency", 4)
+                .build();
+    }
+}
@@ -27,9 +27,11 @@ import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.search.facet.cardinality.CardinalityFacet;
 import org.elasticsearch.search.facet.datehistogram.DateHistogramFacet;
 import org.elasticsearch.search.facet.filter.FilterFacet;
 import org.elasticsearch.search.facet.histogram.HistogramFacet;
+import org.elasticsearch.search.facet.percentiles.PercentilesFacet;
 import org.elasticsearch.search.facet.query.QueryFacet;
 import org.elasticsearch.search.facet.range.RangeFacet;
 import org.elasticsearch.search.facet.statistical.StatisticalFacet;
@@ -65,7 +67,7 @@ public class SimpleFacetsTests extends AbstractNodesTests {
 
     @BeforeClass
     public void createNodes() throws Exception {
-        Settings settings = ImmutableSettings.settingsBuilder().put("index.number_of_shards", numberOfShards()).put("index.number_of_replicas", 0).build();
+        Settings settings = ImmutableSettings.settingsBuilder().put("index.number_of_shards", numberOfShards()).put("index.number_of_replicas", 0).put(nodeSettings()).build();
         for (int i = 0; i < numberOfNodes(); i++) {
             startNode("node" + i, settings);
         }
@@ -76,6 +78,10 @@ public class SimpleFacetsTests extends AbstractNodesTests {
         return 1;
     }
 
+    protected Settings nodeSettings() {
+        return ImmutableSettings.Builder.EMPTY_SETTINGS;
+    }
+
     protected int numberOfNodes() {
         return 1;
     }
@@ -912,6 +918,118 @@ public class SimpleFacetsTests extends AbstractNodesTests {
         }
     }
 
+    @Test
+    public void testCardinalityFacets() throws Exception {
+        try {
+            client.admin().indices().prepareDelete("test").execute().actionGet();
+        } catch (Exception e) {
+            // ignore
+        }
+        client.admin().indices().prepareCreate("test").execute().actionGet();
+        client.admin().cluster().prepareHealth().setWaitForGreenStatus().execute().actionGet();
+
+        client.prepareIndex("test", "type1").setSource(jsonBuilder().startObject()
+                .field("tag", "red")
+                .field("num", 1)
+                .startArray("multi_num").value(1.0).value(2.0f).endArray()
+                .endObject()).execute().actionGet();
+        client.admin().indices().prepareFlush().setRefresh(true).execute().actionGet();
+
+        client.prepareIndex("test", "type1").setSource(jsonBuilder().startObject()
+                .field("tag", "green")
+                .field("num", 1)
+                .startArray("multi_num").value(2.0).value(3.0f).endArray()
+                .endObject()).execute().actionGet();
+        client.prepareIndex("test", "type1").setSource(jsonBuilder().startObject()
+                .field("tag", "red")
+                .field("num", 2)
+                .endObject()).execute().actionGet();
+        client.admin().indices().prepareRefresh().execute().actionGet();
+
+        for (int i = 0; i < numberOfRuns(); i++) {
+            SearchResponse searchResponse = client.prepareSearch()
+                    .setQuery(matchAllQuery())
+                    .addFacet(cardinalityFacet("tag").field("tag"))
+                    .addFacet(cardinalityFacet("num").field("num"))
+                    .addFacet(cardinalityFacet("multi_num").field("multi_num").precision(10))
+                    .execute().actionGet();
+
+            if (searchResponse.failedShards() > 0) {
+                logger.warn("Failed shards:");
+                for (ShardSearchFailure shardSearchFailure : searchResponse.shardFailures()) {
+                    logger.warn("-> {}", shardSearchFailure);
+                }
+            }
+            assertThat(searchResponse.failedShards(), equalTo(0));
+
+            CardinalityFacet facet = searchResponse.facets().facet("tag");
+            assertThat(facet.name(), equalTo("tag"));
+            assertThat(facet.count(), equalTo(2l));
+
+            facet = searchResponse.facets().facet("num");
+            assertThat(facet.name(), equalTo("num"));
+            assertThat(facet.count(), equalTo(2l));
+
+            facet = searchResponse.facets().facet("multi_num");
+            assertThat(facet.name(), equalTo("multi_num"));
+            assertThat(facet.count(), equalTo(3l));
+        }
+    }
+
+    @Test
+    public void testPercentilesFacets() throws Exception {
+        try {
+            client.admin().indices().prepareDelete("test").execute().actionGet();
+        } catch (Exception e) {
+            // ignore
+        }
+        client.admin().indices().prepareCreate("test").execute().actionGet();
+        client.admin().cluster().prepareHealth().setWaitForGreenStatus().execute().actionGet();
+
+        for (int i = 1; i <= 100; i++) {
+            client.prepareIndex("test", "type1").setSource(jsonBuilder().startObject()
+                    .field("num", i)
+                    .endObject()).execute().actionGet();
+            if (i == 50) {
+                client.admin().indices().prepareFlush().setRefresh(true).execute().actionGet();
+            }
+        }
+        client.admin().indices().prepareRefresh().execute().actionGet();
+
+        for (int i = 0; i < numberOfRuns(); i++) {
+            SearchResponse searchResponse = client.prepareSearch()
+                    .setQuery(matchAllQuery())
+                    .addFacet(percentilesFacet("field").field("num").percents(50, 99))
+                    .addFacet(percentilesFacet("script").script("doc['num'].value * 2"))
+                    .execute().actionGet();
+
+            if (searchResponse.failedShards() > 0) {
+                logger.warn("Failed shards:");
+                for (ShardSearchFailure shardSearchFailure : searchResponse.shardFailures()) {
+                    logger.warn("-> {}", shardSearchFailure);
+                }
+            }
+            assertThat(searchResponse.failedShards(), equalTo(0));
+
+            PercentilesFacet facet = searchResponse.facets().facet("field");
+            assertThat(facet.name(), equalTo("field"));
+            assertThat(facet.count(), equalTo(100l));
+            assertThat(facet.min(), equalTo(1d));
+            assertThat(facet.max(), equalTo(100d));
+            assertThat(facet.percents().length, equalTo(2));
+            assertThat(facet.percentile(50), closeTo(50.5, 1));
+            assertThat(facet.percentile(99), closeTo(99.5, 1));
+
+            facet = searchResponse.facets().facet("script");
+            assertThat(facet.name(), equalTo("script"));
+            assertThat(facet.count(), equalTo(100l));
+            assertThat(facet.percents().length, equalTo(7));
+            assertThat(facet.percentile(50), closeTo(101, 2));
+            assertThat(facet.percentile(0), equalTo(2d));
+            assertThat(facet.percentile(100), equalTo(200d));
+        }
+    }
+
     @Test
     public void testHistoFacetEdge() throws Exception {
         try {
@@ -0,0 +1,142 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.test.integration.search.geo;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.query.FilterBuilder;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.test.integration.AbstractNodesTests;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
+import static org.elasticsearch.index.query.FilterBuilders.*;
+import static org.elasticsearch.index.query.QueryBuilders.filteredQuery;
+import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+/**
+ * Runs the geo filters against an index with <tt>geohash_prefix</tt> enabled and one without,
+ * and checks both return the same docs.
+ */
+public class GeohashPrefixFilterTests extends AbstractNodesTests {
+
+    private Client client;
+
+    @BeforeClass
+    public void createNodes() throws Exception {
+        startNode("server1");
+        startNode("server2");
+        client = getClient();
+
+        for (String index : new String[]{"plain", "prefix"}) {
+            try {
+                client.admin().indices().prepareDelete(index).execute().actionGet();
+            } catch (Exception e) {
+                // ignore
+            }
+            String mapping = XContentFactory.jsonBuilder().startObject().startObject("type1")
+                    .startObject("properties").startObject("location").field("type", "geo_point").field("lat_lon", true)
+                    .field("geohash_prefix", index.equals("prefix")).endObject().endObject()
+                    .endObject().endObject().string();
+            client.admin().indices().prepareCreate(index).addMapping("type1", mapping).execute().actionGet();
+        }
+        client.admin().cluster().prepareHealth().setWaitForGreenStatus().execute().actionGet();
+
+        // a grid of points around New York, from Staten Island to the Bronx
+        int id = 0;
+        for (double lat = 40.50; lat <= 40.90; lat += 0.02) {
+            for (double lon = -74.25; lon <= -73.75; lon += 0.025) {
+                id++;
+                for (String index : new String[]{"plain", "prefix"}) {
+                    client.prepareIndex(index, "type1", Integer.toString(id)).setSource(jsonBuilder().startObject()
+                            .startObject("location").field("lat", lat).field("lon", lon).endObject()
+                            .endObject()).execute().actionGet();
+                }
+            }
+        }
+        client.admin().indices().prepareRefresh().execute().actionGet();
+    }
+
+    @AfterClass
+    public void closeNodes() {
+        client.close();
+        closeAllNodes();
+    }
+
+    protected Client getClient() {
+        return client("server1");
+    }
+
+    @Test
+    public void testGeoDistance() throws Exception {
+        assertSameHits(geoDistanceFilter("location").point(40.7143528, -74.0059731).distance("5km"));
+        assertSameHits(geoDistanceFilter("location").point(40.7143528, -74.0059731).distance("12km"));
+        assertSameHits(geoDistanceFilter("location").point(40.65, -73.95).distance("800m"));
+    }
+
+    @Test
+    public void testGeoBoundingBox() throws Exception {
+        assertSameHits(geoBoundingBoxFilter("location").topLeft(40.73, -74.1).bottomRight(40.717, -73.99));
+        assertSameHits(geoBoundingBoxFilter("location").topLeft(40.85, -74.2).bottomRight(40.55, -73.8));
+    }
+
+    @Test
+    public void testGeoPolygon() throws Exception {
+        assertSameHits(geoPolygonFilter("location")
+                .addPoint(40.7, -74.0)
+                .addPoint(40.7, -73.9)
+                .addPoint(40.8, -73.9)
+                .addPoint(40.8, -74.0));
+        // a triangle, so the prefix cells are only partially covered
+        assertSameHits(geoPolygonFilter("location")
+                .addPoint(40.55, -74.2)
+                .addPoint(40.85, -74.1)
+                .addPoint(40.6, -73.8));
+    }
+
+    private void assertSameHits(FilterBuilder filter) {
+        Set<String> plain = hits("plain", filter);
+        Set<String> prefix = hits("prefix", filter);
+        assertThat(plain.size(), greaterThan(0));
+        assertThat(prefix, equalTo(plain));
+    }
+
+    private Set<String> hits(String index, FilterBuilder filter) {
+        SearchResponse searchResponse = client.prepareSearch(index)
+                .setQuery(filteredQuery(matchAllQuery(), filter))
+                .setSize(1000)
+                .execute().actionGet();
+        assertThat(searchResponse.failedShards(), equalTo(0));
+        Set<String> ids = new HashSet<String>();
+        for (SearchHit hit : searchResponse.hits()) {
+            ids.add(hit.id());
+        }
+        assertThat((long) ids.size(), equalTo(searchResponse.hits().totalHits()));
+        return ids;
+    }
+}
@@ -243,6 +243,74 @@ public class HighlighterSearchTests extends AbstractNodesTests {
         assertThat(searchResponse.hits().getAt(0).highlightFields().get("field2").fragments()[0], equalTo("The <xxx>quick</xxx> brown fox jumps over the lazy dog"));
     }
 
+    @Test
+    public void testOffsetsHighlighter() throws Exception {
+        try {
+            client.admin().indices().prepareDelete("test").execute().actionGet();
+        } catch (IndexMissingException e) {
+            // its ok
+        }
+        client.admin().indices().prepareCreate("test")
+                .addMapping("type1", jsonBuilder().startObject().startObject("type1").startObject("properties")
+                        .startObject("field1").field("type", "string").field("store", "yes").field("term_vector", "with_offsets").endObject()
+                        .startObject("field2").field("type", "string").field("store", "no").field("term_vector", "with_offsets").endObject()
+                        .endObject().endObject().endObject())
+                .execute().actionGet();
+        client.admin().cluster().prepareHealth("test").setWaitForGreenStatus().execute().actionGet();
+
+        client.prepareIndex("test", "type1")
+                .setSource(jsonBuilder().startObject()
+                        .field("field1", "this is a test")
+                        .array("field2", "The quick brown fox", "jumps over the quick lazy dog")
+                        .endObject())
+                .setRefresh(true).execute().actionGet();
+
+        logger.info("--> highlighting and searching on field1");
+        SearchSourceBuilder source = searchSource()
+                .query(termQuery("field1", "test"))
+                .highlight(highlight().highlighterType("offsets").field("field1").order("score").preTags("<xxx>").postTags("</xxx>"));
+
+        SearchResponse searchResponse = client.search(searchRequest("test").source(source).searchType(QUERY_THEN_FETCH)).actionGet();
+        assertThat("Failures " + Arrays.toString(searchResponse.shardFailures()), searchResponse.shardFailures().length, equalTo(0));
+        assertThat(searchResponse.hits().totalHits(), equalTo(1l));
+
+        assertThat(searchResponse.hits().getAt(0).highlightFields().get("field1").fragments()[0], equalTo("this is a <xxx>test</xxx>"));
+
+        logger.info("--> searching on _all, highlighting on field2 (from source, multi valued)");
+        source = searchSource()
+                .query(termQuery("_all", "quick"))
+                .highlight(highlight().highlighterType("offsets").field("field2", 100, 0).preTags("<xxx>").postTags("</xxx>"));
+
+        searchResponse = client.search(searchRequest("test").source(source).searchType(QUERY_THEN_FETCH)).actionGet();
+        assertThat("Failures " + Arrays.toString(searchResponse.shardFailures()), searchResponse.shardFailures().length, equalTo(0));
+        assertThat(searchResponse.hits().totalHits(), equalTo(1l));
+
+        assertThat(searchResponse.hits().getAt(0).highlightFields().get("field2").fragments()[0], equalTo("The <xxx>quick</xxx> brown fox jumps over the <xxx>quick</xxx> lazy dog"));
+
+        logger.info("--> searching with a prefix query on field2, highlighting on field2 (falls back to the plain highlighter)");
+        source = searchSource()
+                .query(prefixQuery("field2", "qui"))
+                .highlight(highlight().highlighterType("offsets").field("field2", 100, 0).preTags("<xxx>").postTags("</xxx>"));
+
+        searchResponse = client.search(searchRequest("test").source(source).searchType(QUERY_THEN_FETCH)).actionGet();
+        assertThat("Failures " + Arrays.toString(searchResponse.shardFailures()), searchResponse.shardFailures().length, equalTo(0));
+        assertThat(searchResponse.hits().totalHits(), equalTo(1l));
+
+        assertThat(searchResponse.hits().getAt(0).highlightFields().get("field2").fragments()[0], equalTo("The <xxx>quick</xxx> brown fox jumps over the <xxx>quick</xxx> lazy dog"));
+
+        logger.info("--> searching with a phrase query on field2, highlighting on field2 (falls back to the plain highlighter)");
+        source = searchSource()
+                .query(textPhraseQuery("field2", "quick brown"))
+                .highlight(highlight().highlighterType("offsets").field("field2", 100, 0).preTags("<xxx>").postTags("</xxx>"));
+
+        searchResponse = client.search(searchRequest("test").source(source).searchType(QUERY_THEN_FETCH)).actionGet();
+        assertThat("Failures " + Arrays.toString(searchResponse.shardFailures()), searchResponse.shardFailures().length, equalTo(0));
+        assertThat(searchResponse.hits().totalHits(), equalTo(1l));
+
+        // only the phrase is highlighted, not the other occurrence of quick
+        assertThat(searchResponse.hits().getAt(0).highlightFields().get("field2").fragments()[0], equalTo("The <xxx>quick</xxx> <xxx>brown</xxx> fox"));
+    }
+
     @Test
     public void testFastVectorHighlighter() throws Exception {
         try {
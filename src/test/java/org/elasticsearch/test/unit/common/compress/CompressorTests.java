@@ -0,0 +1,118 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.common.compress;
+
+import org.elasticsearch.common.compress.CompressedStreamInput;
+import org.elasticsearch.common.compress.CompressedStreamOutput;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ *
+ */
+public class CompressorTests {
+
+    private static final String[] TYPES = new String[]{"lzf", "lz4", "deflate"};
+
+    @Test
+    public void testBlockRoundTrip() throws IOException {
+        Random random = new Random();
+        for (String type : TYPES) {
+            Compressor compressor = CompressorFactory.compressor(type);
+            for (int i = 0; i < 100; i++) {
+                byte[] data = randomData(random, 1 + random.nextInt(200000));
+                byte[] compressed = compressor.compress(data, 0, data.length);
+                assertThat(CompressorFactory.compressor(compressed), sameInstance(compressor));
+                assertThat(compressor.uncompress(compressed, 0, compressed.length), equalTo(data));
+            }
+        }
+    }
+
+    @Test
+    public void testStreamRoundTrip() throws IOException {
+        Random random = new Random();
+        for (String type : TYPES) {
+            Compressor compressor = CompressorFactory.compressor(type);
+            byte[] data = randomData(random, 300000 + random.nextInt(1000));
+
+            BytesStreamOutput bytes = new BytesStreamOutput();
+            CompressedStreamOutput out = compressor.streamOutput(bytes, false);
+            int pos = 0;
+            while (pos < data.length) {
+                int len = Math.min(data.length - pos, random.nextInt(100000));
+                out.writeBytes(data, pos, len);
+                pos += len;
+            }
+            out.close();
+            byte[] compressed = bytes.copiedByteArray();
+            assertThat(type, compressed.length, lessThan(data.length));
+
+            // the block api reads what the stream wrote
+            assertThat(type, compressor.uncompress(compressed, 0, compressed.length), equalTo(data));
+
+            CompressedStreamInput in = compressor.streamInput(new BytesStreamInput(compressed, false), false);
+            byte[] result = new byte[data.length];
+            in.readBytes(result, 0, result.length);
+            assertThat(type, result, equalTo(data));
+            assertThat(type, in.read(), equalTo(-1));
+
+            // and the stream reads what the block api wrote
+            compressed = compressor.compress(data, 0, data.length);
+            in = compressor.streamInput(new BytesStreamInput(compressed, false), false);
+            result = new byte[data.length];
+            in.readBytes(result, 0, result.length);
+            assertThat(type, result, equalTo(data));
+        }
+    }
+
+    @Test
+    public void testNotCompressed() {
+        byte[] data = "{\"field\":\"value\"}".getBytes();
+        assertThat(CompressorFactory.isCompressed(data), equalTo(false));
+        assertThat(CompressorFactory.compressor(data), nullValue());
+        assertThat(CompressorFactory.compressor("unknown"), nullValue());
+    }
+
+    private static byte[] randomData(Random random, int length) {
+        String[] words = new String[]{"{\"user\":", "\"kimchy\"", ",\"message\":", "\"trying out elastic search\"", "2009-11-15T14:12:12", "}\n"};
+        byte[] data = new byte[length];
+        int pos = 0;
+        while (pos < length) {
+            if (random.nextInt(4) == 0) {
+                data[pos++] = (byte) random.nextInt();
+                continue;
+            }
+            byte[] word = words[random.nextInt(words.length)].getBytes();
+            int len = Math.min(word.length, length - pos);
+            System.arraycopy(word, 0, data, pos, len);
+            pos += len;
+        }
+        return data;
+    }
+}
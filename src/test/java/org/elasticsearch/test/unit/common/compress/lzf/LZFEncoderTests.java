@@ -0,0 +1,117 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.common.compress.lzf;
+
+import org.elasticsearch.common.compress.lzf.BufferRecycler;
+import org.elasticsearch.common.compress.lzf.ChunkEncoder;
+import org.elasticsearch.common.compress.lzf.LZFChunk;
+import org.elasticsearch.common.compress.lzf.LZFEncoder;
+import org.elasticsearch.common.compress.lzf.impl.UnsafeChunkEncoder;
+import org.elasticsearch.common.compress.lzf.util.ChunkDecoderFactory;
+import org.elasticsearch.common.compress.lzf.util.ChunkEncoderFactory;
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.LZFStreamInput;
+import org.elasticsearch.common.io.stream.LZFStreamOutput;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ *
+ */
+public class LZFEncoderTests {
+
+    @Test
+    public void testOptimizedEncoderRoundTrip() throws IOException {
+        Random random = new Random();
+        for (int i = 0; i < 500; i++) {
+            byte[] data = randomData(random, random.nextInt(3 * LZFChunk.MAX_CHUNK_LEN));
+            byte[] plain = LZFEncoder.encode(ChunkEncoderFactory.safeInstance(data.length, BufferRecycler.instance()), data, 0, data.length);
+            byte[] optimized = LZFEncoder.encode(new UnsafeChunkEncoder(data.length, BufferRecycler.instance()), data, 0, data.length);
+            assertThat(ChunkDecoderFactory.safeInstance().decode(optimized), equalTo(data));
+            assertThat(ChunkDecoderFactory.optimalInstance().decode(optimized), equalTo(data));
+            assertThat(ChunkDecoderFactory.optimalInstance().decode(plain), equalTo(data));
+        }
+    }
+
+    @Test
+    public void testAppendEncodedChunk() throws IOException {
+        Random random = new Random();
+        ChunkEncoder encoder = ChunkEncoderFactory.optimalInstance(LZFChunk.MAX_CHUNK_LEN, BufferRecycler.instance());
+        for (int i = 0; i < 100; i++) {
+            byte[] data = randomData(random, random.nextInt(LZFChunk.MAX_CHUNK_LEN));
+            byte[] out = new byte[10 + ChunkEncoder.maxEncodedLength(data.length)];
+            int end = encoder.appendEncodedChunk(data, 0, data.length, out, 10);
+            assertThat(ChunkDecoderFactory.optimalInstance().decode(out, 10, end - 10), equalTo(data));
+        }
+    }
+
+    @Test
+    public void testStreamsOverBytes() throws IOException {
+        Random random = new Random();
+        byte[] data = randomData(random, 5 * LZFChunk.MAX_CHUNK_LEN + 17);
+
+        BytesStreamOutput bytes = new BytesStreamOutput();
+        LZFStreamOutput out = new LZFStreamOutput(bytes, true);
+        int pos = 0;
+        while (pos < data.length) {
+            int len = Math.min(data.length - pos, random.nextInt(2 * LZFChunk.MAX_CHUNK_LEN));
+            out.writeBytes(data, pos, len);
+            pos += len;
+        }
+        out.close();
+        assertThat(bytes.size(), lessThan(data.length));
+
+        byte[] compressed = bytes.copiedByteArray();
+        // read from an offset within a larger array, as done for transport buffers
+        byte[] wrapped = new byte[compressed.length + 20];
+        System.arraycopy(compressed, 0, wrapped, 10, compressed.length);
+        BytesStreamInput bytesIn = new BytesStreamInput(wrapped, 10, compressed.length, false);
+        LZFStreamInput in = new LZFStreamInput(bytesIn, false);
+        byte[] result = new byte[data.length];
+        in.readBytes(result, 0, result.length);
+        assertThat(result, equalTo(data));
+        assertThat(bytesIn.position(), equalTo(10 + compressed.length));
+        assertThat(in.read(), equalTo(-1));
+    }
+
+    private static byte[] randomData(Random random, int length) {
+        String[] words = new String[]{"{\"user\":", "\"kimchy\"", ",\"message\":", "\"trying out elastic search\"", "2009-11-15T14:12:12", "}\n"};
+        byte[] data = new byte[length];
+        int pos = 0;
+        while (pos < length) {
+            if (random.nextInt(4) == 0) {
+                data[pos++] = (byte) random.nextInt();
+                continue;
+            }
+            byte[] word = words[random.nextInt(words.length)].getBytes();
+            int len = Math.min(word.length, length - pos);
+            System.arraycopy(word, 0, data, pos, len);
+            pos += len;
+        }
+        return data;
+    }
+}
@@ -19,6 +19,11 @@
 
 package org.elasticsearch.test.unit.common.lucene.all;
 
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.payloads.PayloadHelper;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PayloadAttribute;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.index.IndexReader;
@@ -39,6 +44,7 @@ import java.io.IOException;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
 
 /**
  *
@@ -60,6 +66,54 @@ public class SimpleAllTests {
         }
     }
 
+    @Test
+    public void testAllEntriesReuse() throws Exception {
+        AllEntries allEntries = new AllEntries();
+        allEntries.addText("field1", "something", 1.0f);
+        allEntries.addText("field2", "else", 1.0f);
+        allEntries.addText("field3", "entirely", 1.0f);
+        allEntries.clear();
+        allEntries.addText("field4", "other", 1.0f);
+        allEntries.reset();
+
+        assertThat(allEntries.entries().size(), equalTo(1));
+        assertThat(allEntries.fields().contains("field4"), equalTo(true));
+        assertThat(slurpToString(allEntries, new char[5]), equalTo("other"));
+        assertThat(allEntries.buildText(), equalTo("other "));
+    }
+
+    @Test
+    public void testAllTokenStreamBoostPayloads() throws Exception {
+        AllEntries allEntries = new AllEntries();
+        allEntries.addText("field1", "something moo", 1.0f);
+        allEntries.addText("field2", "else koo", 2.0f);
+        allEntries.reset();
+
+        TokenStream stream = AllTokenStream.allTokenStream("_all", allEntries, Lucene.STANDARD_ANALYZER);
+        CharTermAttribute termAtt = stream.addAttribute(CharTermAttribute.class);
+        OffsetAttribute offsetAtt = stream.addAttribute(OffsetAttribute.class);
+        PayloadAttribute payloadAtt = stream.addAttribute(PayloadAttribute.class);
+        stream.reset();
+
+        String[] terms = new String[]{"something", "moo", "else", "koo"};
+        int[] startOffsets = new int[]{0, 10, 14, 19};
+        for (int i = 0; i < terms.length; i++) {
+            assertThat(stream.incrementToken(), equalTo(true));
+            assertThat(termAtt.toString(), equalTo(terms[i]));
+            assertThat(offsetAtt.startOffset(), equalTo(startOffsets[i]));
+            assertThat(offsetAtt.endOffset(), equalTo(startOffsets[i] + terms[i].length()));
+            if (i < 2) {
+                assertThat(payloadAtt.getPayload(), nullValue());
+            } else {
+                assertThat(PayloadHelper.decodeFloat(payloadAtt.getPayload().getData()), equalTo(2.0f));
+            }
+        }
+        assertThat(stream.incrementToken(), equalTo(false));
+        stream.end();
+        assertThat(offsetAtt.endOffset(), equalTo(22));
+        stream.close();
+    }
+
     private String slurpToString(AllEntries allEntries, char[] data) throws IOException {
         StringBuilder sb = new StringBuilder();
         while (true) {
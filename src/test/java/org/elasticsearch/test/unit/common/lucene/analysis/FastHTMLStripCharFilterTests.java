@@ -0,0 +1,140 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.common.lucene.analysis;
+
+import com.google.common.collect.ImmutableSet;
+import org.apache.lucene.analysis.CharReader;
+import org.apache.lucene.analysis.CharStream;
+import org.elasticsearch.common.io.FastStringReader;
+import org.elasticsearch.common.lucene.analysis.FastHTMLStripCharFilter;
+import org.elasticsearch.common.lucene.analysis.HTMLStripCharFilter;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ *
+ */
+@Test
+public class FastHTMLStripCharFilterTests {
+
+    private static final String[] INPUTS = new String[]{
+            "hello world",
+            "<b>hello</b> world",
+            "<p class=\"text\" id=main>hello<br/>world<br />!</p>",
+            "<a href=\"a/<!--#echo \"path\"-->\">link</a>",
+            "<img src='a' alt>text",
+            "Alpha&Beta Corp &amp; &nbsp;&lt;b&gt; &#65;&#x42;&bogus; &#;",
+            "before<!-- a <b>comment</b> -->after<!---->end",
+            "<!DOCTYPE html><html><body>body</body></html>",
+            "<script type=\"text/javascript\">var a = '</b>'; // <!-- x --></script>after",
+            "<STYLE>p { color: red }</STYLE>styled",
+            "1 < 2 > 0, <1> < p>",
+            "<!-- unterminated <b>bold</b>",
+            "<p\n\tclass=a\r\n>multi line</p>"
+    };
+
+    @Test
+    public void testSameAsHTMLStripCharFilter() throws Exception {
+        for (String input : INPUTS) {
+            HTMLStripCharFilter expected = new HTMLStripCharFilter(CharReader.get(new FastStringReader(input)));
+            FastHTMLStripCharFilter actual = new FastHTMLStripCharFilter(CharReader.get(new FastStringReader(input)));
+            String expectedText = slurp(expected, 3);
+            assertThat("failed for [" + input + "]", slurp(actual, 3), equalTo(expectedText));
+            for (int i = 0; i <= expectedText.length(); i++) {
+                assertThat("failed for [" + input + "] at " + i, actual.correctOffset(i), equalTo(expected.correctOffset(i)));
+            }
+        }
+    }
+
+    @Test
+    public void testSameAsHTMLStripCharFilterAcrossBlocks() throws Exception {
+        // long enough for markup to straddle the blocks the input is stripped in
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 100000) {
+            for (String input : INPUTS) {
+                // an unterminated comment would swallow the markup of the next input
+                if (!input.startsWith("<!-- unterminated")) {
+                    sb.append(input).append('\n');
+                }
+            }
+        }
+        String input = sb.toString();
+        HTMLStripCharFilter expected = new HTMLStripCharFilter(CharReader.get(new FastStringReader(input)));
+        FastHTMLStripCharFilter actual = new FastHTMLStripCharFilter(CharReader.get(new FastStringReader(input)));
+        String expectedText = slurp(expected, 1000);
+        assertThat(slurp(actual, 1000), equalTo(expectedText));
+        for (int i = 0; i <= expectedText.length(); i++) {
+            assertThat("failed at " + i, actual.correctOffset(i), equalTo(expected.correctOffset(i)));
+        }
+    }
+
+    @Test
+    public void testHexEntities() throws Exception {
+        FastHTMLStripCharFilter filter = new FastHTMLStripCharFilter(CharReader.get(new FastStringReader("&#x4a; &#x4A; &#x4g; &#xz;")));
+        assertThat(slurp(filter, 1024), equalTo("J J &#x4g; &#xz;"));
+    }
+
+    @Test
+    public void testOffsets() throws Exception {
+        FastHTMLStripCharFilter filter = new FastHTMLStripCharFilter(CharReader.get(new FastStringReader("<b>one</b> &#50 <?pi?>three")));
+        assertThat(slurp(filter, 1024), equalTo(" one  2  three"));
+        // "one"
+        assertThat(filter.correctOffset(1), equalTo(3));
+        assertThat(filter.correctOffset(4), equalTo(6));
+        // "2", the whitespace terminating the entity is kept
+        assertThat(filter.correctOffset(6), equalTo(11));
+        assertThat(filter.correctOffset(7), equalTo(15));
+        // "three"
+        assertThat(filter.correctOffset(9), equalTo(22));
+        assertThat(filter.correctOffset(14), equalTo(27));
+    }
+
+    @Test
+    public void testEscapedTags() throws Exception {
+        FastHTMLStripCharFilter filter = new FastHTMLStripCharFilter(CharReader.get(new FastStringReader("<b>bold</b> <i>italic</i>")), ImmutableSet.of("b"));
+        assertThat(slurp(filter, 1024), equalTo("<b>bold</b>  italic "));
+    }
+
+    @Test
+    public void testReset() throws Exception {
+        FastHTMLStripCharFilter filter = new FastHTMLStripCharFilter(CharReader.get(new FastStringReader("<b>first</b>")));
+        assertThat(slurp(filter, 1024), equalTo(" first "));
+
+        filter.reset(CharReader.get(new FastStringReader("second &amp; third")));
+        assertThat(slurp(filter, 1024), equalTo("second & third"));
+        // corrections of the previous input are cleared
+        assertThat(filter.correctOffset(0), equalTo(0));
+        assertThat(filter.correctOffset(9), equalTo(13));
+    }
+
+    private String slurp(CharStream charStream, int bufferSize) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        char[] buffer = new char[bufferSize];
+        int read;
+        while ((read = charStream.read(buffer, 0, buffer.length)) != -1) {
+            sb.append(buffer, 0, read);
+        }
+        return sb.toString();
+    }
+}
@@ -20,13 +20,18 @@
 package org.elasticsearch.test.unit.common.lucene.search;
 
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.RAMDirectory;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.search.MoreLikeThisQuery;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.cache.docfreq.simple.SimpleDocFreqCache;
 import org.testng.annotations.Test;
 
 import static org.elasticsearch.common.lucene.DocumentBuilder.doc;
@@ -63,4 +68,64 @@ public class MoreLikeThisQueryTests {
         reader.close();
         indexWriter.close();
     }
+
+    @Test
+    public void testLikeTermsAndDocFreqCache() throws Exception {
+        Directory dir = new RAMDirectory();
+        IndexWriter indexWriter = new IndexWriter(dir, new IndexWriterConfig(Lucene.VERSION, Lucene.STANDARD_ANALYZER));
+        indexWriter.commit();
+
+        indexWriter.addDocument(doc().add(field("_id", "1")).add(field("text", "lucene")).build());
+        indexWriter.commit();
+        indexWriter.addDocument(doc().add(field("_id", "2")).add(field("text", "lucene release")).build());
+        indexWriter.addDocument(doc().add(field("_id", "3")).add(field("text", "elastic")).build());
+
+        IndexReader reader = IndexReader.open(indexWriter, true);
+        IndexSearcher searcher = new IndexSearcher(reader);
+
+        SimpleDocFreqCache docFreqCache = new SimpleDocFreqCache(new Index("test"), ImmutableSettings.Builder.EMPTY_SETTINGS);
+        int[] docFreqs = new int[2];
+        docFreqCache.docFreqs(reader, new Term[]{new Term("text", "lucene"), new Term("text", "release")}, docFreqs);
+        assertThat(docFreqs[0], equalTo(2));
+        assertThat(docFreqs[1], equalTo(1));
+
+        MoreLikeThisQuery mltQuery = new MoreLikeThisQuery();
+        mltQuery.setMoreLikeFields(new String[]{"text"});
+        mltQuery.setAnalyzer(Lucene.STANDARD_ANALYZER);
+        mltQuery.setLikeTerms(new String[]{"lucene", "unknown"}, new int[]{1, 1});
+        mltQuery.setDocFreqCache(docFreqCache);
+        mltQuery.setMinTermFrequency(1);
+        mltQuery.setMinDocFreq(1);
+        long count = Lucene.count(searcher, mltQuery, -1);
+        assertThat(count, equalTo(2l));
+
+        reader.close();
+        indexWriter.close();
+    }
+
+    @Test
+    public void testMaxQueryTerms() throws Exception {
+        Directory dir = new RAMDirectory();
+        IndexWriter indexWriter = new IndexWriter(dir, new IndexWriterConfig(Lucene.VERSION, Lucene.STANDARD_ANALYZER));
+
+        indexWriter.addDocument(doc().add(field("_id", "1")).add(field("text", "lucene")).build());
+        indexWriter.addDocument(doc().add(field("_id", "2")).add(field("text", "lucene release")).build());
+        indexWriter.addDocument(doc().add(field("_id", "3")).add(field("text", "elastic")).build());
+
+        IndexReader reader = IndexReader.open(indexWriter, true);
+
+        MoreLikeThisQuery mltQuery = new MoreLikeThisQuery("lucene release elastic", new String[]{"text"}, Lucene.STANDARD_ANALYZER);
+        mltQuery.setMinTermFrequency(1);
+        mltQuery.setMinDocFreq(1);
+
+        mltQuery.setMaxQueryTerms(2);
+        assertThat(((BooleanQuery) mltQuery.rewrite(reader)).clauses().size(), equalTo(2));
+
+        // 0 means no limit
+        mltQuery.setMaxQueryTerms(0);
+        assertThat(((BooleanQuery) mltQuery.rewrite(reader)).clauses().size(), equalTo(3));
+
+        reader.close();
+        indexWriter.close();
+    }
 }
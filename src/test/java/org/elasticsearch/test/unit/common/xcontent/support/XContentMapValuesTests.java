@@ -22,6 +22,7 @@ package org.elasticsearch.test.unit.common.xcontent.support;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.common.xcontent.support.XContentMapValues;
 import org.testng.annotations.Test;
@@ -86,6 +87,47 @@ public class XContentMapValuesTests {
         assertThat(filter.containsKey("test1"), equalTo(false));
     }
 
+    @Test
+    public void testFilterParserSameAsMap() throws Exception {
+        XContentBuilder builder = XContentFactory.jsonBuilder().startObject()
+                .startObject("path1")
+                .startArray("path2")
+                .startObject().field("test", "value1").field("other", 1).endObject()
+                .startObject().field("test", "value2").field("other", 2).endObject()
+                .endArray()
+                .field("path3", "value3")
+                .endObject()
+                .field("test1", "value1")
+                .array("test2", 1, 2, 3)
+                .startObject("skipped").field("large", "value").startObject("inner").field("x", true).endObject().endObject()
+                .endObject();
+        String json = builder.string();
+        Map<String, Object> source = XContentFactory.xContent(XContentType.JSON).createParser(json).mapAndClose();
+
+        String[][][] filters = new String[][][]{
+                {{"path1"}, {}},
+                {{"path1*"}, {}},
+                {{"test1*"}, {}},
+                {{"test*"}, {}},
+                {{"path1.path2.*"}, {}},
+                {{"path1.path2.test"}, {}},
+                {{"path1.*"}, {"path1.path2.other"}},
+                {{}, {"skipped"}},
+                {{}, {"skipped.inner", "test2"}},
+        };
+        for (String[][] filter : filters) {
+            Map<String, Object> fromMap = XContentMapValues.filter(source, filter[0], filter[1]);
+            XContentParser parser = XContentFactory.xContent(XContentType.JSON).createParser(json);
+            Map<String, Object> fromParser;
+            try {
+                fromParser = XContentMapValues.filter(parser, filter[0], filter[1]);
+            } finally {
+                parser.close();
+            }
+            assertThat(fromParser, equalTo(fromMap));
+        }
+    }
+
     @SuppressWarnings({"unchecked"})
     @Test
     public void testExtractValue() throws Exception {
@@ -0,0 +1,107 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.http.netty;
+
+import org.elasticsearch.http.netty.pipelining.HttpPipeliningHandler;
+import org.elasticsearch.http.netty.pipelining.OrderedDownstreamChannelEvent;
+import org.elasticsearch.http.netty.pipelining.OrderedUpstreamMessageEvent;
+import org.jboss.netty.channel.*;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ *
+ */
+@Test
+public class HttpPipeliningHandlerTests {
+
+    private final List<Object> written = new ArrayList<Object>();
+
+    private Channel channel;
+
+    private ChannelPipeline pipeline;
+
+    @BeforeMethod
+    public void setUp() {
+        written.clear();
+        channel = (Channel) Proxy.newProxyInstance(Channel.class.getClassLoader(), new Class[]{Channel.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("hashCode")) {
+                    return System.identityHashCode(proxy);
+                } else if (method.getName().equals("equals")) {
+                    return proxy == args[0];
+                } else if (method.getName().equals("toString")) {
+                    return "test channel";
+                } else if (method.getReturnType() == boolean.class) {
+                    return true;
+                }
+                return null;
+            }
+        });
+        pipeline = new DefaultChannelPipeline();
+        pipeline.addLast("pipelining", new HttpPipeliningHandler(10000));
+        pipeline.attach(channel, new AbstractChannelSink() {
+            @Override
+            public void eventSunk(ChannelPipeline pipeline, ChannelEvent e) throws Exception {
+                if (e instanceof MessageEvent) {
+                    written.add(((MessageEvent) e).getMessage());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testResponsesWrittenInRequestOrder() {
+        OrderedUpstreamMessageEvent request0 = new OrderedUpstreamMessageEvent(0, channel, "request0", null);
+        OrderedUpstreamMessageEvent request1 = new OrderedUpstreamMessageEvent(1, channel, "request1", null);
+        OrderedUpstreamMessageEvent request2 = new OrderedUpstreamMessageEvent(2, channel, "request2", null);
+
+        // the second and third responses are ready before the first one, they need to be held
+        pipeline.sendDownstream(new OrderedDownstreamChannelEvent(request2, 0, true, "response2"));
+        pipeline.sendDownstream(new OrderedDownstreamChannelEvent(request1, 1, true, "response1-1"));
+        pipeline.sendDownstream(new OrderedDownstreamChannelEvent(request1, 0, false, "response1-0"));
+        assertThat(written.size(), equalTo(0));
+
+        pipeline.sendDownstream(new OrderedDownstreamChannelEvent(request0, 0, true, "response0"));
+        assertThat(written, contains((Object) "response0", "response1-0", "response1-1", "response2"));
+    }
+
+    @Test
+    public void testChunksOfCurrentResponseAreNotHeld() {
+        OrderedUpstreamMessageEvent request0 = new OrderedUpstreamMessageEvent(0, channel, "request0", null);
+        pipeline.sendDownstream(new OrderedDownstreamChannelEvent(request0, 0, false, "headers"));
+        assertThat(written, contains((Object) "headers"));
+        pipeline.sendDownstream(new OrderedDownstreamChannelEvent(request0, 1, false, "chunk"));
+        assertThat(written, contains((Object) "headers", "chunk"));
+        pipeline.sendDownstream(new OrderedDownstreamChannelEvent(request0, 2, true, "last"));
+        assertThat(written, contains((Object) "headers", "chunk", "last"));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.index.analysis;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.elasticsearch.common.inject.Injector;
+import org.elasticsearch.common.inject.ModulesBuilder;
+import org.elasticsearch.common.io.FastStringReader;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.settings.SettingsModule;
+import org.elasticsearch.env.Environment;
+import org.elasticsearch.env.EnvironmentModule;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.IndexNameModule;
+import org.elasticsearch.index.analysis.AnalysisModule;
+import org.elasticsearch.index.analysis.AnalysisService;
+import org.elasticsearch.index.settings.IndexSettingsModule;
+import org.elasticsearch.indices.analysis.IndicesAnalysisModule;
+import org.elasticsearch.indices.analysis.IndicesAnalysisService;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.elasticsearch.common.settings.ImmutableSettings.settingsBuilder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ *
+ */
+@Test
+public class AnalyzerReuseTests {
+
+    private AnalysisService analysisService;
+
+    @BeforeClass
+    public void createAnalysisService() {
+        Settings settings = settingsBuilder()
+                .put("index.analysis.analyzer.custom_html.tokenizer", "standard")
+                .putArray("index.analysis.analyzer.custom_html.char_filter", "html_strip")
+                .putArray("index.analysis.analyzer.custom_html.filter", "lowercase")
+                .build();
+        Index index = new Index("test");
+        Injector parentInjector = new ModulesBuilder().add(new SettingsModule(settings), new EnvironmentModule(new Environment(settings)), new IndicesAnalysisModule()).createInjector();
+        Injector injector = new ModulesBuilder().add(
+                new IndexSettingsModule(index, settings),
+                new IndexNameModule(index),
+                new AnalysisModule(settings, parentInjector.getInstance(IndicesAnalysisService.class)))
+                .createChildInjector(parentInjector);
+        analysisService = injector.getInstance(AnalysisService.class);
+    }
+
+    @Test
+    public void testCustomAnalyzerReusesCharFilters() throws Exception {
+        Analyzer analyzer = analysisService.analyzer("custom_html");
+
+        TokenStream first = analyzer.reusableTokenStream("field", new FastStringReader("<b>Hello</b> World"));
+        assertThat(terms(analyze(first)), equalTo("hello world"));
+
+        // offsets must not be corrected with what was stripped from the previous value
+        TokenStream second = analyzer.reusableTokenStream("field", new FastStringReader("<i>Foo</i> &amp; bar"));
+        assertThat(second, sameInstance(first));
+        String reused = analyze(second);
+        assertThat(terms(reused), equalTo("foo bar"));
+        assertThat(reused, equalTo(analyze(analyzer.tokenStream("field", new FastStringReader("<i>Foo</i> &amp; bar")))));
+    }
+
+    @Test
+    public void testCustomAnalyzerTokenStreamWithCharFilters() throws Exception {
+        Analyzer analyzer = analysisService.analyzer("custom_html");
+        assertThat(analyze(analyzer.tokenStream("field", new FastStringReader("<b>Hello</b>"))), equalTo("hello[3-8]"));
+    }
+
+    @Test
+    public void testStandardHtmlStripAnalyzer() throws Exception {
+        Analyzer analyzer = analysisService.analyzer("standard_html_strip");
+        assertThat(terms(analyze(analyzer.reusableTokenStream("field", new FastStringReader("Hello the World")))), equalTo("hello world"));
+        String reused = analyze(analyzer.reusableTokenStream("field", new FastStringReader("<p>Foo</p> bar")));
+        assertThat(reused, equalTo(analyze(analyzer.tokenStream("field", new FastStringReader("<p>Foo</p> bar")))));
+    }
+
+    private String terms(String analyzed) {
+        return analyzed.replaceAll("\\[\\d+-\\d+\\]", "");
+    }
+
+    private String analyze(TokenStream tokenStream) throws IOException {
+        CharTermAttribute termAtt = tokenStream.addAttribute(CharTermAttribute.class);
+        OffsetAttribute offsetAtt = tokenStream.addAttribute(OffsetAttribute.class);
+        tokenStream.reset();
+        List<String> tokens = new ArrayList<String>();
+        while (tokenStream.incrementToken()) {
+            tokens.add(termAtt.toString() + "[" + offsetAtt.startOffset() + "-" + offsetAtt.endOffset() + "]");
+        }
+        tokenStream.end();
+        tokenStream.close();
+        StringBuilder sb = new StringBuilder();
+        for (String token : tokens) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(token);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.index.cache.id;
+
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.common.BytesWrap;
+import org.elasticsearch.common.Unicode;
+import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.cache.id.IdReaderCache;
+import org.elasticsearch.index.cache.id.IdReaderTypeCache;
+import org.elasticsearch.index.cache.id.compact.CompactIdCache;
+import org.elasticsearch.index.cache.id.compact.PackedOrdinals;
+import org.elasticsearch.index.cache.id.compact.PrefixCodedIds;
+import org.elasticsearch.index.cache.id.simple.SimpleIdCache;
+import org.elasticsearch.index.mapper.Uid;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.elasticsearch.common.lucene.DocumentBuilder.doc;
+import static org.elasticsearch.common.lucene.DocumentBuilder.field;
+import static org.elasticsearch.common.settings.ImmutableSettings.Builder.EMPTY_SETTINGS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ *
+ */
+@Test
+public class CompactIdCacheTests {
+
+    @Test
+    public void testPrefixCodedIds() {
+        // sorted the same as the index terms (string order)
+        TreeSet<String> ids = new TreeSet<String>();
+        Random random = new Random();
+        for (int i = 0; i < 1000; i++) {
+            ids.add("id_" + random.nextInt(100000));
+        }
+        ids.add("");
+        ids.add("\u00e9t\u00e9");
+        ids.add("\uffef");
+        ids.add("\ud801\udc00");
+
+        PrefixCodedIds.Builder builder = new PrefixCodedIds.Builder();
+        for (String id : ids) {
+            builder.add(Unicode.fromStringAsBytes(id));
+        }
+        PrefixCodedIds prefixCodedIds = builder.build();
+        assertThat(prefixCodedIds.size(), equalTo(ids.size()));
+
+        int ordinal = 0;
+        for (String id : ids) {
+            assertThat(prefixCodedIds.ordinal(Unicode.fromStringAsBytes(id)), equalTo(ordinal));
+            assertThat(prefixCodedIds.get(ordinal), equalTo(new BytesWrap(id)));
+            ordinal++;
+        }
+
+        assertThat(prefixCodedIds.ordinal(Unicode.fromStringAsBytes("id_")), equalTo(-1));
+        assertThat(prefixCodedIds.ordinal(Unicode.fromStringAsBytes("a")), equalTo(-1));
+        assertThat(prefixCodedIds.ordinal(Unicode.fromStringAsBytes("zzz")), equalTo(-1));
+        assertThat(prefixCodedIds.get(ids.size()), nullValue());
+    }
+
+    @Test
+    public void testEmptyPrefixCodedIds() {
+        PrefixCodedIds prefixCodedIds = new PrefixCodedIds.Builder().build();
+        assertThat(prefixCodedIds.size(), equalTo(0));
+        assertThat(prefixCodedIds.ordinal(Unicode.fromStringAsBytes("1")), equalTo(-1));
+    }
+
+    @Test
+    public void testPackedOrdinals() {
+        Random random = new Random();
+        for (int maxOrdinal : new int[]{0, 1, 7, 100, 1 << 20, Integer.MAX_VALUE}) {
+            int[] ordinals = new int[1000];
+            for (int i = 0; i < ordinals.length; i++) {
+                ordinals[i] = maxOrdinal == 0 ? 0 : random.nextInt(maxOrdinal);
+            }
+            ordinals[ordinals.length - 1] = maxOrdinal;
+            PackedOrdinals packed = PackedOrdinals.pack(ordinals, maxOrdinal);
+            for (int i = 0; i < ordinals.length; i++) {
+                assertThat(packed.get(i), equalTo(ordinals[i]));
+            }
+        }
+    }
+
+    @Test
+    public void testLoadMatchesSimpleIdCache() throws Exception {
+        Directory dir = new RAMDirectory();
+        IndexWriter indexWriter = new IndexWriter(dir, new IndexWriterConfig(Lucene.VERSION, Lucene.STANDARD_ANALYZER));
+        Random random = new Random();
+        // several segments, with children in other segments than their parents, and some deleted docs
+        for (int segment = 0; segment < 4; segment++) {
+            for (int i = 0; i < 50; i++) {
+                String parentId = Integer.toString(segment * 50 + i);
+                indexWriter.addDocument(doc().add(uidField("parent", parentId)).build());
+                for (int j = random.nextInt(3); j > 0; j--) {
+                    String childParentId = Integer.toString(random.nextInt(segment * 50 + i + 1));
+                    indexWriter.addDocument(doc().add(uidField("child", "c" + parentId + "_" + j))
+                            .add(field("_parent", Uid.createUid("parent", childParentId), Field.Store.YES, Field.Index.NOT_ANALYZED_NO_NORMS)).build());
+                }
+            }
+            indexWriter.deleteDocuments(new Term("_uid", Uid.createUid("parent", Integer.toString(random.nextInt((segment + 1) * 50)))));
+            indexWriter.deleteDocuments(new Term("_parent", Uid.createUid("parent", Integer.toString(random.nextInt((segment + 1) * 50)))));
+            indexWriter.commit();
+        }
+
+        IndexReader reader = IndexReader.open(indexWriter, true);
+        IndexReader[] segmentReaders = reader.getSequentialSubReaders();
+        assertThat(segmentReaders.length > 1, equalTo(true));
+
+        SimpleIdCache simpleIdCache = new SimpleIdCache(new Index("test"), EMPTY_SETTINGS);
+        simpleIdCache.refresh(segmentReaders);
+        CompactIdCache compactIdCache = new CompactIdCache(new Index("test"), EMPTY_SETTINGS);
+        compactIdCache.refresh(segmentReaders);
+
+        for (IndexReader segmentReader : segmentReaders) {
+            IdReaderCache simple = simpleIdCache.reader(segmentReader);
+            IdReaderCache compact = compactIdCache.reader(segmentReader);
+            for (int docId = 0; docId < segmentReader.maxDoc(); docId++) {
+                if (segmentReader.isDeleted(docId)) {
+                    continue;
+                }
+                BytesWrap parentId = simple.parentIdByDoc("parent", docId);
+                assertThat(compact.parentIdByDoc("parent", docId), equalTo(parentId));
+                if (parentId != null) {
+                    assertThat(compact.docById("parent", parentId), equalTo(simple.docById("parent", parentId)));
+                }
+
+                Uid uid = Uid.createUid(segmentReader.document(docId).get("_uid"));
+                BytesWrap id = new BytesWrap(uid.id());
+                assertThat(compact.docById(uid.type(), id), equalTo(docId));
+                assertThat(simple.docById(uid.type(), id), equalTo(docId));
+            }
+
+            IdReaderTypeCache compactParents = compact.type("parent");
+            if (compactParents != null) {
+                for (int docId = 0; docId < segmentReader.maxDoc(); docId++) {
+                    int ordinal = compactParents.parentOrdinalByDoc(docId);
+                    assertThat(compactParents.parentIdByOrdinal(ordinal), equalTo(compactParents.parentIdByDoc(docId)));
+                }
+            }
+            assertThat(compact.docById("parent", new BytesWrap("missing")), equalTo(-1));
+        }
+
+        reader.close();
+        indexWriter.close();
+    }
+
+    private static Field uidField(String type, String id) {
+        return new Field("_uid", Uid.createUid(type, id), Field.Store.YES, Field.Index.NOT_ANALYZED_NO_NORMS);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.index.field.data.strings;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.index.field.data.strings.StringFieldData;
+import org.elasticsearch.index.field.data.strings.StringGlobalOrdinals;
+import org.testng.annotations.Test;
+
+import static org.elasticsearch.common.lucene.DocumentBuilder.doc;
+import static org.elasticsearch.common.lucene.DocumentBuilder.field;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ *
+ */
+public class StringGlobalOrdinalsTests {
+
+    @Test
+    public void testGlobalOrdinals() throws Exception {
+        Directory dir = new RAMDirectory();
+        IndexWriter indexWriter = new IndexWriter(dir, new IndexWriterConfig(Lucene.VERSION, Lucene.STANDARD_ANALYZER).setMergePolicy(NoMergePolicy.COMPOUND_FILES));
+
+        indexWriter.addDocument(doc().add(field("value", "bbb")).build());
+        indexWriter.addDocument(doc().add(field("value", "ddd")).build());
+        indexWriter.commit();
+        indexWriter.addDocument(doc().add(field("value", "aaa")).build());
+        indexWriter.addDocument(doc().add(field("value", "ddd")).build());
+        indexWriter.commit();
+        indexWriter.addDocument(doc().add(field("other", "xxx")).build());
+        indexWriter.commit();
+
+        IndexReader reader = IndexReader.open(indexWriter, true);
+        IndexReader[] subReaders = reader.getSequentialSubReaders();
+        assertThat(subReaders.length, equalTo(3));
+
+        StringFieldData[] fieldData = new StringFieldData[subReaders.length];
+        for (int i = 0; i < subReaders.length; i++) {
+            fieldData[i] = StringFieldData.load(subReaders[i], "value");
+        }
+        StringGlobalOrdinals globalOrdinals = StringGlobalOrdinals.build(subReaders, fieldData);
+
+        String[] values = globalOrdinals.values();
+        assertThat(values.length, equalTo(4));
+        assertThat(values[0], nullValue());
+        assertThat(values[1], equalTo("aaa"));
+        assertThat(values[2], equalTo("bbb"));
+        assertThat(values[3], equalTo("ddd"));
+
+        for (int i = 0; i < subReaders.length; i++) {
+            assertThat(globalOrdinals.segmentIndex(subReaders[i]), equalTo(i));
+            int[] segmentOrdinals = globalOrdinals.segmentOrdinals(i);
+            String[] segmentValues = fieldData[i].values();
+            assertThat(segmentOrdinals[0], equalTo(0));
+            for (int ord = 1; ord < segmentValues.length; ord++) {
+                assertThat(values[segmentOrdinals[ord]], equalTo(segmentValues[ord]));
+            }
+        }
+
+        reader.close();
+        indexWriter.close();
+    }
+}
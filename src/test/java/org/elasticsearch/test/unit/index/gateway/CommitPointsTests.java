@@ -24,6 +24,7 @@ import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.index.gateway.CommitPoint;
 import org.elasticsearch.index.gateway.CommitPoints;
+import org.elasticsearch.index.store.StoreFileMetaData;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
@@ -42,7 +43,7 @@ public class CommitPointsTests {
     @Test
     public void testCommitPointXContent() throws Exception {
         ArrayList<CommitPoint.FileInfo> indexFiles = Lists.newArrayList();
-        indexFiles.add(new CommitPoint.FileInfo("file1", "file1_p", 100, "ck1"));
+        indexFiles.add(new CommitPoint.FileInfo("file1", "file1_p", 100, "ck1", "digest1"));
         indexFiles.add(new CommitPoint.FileInfo("file2", "file2_p", 200, "ck2"));
 
         ArrayList<CommitPoint.FileInfo> translogFiles = Lists.newArrayList();
@@ -64,6 +65,7 @@ public class CommitPointsTests {
             assertThat(desCp.indexFiles().get(i).physicalName(), equalTo(commitPoint.indexFiles().get(i).physicalName()));
             assertThat(desCp.indexFiles().get(i).length(), equalTo(commitPoint.indexFiles().get(i).length()));
             assertThat(desCp.indexFiles().get(i).checksum(), equalTo(commitPoint.indexFiles().get(i).checksum()));
+            assertThat(desCp.indexFiles().get(i).digest(), equalTo(commitPoint.indexFiles().get(i).digest()));
         }
 
         assertThat(desCp.translogFiles().size(), equalTo(commitPoint.translogFiles().size()));
@@ -72,6 +74,35 @@ public class CommitPointsTests {
             assertThat(desCp.translogFiles().get(i).physicalName(), equalTo(commitPoint.translogFiles().get(i).physicalName()));
             assertThat(desCp.translogFiles().get(i).length(), equalTo(commitPoint.translogFiles().get(i).length()));
             assertThat(desCp.translogFiles().get(i).checksum(), nullValue());
+            assertThat(desCp.translogFiles().get(i).digest(), nullValue());
         }
     }
+
+    @Test
+    public void testFindSameContentIndexFile() throws Exception {
+        ArrayList<CommitPoint.FileInfo> indexFiles = Lists.newArrayList();
+        indexFiles.add(new CommitPoint.FileInfo("__1", "_1.cfs", 100, "ck1", "d1"));
+        indexFiles.add(new CommitPoint.FileInfo("__2", "segments_2", 200, null));
+        // snapshotted without a digest (older versions), never reused by content
+        indexFiles.add(new CommitPoint.FileInfo("__4", "_4.cfs", 400, "ck4"));
+        CommitPoint commitPoint1 = new CommitPoint(1, "commit-1", CommitPoint.Type.GENERATED, indexFiles, Lists.<CommitPoint.FileInfo>newArrayList());
+
+        indexFiles = Lists.newArrayList();
+        indexFiles.add(new CommitPoint.FileInfo("__3", "_2.cfs", 300, "ck3", "d3"));
+        CommitPoint commitPoint2 = new CommitPoint(2, "commit-2", CommitPoint.Type.GENERATED, indexFiles, Lists.<CommitPoint.FileInfo>newArrayList());
+
+        CommitPoints commitPoints = new CommitPoints(Lists.newArrayList(commitPoint1, commitPoint2));
+
+        assertThat(commitPoints.findSameContentIndexFile(new StoreFileMetaData("_5.cfs", 100, 0, "ck1"), "d1").name(), equalTo("__1"));
+        assertThat(commitPoints.findSameContentIndexFile(new StoreFileMetaData("_6.cfs", 300, 0, "ck3"), "d3").name(), equalTo("__3"));
+        // same length and checksum, different content (a checksum collision)
+        assertThat(commitPoints.findSameContentIndexFile(new StoreFileMetaData("_5.cfs", 100, 0, "ck1"), "other"), nullValue());
+        // same checksum, different length
+        assertThat(commitPoints.findSameContentIndexFile(new StoreFileMetaData("_5.cfs", 101, 0, "ck1"), "d1"), nullValue());
+        // no digest, never considered the same
+        assertThat(commitPoints.findSameContentIndexFile(new StoreFileMetaData("_5.cfs", 100, 0, "ck1"), null), nullValue());
+        assertThat(commitPoints.findSameContentIndexFile(new StoreFileMetaData("_7.cfs", 400, 0, "ck4"), "d4"), nullValue());
+        // no checksum, never considered the same
+        assertThat(commitPoints.findSameContentIndexFile(new StoreFileMetaData("segments_3", 200, 0, null), "d2"), nullValue());
+    }
 }
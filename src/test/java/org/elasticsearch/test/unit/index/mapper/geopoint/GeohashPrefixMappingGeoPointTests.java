@@ -0,0 +1,77 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.test.unit.index.mapper.geopoint;
+
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.ParsedDocument;
+import org.elasticsearch.index.search.geo.GeoHashUtils;
+import org.elasticsearch.test.unit.index.mapper.MapperTests;
+import org.testng.annotations.Test;
+
+import static org.elasticsearch.index.mapper.DocumentMapper.MergeFlags.mergeFlags;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ *
+ */
+public class GeohashPrefixMappingGeoPointTests {
+
+    @Test
+    public void testGeohashPrefixes() throws Exception {
+        DocumentMapper defaultMapper = MapperTests.newParser().parse(mapping(true));
+
+        ParsedDocument doc = defaultMapper.parse("type", "1", XContentFactory.jsonBuilder()
+                .startObject()
+                .startObject("point").field("lat", 1.2).field("lon", 1.3).endObject()
+                .endObject()
+                .copiedBytes());
+
+        String geohash = GeoHashUtils.encode(1.2, 1.3);
+        String[] values = doc.rootDoc().getValues("point.geohash");
+        assertThat(values.length, equalTo(geohash.length()));
+        for (int i = 0; i < values.length; i++) {
+            assertThat(values[i], equalTo(geohash.substring(0, i + 1)));
+        }
+    }
+
+    @Test
+    public void testMergeGeohashPrefixConflict() throws Exception {
+        DocumentMapper withPrefix = MapperTests.newParser().parse(mapping(true));
+        DocumentMapper withoutPrefix = MapperTests.newParser().parse(mapping(false));
+
+        DocumentMapper.MergeResult mergeResult = withoutPrefix.merge(withPrefix, mergeFlags().simulate(true));
+        assertThat(mergeResult.hasConflicts(), equalTo(true));
+        assertThat(mergeResult.conflicts().length, equalTo(1));
+        assertThat(mergeResult.conflicts()[0], equalTo("mapper [point] has different geohash_prefix"));
+
+        mergeResult = withPrefix.merge(withoutPrefix, mergeFlags().simulate(true));
+        assertThat(mergeResult.hasConflicts(), equalTo(true));
+
+        mergeResult = withPrefix.merge(MapperTests.newParser().parse(mapping(true)), mergeFlags().simulate(true));
+        assertThat(mergeResult.hasConflicts(), equalTo(false));
+    }
+
+    private static String mapping(boolean geohashPrefix) throws Exception {
+        return XContentFactory.jsonBuilder().startObject().startObject("type")
+                .startObject("properties").startObject("point").field("type", "geo_point").field("geohash_prefix", geohashPrefix).endObject().endObject()
+                .endObject().endObject().string();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.index.mapper.reuse;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Fieldable;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.ParsedDocument;
+import org.elasticsearch.index.mapper.SourceToParse;
+import org.elasticsearch.index.mapper.core.NumberFieldMapper;
+import org.elasticsearch.test.unit.index.mapper.MapperTests;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ *
+ */
+public class ReuseDocumentMappingTests {
+
+    @Test
+    public void testReuseDocumentAndFields() throws Exception {
+        String mapping = XContentFactory.jsonBuilder().startObject().startObject("type")
+                .startObject("properties")
+                .startObject("name").field("type", "string").endObject()
+                .startObject("age").field("type", "long").endObject()
+                .startObject("tags").field("type", "string").endObject()
+                .endObject()
+                .endObject().endObject().string();
+        DocumentMapper docMapper = MapperTests.newParser().parse(mapping);
+
+        ParsedDocument doc1 = docMapper.parse(SourceToParse.source(XContentFactory.jsonBuilder().startObject()
+                .field("name", "kimchy").field("age", 32).array("tags", "a", "b")
+                .endObject().copiedBytes()).type("type").id("1").reuse(true));
+        Document rootDoc = doc1.rootDoc();
+        Fieldable name = rootDoc.getFieldable("name");
+        Fieldable age = rootDoc.getFieldable("age");
+        assertThat(name.stringValue(), equalTo("kimchy"));
+        assertThat(((NumberFieldMapper.CustomNumericField) age).numericAsString(), equalTo("32"));
+        assertThat(rootDoc.getFieldables("tags").length, equalTo(2));
+
+        ParsedDocument doc2 = docMapper.parse(SourceToParse.source(XContentFactory.jsonBuilder().startObject()
+                .field("name", "banon").field("age", 45).array("tags", "c", "d", "e")
+                .endObject().copiedBytes()).type("type").id("2").reuse(true));
+        assertThat(doc2.rootDoc(), sameInstance(rootDoc));
+        assertThat(doc2.rootDoc().getFieldable("name"), sameInstance(name));
+        assertThat(doc2.rootDoc().getFieldable("age"), sameInstance(age));
+        assertThat(name.stringValue(), equalTo("banon"));
+        assertThat(((NumberFieldMapper.CustomNumericField) age).numericAsString(), equalTo("45"));
+        assertThat(doc2.rootDoc().get("_uid"), equalTo("type#2"));
+        assertThat(doc2.rootDoc().getFields().size(), greaterThan(0));
+        String[] tags = doc2.rootDoc().getValues("tags");
+        assertThat(tags.length, equalTo(3));
+        assertThat(tags[0], equalTo("c"));
+        assertThat(tags[2], equalTo("e"));
+
+        // a parse not allowing reuse does not touch the reused document
+        ParsedDocument doc3 = docMapper.parse(SourceToParse.source(XContentFactory.jsonBuilder().startObject()
+                .field("name", "other").field("age", 1)
+                .endObject().copiedBytes()).type("type").id("3"));
+        assertThat(doc3.rootDoc(), not(sameInstance(rootDoc)));
+        assertThat(doc3.rootDoc().getFieldable("name"), not(sameInstance(name)));
+        assertThat(name.stringValue(), equalTo("banon"));
+        assertThat(doc3.rootDoc().get("name"), equalTo("other"));
+    }
+
+    @Test
+    public void testReleaseDropsValues() throws Exception {
+        String mapping = XContentFactory.jsonBuilder().startObject().startObject("type")
+                .startObject("properties")
+                .startObject("name").field("type", "string").endObject()
+                .endObject()
+                .endObject().endObject().string();
+        DocumentMapper docMapper = MapperTests.newParser().parse(mapping);
+
+        ParsedDocument doc1 = docMapper.parse(SourceToParse.source(XContentFactory.jsonBuilder().startObject()
+                .field("name", "kimchy")
+                .endObject().copiedBytes()).type("type").id("1").reuse(true));
+        assertThat(doc1.reused(), equalTo(true));
+        Document rootDoc = doc1.rootDoc();
+        Fieldable name = rootDoc.getFieldable("name");
+        doc1.release();
+        assertThat(name.stringValue(), equalTo(""));
+        assertThat(rootDoc.getFields().size(), equalTo(0));
+        assertThat(doc1.docs().size(), equalTo(0));
+
+        // the released fields are still reused by the next parse
+        ParsedDocument doc2 = docMapper.parse(SourceToParse.source(XContentFactory.jsonBuilder().startObject()
+                .field("name", "banon")
+                .endObject().copiedBytes()).type("type").id("2").reuse(true));
+        assertThat(doc2.rootDoc().getFieldable("name"), sameInstance(name));
+        assertThat(name.stringValue(), equalTo("banon"));
+
+        // documents not parsed for reuse are left alone
+        ParsedDocument doc3 = docMapper.parse(SourceToParse.source(XContentFactory.jsonBuilder().startObject()
+                .field("name", "other")
+                .endObject().copiedBytes()).type("type").id("3"));
+        assertThat(doc3.reused(), equalTo(false));
+        doc3.release();
+        assertThat(doc3.rootDoc().get("name"), equalTo("other"));
+    }
+}
@@ -19,6 +19,10 @@
 
 package org.elasticsearch.test.unit.index.mapper.source;
 
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.compress.deflate.DeflateCompressor;
+import org.elasticsearch.common.compress.lz4.LZ4Compressor;
 import org.elasticsearch.common.compress.lzf.LZF;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.index.mapper.DocumentMapper;
@@ -28,6 +32,7 @@ import org.testng.annotations.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
 
 /**
  *
@@ -90,4 +95,71 @@ public class CompressSourceMappingTests {
 
         assertThat(LZF.isCompressed(doc.rootDoc().getBinaryValue("_source")), equalTo(true));
     }
+
+    @Test
+    public void testCompressDeflate() throws Exception {
+        String mapping = XContentFactory.jsonBuilder().startObject().startObject("type")
+                .startObject("_source").field("compress_type", "deflate").endObject()
+                .endObject().endObject().string();
+
+        DocumentMapper documentMapper = MapperTests.newParser().parse(mapping);
+
+        byte[] source = XContentFactory.jsonBuilder().startObject()
+                .field("@timestamp", "2012-05-14T10:23:11.123Z")
+                .field("@message", "GET /api/v1/users/1234 200")
+                .field("level", "INFO")
+                .endObject().copiedBytes();
+        ParsedDocument doc = documentMapper.parse("type", "1", source);
+
+        byte[] stored = doc.rootDoc().getBinaryValue("_source");
+        assertThat(LZF.isCompressed(stored), equalTo(false));
+        assertThat(CompressorFactory.compressor(stored), instanceOf(DeflateCompressor.class));
+        assertThat(stored.length < source.length, equalTo(true));
+        // the source kept for the translog is compressed the same way
+        assertThat(CompressorFactory.compressor(doc.source(), doc.sourceOffset(), doc.sourceLength()), instanceOf(DeflateCompressor.class));
+
+        assertThat(documentMapper.sourceMapper().value(doc.rootDoc().getFieldable("_source")), equalTo(source));
+    }
+
+    @Test
+    public void testCompressLZ4() throws Exception {
+        String mapping = XContentFactory.jsonBuilder().startObject().startObject("type")
+                .startObject("_source").field("compress_type", "lz4").endObject()
+                .endObject().endObject().string();
+
+        DocumentMapper documentMapper = MapperTests.newParser().parse(mapping);
+
+        byte[] source = XContentFactory.jsonBuilder().startObject()
+                .field("field1", "value1 xxxxxxxxxxxxxx yyyyyyyyyyyyyyyyyyy zzzzzzzzzzzzzzzzz")
+                .field("field2", "value2 xxxxxxxxxxxxxx yyyyyyyyyyyyyyyyyyy zzzzzzzzzzzzzzzzz")
+                .endObject().copiedBytes();
+        ParsedDocument doc = documentMapper.parse("type", "1", source);
+
+        byte[] stored = doc.rootDoc().getBinaryValue("_source");
+        assertThat(CompressorFactory.compressor(stored), instanceOf(LZ4Compressor.class));
+        assertThat(documentMapper.sourceMapper().value(doc.rootDoc().getFieldable("_source")), equalTo(source));
+    }
+
+    @Test
+    public void testCompressIgnoresDefaultCompressor() throws Exception {
+        String mapping = XContentFactory.jsonBuilder().startObject().startObject("type")
+                .startObject("_source").field("compress", true).endObject()
+                .endObject().endObject().string();
+
+        DocumentMapper documentMapper = MapperTests.newParser().parse(mapping);
+
+        Compressor defaultCompressor = CompressorFactory.defaultCompressor();
+        CompressorFactory.setDefaultCompressor(CompressorFactory.compressor(LZ4Compressor.TYPE));
+        try {
+            ParsedDocument doc = documentMapper.parse("type", "1", XContentFactory.jsonBuilder().startObject()
+                    .field("field1", "value1")
+                    .field("field2", "value2")
+                    .endObject().copiedBytes());
+
+            // changing the (transport) default compressor does not change how sources are stored
+            assertThat(LZF.isCompressed(doc.rootDoc().getBinaryValue("_source")), equalTo(true));
+        } finally {
+            CompressorFactory.setDefaultCompressor(defaultCompressor);
+        }
+    }
 }
@@ -0,0 +1,89 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.index.merge;
+
+import org.elasticsearch.index.merge.scheduler.IndexingThrottle;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+/**
+ *
+ */
+@Test
+public class IndexingThrottleTests {
+
+    @Test
+    public void testNotActive() {
+        IndexingThrottle throttle = new IndexingThrottle();
+        assertThat(throttle.isActive(), equalTo(false));
+        assertThat(throttle.acquire(), equalTo(false));
+        assertThat(throttle.acquire(), equalTo(false));
+        assertThat(throttle.throttledTimeInNanos(), equalTo(0l));
+    }
+
+    @Test
+    public void testActivation() {
+        IndexingThrottle throttle = new IndexingThrottle();
+        assertThat(throttle.activate(), equalTo(true));
+        assertThat(throttle.activate(), equalTo(false));
+        assertThat(throttle.isActive(), equalTo(true));
+        assertThat(throttle.deactivate(), equalTo(true));
+        assertThat(throttle.deactivate(), equalTo(false));
+        assertThat(throttle.isActive(), equalTo(false));
+    }
+
+    @Test
+    public void testOneOperationAtATime() throws Exception {
+        final IndexingThrottle throttle = new IndexingThrottle();
+        throttle.activate();
+        assertThat(throttle.acquire(), equalTo(true));
+
+        final AtomicBoolean acquired = new AtomicBoolean();
+        final CountDownLatch done = new CountDownLatch(1);
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                acquired.set(throttle.acquire());
+                throttle.release();
+                done.countDown();
+            }
+        };
+        thread.start();
+        // the second operation waits for the first one to be done
+        assertThat(done.await(100, TimeUnit.MILLISECONDS), equalTo(false));
+        // deactivating does not let it through, the first operation still holds the throttle
+        throttle.deactivate();
+        assertThat(done.await(100, TimeUnit.MILLISECONDS), equalTo(false));
+
+        throttle.release();
+        assertThat(done.await(10, TimeUnit.SECONDS), equalTo(true));
+        assertThat(acquired.get(), equalTo(true));
+        assertThat(throttle.throttledTimeInNanos(), greaterThan(TimeUnit.MILLISECONDS.toNanos(100)));
+        // no longer active
+        assertThat(throttle.acquire(), equalTo(false));
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.test.unit.index.merge;
+
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.index.merge.MergeStats;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ *
+ */
+@Test
+public class MergeStatsTests {
+
+    @Test
+    public void testStreaming() throws Exception {
+        MergeStats stats = new MergeStats();
+        stats.add(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11);
+        stats.add(1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        stats.writeTo(out);
+        MergeStats read = MergeStats.readMergeStats(new BytesStreamInput(out.copiedByteArray(), false));
+
+        assertThat(read.total(), equalTo(2l));
+        assertThat(read.totalTimeInMillis(), equalTo(3l));
+        assertThat(read.totalNumDocs(), equalTo(4l));
+        assertThat(read.totalSizeInBytes(), equalTo(5l));
+        assertThat(read.current(), equalTo(6l));
+        assertThat(read.currentNumDocs(), equalTo(7l));
+        assertThat(read.currentSizeInBytes(), equalTo(8l));
+        assertThat(read.backlog(), equalTo(9l));
+        assertThat(read.totalThrottledTimeInMillis(), equalTo(10l));
+        assertThat(read.totalStalledTimeInMillis(), equalTo(11l));
+        assertThat(read.totalIndexingThrottledTimeInMillis(), equalTo(12l));
+    }
+}
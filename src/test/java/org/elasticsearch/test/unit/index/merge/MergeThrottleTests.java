@@ -0,0 +1,164 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.test.unit.index.merge;
+
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LogDocMergePolicy;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.merge.scheduler.ConcurrentMergeSchedulerProvider;
+import org.elasticsearch.index.merge.scheduler.MergeThrottle;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.store.DirectoryService;
+import org.elasticsearch.index.store.Store;
+import org.elasticsearch.indices.merge.IndicesMergeThrottle;
+import org.elasticsearch.node.settings.NodeSettingsService;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.elasticsearch.common.lucene.DocumentBuilder.doc;
+import static org.elasticsearch.common.lucene.DocumentBuilder.field;
+import static org.elasticsearch.common.settings.ImmutableSettings.Builder.EMPTY_SETTINGS;
+import static org.elasticsearch.common.settings.ImmutableSettings.settingsBuilder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ *
+ */
+@Test
+public class MergeThrottleTests {
+
+    @Test
+    public void testNotThrottledByDefault() {
+        IndicesMergeThrottle indicesMergeThrottle = new IndicesMergeThrottle(EMPTY_SETTINGS, new NodeSettingsService(EMPTY_SETTINGS));
+        assertThat(indicesMergeThrottle.rateLimiter(), nullValue());
+        assertThat(indicesMergeThrottle.shouldThrottle(Long.MAX_VALUE), equalTo(false));
+    }
+
+    @Test
+    public void testOnlyMergeOutputsAreThrottled() throws Exception {
+        Settings settings = settingsBuilder()
+                .put("indices.merge.throttle.max_bytes_per_sec", "1mb")
+                .put("indices.merge.throttle.small_merge_size", "0b")
+                .build();
+        ConcurrentMergeSchedulerProvider provider = newProvider(settings);
+        RecordingDirectory dir = new RecordingDirectory();
+        mergeSegments(dir, provider);
+
+        assertThat(dir.flushOutputs.isEmpty(), equalTo(false));
+        assertThat(dir.flushOutputs.containsValue(true), equalTo(false));
+        assertThat(dir.mergeOutputs.isEmpty(), equalTo(false));
+        assertThat(dir.mergeOutputs.containsValue(false), equalTo(false));
+        // the merged segments are a few hundred kb, written through the store at 1mb/sec
+        assertThat(provider.stats().totalThrottledTimeInMillis(), greaterThan(0l));
+        // nothing is left on the test thread
+        assertThat(MergeThrottle.current(), nullValue());
+    }
+
+    @Test
+    public void testSmallMergesAreNotThrottled() throws Exception {
+        Settings settings = settingsBuilder()
+                .put("indices.merge.throttle.max_bytes_per_sec", "1mb")
+                .put("indices.merge.throttle.small_merge_size", "1gb")
+                .build();
+        ConcurrentMergeSchedulerProvider provider = newProvider(settings);
+        RecordingDirectory dir = new RecordingDirectory();
+        mergeSegments(dir, provider);
+
+        assertThat(dir.mergeOutputs.isEmpty(), equalTo(false));
+        assertThat(dir.mergeOutputs.containsValue(true), equalTo(false));
+        assertThat(dir.flushOutputs.containsValue(true), equalTo(false));
+        assertThat(provider.stats().totalThrottledTimeInMillis(), equalTo(0l));
+    }
+
+    private static ConcurrentMergeSchedulerProvider newProvider(Settings settings) {
+        IndicesMergeThrottle indicesMergeThrottle = new IndicesMergeThrottle(settings, new NodeSettingsService(settings));
+        return new ConcurrentMergeSchedulerProvider(new ShardId(new Index("test"), 0), EMPTY_SETTINGS, indicesMergeThrottle);
+    }
+
+    /**
+     * Indexes a few segments and merges them, writing through a {@link Store} on top of the provided directory,
+     * since the store outputs are the ones pausing on the merge throttle.
+     */
+    private static void mergeSegments(final RecordingDirectory dir, ConcurrentMergeSchedulerProvider provider) throws IOException {
+        ShardId shardId = new ShardId(new Index("test"), 0);
+        Store store = new Store(shardId, EMPTY_SETTINGS, null, new DirectoryService() {
+            @Override
+            public Directory[] build() {
+                return new Directory[]{dir};
+            }
+
+            @Override
+            public void renameFile(Directory dir, String from, String to) throws IOException {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void fullDelete(Directory dir) {
+            }
+        });
+        IndexWriterConfig config = new IndexWriterConfig(Lucene.VERSION, Lucene.STANDARD_ANALYZER)
+                .setMergeScheduler(provider.newMergeScheduler())
+                .setMergePolicy(new LogDocMergePolicy());
+        IndexWriter indexWriter = new IndexWriter(store.directory(), config);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            text.append("value").append(i).append(' ');
+        }
+        for (int segment = 0; segment < 4; segment++) {
+            for (int i = 0; i < 200; i++) {
+                indexWriter.addDocument(doc().add(field("_id", segment + "_" + i)).add(field("text", text.toString())).build());
+            }
+            indexWriter.commit();
+        }
+        indexWriter.forceMerge(1);
+        indexWriter.close();
+        store.close();
+    }
+
+    /**
+     * Records, for each output created, if a merge throttle was set on the thread creating it.
+     */
+    static class RecordingDirectory extends RAMDirectory {
+
+        final Map<String, Boolean> mergeOutputs = new ConcurrentHashMap<String, Boolean>();
+
+        final Map<String, Boolean> flushOutputs = new ConcurrentHashMap<String, Boolean>();
+
+        @Override
+        public IndexOutput createOutput(String name) throws IOException {
+            boolean throttled = MergeThrottle.current() != null;
+            if (Thread.currentThread().getName().contains("Merge Thread")) {
+                mergeOutputs.put(name, throttled);
+            } else {
+                flushOutputs.put(name, throttled);
+            }
+            return super.createOutput(name);
+        }
+    }
+}
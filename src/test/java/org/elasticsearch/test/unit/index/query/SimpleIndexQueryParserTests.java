@@ -58,7 +58,9 @@ import org.testng.annotations.Test;
 
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.elasticsearch.common.io.Streams.copyToBytesFromClasspath;
 import static org.elasticsearch.common.io.Streams.copyToStringFromClasspath;
@@ -1449,6 +1451,20 @@ public class SimpleIndexQueryParserTests {
         assertThat(mltQuery.getMaxQueryTerms(), equalTo(12));
     }
 
+    @Test
+    public void testMoreLikeThisFieldLikeTermsBuilder() throws Exception {
+        IndexQueryParserService queryParser = queryParser();
+        Map<String, Integer> likeTerms = new HashMap<String, Integer>();
+        likeTerms.put("something", 2);
+        Query parsedQuery = queryParser.parse(moreLikeThisFieldQuery("name.first").likeTerms(likeTerms).minTermFreq(1)).query();
+        assertThat(parsedQuery, instanceOf(MoreLikeThisQuery.class));
+        MoreLikeThisQuery mltQuery = (MoreLikeThisQuery) parsedQuery;
+        assertThat(mltQuery.getMoreLikeFields()[0], equalTo("name.first"));
+        assertThat(mltQuery.getLikeText(), nullValue());
+        assertThat(mltQuery.getLikeTerms().length, equalTo(1));
+        assertThat(mltQuery.getLikeTerms()[0], equalTo("something"));
+    }
+
     @Test
     public void testMoreLikeThisField() throws Exception {
         IndexQueryParserService queryParser = queryParser();
@@ -23,8 +23,11 @@ import org.elasticsearch.common.unit.DistanceUnit;
 import org.elasticsearch.index.search.geo.GeoDistance;
 import org.testng.annotations.Test;
 
+import java.util.Random;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
 
 /**
  */
@@ -49,4 +52,28 @@ public class GeoDistanceTests {
         //System.out.println("Dist: " + GeoDistance.ARC.calculate(0, 179, 0, -178, DistanceUnit.MILES));
         assertThat(check.isWithin(0, -178), equalTo(false));
     }
+
+    @Test
+    public void testSloppyArcDistance() {
+        assertThat(GeoDistance.fromString("sloppy_arc"), equalTo(GeoDistance.SLOPPY_ARC));
+
+        Random random = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            double sourceLat = random.nextDouble() * 180 - 90;
+            double sourceLon = random.nextDouble() * 360 - 180;
+            // mostly short distances, some across the globe
+            double range = (i % 10 == 0) ? 90 : 1;
+            double targetLat = Math.max(-90, Math.min(90, sourceLat + (random.nextDouble() * 2 - 1) * range));
+            double targetLon = sourceLon + (random.nextDouble() * 2 - 1) * range;
+
+            double arc = GeoDistance.ARC.calculate(sourceLat, sourceLon, targetLat, targetLon, DistanceUnit.KILOMETERS);
+            double sloppy = GeoDistance.SLOPPY_ARC.calculate(sourceLat, sourceLon, targetLat, targetLon, DistanceUnit.KILOMETERS);
+            double fixed = GeoDistance.SLOPPY_ARC.fixedSourceDistance(sourceLat, sourceLon, DistanceUnit.KILOMETERS).calculate(targetLat, targetLon);
+            // ARC itself loses precision on very short distances (acos close to 1)
+            if (arc > 1) {
+                assertThat(Math.abs(sloppy - arc) / arc, lessThan(0.001));
+            }
+            assertThat(Math.abs(fixed - sloppy), lessThan(0.000001));
+        }
+    }
 }
@@ -22,7 +22,10 @@ package org.elasticsearch.test.unit.index.search.geo;
 import org.elasticsearch.index.search.geo.GeoHashUtils;
 import org.testng.annotations.Test;
 
+import java.util.List;
+
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 /**
  *
@@ -90,4 +93,41 @@ public class GeoHashUtilsTests {
         assertEquals(decode[0], GeoHashUtils.decode(geoHash)[0], 0.000001d);
         assertEquals(decode[1], GeoHashUtils.decode(geoHash)[1], 0.000001d);
     }
+
+    @Test
+    public void testDecodeCell() {
+        double[] bounds = GeoHashUtils.decodeCell("u173");
+        assertTrue(bounds[0] <= 52.3738007 && 52.3738007 <= bounds[2]);
+        assertTrue(bounds[1] <= 4.8909347 && 4.8909347 <= bounds[3]);
+        // 4 chars -> 20 bits, 10 for lat and 10 for lon
+        assertEquals(bounds[2] - bounds[0], 180.0 / 1024, 0.0000001d);
+        assertEquals(bounds[3] - bounds[1], 360.0 / 1024, 0.0000001d);
+    }
+
+    @Test
+    public void testCover() {
+        List<String> cells = GeoHashUtils.cover(52.3, 4.8, 52.4, 4.9, GeoHashUtils.PRECISION, 64);
+        assertTrue(cells.size() <= 64);
+        int level = cells.get(0).length();
+        for (String cell : cells) {
+            assertEquals(cell.length(), level);
+        }
+        // points within the box must fall into one of the cells
+        for (double lat = 52.3; lat <= 52.4; lat += 0.01) {
+            for (double lon = 4.8; lon <= 4.9; lon += 0.01) {
+                assertTrue(cells.contains(GeoHashUtils.encode(lat, lon, level)));
+            }
+        }
+        // a finer level would need more than the allowed cells
+        assertTrue(GeoHashUtils.cover(52.3, 4.8, 52.4, 4.9, level + 1, Integer.MAX_VALUE).size() > 64);
+    }
+
+    @Test
+    public void testCoverCrossingDateline() {
+        List<String> cells = GeoHashUtils.cover(-10, 170, 10, -170, GeoHashUtils.PRECISION, 64);
+        int level = cells.get(0).length();
+        assertTrue(cells.contains(GeoHashUtils.encode(0, 175, level)));
+        assertTrue(cells.contains(GeoHashUtils.encode(0, -175, level)));
+        assertTrue(!cells.contains(GeoHashUtils.encode(0, 0, level)));
+    }
 }
@@ -0,0 +1,70 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.test.unit.index.translog;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.settings.IndexSettingsService;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.translog.TranslogService;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.testng.annotations.Test;
+
+import static org.elasticsearch.common.settings.ImmutableSettings.settingsBuilder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ *
+ */
+@Test
+public class TranslogServiceTests {
+
+    @Test
+    public void testFlushThresholdSizeFollowsIndexingBuffer() {
+        Settings settings = settingsBuilder()
+                .put("index.translog.flush_threshold_size", "200mb")
+                // don't let the scheduled flush check run, there is no shard or translog here
+                .put("index.translog.interval", "1h")
+                .build();
+        ThreadPool threadPool = new ThreadPool();
+        IndexSettingsService indexSettingsService = new IndexSettingsService(new Index("test"), settings);
+        TranslogService translogService = new TranslogService(new ShardId("test", 0), settings, indexSettingsService, threadPool, null, null);
+        try {
+            assertThat(translogService.flushThresholdSize().bytes(), equalTo(new ByteSizeValue(200, ByteSizeUnit.MB).bytes()));
+
+            // a bigger indexing buffer is let to fill before flushing
+            translogService.updateIndexingBufferSize(new ByteSizeValue(512, ByteSizeUnit.MB));
+            assertThat(translogService.flushThresholdSize().bytes(), equalTo(new ByteSizeValue(512, ByteSizeUnit.MB).bytes()));
+
+            // shrinking the indexing buffer goes back to the configured threshold
+            translogService.updateIndexingBufferSize(new ByteSizeValue(64, ByteSizeUnit.MB));
+            assertThat(translogService.flushThresholdSize().bytes(), equalTo(new ByteSizeValue(200, ByteSizeUnit.MB).bytes()));
+
+            // and a dynamic update of the threshold still applies
+            indexSettingsService.refreshSettings(settingsBuilder().put(settings).put("index.translog.flush_threshold_size", "1gb").build());
+            assertThat(translogService.flushThresholdSize().bytes(), equalTo(new ByteSizeValue(1, ByteSizeUnit.GB).bytes()));
+        } finally {
+            translogService.close();
+            threadPool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.test.unit.indices.memory;
+
+import org.testng.annotations.Test;
+
+import static org.elasticsearch.indices.memory.IndexingMemoryController.splitIndexingBuffer;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ *
+ */
+@Test
+public class IndexingMemoryControllerTests {
+
+    @Test
+    public void testSplitByRate() {
+        // each shard gets 10, the remaining 70 is split by rate
+        long[] buffers = splitIndexingBuffer(100, 10, 1000, new double[]{1, 0, 6});
+        assertThat(buffers[0], equalTo(20l));
+        assertThat(buffers[1], equalTo(10l));
+        assertThat(buffers[2], equalTo(70l));
+        assertThat(buffers[0] + buffers[1] + buffers[2], lessThanOrEqualTo(100l));
+    }
+
+    @Test
+    public void testSplitEquallyWithNoIndexing() {
+        long[] buffers = splitIndexingBuffer(100, 10, 1000, new double[]{0, 0, 0, 0});
+        for (long buffer : buffers) {
+            assertThat(buffer, equalTo(25l));
+        }
+    }
+
+    @Test
+    public void testMaxShardBuffer() {
+        long[] buffers = splitIndexingBuffer(100, 10, 30, new double[]{0, 10});
+        assertThat(buffers[0], equalTo(10l));
+        assertThat(buffers[1], equalTo(30l));
+    }
+
+    @Test
+    public void testMinShardBuffer() {
+        // the buffer can't satisfy the min for all the shards, they still get the min
+        long[] buffers = splitIndexingBuffer(100, 40, 1000, new double[]{1, 1, 1, 1});
+        for (long buffer : buffers) {
+            assertThat(buffer, equalTo(40l));
+        }
+        // a shard with no indexing gets the min, even if the others get more
+        buffers = splitIndexingBuffer(100, 20, 1000, new double[]{0, 3});
+        assertThat(buffers[0], equalTo(20l));
+        assertThat(buffers[1], equalTo(80l));
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.script;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.script.ScriptException;
+import org.elasticsearch.script.ScriptService;
+import org.elasticsearch.script.expression.Expression;
+import org.elasticsearch.script.expression.ExpressionParser;
+import org.elasticsearch.script.expression.ExpressionScriptEngineService;
+import org.elasticsearch.search.lookup.SearchLookup;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ *
+ */
+public class ExpressionScriptTests {
+
+    @Test
+    public void testArithmetic() {
+        ScriptService scriptService = new ScriptService(ImmutableSettings.Builder.EMPTY_SETTINGS);
+        assertThat((Double) scriptService.executable("expression", "1 + 2 * 3", null).run(), equalTo(7d));
+        assertThat((Double) scriptService.executable("expression", "(1 + 2) * 3", null).run(), equalTo(9d));
+        assertThat((Double) scriptService.executable("expression", "-2 - -3", null).run(), equalTo(1d));
+        assertThat((Double) scriptService.executable("expression", "7 % 4 / 2", null).run(), equalTo(1.5d));
+        assertThat((Double) scriptService.executable("expression", "1.5e2 + 2f", null).run(), equalTo(152d));
+        scriptService.close();
+    }
+
+    @Test
+    public void testFunctionsAndParams() {
+        ScriptService scriptService = new ScriptService(ImmutableSettings.Builder.EMPTY_SETTINGS);
+        assertThat((Double) scriptService.executable("expression", "Math.log(x) + sqrt(y)", ImmutableMap.<String, Object>of("x", Math.E, "y", 16)).run(), closeTo(5d, 0.000001));
+        assertThat((Double) scriptService.executable("expression", "max(x, 3) * pow(2, 3)", ImmutableMap.<String, Object>of("x", 1)).run(), equalTo(24d));
+        scriptService.close();
+    }
+
+    @Test
+    public void testScoreIsNotKeptAcrossDocs() {
+        final float[] scorerScore = new float[1];
+        Scorer scorer = new Scorer((Weight) null) {
+            @Override
+            public float score() {
+                return scorerScore[0];
+            }
+
+            @Override
+            public int docID() {
+                return 0;
+            }
+
+            @Override
+            public int nextDoc() {
+                return NO_MORE_DOCS;
+            }
+
+            @Override
+            public int advance(int target) {
+                return NO_MORE_DOCS;
+            }
+        };
+        ExpressionScriptEngineService.ExpressionSearchScript script = new ExpressionScriptEngineService.ExpressionSearchScript(
+                ExpressionParser.parse("_score * 2"), new SearchLookup(null, null), null);
+        script.setScorer(scorer);
+
+        scorerScore[0] = 3;
+        script.setNextDocId(0);
+        script.setNextScore(5);
+        assertThat(script.runAsDouble(), equalTo(10d));
+
+        // no explicit score for this doc, it must come from the scorer and not from the previous doc
+        scorerScore[0] = 4;
+        script.setNextDocId(1);
+        assertThat(script.runAsDouble(), equalTo(8d));
+    }
+
+    @Test
+    public void testParseFieldsAndParams() {
+        Expression expression = ExpressionParser.parse("doc['price'].value * factor + doc.rank.value / doc['price'].longValue + _score");
+        assertThat(expression.fields(), arrayContaining("price", "rank"));
+        assertThat(expression.params(), arrayContaining("factor"));
+    }
+
+    @Test(expectedExceptions = ScriptException.class)
+    public void testUnknownFunction() {
+        ExpressionParser.parse("foo(1)");
+    }
+
+    @Test(expectedExceptions = ScriptException.class)
+    public void testWrongArity() {
+        ExpressionParser.parse("pow(1)");
+    }
+
+    @Test(expectedExceptions = ScriptException.class)
+    public void testTrailingCharacters() {
+        ExpressionParser.parse("1 + 2)");
+    }
+
+    @Test(expectedExceptions = ScriptException.class)
+    public void testMissingParam() {
+        ScriptService scriptService = new ScriptService(ImmutableSettings.Builder.EMPTY_SETTINGS);
+        try {
+            scriptService.executable("expression", "x + 1", null);
+        } finally {
+            scriptService.close();
+        }
+    }
+}
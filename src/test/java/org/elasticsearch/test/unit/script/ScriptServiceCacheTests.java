@@ -0,0 +1,67 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.script;
+
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.script.ScriptService;
+import org.elasticsearch.script.ScriptStats;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ *
+ */
+public class ScriptServiceCacheTests {
+
+    @Test
+    public void testCacheHitsAndCompilations() {
+        ScriptService scriptService = new ScriptService(ImmutableSettings.Builder.EMPTY_SETTINGS);
+
+        scriptService.compile("mvel", "1 + 1");
+        scriptService.compile("mvel", "1 + 1");
+        scriptService.compile("mvel", "1 + 2");
+
+        ScriptStats stats = scriptService.stats();
+        assertThat(stats.compilations(), equalTo(2l));
+        assertThat(stats.cacheHits(), equalTo(1l));
+        assertThat(stats.cacheEvictions(), equalTo(0l));
+        assertThat(stats.cacheSize(), equalTo(2l));
+
+        scriptService.close();
+    }
+
+    @Test
+    public void testBoundedCacheEvicts() {
+        ScriptService scriptService = new ScriptService(ImmutableSettings.settingsBuilder().put("script.cache.max_size", 0).build());
+
+        scriptService.compile("mvel", "1 + 1");
+        scriptService.compile("mvel", "1 + 1");
+
+        ScriptStats stats = scriptService.stats();
+        assertThat(stats.compilations(), equalTo(2l));
+        assertThat(stats.cacheHits(), equalTo(0l));
+        assertThat(stats.cacheEvictions(), equalTo(2l));
+        assertThat(stats.cacheSize(), equalTo(0l));
+
+        scriptService.close();
+    }
+}
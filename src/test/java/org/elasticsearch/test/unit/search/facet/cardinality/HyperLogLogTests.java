@@ -0,0 +1,89 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.search.facet.cardinality;
+
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.search.facet.cardinality.HyperLogLog;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ *
+ */
+public class HyperLogLogTests {
+
+    @Test
+    public void testSmallCardinalityIsExact() {
+        HyperLogLog sketch = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+        assertThat(sketch.cardinality(), equalTo(0l));
+        byte[] scratch = new byte[8];
+        for (int i = 0; i < 100; i++) {
+            sketch.offer(i % 10, scratch);
+        }
+        assertThat(sketch.cardinality(), equalTo(10l));
+    }
+
+    @Test
+    public void testMergeAndSerialize() throws Exception {
+        byte[] scratch = new byte[8];
+        int size = 200000;
+        for (int precision : new int[]{HyperLogLog.MIN_PRECISION, 10, HyperLogLog.DEFAULT_PRECISION}) {
+            HyperLogLog sketch1 = new HyperLogLog(precision);
+            HyperLogLog sketch2 = new HyperLogLog(precision);
+            for (int i = 0; i < size; i++) {
+                // overlapping halves
+                if (i < size * 3 / 4) {
+                    sketch1.offer(i, scratch);
+                }
+                if (i >= size / 4) {
+                    sketch2.offer(i, scratch);
+                }
+            }
+
+            BytesStreamOutput out = new BytesStreamOutput();
+            sketch2.writeTo(out);
+            HyperLogLog read = HyperLogLog.readFrom(new BytesStreamInput(out.copiedByteArray(), false));
+            assertThat(read.precision(), equalTo(precision));
+            assertThat(read.cardinality(), equalTo(sketch2.cardinality()));
+
+            sketch1.merge(read);
+            // allow for 4 standard errors
+            double error = 4 * 1.04 / Math.sqrt(1 << precision);
+            assertThat((double) sketch1.cardinality(), closeTo(size, size * error));
+        }
+    }
+
+    @Test
+    public void testSparseSerialization() throws Exception {
+        HyperLogLog sketch = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+        byte[] scratch = new byte[8];
+        for (int i = 0; i < 50; i++) {
+            sketch.offer(i, scratch);
+        }
+        BytesStreamOutput out = new BytesStreamOutput();
+        sketch.writeTo(out);
+        assertThat(out.size(), lessThan(200));
+        HyperLogLog read = HyperLogLog.readFrom(new BytesStreamInput(out.copiedByteArray(), false));
+        assertThat(read.cardinality(), equalTo(sketch.cardinality()));
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.search.facet.datehistogram;
+
+import gnu.trove.map.hash.TLongLongHashMap;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.NumericField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.common.joda.TimeZoneRounding;
+import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.trove.ExtTLongObjectHashMap;
+import org.elasticsearch.index.field.data.NumericFieldData;
+import org.elasticsearch.index.field.data.longs.LongFieldData;
+import org.elasticsearch.search.facet.datehistogram.CountDateHistogramFacetCollector;
+import org.elasticsearch.search.facet.datehistogram.InternalFullDateHistogramFacet;
+import org.elasticsearch.search.facet.datehistogram.ValueDateHistogramFacetCollector;
+import org.joda.time.DateTimeZone;
+import org.joda.time.chrono.ISOChronology;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Checks the date histogram procs give the same counts and totals as rounding each value, when they
+ * switch to the per ordinal path in the middle of a segment, and when they don't switch at all.
+ */
+@Test
+public class DateHistogramProcTests {
+
+    private Directory dir;
+
+    private IndexReader reader;
+
+    @BeforeClass
+    public void createIndex() throws Exception {
+        dir = new RAMDirectory();
+        IndexWriter indexWriter = new IndexWriter(dir, new IndexWriterConfig(Lucene.VERSION, Lucene.STANDARD_ANALYZER).setMergePolicy(NoMergePolicy.COMPOUND_FILES));
+        Random random = new Random(0);
+        // around the 2012 US DST switch (March 11th), on minutes so some values repeat across docs
+        long base = 1331164800000l;
+        for (int segment = 0; segment < 3; segment++) {
+            for (int i = 0; i < 800; i++) {
+                Document doc = new Document();
+                int numValues = random.nextInt(4); // some docs have no date at all
+                for (int j = 0; j < numValues; j++) {
+                    doc.add(new NumericField("date").setLongValue(base + random.nextInt(10 * 24 * 60) * 60000l));
+                }
+                doc.add(new NumericField("num").setLongValue(random.nextInt(1000)));
+                if (random.nextBoolean()) {
+                    doc.add(new NumericField("num").setLongValue(random.nextInt(1000)));
+                }
+                indexWriter.addDocument(doc);
+            }
+            indexWriter.commit();
+        }
+        reader = IndexReader.open(indexWriter, true);
+        indexWriter.close();
+        assertThat(reader.getSequentialSubReaders().length, equalTo(3));
+    }
+
+    @AfterClass
+    public void closeIndex() throws Exception {
+        reader.close();
+        dir.close();
+    }
+
+    public void testCountProcDayInTimeZone() throws Exception {
+        assertCounts(TimeZoneRounding.builder(ISOChronology.getInstanceUTC().dayOfMonth()).preZone(DateTimeZone.forID("America/New_York")).build());
+    }
+
+    public void testCountProcHourInTimeZone() throws Exception {
+        assertCounts(TimeZoneRounding.builder(ISOChronology.getInstanceUTC().hourOfDay()).preZone(DateTimeZone.forID("America/New_York")).build());
+    }
+
+    public void testValueProcDayInTimeZone() throws Exception {
+        assertEntries(TimeZoneRounding.builder(ISOChronology.getInstanceUTC().dayOfMonth()).preZone(DateTimeZone.forID("America/New_York")).build());
+    }
+
+    public void testValueProcHourInTimeZone() throws Exception {
+        assertEntries(TimeZoneRounding.builder(ISOChronology.getInstanceUTC().hourOfDay()).preZone(DateTimeZone.forID("America/New_York")).build());
+    }
+
+    /**
+     * All the docs of the first and last segments are collected, which is well over 1/16th of their
+     * distinct values, so the procs switch mid segment. Only a few docs of the middle segment are, so
+     * that one is only collected through the direct path.
+     */
+    private static boolean collect(int segment, int doc) {
+        return segment != 1 || doc % 50 == 0;
+    }
+
+    private void assertCounts(final TimeZoneRounding tzRounding) throws Exception {
+        CountDateHistogramFacetCollector.DateHistogramProc histoProc = new CountDateHistogramFacetCollector.DateHistogramProc(tzRounding);
+        final TLongLongHashMap expected = new TLongLongHashMap();
+        IndexReader[] subReaders = reader.getSequentialSubReaders();
+        for (int segment = 0; segment < subReaders.length; segment++) {
+            LongFieldData fieldData = LongFieldData.load(subReaders[segment], "date");
+            assertThat(fieldData.multiValued(), equalTo(true));
+            histoProc.setNextFieldData(fieldData);
+            for (int doc = 0; doc < subReaders[segment].maxDoc(); doc++) {
+                if (!collect(segment, doc)) {
+                    continue;
+                }
+                histoProc.collect(fieldData, doc);
+                fieldData.forEachValueInDoc(doc, new NumericFieldData.LongValueInDocProc() {
+                    @Override
+                    public void onValue(int docId, long value) {
+                        expected.adjustOrPutValue(tzRounding.calc(value), 1, 1);
+                    }
+                });
+            }
+        }
+
+        TLongLongHashMap counts = histoProc.counts();
+        assertThat(expected.size(), equalTo(counts.size()));
+        for (long key : expected.keys()) {
+            assertThat("count for [" + key + "]", counts.get(key), equalTo(expected.get(key)));
+        }
+    }
+
+    private void assertEntries(final TimeZoneRounding tzRounding) throws Exception {
+        ValueDateHistogramFacetCollector.DateHistogramProc histoProc = new ValueDateHistogramFacetCollector.DateHistogramProc(tzRounding);
+        final ExtTLongObjectHashMap<InternalFullDateHistogramFacet.FullEntry> expected = new ExtTLongObjectHashMap<InternalFullDateHistogramFacet.FullEntry>();
+        IndexReader[] subReaders = reader.getSequentialSubReaders();
+        for (int segment = 0; segment < subReaders.length; segment++) {
+            LongFieldData keyFieldData = LongFieldData.load(subReaders[segment], "date");
+            final LongFieldData valueFieldData = LongFieldData.load(subReaders[segment], "num");
+            histoProc.setNextFieldData(keyFieldData);
+            histoProc.setNextValueFieldData(valueFieldData);
+            for (int doc = 0; doc < subReaders[segment].maxDoc(); doc++) {
+                if (!collect(segment, doc)) {
+                    continue;
+                }
+                histoProc.collect(keyFieldData, doc);
+                keyFieldData.forEachValueInDoc(doc, new NumericFieldData.LongValueInDocProc() {
+                    @Override
+                    public void onValue(int docId, long value) {
+                        long time = tzRounding.calc(value);
+                        InternalFullDateHistogramFacet.FullEntry entry = expected.get(time);
+                        if (entry == null) {
+                            entry = new InternalFullDateHistogramFacet.FullEntry(time, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 0, 0);
+                        }
+                        final long[] stats = new long[]{entry.count() + 1, entry.totalCount()};
+                        final double[] values = new double[]{entry.total(), entry.min(), entry.max()};
+                        valueFieldData.forEachValueInDoc(docId, new NumericFieldData.DoubleValueInDocProc() {
+                            @Override
+                            public void onValue(int valueDocId, double value) {
+                                stats[1]++;
+                                values[0] += value;
+                                values[1] = Math.min(values[1], value);
+                                values[2] = Math.max(values[2], value);
+                            }
+                        });
+                        expected.put(time, new InternalFullDateHistogramFacet.FullEntry(time, stats[0], values[1], values[2], stats[1], values[0]));
+                    }
+                });
+            }
+        }
+
+        ExtTLongObjectHashMap<InternalFullDateHistogramFacet.FullEntry> entries = histoProc.entries();
+        assertThat(expected.size(), equalTo(entries.size()));
+        for (InternalFullDateHistogramFacet.FullEntry expectedEntry : expected.valueCollection()) {
+            InternalFullDateHistogramFacet.FullEntry entry = entries.get(expectedEntry.time());
+            assertThat("entry for [" + expectedEntry.time() + "]", entry != null, equalTo(true));
+            assertThat(entry.count(), equalTo(expectedEntry.count()));
+            assertThat(entry.totalCount(), equalTo(expectedEntry.totalCount()));
+            assertThat(entry.total(), equalTo(expectedEntry.total()));
+            assertThat(entry.min(), equalTo(expectedEntry.min()));
+            assertThat(entry.max(), equalTo(expectedEntry.max()));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.search.facet.percentiles;
+
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.search.facet.percentiles.TDigest;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ *
+ */
+public class TDigestTests {
+
+    @Test
+    public void testEmpty() {
+        TDigest digest = new TDigest(TDigest.DEFAULT_COMPRESSION);
+        assertThat(digest.count(), equalTo(0l));
+        assertThat(Double.isNaN(digest.quantile(0.5)), equalTo(true));
+    }
+
+    @Test
+    public void testSmall() {
+        TDigest digest = new TDigest(TDigest.DEFAULT_COMPRESSION);
+        digest.add(1);
+        digest.add(2);
+        digest.add(3);
+        digest.add(4);
+        assertThat(digest.count(), equalTo(4l));
+        assertThat(digest.quantile(0), equalTo(1d));
+        assertThat(digest.quantile(0.5), equalTo(2.5d));
+        assertThat(digest.quantile(1), equalTo(4d));
+    }
+
+    @Test
+    public void testMergeAndSerialize() throws Exception {
+        Random random = new Random(42);
+        int size = 100000;
+        double[] values = new double[size];
+        TDigest[] digests = new TDigest[]{new TDigest(TDigest.DEFAULT_COMPRESSION), new TDigest(TDigest.DEFAULT_COMPRESSION), new TDigest(TDigest.DEFAULT_COMPRESSION)};
+        for (int i = 0; i < size; i++) {
+            values[i] = Math.exp(random.nextGaussian());
+            digests[i % digests.length].add(values[i]);
+        }
+
+        TDigest merged = new TDigest(TDigest.DEFAULT_COMPRESSION);
+        for (TDigest digest : digests) {
+            BytesStreamOutput out = new BytesStreamOutput();
+            digest.writeTo(out);
+            merged.merge(TDigest.readFrom(new BytesStreamInput(out.copiedByteArray(), false)));
+        }
+        assertThat(merged.count(), equalTo((long) size));
+
+        Arrays.sort(values);
+        assertThat(merged.min(), equalTo(values[0]));
+        assertThat(merged.max(), equalTo(values[size - 1]));
+        for (double q : new double[]{0.01, 0.05, 0.25, 0.5, 0.75, 0.95, 0.99}) {
+            double expected = values[(int) (q * size)];
+            assertThat(merged.quantile(q), closeTo(expected, expected * 0.01));
+        }
+    }
+}